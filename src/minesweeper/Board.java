@@ -4,6 +4,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -19,31 +20,160 @@ public class Board {
     private static final int DEFAULT_SIZE = 10; // Default size of Board (same for length and width --> square)
     private static final int ZERO = 0;
     private static final double DIFFICULTY = 0.25; // Fraction of the board cells that are bombed
+    // Check level of Boards constructed without one: full checks when assertions are enabled (tests), else none
+    private static final CheckLevel DEFAULT_CHECK_LEVEL = 
+            Board.class.desiredAssertionStatus() ? CheckLevel.FULL : CheckLevel.OFF;
+    private static final Layout DEFAULT_LAYOUT = Layout.ROW_MAJOR; // Fastest to render, see LayoutBenchmark
+    // Cell codes: 0 to 8 for a dug cell with that many bombs around, then untouched and flagged
+    private static final byte UNTOUCHED = 9;
+    private static final byte FLAGGED = 10;
+    private static final String[] STATES = {"0", "1", "2", "3", "4", "5", "6", "7", "8", "-", "F"}; // By code
+    private static final byte[] GLYPHS = {' ', '1', '2', '3', '4', '5', '6', '7', '8', '-', 'F'}; // By code
+    private static final int TILE_BITS = 3; // Tiles of 8 x 8 cells: one 64 byte cache line each
+    private static final int TILE_MASK = (1 << TILE_BITS) - 1;
+
+    /**
+     * A dig in progress, started by startDig() and continued by continueDig(): the cells it still has
+     *  to reveal and how many it revealed so far
+     * [Confined to the thread digging: only this thread passes it to its Board]
+     */
+    public static final class Reveal {
+        private final boolean alive;
+        private final int round; // Round of the Board the dig started in
+        private int[] pending = new int[16]; // Cells x * width + y, a stack of the first size entries
+        private int size = 0;
+        private int revealed = 0;
+
+        /**
+         * @param alive False if the dug cell had a bomb
+         * @param round The round of the Board the dig starts in
+         */
+        private Reveal(boolean alive, int round) {
+            this.alive = alive;
+            this.round = round;
+        }
+
+        /**
+         * @param cell The cell x * width + y to reveal
+         */
+        private void push(int cell) {
+            if (this.size == this.pending.length){
+                this.pending = Arrays.copyOf(this.pending, this.size * 2);
+            }
+            this.pending[this.size] = cell;
+            this.size += 1;
+        }
+
+        /**
+         * @return boolean False if a bomb exploded
+         */
+        public boolean alive() {
+            return this.alive;
+        }
+
+        /**
+         * @return int The number of cells revealed so far
+         */
+        public int revealed() {
+            return this.revealed;
+        }
+
+        /**
+         * @return boolean True if no cell is left to reveal
+         */
+        public boolean done() {
+            return this.size == 0;
+        }
+    }
+
+    /**
+     * How much of the Representation Invariant checkRep() verifies, fixed when a Board is constructed
+     */
+    public enum CheckLevel {
+        /** Never check anything: for production, hot paths pay nothing */
+        OFF,
+        /** Only check the O(1) part of the invariant (sizes, not every row) */
+        CHEAP,
+        /** Check the whole invariant, every cell included, O(length x width) per check: for tests */
+        FULL
+    }
+
+    /**
+     * How the cells of a Board are laid out in memory, fixed when a Board is constructed
+     *  Whatever the layout, a Board behaves the same: only the speed of walking through its cells changes
+     */
+    public enum Layout {
+        /** Cells of a line of toString() (same y-coordinate) are contiguous: fastest rendering */
+        ROW_MAJOR,
+        /** Cells of a same x-coordinate are contiguous */
+        COLUMN_MAJOR,
+        /** Tiles of 8 x 8 cells are contiguous, one cache line each: neighbours are mostly in the same line */
+        TILED
+    }
 
     //Fields of this ADT:
     private int length = DEFAULT_SIZE;
     private int width = DEFAULT_SIZE;
-    private final String[][] board;
-    private final boolean[][] bombs;
+    private final Layout layout;
+    private final int tilesAlongLength; // Tiles along x, for the TILED layout
+    private final Storage storage;
+    private final Memory board; // Cell codes (bytes), at index(x, y)
+    private final BombMap bombs;
+    private int lastRevealed = 0; // Number of cells revealed by the last call to dig()
+    // Game status counters, maintained by every mutation so they are read in O(1):
+    private int numUntouched = 0;
+    private int numFlagged = 0;
+    private int numRevealed = 0;
+    private int numBombs = 0;
+    private final List<BoardListener> listeners = new ArrayList<>(); // Told about every cell change
+    private volatile long version = 0; // Number of cell changes so far, readable without the lock
+    // Zero-region index, over cells x * width + y: zero cells (no bomb on them nor around) are grouped
+    //  in connected components (union-find) so digging one reveals its whole component without a flood-fill
+    private final Memory zeroParent; // Parent of a zero cell in the tree of its component, -1 for other cells
+    private final Memory zeroNext; // Next zero cell of the same component, in a cycle through all of them
+    private final CheckLevel checkLevel;
+    private int round = 0; // Number of resets so far
 
     // Abstraction function:
-    // - A board of size length x width is represented as an array called board of arrays of String 
-    // - Entry board[i][j] is the State of the cell at x-coordinate i and y-coordinate j
+    // - A board of size length x width is represented as an array called board of cell codes laid out
+    //   as this.layout says
+    // - Entry index(i, j) of board is the code of the State of the cell at x-coordinate i and y-coordinate j:
+    //   STATES[code] is the State and GLYPHS[code] how toString() shows it
     // - The x and y coordinates both start at 0 where cell (0,0) is the upper-left corner cell
     // - The State of a cell can be "-" : Undug and unflagged cell
     //                              "2" : Dug, unbombed cell and contains bombs in 2 of the 8 cells around
     //                                    Number Can be any non-negative integer <= 8
     //                              "F" : Flagged cell
     // - this.length is the length of the board and this.width is the width of the board
-    // - Placement of bombs on the board are contained in bombs array
-    // - Entry bombs[i][j] gives a boolean. True means there is a bomb at cell with x-coordinate i and y-coordinate j
+    // - Placement of bombs on the board are contained in the bomb map bombs, with the number of bombs
+    //   around every cell: bombs.has(i, j) is true iff there is a bomb at cell with x-coordinate i and y-coordinate j
+    // - this.lastRevealed is the number of cells the last dig revealed (flood-fill size)
+    // - this.numUntouched, this.numFlagged and this.numRevealed are the numbers of cells in state "-", "F"
+    //   and dug respectively, this.numBombs is the number of bombs in bombs
+    // - this.listeners are told about every change of an entry of board
+    // - this.version is the number of changes of an entry of board so far: two calls to toString()
+    //   give the same result when version did not change in between
+    // - this.checkLevel is how thoroughly the invariant below is checked, it does not affect the board itself
+    // - this.storage is where board, bombs, zeroParent and zeroNext are kept, it does not affect the board
+    //   either; once this board is closed, they are released and the board is no more
+    // - this.round is the number of times the board was reset to a new round (a reset counts as one change
+    //   in version)
+    // - The zero cells of bombs (no bomb on them nor in the 8 cells around) form regions of 8-connected
+    //   zero cells: two zero cells are in the same region iff following zeroParent from them leads to the
+    //   same root, and following zeroNext from a zero cell goes through every cell of its region
 
     // Representation invariant:
     // - this.length > 0, this.width > 0
-    // - board.length == this.length
-    // - board[i].length == this.width where 0 <= i < this.length
-    // - bombs.length == this.length
-    // - bombs[i].length == this.width where 0 <= i < this.length
+    // - board holds the number of cells of the layout (length x width, rounded up to whole tiles if TILED)
+    // - 0 <= entry index(i, j) of board <= FLAGGED for every cell (i, j) of the board
+    // - A dug cell shows the number of bombs around it (not checked by checkRep())
+    // - bombs is a map of a board of size length x width whose counts are up to date
+    // - 0 <= this.lastRevealed <= this.length * this.width
+    // - numUntouched, numFlagged, numRevealed >= 0 and numUntouched + numFlagged + numRevealed == length * width
+    // - 0 <= numBombs <= length * width
+    // - zeroParent and zeroNext hold length * width ints each
+    // - Entry c of zeroParent is -1 iff c is not a zero cell (entry c of zeroNext is then meaningless)
+    //   (not checked by checkRep(): it depends on every cell, updates keep it local)
 
     // Safety from representation exposure:
     // - All fields are private and not accessible from outside this class
@@ -52,9 +182,12 @@ public class Board {
     // Thread Safety:
     // - this.length and this.width are private(never accessed by any thread) and 
     //  there is no way to mutate these values (so interleaving does not affect those)
-    // - All methods where the mutable part of the rep. is read or changed (board, bombs)
+    // - All public methods where the mutable part of the rep. is read or changed (board, bombs)
     //  are synchronized using the monitor pattern (same lock) this ensures that the Board object can only
     //  be mutated or viewed by one client at a time
+    // - version is only written with the lock held but it is volatile so version() can be read without it
+    // - Private helpers are only called from those synchronized methods so they already hold the lock
+    //  and do not need to acquire it again (they are in the flood-fill inner loop)
     // - The above statement ensures that even though the array used is not intrinsically synchronized,
     //  concurrency does not cause any problem
     // - All other variables used are confined to the method in which they are used as they need not be 
@@ -67,28 +200,105 @@ public class Board {
      * @param width The number of entries along the width of the board
      */
     public Board(int length, int width){
+        this(length, width, DEFAULT_CHECK_LEVEL);
+    }
+
+    /**
+     * Constructs a new Board object based on direct length and width inputs
+     *      length, width > 0
+     * @param length The number of entries along the length of the board
+     * @param width The number of entries along the width of the board
+     * @param checkLevel How thoroughly the Representation Invariant is checked
+     */
+    public Board(int length, int width, CheckLevel checkLevel){
+        this(length, width, new Random().nextLong(), checkLevel);
+    }
+
+    /**
+     * Constructs a new Board object whose bombs are placed from a seed
+     *  Two boards constructed with the same size and seed have their bombs at the same cells
+     *      length, width > 0
+     * @param length The number of entries along the length of the board
+     * @param width The number of entries along the width of the board
+     * @param seed The seed of the random placement of bombs
+     */
+    public Board(int length, int width, long seed){
+        this(length, width, seed, DEFAULT_CHECK_LEVEL);
+    }
+
+    /**
+     * Constructs a new Board object whose bombs are placed from a seed
+     *  Two boards constructed with the same size and seed have their bombs at the same cells
+     *      length, width > 0
+     * @param length The number of entries along the length of the board
+     * @param width The number of entries along the width of the board
+     * @param seed The seed of the random placement of bombs
+     * @param checkLevel How thoroughly the Representation Invariant is checked
+     */
+    public Board(int length, int width, long seed, CheckLevel checkLevel){
+        this(length, width, seed, checkLevel, DEFAULT_LAYOUT);
+    }
+
+    /**
+     * Constructs a new Board object whose bombs are placed from a seed, kept in a given storage
+     *  Two boards constructed with the same size and seed have their bombs at the same cells
+     *      length, width > 0
+     * @param length The number of entries along the length of the board
+     * @param width The number of entries along the width of the board
+     * @param seed The seed of the random placement of bombs
+     * @param storage Where the cells and bombs are kept: off the heap, close() must be called once
+     *          the Board is no longer used
+     * @throws java.io.UncheckedIOException if the storage is mapped and its files cannot be created
+     */
+    public Board(int length, int width, long seed, Storage storage){
+        this(length, width, seed, DEFAULT_CHECK_LEVEL, DEFAULT_LAYOUT, storage);
+    }
+
+    /**
+     * Constructs a new Board object whose bombs are placed from a seed, with its cells laid out in memory
+     *  in a given way
+     *  Two boards constructed with the same size and seed have their bombs at the same cells
+     *      length, width > 0
+     * @param length The number of entries along the length of the board
+     * @param width The number of entries along the width of the board
+     * @param seed The seed of the random placement of bombs
+     * @param checkLevel How thoroughly the Representation Invariant is checked
+     * @param layout How the cells are laid out in memory
+     */
+    public Board(int length, int width, long seed, CheckLevel checkLevel, Layout layout){
+        this(length, width, seed, checkLevel, layout, Storage.heap());
+    }
+
+    /**
+     * Constructs a new Board object whose bombs are placed from a seed, with its cells laid out in memory
+     *  in a given way and kept in a given storage
+     *  Two boards constructed with the same size and seed have their bombs at the same cells
+     *      length, width > 0
+     * @param length The number of entries along the length of the board
+     * @param width The number of entries along the width of the board
+     * @param seed The seed of the random placement of bombs
+     * @param checkLevel How thoroughly the Representation Invariant is checked
+     * @param layout How the cells are laid out in memory
+     * @param storage Where the cells and bombs are kept: off the heap, close() must be called once
+     *          the Board is no longer used
+     * @throws java.io.UncheckedIOException if the storage is mapped and its files cannot be created
+     */
+    public Board(int length, int width, long seed, CheckLevel checkLevel, Layout layout, Storage storage){
         // Initialize length and width fields
         this.length = length;
         this.width = width;
+        this.checkLevel = checkLevel;
+        this.layout = layout;
+        this.storage = storage;
+        this.tilesAlongLength = (length + TILE_MASK) >> TILE_BITS;
         // Deal with board and bombs arrays
-        this.board = new String[this.length][this.width];
-        this.bombs = new boolean[this.length][this.width];
-        int counterLength = 0;
-        while (counterLength < this.length){
-            int counterWidth = 0;
-            while (counterWidth < this.width){
-                // board initialization
-                this.board[counterLength][counterWidth] = "-";
-                // bombs initialization
-                double r = new Random().nextDouble(); // Generate number between 0.0 and 1.0
-                if (r > ZERO && r <= DIFFICULTY){ // 20% of cells are bombed
-                    this.bombs[counterLength][counterWidth] = true;
-                }
-                else {this.bombs[counterLength][counterWidth] = false;}
-                counterWidth += 1;
-            }
-            counterLength += 1;
-        }
+        this.board = newCells();
+        this.bombs = new BombMap(this.length, this.width, storage);
+        placeBombs(seed);
+        this.numUntouched = this.length * this.width;
+        this.zeroParent = storage.allocate(this.length * this.width, Memory.INTS);
+        this.zeroNext = storage.allocate(this.length * this.width, Memory.INTS);
+        buildZeroIndex();
         checkRep();
     }
 
@@ -98,6 +308,57 @@ public class Board {
      *          The file has 1's at bombed cells and 0 at safe cells
      */
     public Board(File filename) {
+        this(filename, DEFAULT_CHECK_LEVEL);
+    }
+
+    /**
+     * Construct a new Board object from a File 
+     * @param filename The file directory where the file is found
+     *          The file has 1's at bombed cells and 0 at safe cells
+     * @param checkLevel How thoroughly the Representation Invariant is checked
+     */
+    public Board(File filename, CheckLevel checkLevel) {
+        this(filename, checkLevel, DEFAULT_LAYOUT);
+    }
+
+    /**
+     * Construct a new Board object from a File, kept in a given storage
+     * @param filename The file directory where the file is found
+     *          The file has 1's at bombed cells and 0 at safe cells
+     * @param storage Where the cells and bombs are kept: off the heap, close() must be called once
+     *          the Board is no longer used
+     * @throws java.io.UncheckedIOException if the storage is mapped and its files cannot be created
+     */
+    public Board(File filename, Storage storage) {
+        this(filename, DEFAULT_CHECK_LEVEL, DEFAULT_LAYOUT, storage);
+    }
+
+    /**
+     * Construct a new Board object from a File, with its cells laid out in memory in a given way
+     * @param filename The file directory where the file is found
+     *          The file has 1's at bombed cells and 0 at safe cells
+     * @param checkLevel How thoroughly the Representation Invariant is checked
+     * @param layout How the cells are laid out in memory
+     */
+    public Board(File filename, CheckLevel checkLevel, Layout layout) {
+        this(filename, checkLevel, layout, Storage.heap());
+    }
+
+    /**
+     * Construct a new Board object from a File, with its cells laid out in memory in a given way and kept
+     *  in a given storage
+     * @param filename The file directory where the file is found
+     *          The file has 1's at bombed cells and 0 at safe cells
+     * @param checkLevel How thoroughly the Representation Invariant is checked
+     * @param layout How the cells are laid out in memory
+     * @param storage Where the cells and bombs are kept: off the heap, close() must be called once
+     *          the Board is no longer used
+     * @throws java.io.UncheckedIOException if the storage is mapped and its files cannot be created
+     */
+    public Board(File filename, CheckLevel checkLevel, Layout layout, Storage storage) {
+        this.checkLevel = checkLevel;
+        this.layout = layout;
+        this.storage = storage;
         try (BufferedReader input = new BufferedReader(new FileReader(filename));) {
 
             // Dealing with the first line:
@@ -110,47 +371,16 @@ public class Board {
             // After this we will never deal with sizing the board again
             this.length = Integer.parseInt(leftAndRight.get(0));
             this.width = Integer.parseInt(leftAndRight.get(1));
-            this.board = new String[this.length][this.width];
-            this.bombs = new boolean[this.length][this.width];
+            this.tilesAlongLength = (this.length + TILE_MASK) >> TILE_BITS;
+            this.board = newCells();
+            this.bombs = new BombMap(this.length, this.width, storage);
+            this.numUntouched = this.length * this.width;
 
             // Dealing with the rest of the lines for bomb placement:
-            // Each line read corresponds to one y-coordinate
-            int y = 0;
-            while(input.ready()){
-                String line = input.readLine();
-                // Make sure no space at start or end and has (this.width-1) spaces total
-                verifySpaces(line, this.length - 1);
-                List<String> content = Arrays.asList(line.split(" "));
-                if (content.size() == this.length) {
-                    // Each content is at the same y-coordinate but a new x-coordinate
-                    int x = 0;
-                    for (String cellContent : content){
-                        // Initialize cell on board to Untouched state:
-                        this.board[x][y] = "-";
-                        // Initialize cell bomb content:
-                        if (cellContent.equals("1")){
-                            this.bombs[x][y] = true;
-                        } 
-                        else if (cellContent.equals("0")){
-                            this.bombs[x][y] = false;
-                        } 
-                        // If entry not "0" or "1":
-                        else{
-                            throw new RuntimeException();
-                        }
-                        x += 1;
-                    }
-                } 
-                else {
-                    // If incorrect number of entries on one line (not corresponding to this.length)
-                    throw new RuntimeException();
-                }
-                y += 1;
-            }
-            // If incorrect number of rows entered (not corresponding to this.width)
-            if (y != this.width){ 
-                throw new RuntimeException(); 
-            }
+            this.numBombs = readBombs(input, true);
+            this.zeroParent = storage.allocate(this.length * this.width, Memory.INTS);
+            this.zeroNext = storage.allocate(this.length * this.width, Memory.INTS);
+            buildZeroIndex();
             checkRep();
         } 
         catch (IOException io){
@@ -160,20 +390,101 @@ public class Board {
     }
 
     /**
-     * Makes sure the Representation Invariant is respected
+     * Starts a new round on this Board: every cell becomes untouched again and bombs are placed as
+     *  a new Board of the same size constructed with seed would have them, reusing the memory of this Board
+     *  Listeners are told with boardReset(), a dig in progress (startDig()) stops
+     * 
+     * @param seed The seed of the random placement of bombs
      */
-    public synchronized void checkRep(){
-        assert(this.length > 0 && this.width > 0);
-        assert(board.length == this.length);
-        assert(bombs.length == this.length);
-        int i = 0;
-        while (i < this.length){
-            assert(board[i].length == this.width);
-            assert(bombs[i].length == this.width);
-            i += 1;
+    public synchronized void reset(long seed){
+        this.bombs.clear();
+        this.numBombs = 0;
+        placeBombs(seed);
+        startRound();
+    }
+
+    /**
+     * Starts a new round on this Board: every cell becomes untouched again and bombs are placed as
+     *  read from a File, reusing the memory of this Board
+     *  Listeners are told with boardReset(), a dig in progress (startDig()) stops
+     *  The File is checked first: if it cannot be used, this Board is not changed
+     * 
+     * @param filename The file of the board, in the format of Board(File), of the size of this Board
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is malformed or of another size
+     */
+    public synchronized void reset(File filename) throws IOException {
+        readBoardFile(filename, false);
+        this.bombs.clear();
+        this.numBombs = readBoardFile(filename, true);
+        startRound();
+    }
+
+    /**
+     * Makes sure the Representation Invariant is respected, as thoroughly as this Board's CheckLevel says
+     * @throws AssertionError if the Representation Invariant is broken
+     */
+    public void checkRep(){
+        if (this.checkLevel == CheckLevel.OFF){
+            return;
+        }
+        synchronized (this){
+            check(this.length > 0 && this.width > 0);
+            check(this.lastRevealed >= 0);
+            check(this.numUntouched >= 0 && this.numFlagged >= 0 && this.numRevealed >= 0);
+            check(this.numUntouched + this.numFlagged + this.numRevealed == this.length * this.width);
+            check(this.numBombs >= 0 && this.numBombs <= this.length * this.width);
+            if (this.checkLevel == CheckLevel.FULL){
+                int i = 0;
+                while (i < this.length){
+                    int j = 0;
+                    while (j < this.width){
+                        byte code = board.getByte(index(i, j));
+                        check(code >= 0 && code <= FLAGGED);
+                        j += 1;
+                    }
+                    i += 1;
+                }
+            }
         }
     }
 
+    /**
+     * Returns the level at which this Board checks its Representation Invariant
+     * 
+     * @return CheckLevel The level chosen at construction
+     */
+    public CheckLevel checkLevel(){
+        return this.checkLevel;
+    }
+
+    /**
+     * @return Layout How the cells of this Board are laid out in memory
+     */
+    public Layout layout(){
+        return this.layout;
+    }
+
+    /**
+     * @return Storage Where the cells and bombs of this Board are kept
+     */
+    public Storage storage(){
+        return this.storage;
+    }
+
+    /**
+     * Ends this Board, giving the memory of its cells and bombs back at once: off the heap, it is freed
+     *  (and its mapped files deleted) here instead of whenever the garbage collector gets to it
+     *  This Board must not be used afterwards, except for close() which then does nothing
+     *  (other methods throw a RuntimeException)
+     */
+    public synchronized void close(){
+        this.board.release();
+        this.bombs.release();
+        this.zeroParent.release();
+        this.zeroNext.release();
+    }
+
     /**
      * Digs a square entry from the board 
      * Modifies cell accordingly (and also surrounding cells of needed)
@@ -184,22 +495,120 @@ public class Board {
      *          or False if bomb exploded
      */
     public synchronized boolean dig(int x, int y){ 
+        DigEvent event = new DigEvent();
+        event.begin();
         boolean alive = true;
+        this.lastRevealed = 0;
+        if (inBoard(x, y)
+                && isUntouched(x, y)){
+            alive = digUntouched(x, y);
+        }
+        if (event.shouldCommit()){
+            event.x = x;
+            event.y = y;
+            event.revealed = this.lastRevealed;
+            event.alive = alive;
+            event.commit();
+        }
+        checkRep();
+        return alive;
+    }
+
+    /**
+     * Starts digging a cell without revealing anything yet: with continueDig(), a dig can reveal a large
+     *  area in slices, releasing the lock of this Board between slices so other commands go on meanwhile
+     *  Those commands see the area partly revealed, each cell being either untouched (or flagged) or revealed
+     * 
+     * @param x The x-coordinate of the square to dig
+     * @param y The y-coordinate of the square to dig
+     * @return Reveal The dig, with nothing pending if the cell is not untouched or out of the board
+     */
+    public synchronized Reveal startDig(int x, int y){
+        Reveal reveal;
         if (!inBoard(x, y)
                 || !isUntouched(x, y)){
-            checkRep();
-            return alive;
+            reveal = new Reveal(true, this.round);
         }
         else{
-            if (isBombed(x, y)){
-                alive = false;
-                unbombIt(x, y);
-                bombExplodedUpdate(x, y);
-            }
-            recursiveUpdate(x, y);
+            reveal = startReveal(x, y);
+        }
+        checkRep();
+        return reveal;
+    }
+
+    /**
+     * Reveals the next slice of a dig started by startDig()
+     *  The result is what dig() would have revealed, cells changed meanwhile by other commands aside
+     *  (as with dig(), flagged cells in the flooded area are revealed)
+     * 
+     * @param reveal The dig, from startDig() on this Board (complete at once if the Board was reset since)
+     * @param maxCells The number of cells to reveal at most, > 0
+     * @return boolean True if the dig is complete
+     * @throws IllegalArgumentException if maxCells <= 0
+     */
+    public synchronized boolean continueDig(Reveal reveal, int maxCells){
+        if (maxCells <= 0){
+            throw new IllegalArgumentException("slice of " + maxCells + " cells");
+        }
+        if (reveal.round != this.round){
+            // The board was reset since the dig started: its cells belong to the previous round
+            reveal.size = 0;
+        }
+        FloodFillEvent event = new FloodFillEvent();
+        event.begin();
+        int revealedBefore = reveal.revealed;
+        revealCells(reveal, maxCells);
+        if (event.shouldCommit()){
+            event.revealed = reveal.revealed - revealedBefore;
+            event.pending = reveal.size;
+            event.sliced = true;
+            event.commit();
+        }
+        checkRep();
+        return reveal.done();
+    }
+
+    /**
+     * Chords a dug cell: if as many of its surrounding cells are flagged as the number it shows,
+     *  digs all the other surrounding cells at once (as dig() would, one after the other)
+     * Does nothing if the cell is not dug or the number of flags around it does not match
+     * 
+     * @param x The x-coordinate of the dug cell
+     * @param y The y-coordinate of the dug cell
+     * @return boolean True if no bomb exploded
+     *          or False if at least one bomb exploded (a flag was wrong)
+     */
+    public synchronized boolean chord(int x, int y){
+        boolean alive = true;
+        this.lastRevealed = 0;
+        if (!inBoard(x, y)
+                || !isDug(x, y)){
             checkRep();
             return alive;
         }
+        List<List<Integer>> surrounding = surroundingXY(x, y);
+        List<Integer> xVal = surrounding.get(0);
+        List<Integer> yVal = surrounding.get(1);
+        int flagsAround = 0;
+        for (int X : xVal){
+            for (int Y : yVal){
+                if (isFlagged(X, Y)){
+                    flagsAround += 1;
+                }
+            }
+        }
+        if (flagsAround == board.getByte(index(x, y))){
+            for (int X : xVal){
+                for (int Y : yVal){
+                    // A previous dig of this chord may already have revealed the cell
+                    if (isUntouched(X, Y)){
+                        alive = digUntouched(X, Y) && alive;
+                    }
+                }
+            }
+        }
+        checkRep();
+        return alive;
     }
 
     /**
@@ -212,7 +621,10 @@ public class Board {
     public synchronized boolean flag(int x, int y){
         if (inBoard(x, y)
                 && isUntouched(x, y)){
-            board[x][y] = "F";
+            board.putByte(index(x, y), FLAGGED);
+            this.numUntouched -= 1;
+            this.numFlagged += 1;
+            cellChanged(x, y);
             checkRep();
             return true;
         }
@@ -230,7 +642,11 @@ public class Board {
     public synchronized boolean deflag(int x, int y){
         if (inBoard(x, y)
                 && isFlagged(x, y)){
-            board[x][y] = "-";
+            board.putByte(index(x, y), UNTOUCHED);
+            this.numFlagged -= 1;
+            this.numUntouched += 1;
+            cellChanged(x, y);
+            checkRep();
             return true;
         }
         checkRep();
@@ -243,26 +659,62 @@ public class Board {
      */
     @Override
     public synchronized String toString(){
-        String returned = "";
-        int counterWidth = 0;
-        while (counterWidth < this.width){
-            int counterLength = 0;
-            while (counterLength < this.length){
-                String entry = board[counterLength][counterWidth];
-                if (!entry.equals("0")){
-                    returned += entry + " ";
-                }
-                else{
-                    returned += "  ";
-                }
+        return new String(toBytes(), StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Gives the representation of toString() already encoded in ASCII, 
+     *  rendered straight into a byte array of the exact size
+     * @return byte[] the state of the Board object, one line per y-coordinate ending with "\r\n"
+     */
+    public synchronized byte[] toBytes(){
+        return toBytes(0, 0, this.length, this.width);
+    }
+
+    /**
+     * Renders a rectangle of cells as toBytes() renders the whole board, e.g. the area a player looks at
+     * 
+     * @param x The x-coordinate of the upper-left cell of the rectangle
+     * @param y The y-coordinate of the upper-left cell of the rectangle
+     * @param length The number of cells along x, > 0
+     * @param width The number of cells along y, > 0
+     * @return byte[] the state of the cells of the rectangle, one line per y-coordinate ending with "\r\n"
+     * @throws IllegalArgumentException if the rectangle is empty or not inside the board
+     */
+    public synchronized byte[] toBytes(int x, int y, int length, int width){
+        if (length <= 0 || width <= 0 || !inBoard(x, y) || !inBoard(x + length - 1, y + width - 1)){
+            throw new IllegalArgumentException("rectangle " + x + " " + y + " " + length + " " + width
+                    + " not inside the board");
+        }
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        // Each line holds one character and one separator per cell, the last separator being "\r\n"
+        byte[] rendered = new byte[width * (2 * length + 1)];
+        int position = 0;
+        int counterWidth = y;
+        while (counterWidth < y + width){
+            int counterLength = x;
+            while (counterLength < x + length){
+                rendered[position] = GLYPHS[board.getByte(index(counterLength, counterWidth))];
+                rendered[position + 1] = (byte) ' ';
+                position += 2;
                 counterLength += 1;
             }
-            returned = returned.substring(0, returned.length() - 1);
-            returned += "\r\n";
+            rendered[position - 1] = (byte) '\r';
+            rendered[position] = (byte) '\n';
+            position += 1;
             counterWidth += 1;
         }
+        if (event.shouldCommit()){
+            event.x = x;
+            event.y = y;
+            event.length = length;
+            event.width = width;
+            event.bytes = rendered.length;
+            event.commit();
+        }
         checkRep();
-        return returned;
+        return rendered;
     }
 
     // Board Objects are mutable so they use referential equality and hashCode
@@ -270,6 +722,179 @@ public class Board {
 
     // ---------------------------PRIVATE HELPER METHODS-------------------------------
 
+    /**
+     * Places bombs at random from a seed on a board without bombs, about DIFFICULTY of the cells
+     * 
+     * @param seed The seed of the random placement
+     */
+    private void placeBombs(long seed){
+        Random random = new Random(seed);
+        int counterLength = 0;
+        while (counterLength < this.length){
+            int counterWidth = 0;
+            while (counterWidth < this.width){
+                // bombs initialization
+                double r = random.nextDouble(); // Generate number between 0.0 and 1.0
+                if (r > ZERO && r <= DIFFICULTY){ // 20% of cells are bombed
+                    this.bombs.place(counterLength, counterWidth);
+                    this.numBombs += 1;
+                }
+                counterWidth += 1;
+            }
+            counterLength += 1;
+        }
+    }
+
+    /**
+     * Reads the bomb lines of a board file, after its first line, placing the bombs if asked to
+     *  Each line read corresponds to one y-coordinate
+     * 
+     * @param input The file, its first line already read
+     * @param place True to place the bombs read on a board without bombs, false to only check the lines
+     * @return int The number of bombs read
+     * @throws IOException if the file cannot be read
+     * @throws RuntimeException if the lines are malformed or not length x width
+     */
+    private int readBombs(BufferedReader input, boolean place) throws IOException {
+        int numBombs = 0;
+        int y = 0;
+        while(input.ready()){
+            String line = input.readLine();
+            // More rows than this.width
+            if (y == this.width){
+                throw new RuntimeException();
+            }
+            // Make sure no space at start or end and has (this.width-1) spaces total
+            verifySpaces(line, this.length - 1);
+            List<String> content = Arrays.asList(line.split(" "));
+            if (content.size() == this.length) {
+                // Each content is at the same y-coordinate but a new x-coordinate
+                int x = 0;
+                for (String cellContent : content){
+                    // Initialize cell bomb content:
+                    if (cellContent.equals("1")){
+                        if (place){
+                            this.bombs.place(x, y);
+                        }
+                        numBombs += 1;
+                    } 
+                    else if (cellContent.equals("0")){
+                        // No bomb
+                    } 
+                    // If entry not "0" or "1":
+                    else{
+                        throw new RuntimeException();
+                    }
+                    x += 1;
+                }
+            } 
+            else {
+                // If incorrect number of entries on one line (not corresponding to this.length)
+                throw new RuntimeException();
+            }
+            y += 1;
+        }
+        // If incorrect number of rows entered (not corresponding to this.width)
+        if (y != this.width){ 
+            throw new RuntimeException(); 
+        }
+        return numBombs;
+    }
+
+    /**
+     * Reads a board file of the size of this Board, placing its bombs if asked to
+     * 
+     * @param filename The file of the board
+     * @param place True to place the bombs read on a board without bombs, false to only check the file
+     * @return int The number of bombs read
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is malformed or of another size
+     */
+    private int readBoardFile(File filename, boolean place) throws IOException {
+        try (BufferedReader input = new BufferedReader(new FileReader(filename));) {
+            String line1 = input.readLine();
+            if (line1 == null){
+                throw new IllegalArgumentException(filename + " is empty");
+            }
+            verifySpaces(line1, 1);
+            List<String> leftAndRight = Arrays.asList(line1.split(" "));
+            if (Integer.parseInt(leftAndRight.get(0)) != this.length
+                    || Integer.parseInt(leftAndRight.get(1)) != this.width){
+                throw new IllegalArgumentException(filename + " is a " + line1 + " board, not "
+                        + this.length + " " + this.width);
+            }
+            return readBombs(input, place);
+        } catch (IllegalArgumentException iae) {
+            throw iae;
+        } catch (RuntimeException re) {
+            throw new IllegalArgumentException(filename + " is not a board file", re);
+        }
+    }
+
+    /**
+     * Ends a reset, the new bombs being placed: every cell becomes untouched and the counts, the
+     *  zero-region index, the round and the version follow, then listeners are told
+     */
+    private void startRound(){
+        this.board.fill(UNTOUCHED);
+        this.numUntouched = this.length * this.width;
+        this.numFlagged = 0;
+        this.numRevealed = 0;
+        this.lastRevealed = 0;
+        buildZeroIndex();
+        this.round += 1;
+        this.version += 1;
+        int i = 0;
+        while (i < listeners.size()){
+            listeners.get(i).boardReset();
+            i += 1;
+        }
+        checkRep();
+    }
+
+    /**
+     * Returns where a cell is in board, as this.layout lays cells out
+     * 
+     * @param x The x-coordinate of the cell
+     * @param y The y-coordinate of the cell
+     * @return int The index of the cell in board
+     */
+    private int index(int x, int y){
+        switch (this.layout){
+            case ROW_MAJOR:
+                return y * this.length + x;
+            case COLUMN_MAJOR:
+                return x * this.width + y;
+            default:
+                // The tile, then the cell in the tile: tiles are laid out row-major, and so are their cells
+                int tile = (y >> TILE_BITS) * this.tilesAlongLength + (x >> TILE_BITS);
+                return (tile << (2 * TILE_BITS)) | ((y & TILE_MASK) << TILE_BITS) | (x & TILE_MASK);
+        }
+    }
+
+    /**
+     * @return int The number of cells of a board of size length x width laid out as this.layout says
+     *          (whole tiles if TILED)
+     */
+    private int layoutSize(){
+        if (this.layout == Layout.TILED){
+            return (this.tilesAlongLength * ((this.width + TILE_MASK) >> TILE_BITS)) << (2 * TILE_BITS);
+        }
+        return this.length * this.width;
+    }
+
+    /**
+     * Allocates the cells of a board of size length x width laid out as this.layout says, all untouched,
+     *  in this.storage
+     * 
+     * @return Memory The cells
+     */
+    private Memory newCells(){
+        Memory cells = this.storage.allocate(layoutSize(), Memory.BYTES);
+        cells.fill(UNTOUCHED);
+        return cells;
+    }
+
     /**
      * Returns true if cell is untouched, meaning it is in its original state
      * 
@@ -277,9 +902,8 @@ public class Board {
      * @param y The y-coordinate of the cell
      * @return boolean true if untouched else false
      */
-    private synchronized boolean isUntouched(int x, int y){
-        checkRep();
-        return board[x][y].equals("-");
+    private boolean isUntouched(int x, int y){
+        return board.getByte(index(x, y)) == UNTOUCHED;
     }
 
     /**
@@ -289,10 +913,8 @@ public class Board {
      * @param y The y-coordinate of the cell
      * @return boolean true if dug else false
      */
-    private synchronized boolean isDug(int x, int y){
-        checkRep();
-        return (!board[x][y].equals("-")
-                && !board[x][y].equals("F"));
+    private boolean isDug(int x, int y){
+        return board.getByte(index(x, y)) < UNTOUCHED;
     }
 
     /**
@@ -302,9 +924,8 @@ public class Board {
      * @param y The y-coordinate of the cell
      * @return boolean true if flagged else false
      */
-    private synchronized boolean isFlagged(int x, int y){
-        checkRep();
-        return board[x][y].equals("F");
+    private boolean isFlagged(int x, int y){
+        return board.getByte(index(x, y)) == FLAGGED;
     }
 
     /**
@@ -314,9 +935,8 @@ public class Board {
      * @param y The y-coordinate of the cell
      * @return boolean true if it contains a bomb
      */
-    private synchronized boolean isBombed(int x, int y){
-        checkRep();
-        return bombs[x][y] == true;
+    private boolean isBombed(int x, int y){
+        return bombs.has(x, y);
     }
 
     /**
@@ -326,80 +946,369 @@ public class Board {
      * @param y The y-coordinate of this cell
      * @return int The number of bombs
      */
-    private synchronized int numAround(int x, int y){
-        // Capture all surroundings' x-coords and y-coords
-        List<Integer> xVal = surroundingXY(x, y).get(0);
-        List<Integer> yVal = surroundingXY(x, y).get(1);
+    private int numAround(int x, int y){
+        // Counted in advance by the bomb map
+        return bombs.around(x, y);
+    }
 
-        // Now count bombs in the legal cells 
-        int total = bombs[x][y] ? -1 : 0; // Because current cell is counted too
-        for (int X : xVal){
-            for (int Y : yVal){
-                if (bombs[X][Y]){
-                    total += 1;
+    /**
+     * Digs an untouched cell: destroys its bomb if it has one then reveals it 
+     *  (and the cells around it when it has no bomb around)
+     * 
+     * @param x The x-coordinate of this untouched cell
+     * @param y The y-coordinate of this untouched cell
+     * @return boolean True if no bomb exploded, False if one did
+     */
+    private boolean digUntouched(int x, int y){
+        Reveal reveal = startReveal(x, y);
+        FloodFillEvent event = new FloodFillEvent();
+        event.begin();
+        int revealed = revealZeroRegion(x * this.width + y);
+        boolean zeroRegion = revealed >= 0;
+        if (!zeroRegion){
+            revealCells(reveal, Integer.MAX_VALUE);
+            revealed = reveal.revealed;
+        }
+        if (event.shouldCommit()){
+            event.revealed = revealed;
+            event.zeroRegion = zeroRegion;
+            event.commit();
+        }
+        this.lastRevealed += revealed;
+        return reveal.alive;
+    }
+
+    /**
+     * Starts digging an untouched cell: destroys its bomb if it has one, the cell itself is revealed
+     *  by revealCells()
+     * 
+     * @param x The x-coordinate of this untouched cell
+     * @param y The y-coordinate of this untouched cell
+     * @return Reveal The dig, with the cell pending
+     */
+    private Reveal startReveal(int x, int y){
+        boolean alive = true;
+        if (isBombed(x, y)){
+            alive = false;
+            // Also lowers the numbers on dug cells around
+            unbombIt(x, y);
+        }
+        Reveal reveal = new Reveal(alive, this.round);
+        reveal.push(x * this.width + y);
+        return reveal;
+    }
+
+    /**
+     * Reveals pending cells of a dig, expanding to the cells around those that have no bomb around
+     *  (flood-fill with an explicit stack, so its depth is not limited by the thread's stack)
+     * The cells revealed are the same whatever the order: every cell reachable from the dug cell
+     *  through cells with no bomb around, and a cell reached twice is only revealed once
+     * 
+     * @param reveal The dig
+     * @param maxCells The number of cells to reveal at most before returning, > 0
+     */
+    private void revealCells(Reveal reveal, int maxCells){
+        int revealedNow = 0;
+        while (reveal.size > 0){
+            int cell = reveal.pending[reveal.size - 1];
+            int x = cell / this.width;
+            int y = cell % this.width;
+            if (isDug(x, y)){
+                // Reached through another cell, or by another dig between two slices
+                reveal.size -= 1;
+                continue;
+            }
+            if (revealedNow == maxCells){
+                // Stopped on a cell to reveal, so the dig is done exactly when nothing is pending
+                break;
+            }
+            reveal.size -= 1;
+            int around = numAround(x, y);
+            revealedNow += revealCell(x, y, around);
+            if (around == 0){
+                // if no bomb around, expand one layer next
+                int X = Math.max(0, x - 1);
+                while (X <= Math.min(this.length - 1, x + 1)){
+                    int Y = Math.max(0, y - 1);
+                    while (Y <= Math.min(this.width - 1, y + 1)){
+                        if (!isDug(X, Y)){
+                            reveal.push(X * this.width + Y);
+                        }
+                        Y += 1;
+                    }
+                    X += 1;
                 }
             }
         }
-        checkRep();
-        return total;
+        reveal.revealed += revealedNow;
     }
 
     /**
-     * Recursively reveals numbers on other cells when this cell
-     *  is dug but has no bomb in surrouding 8 cells
+     * Reveals a zero cell's whole region and the cells around it, as revealCells() would from that cell:
+     *  every cell of the region is revealed as "0", then every untouched or flagged cell around it
+     *  Listeners are told about the same changes as with revealCells(), in another order
+     * 
+     * @param cell The untouched cell x * width + y just dug
+     * @return int The number of cells revealed, or -1 if nothing was revealed because the cell is not
+     *          a zero cell or a cell of its region is already dug (revealCells() must be used then:
+     *          dug cells stop its flood-fill)
+     */
+    private int revealZeroRegion(int cell){
+        if (this.zeroParent.getInt(cell) < 0){
+            return -1;
+        }
+        int member = cell;
+        do {
+            if (isDug(member / this.width, member % this.width)){
+                return -1;
+            }
+            member = this.zeroNext.getInt(member);
+        } while (member != cell);
+        int revealed = 0;
+        do {
+            int x = member / this.width;
+            int y = member % this.width;
+            revealed += revealCell(x, y, 0);
+            int X = Math.max(0, x - 1);
+            while (X <= Math.min(this.length - 1, x + 1)){
+                int Y = Math.max(0, y - 1);
+                while (Y <= Math.min(this.width - 1, y + 1)){
+                    // Zero cells around are in the region, revealed in their turn
+                    if (this.zeroParent.getInt(X * this.width + Y) < 0 && !isDug(X, Y)){
+                        revealed += revealCell(X, Y, numAround(X, Y));
+                    }
+                    Y += 1;
+                }
+                X += 1;
+            }
+            member = this.zeroNext.getInt(member);
+        } while (member != cell);
+        return revealed;
+    }
+
+    /**
+     * Reveals an untouched or flagged cell
      * 
      * @param x The x-coordinate of this cell
      * @param y The y-coordinate of this cell
+     * @param around The number of bombs around this cell
+     * @return int 1, the number of cells revealed
      */
-    private synchronized void recursiveUpdate(int x, int y){
-        // base case
-        if (numAround(x, y) != 0){ 
-            board[x][y] = numAround(x, y) + "";
-            checkRep();
-            return;
+    private int revealCell(int x, int y, int around){
+        if (isFlagged(x, y)){
+            this.numFlagged -= 1;
+        }
+        else {
+            this.numUntouched -= 1;
         }
-        else{ 
-            board[x][y] = "0";
-            // if no bomb around, expand one layer next
-            // Capture all surroundings' x-coords and y-coords
-            List<Integer> xVal = surroundingXY(x, y).get(0);
-            List<Integer> yVal = surroundingXY(x, y).get(1);
+        this.numRevealed += 1;
+        board.putByte(index(x, y), (byte) around);
+        cellChanged(x, y);
+        return 1;
+    }
 
-            // update next layer's numbers
-            for (int X : xVal){
-                for (int Y : yVal){
-                    if (!isDug(X, Y)){
-                        recursiveUpdate(X, Y);
+    /**
+     * Tells whether a cell is a zero cell: no bomb on it nor in the 8 cells around
+     * 
+     * @param x The x-coordinate of this cell
+     * @param y The y-coordinate of this cell
+     * @return boolean True if this cell is a zero cell
+     */
+    private boolean isZeroCell(int x, int y){
+        return !bombs.has(x, y) && bombs.around(x, y) == 0;
+    }
+
+    /**
+     * Counts the bombs placed by a constructor around every cell, and builds the zero-region index:
+     *  zero cells are found 64 at a time in the bomb map, only they are visited one by one
+     */
+    private void buildZeroIndex(){
+        bombs.countAll();
+        this.zeroParent.fill(-1);
+        int x = 0;
+        while (x < this.length){
+            int w = 0;
+            while (w < bombs.words()){
+                long zeros = bombs.zeroWord(x, w);
+                while (zeros != 0){
+                    int y = w * 64 + Long.numberOfTrailingZeros(zeros);
+                    zeros &= zeros - 1;
+                    int cell = x * this.width + y;
+                    this.zeroParent.putInt(cell, cell);
+                    this.zeroNext.putInt(cell, cell);
+                    // Joins the zero cells around already indexed: the previous column and the cell above
+                    if (x > 0){
+                        joinIfZero(cell, x - 1, y - 1);
+                        joinIfZero(cell, x - 1, y);
+                        joinIfZero(cell, x - 1, y + 1);
                     }
+                    joinIfZero(cell, x, y - 1);
                 }
+                w += 1;
             }
+            x += 1;
         }
-        checkRep();
     }
 
     /**
-     * When a cell was bombed, is dug and its bomb is destroyed, 
+     * Updates the zero-region index after a bomb was removed: the cells around it (itself included)
+     *  may have become zero cells, which only merges regions
+     * 
+     * @param x The x-coordinate of the cell unbombed
+     * @param y The y-coordinate of the cell unbombed
+     */
+    private void zeroCellsAdded(int x, int y){
+        int X = Math.max(0, x - 1);
+        while (X <= Math.min(this.length - 1, x + 1)){
+            int Y = Math.max(0, y - 1);
+            while (Y <= Math.min(this.width - 1, y + 1)){
+                int cell = X * this.width + Y;
+                if (this.zeroParent.getInt(cell) < 0 && isZeroCell(X, Y)){
+                    this.zeroParent.putInt(cell, cell);
+                    this.zeroNext.putInt(cell, cell);
+                    joinZeroCellsAround(cell);
+                }
+                Y += 1;
+            }
+            X += 1;
+        }
+    }
+
+    /**
+     * Updates the zero-region index after a bomb was placed: the cells around it (itself included)
+     *  are no longer zero cells, which may split their regions, so those regions are indexed again
+     *  (in time proportional to their size)
+     * 
+     * @param x The x-coordinate of the cell bombed
+     * @param y The y-coordinate of the cell bombed
+     */
+    private void zeroCellsRemoved(int x, int y){
+        List<Integer> members = new ArrayList<>();
+        int X = Math.max(0, x - 1);
+        while (X <= Math.min(this.length - 1, x + 1)){
+            int Y = Math.max(0, y - 1);
+            while (Y <= Math.min(this.width - 1, y + 1)){
+                int cell = X * this.width + Y;
+                if (this.zeroParent.getInt(cell) >= 0){
+                    // Takes the whole region out of the index, each region once
+                    int member = cell;
+                    do {
+                        int next = this.zeroNext.getInt(member);
+                        this.zeroParent.putInt(member, -1);
+                        this.zeroNext.putInt(member, member);
+                        members.add(member);
+                        member = next;
+                    } while (member != cell);
+                }
+                Y += 1;
+            }
+            X += 1;
+        }
+        for (int member : members){
+            if (isZeroCell(member / this.width, member % this.width)){
+                this.zeroParent.putInt(member, member);
+            }
+        }
+        for (int member : members){
+            if (this.zeroParent.getInt(member) >= 0){
+                joinZeroCellsAround(member);
+            }
+        }
+    }
+
+    /**
+     * Joins the region of a zero cell with the regions of the zero cells around it
+     * 
+     * @param cell The zero cell x * width + y
+     */
+    private void joinZeroCellsAround(int cell){
+        int x = cell / this.width;
+        int y = cell % this.width;
+        int X = x - 1;
+        while (X <= x + 1){
+            int Y = y - 1;
+            while (Y <= y + 1){
+                joinIfZero(cell, X, Y);
+                Y += 1;
+            }
+            X += 1;
+        }
+    }
+
+    /**
+     * Joins the region of a zero cell with the region of another cell, if it is an indexed zero cell
+     * 
+     * @param cell The zero cell x * width + y
+     * @param x The x-coordinate of the other cell, possibly out of the board
+     * @param y The y-coordinate of the other cell, possibly out of the board
+     */
+    private void joinIfZero(int cell, int x, int y){
+        if (!inBoard(x, y) || this.zeroParent.getInt(x * this.width + y) < 0){
+            return;
+        }
+        int root = zeroRoot(cell);
+        int otherRoot = zeroRoot(x * this.width + y);
+        if (root != otherRoot){
+            this.zeroParent.putInt(otherRoot, root);
+            // Swapping the successors of two cells of two cycles makes one cycle of them all
+            int next = this.zeroNext.getInt(root);
+            this.zeroNext.putInt(root, this.zeroNext.getInt(otherRoot));
+            this.zeroNext.putInt(otherRoot, next);
+        }
+    }
+
+    /**
+     * Finds the root of the region of a zero cell, halving the path to it on the way
+     * 
+     * @param cell The zero cell x * width + y
+     * @return int The root of its region
+     */
+    private int zeroRoot(int cell){
+        while (this.zeroParent.getInt(cell) != cell){
+            this.zeroParent.putInt(cell, this.zeroParent.getInt(this.zeroParent.getInt(cell)));
+            cell = this.zeroParent.getInt(cell);
+        }
+        return cell;
+    }
+
+    /**
+     * When a bomb is placed on a cell or destroyed (e.g. the cell is dug), 
      *  modifies the numbers on dug cells immediately surrounding it
      * 
      * @param x The x-coordinate of this cell
      * @param y The y-coordinate of this cell
-     * @return boolean True if something was changed
+     * @param delta 1 if a bomb was placed, -1 if it was destroyed
      */
-    private synchronized boolean bombExplodedUpdate(int x, int y){
-        // Capture all surroundings' x-coords and y-coords
-        List<Integer> xVal = surroundingXY(x, y).get(0);
-        List<Integer> yVal = surroundingXY(x, y).get(1);
-
+    private void bombsAroundChanged(int x, int y, int delta){
         // update next layer's numbers
-        for (int X : xVal){
-            for (int Y : yVal){
-                if (isDug(X, Y)){
-                    board[X][Y] = ((Integer.parseInt(board[X][Y])) - 1) + "";
+        int X = Math.max(0, x - 1);
+        while (X <= Math.min(this.length - 1, x + 1)){
+            int Y = Math.max(0, y - 1);
+            while (Y <= Math.min(this.width - 1, y + 1)){
+                // A cell does not count its own bomb
+                if ((X != x || Y != y) && isDug(X, Y)){
+                    board.putByte(index(X, Y), (byte) (board.getByte(index(X, Y)) + delta));
+                    cellChanged(X, Y);
                 }
+                Y += 1;
             }
+            X += 1;
+        }
+    }
+
+    /**
+     * Counts a change of the state of a cell in version and tells the listeners about it
+     * 
+     * @param x The x-coordinate of this cell
+     * @param y The y-coordinate of this cell
+     */
+    private void cellChanged(int x, int y){
+        this.version += 1;
+        int i = 0;
+        while (i < listeners.size()){
+            listeners.get(i).cellChanged(x, y, STATES[board.getByte(index(x, y))]);
+            i += 1;
         }
-        checkRep();
-        return true;
     }
 
     /**
@@ -412,16 +1321,9 @@ public class Board {
      * @return boolean True if in board, False if outside board
      */
     private boolean inBoard(int x, int y){
-        if (x >= 0 && y >= 0
+        return x >= 0 && y >= 0
                 && x <= this.length - 1 
-                && y <= this.width - 1){
-            checkRep();
-            return true;
-        }
-        else {
-            checkRep();
-            return false;
-        }
+                && y <= this.width - 1;
     }
 
     /**
@@ -452,10 +1354,22 @@ public class Board {
         List<List<Integer>> listReturned = new ArrayList<List<Integer>>();
         listReturned.add(0, xVal);
         listReturned.add(1, yVal);
-        checkRep();
         return listReturned;
     }
 
+    /**
+     * Throws if a condition of the Representation Invariant does not hold
+     *  (independently of whether the JVM runs with assertions enabled)
+     * 
+     * @param condition The condition that must hold
+     * @throws AssertionError if the condition does not hold
+     */
+    private static void check(boolean condition){
+        if (!condition){
+            throw new AssertionError("Board representation invariant broken");
+        }
+    }
+
     /**
      * Static method that counts how many spaces appear in a String 
      *  Used when initializing a Board from a File object
@@ -503,14 +1417,17 @@ public class Board {
 
     /**
      * Turns a cell to a bombed cell and updates counts in all surrounding cells
+     *  (the numbers shown on the dug ones too)
      * 
      * @param x The x-coordinate of this cell
      * @param y The y-coordinate of this cell
      * @return boolean True if cell was unbombed before and something changed, else false
      */
     public synchronized boolean bombIt(int x, int y){
-        if (bombs[x][y] == false){
-            bombs[x][y] = true;
+        if (bombs.set(x, y, true)){
+            this.numBombs += 1;
+            bombsAroundChanged(x, y, 1);
+            zeroCellsRemoved(x, y);
             checkRep();
             return true;
         }
@@ -520,14 +1437,17 @@ public class Board {
 
     /**
      * Turns a cell to an unbombed cell and updates counts in all surrounding cells
+     *  (the numbers shown on the dug ones too)
      * 
      * @param x The x-coordinate of this cell
      * @param y The y-coordinate of this cell
      * @return boolean True if cell was bombed before and something changed, else false
      */
     public synchronized boolean unbombIt(int x, int y){
-        if (bombs[x][y] == true){
-            bombs[x][y] = false;
+        if (bombs.set(x, y, false)){
+            this.numBombs -= 1;
+            bombsAroundChanged(x, y, -1);
+            zeroCellsAdded(x, y);
             checkRep();
             return true;
         }
@@ -546,7 +1466,93 @@ public class Board {
      */
     public synchronized String state(int x, int y){
         checkRep();
-        return board[x][y];
+        return STATES[board.getByte(index(x, y))];
+    }
+
+    /**
+     * Returns the number of cells revealed by the last dig (0 if it did not dig anything)
+     *  Lets a caller holding the lock on this Board measure the flood-fill size of its dig
+     *
+     * @return int The number of cells revealed
+     */
+    public synchronized int revealedByLastDig(){
+        checkRep();
+        return this.lastRevealed;
+    }
+
+    /**
+     * Registers a listener told about every later change of the state of a cell
+     *  (it is called with the lock of this Board held)
+     *
+     * @param listener The listener to add
+     */
+    public synchronized void addListener(BoardListener listener){
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener added with addListener()
+     *
+     * @param listener The listener to remove
+     */
+    public synchronized void removeListener(BoardListener listener){
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the version of what toString() shows, without taking the lock of this Board
+     *  It grows with every change of the state of a cell, so a rendering can be reused
+     *  as long as the version it was made at is still the current one
+     *
+     * @return long The number of cell changes so far
+     */
+    public long version(){
+        return this.version;
+    }
+
+    /**
+     * Returns the number of cells neither dug nor flagged, in O(1)
+     *
+     * @return int The number of untouched cells
+     */
+    public synchronized int numUntouched(){
+        return this.numUntouched;
+    }
+
+    /**
+     * Returns the number of flagged cells, in O(1)
+     *
+     * @return int The number of flagged cells
+     */
+    public synchronized int numFlagged(){
+        return this.numFlagged;
+    }
+
+    /**
+     * Returns the number of dug cells (all of them safe since a dug bomb is destroyed), in O(1)
+     *
+     * @return int The number of revealed cells
+     */
+    public synchronized int numRevealed(){
+        return this.numRevealed;
+    }
+
+    /**
+     * Returns the number of safe cells that are still to be revealed, in O(1)
+     *
+     * @return int The number of unbombed cells not dug yet
+     */
+    public synchronized int numSafeLeft(){
+        return this.length * this.width - this.numBombs - this.numRevealed;
+    }
+
+    /**
+     * Tells whether the game is won: every safe cell is revealed, in O(1)
+     *
+     * @return boolean True if all unbombed cells have been dug
+     */
+    public synchronized boolean allSafeRevealed(){
+        return numSafeLeft() == 0;
     }
 
     /**
@@ -556,7 +1562,6 @@ public class Board {
      */
     public int size(){
         // Not synchronized part of rep. read here is immutable
-        checkRep();
         return (this.length * this.width);
     }
 
@@ -568,7 +1573,6 @@ public class Board {
      */
     public List<Integer> sizeList(){
         // Not synchronized part of rep. read here is immutable
-        checkRep();
         return Arrays.asList(this.length, this.width);
     }
 }
\ No newline at end of file
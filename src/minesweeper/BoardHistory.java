@@ -0,0 +1,347 @@
+package minesweeper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * This Class keeps earlier versions of a Board, so that it can be shown as it was at any of them
+ * Each version is a persistent tree of tiles of 8 x 8 cells: a version shares every tile and branch it did not
+ *  change with the version before it, so keeping one costs memory in proportion to the tiles changed since
+ *  (path copying), never a copy of the whole board
+ * A version is kept each time commit() is called, typically once per command, with the cell changes since
+ *  the previous commit; the oldest versions are dropped once more than a maximum are kept
+ * [Versions kept are immutable and read without any lock; commit() and the listener methods lock the Board]
+ */
+public class BoardHistory implements BoardListener {
+
+    //Constants:
+    private static final int TILE_BITS = 3; // Tiles of 8 x 8 cells
+    private static final int TILE_MASK = (1 << TILE_BITS) - 1;
+    private static final int BRANCH_BITS = 5; // Branches of 32 children
+    private static final int BRANCH_MASK = (1 << BRANCH_BITS) - 1;
+    private static final long SHARED = -1; // Generation of the nodes no version owns
+    private static final byte UNTOUCHED = '-';
+
+    /**
+     * A node of the tree of tiles: a branch of up to 32 nodes, or a leaf holding the glyphs of a tile
+     */
+    private static final class Node {
+        private final long generation; // The only generation that may change it
+        private final Node[] children; // null for a leaf
+        private final byte[] glyphs; // null for a branch, else by (y & TILE_MASK) * 8 + (x & TILE_MASK)
+
+        /**
+         * @param generation The generation creating it
+         * @param children The children of a branch, null for a leaf
+         * @param glyphs The glyphs of a leaf, null for a branch
+         */
+        private Node(long generation, Node[] children, byte[] glyphs) {
+            this.generation = generation;
+            this.children = children;
+            this.glyphs = glyphs;
+        }
+    }
+
+    /**
+     * The board as it was at a version, as toString() showed it then
+     * [Immutable: may be read by any number of threads without locking]
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final int length;
+        private final int width;
+        private final int tilesAlongLength;
+        private final int topShift;
+        private final Node root;
+
+        /**
+         * @param version The version of the board
+         * @param length The length of the board
+         * @param width The width of the board
+         * @param tilesAlongLength The number of tiles of a row of tiles
+         * @param topShift The shift of the index of a tile giving the child of root
+         * @param root The tree of tiles, never changed afterwards
+         */
+        private Snapshot(long version, int length, int width, int tilesAlongLength, int topShift, Node root) {
+            this.version = version;
+            this.length = length;
+            this.width = width;
+            this.tilesAlongLength = tilesAlongLength;
+            this.topShift = topShift;
+            this.root = root;
+        }
+
+        /**
+         * @return long The version of the board, as Board.version() returned it then
+         */
+        public long version() {
+            return this.version;
+        }
+
+        /**
+         * @param x The x-coordinate of a cell of the board
+         * @param y The y-coordinate of a cell of the board
+         * @return String The state the cell was in, as Board.state() returned it then
+         * @throws IllegalArgumentException if the cell is not in the board
+         */
+        public String state(int x, int y) {
+            if (x < 0 || x >= this.length || y < 0 || y >= this.width){
+                throw new IllegalArgumentException("cell " + x + "," + y + " not in the board");
+            }
+            byte glyph = leaf(x >> TILE_BITS, y >> TILE_BITS).glyphs[((y & TILE_MASK) << TILE_BITS) + (x & TILE_MASK)];
+            return glyph == ' ' ? "0" : String.valueOf((char) glyph);
+        }
+
+        /**
+         * @return byte[] The board as Board.toBytes() rendered it then
+         */
+        public byte[] toBytes() {
+            byte[] rendered = new byte[this.width * (2 * this.length + 1)];
+            Node[] leaves = new Node[this.tilesAlongLength];
+            int position = 0;
+            int y = 0;
+            while (y < this.width){
+                if ((y & TILE_MASK) == 0){
+                    // A new row of tiles: each leaf looked up once for its 8 rows of cells
+                    int tileX = 0;
+                    while (tileX < this.tilesAlongLength){
+                        leaves[tileX] = leaf(tileX, y >> TILE_BITS);
+                        tileX += 1;
+                    }
+                }
+                int row = (y & TILE_MASK) << TILE_BITS;
+                int x = 0;
+                while (x < this.length){
+                    rendered[position] = leaves[x >> TILE_BITS].glyphs[row + (x & TILE_MASK)];
+                    rendered[position + 1] = (byte) ' ';
+                    position += 2;
+                    x += 1;
+                }
+                rendered[position - 1] = (byte) '\r';
+                rendered[position] = (byte) '\n';
+                position += 1;
+                y += 1;
+            }
+            return rendered;
+        }
+
+        @Override
+        public String toString() {
+            return new String(toBytes(), StandardCharsets.US_ASCII);
+        }
+
+        /**
+         * @param tileX The x-coordinate of a tile
+         * @param tileY The y-coordinate of a tile
+         * @return Node The leaf of the tile
+         */
+        private Node leaf(int tileX, int tileY) {
+            int tile = tileY * this.tilesAlongLength + tileX;
+            Node node = this.root;
+            int shift = this.topShift;
+            while (node.children != null){
+                node = node.children[(tile >>> shift) & BRANCH_MASK];
+                shift -= BRANCH_BITS;
+            }
+            return node;
+        }
+    }
+
+    //Fields of this ADT:
+    private final Board board;
+    private final int length;
+    private final int width;
+    private final int tilesAlongLength;
+    private final int topShift; // Shift of a tile index giving the child of a root, the tree being complete
+    private final Node untouched; // The tree of a board whose cells are all untouched, shared by every reset
+    private final int maxVersions;
+    private final ConcurrentSkipListMap<Long, Snapshot> versions = new ConcurrentSkipListMap<>();
+    private Node root; // The tree of the board as it is now, guarded by the lock of board
+    private long generation = 0; // Nodes of this generation belong to root only, guarded by the lock of board
+    private boolean changed = false; // True if root changed since the last version kept, guarded by the lock of board
+
+    // Abstraction function:
+    // - versions.get(v) is board as it was at its version v, for the last maxVersions versions committed
+    // - root is board as it is now, changed in place where its nodes are of generation, else by copying
+    //   the path to the changed leaf
+
+    // Representation invariant:
+    // - 1 <= versions.size() <= maxVersions
+    // - No node of a version kept is of generation, so no node of a version kept is ever changed
+    // - changed is false iff root is the root of the last version kept
+
+    // Thread Safety:
+    // - root, generation and changed are only used with the lock of board held (board calls the listener
+    //   methods with it held)
+    // - A version is immutable once kept: its nodes are of an older generation than any node changed
+    //   afterwards, and it is published through the concurrent map, so readers need no lock
+
+    /**
+     * Starts keeping the versions of a board, from the version it is at now, and registers as a listener
+     *  of the board
+     *
+     * @param board The board
+     * @param maxVersions How many versions to keep at most, > 0: the oldest ones are dropped
+     * @throws IllegalArgumentException if maxVersions <= 0
+     */
+    public BoardHistory(Board board, int maxVersions) {
+        if (maxVersions <= 0){
+            throw new IllegalArgumentException("max versions " + maxVersions + " must be positive");
+        }
+        this.board = board;
+        this.length = board.sizeList().get(0);
+        this.width = board.sizeList().get(1);
+        this.maxVersions = maxVersions;
+        this.tilesAlongLength = ((this.length - 1) >> TILE_BITS) + 1;
+        int tiles = this.tilesAlongLength * (((this.width - 1) >> TILE_BITS) + 1);
+        byte[] untouchedGlyphs = new byte[1 << (2 * TILE_BITS)];
+        Arrays.fill(untouchedGlyphs, UNTOUCHED);
+        Node tree = new Node(SHARED, null, untouchedGlyphs);
+        int levels = 0;
+        long capacity = 1;
+        while (capacity < tiles){
+            Node[] children = new Node[1 << BRANCH_BITS];
+            Arrays.fill(children, tree);
+            tree = new Node(SHARED, children, null);
+            capacity <<= BRANCH_BITS;
+            levels += 1;
+        }
+        this.topShift = (levels - 1) * BRANCH_BITS;
+        this.untouched = tree;
+        synchronized (board) {
+            this.root = this.untouched;
+            // The cells touched already, a row of tiles at a time
+            int tileY = 0;
+            while (tileY << TILE_BITS < this.width){
+                int top = tileY << TILE_BITS;
+                int rows = Math.min(1 << TILE_BITS, this.width - top);
+                byte[] rendered = board.toBytes(0, top, this.length, rows);
+                int y = 0;
+                while (y < rows){
+                    int x = 0;
+                    while (x < this.length){
+                        byte glyph = rendered[y * (2 * this.length + 1) + 2 * x];
+                        if (glyph != UNTOUCHED){
+                            set(x, top + y, glyph);
+                        }
+                        x += 1;
+                    }
+                    y += 1;
+                }
+                tileY += 1;
+            }
+            this.changed = true;
+            commit();
+            board.addListener(this);
+        }
+    }
+
+    /**
+     * Keeps the board as it is now as a version, if it changed since the last version kept
+     *  Costs memory in proportion to the tiles changed since; O(1) if nothing changed
+     *
+     * @return long The version of the board kept, or already kept
+     */
+    public long commit() {
+        synchronized (this.board) {
+            long version = this.board.version();
+            if (this.changed){
+                this.versions.put(version, new Snapshot(version, this.length, this.width, this.tilesAlongLength,
+                        this.topShift, this.root));
+                // Nodes of root are the version's now: changes copy them from here on
+                this.generation += 1;
+                this.changed = false;
+                while (this.versions.size() > this.maxVersions){
+                    this.versions.pollFirstEntry();
+                }
+            }
+            return this.versions.lastKey();
+        }
+    }
+
+    /**
+     * Finds the board as it was at a version, without locking
+     *
+     * @param version A version of the board, as Board.version() returns it
+     * @return Optional<Snapshot> The last version kept that is not after version, empty if every version kept
+     *          is after it (it was dropped, or is older than this history)
+     */
+    public Optional<Snapshot> at(long version) {
+        Map.Entry<Long, Snapshot> kept = this.versions.floorEntry(version);
+        return kept == null ? Optional.empty() : Optional.of(kept.getValue());
+    }
+
+    /**
+     * @return long The oldest version kept
+     */
+    public long oldest() {
+        return this.versions.firstKey();
+    }
+
+    /**
+     * @return int The number of versions kept
+     */
+    public int size() {
+        return this.versions.size();
+    }
+
+    /**
+     * Stops listening to the board; the versions kept can still be read
+     */
+    public void close() {
+        this.board.removeListener(this);
+    }
+
+    @Override
+    public void cellChanged(int x, int y, String state) {
+        set(x, y, state.equals("0") ? (byte) ' ' : (byte) state.charAt(0));
+        this.changed = true;
+    }
+
+    @Override
+    public void boardReset() {
+        // Every cell untouched: the shared tree, which no later change alters since it is never owned
+        this.root = this.untouched;
+        this.changed = true;
+    }
+
+    // ---------------------------PRIVATE HELPER METHODS-------------------------------
+
+    /**
+     * Sets the glyph of a cell in root, copying the nodes on its path that belong to a version kept
+     *
+     * @param x The x-coordinate of the cell
+     * @param y The y-coordinate of the cell
+     * @param glyph Its glyph, as toString() shows it
+     */
+    private void set(int x, int y, byte glyph) {
+        int tile = (y >> TILE_BITS) * this.tilesAlongLength + (x >> TILE_BITS);
+        this.root = owned(this.root);
+        Node node = this.root;
+        int shift = this.topShift;
+        while (node.children != null){
+            int child = (tile >>> shift) & BRANCH_MASK;
+            node.children[child] = owned(node.children[child]);
+            node = node.children[child];
+            shift -= BRANCH_BITS;
+        }
+        node.glyphs[((y & TILE_MASK) << TILE_BITS) + (x & TILE_MASK)] = glyph;
+    }
+
+    /**
+     * @param node A node of root
+     * @return Node The node if it is of the current generation, else a copy of it that is
+     */
+    private Node owned(Node node) {
+        if (node.generation == this.generation){
+            return node;
+        }
+        if (node.children == null){
+            return new Node(this.generation, null, node.glyphs.clone());
+        }
+        return new Node(this.generation, node.children.clone(), null);
+    }
+}
@@ -0,0 +1,27 @@
+package minesweeper;
+
+/**
+ * Receives the changes made to the cells of a Board, as they happen
+ * [Methods are called by the thread mutating the Board, with the lock of the Board held:
+ *  they must be quick and must not block]
+ */
+public interface BoardListener {
+
+    /**
+     * Called each time the state of a cell changes (dug, flagged, deflagged, or its number changed
+     *  because a bomb around it was destroyed)
+     *
+     * @param x The x-coordinate of the cell
+     * @param y The y-coordinate of the cell
+     * @param state The new state of the cell (untouched "-", flagged "F", dug "[0-8]")
+     */
+    void cellChanged(int x, int y, String state);
+
+    /**
+     * Called when the Board is reset to a new round: every cell is untouched again and bombs moved,
+     *  no cellChanged() call is made for the cells reset
+     *  Does nothing by default
+     */
+    default void boardReset() {
+    }
+}
@@ -0,0 +1,250 @@
+package minesweeper;
+
+/**
+ * This Class holds the bombs of a Board as packed bitsets, one row of bits per x-coordinate, with the
+ *  number of bombs around every cell kept as 4 bit-planes per row
+ *  Counts of a whole word of 64 cells come from adding the shifted words of the three neighbouring rows
+ *  with carry-save adders, so counting a board takes a few word operations per 64 cells
+ * Its words are kept as the Storage of its Board says
+ * [Not thread-safe: confined to its Board, which accesses it with its lock held]
+ */
+final class BombMap {
+
+    //Constants:
+    private static final int PLANES = 4; // Bits of a count: 0 to 8 bombs around
+
+    //Fields of this ADT:
+    private final int length;
+    private final int width;
+    private final int words; // Words per row
+    private final Memory bombs; // Bit y % 64 of word x * words + y / 64 is set iff (x,y) has a bomb
+    // Bit p of the count of (x,y) is bit y % 64 of word (x * words + y / 64) * PLANES + p
+    private final Memory around;
+
+    // Abstraction function:
+    // - The bombs of a board of size length x width, and how many of them are around each cell
+    //   (in the 8 cells around it, the cell itself excluded)
+
+    // Representation invariant:
+    // - words == ceil(width / 64), bombs holds length * words longs, around length * words * PLANES longs
+    // - Bits of cells y >= width are clear, in bombs and around
+    // - Once counted by countAll(), around holds the counts of bombs, which set() keeps up to date
+
+    /**
+     * Constructs a map of a board without bombs, on the Java heap
+     *
+     * @param length The length of the board, > 0
+     * @param width The width of the board, > 0
+     */
+    BombMap(int length, int width) {
+        this(length, width, Storage.heap());
+    }
+
+    /**
+     * Constructs a map of a board without bombs
+     *
+     * @param length The length of the board, > 0
+     * @param width The width of the board, > 0
+     * @param storage Where to keep the words of the map
+     */
+    BombMap(int length, int width, Storage storage) {
+        this.length = length;
+        this.width = width;
+        this.words = (width + 63) / 64;
+        this.bombs = storage.allocate(length * this.words, Memory.LONGS);
+        this.around = storage.allocate(length * this.words * PLANES, Memory.LONGS);
+    }
+
+    /**
+     * @param x The x-coordinate of a cell in the board
+     * @param y The y-coordinate of a cell in the board
+     * @return boolean True if the cell has a bomb
+     */
+    boolean has(int x, int y) {
+        return (this.bombs.getLong(x * this.words + (y >>> 6)) & (1L << y)) != 0;
+    }
+
+    /**
+     * Places a bomb without updating the counts, for a board being built: countAll() counts them all
+     *
+     * @param x The x-coordinate of a cell in the board
+     * @param y The y-coordinate of a cell in the board
+     */
+    void place(int x, int y) {
+        int word = x * this.words + (y >>> 6);
+        this.bombs.putLong(word, this.bombs.getLong(word) | 1L << y);
+    }
+
+    /**
+     * Removes every bomb, the counts being cleared too
+     */
+    void clear() {
+        this.bombs.fill(0);
+        this.around.fill(0);
+    }
+
+    /**
+     * Gives the memory of the map back at once, see Memory.release(): the map must not be used afterwards
+     */
+    void release() {
+        this.bombs.release();
+        this.around.release();
+    }
+
+    /**
+     * Places or removes a bomb and updates the counts of the cells around it
+     *
+     * @param x The x-coordinate of a cell in the board
+     * @param y The y-coordinate of a cell in the board
+     * @param bomb True to place a bomb, false to remove it
+     * @return boolean True if the cell changed
+     */
+    boolean set(int x, int y, boolean bomb) {
+        if (has(x, y) == bomb){
+            return false;
+        }
+        int word = x * this.words + (y >>> 6);
+        this.bombs.putLong(word, this.bombs.getLong(word) ^ 1L << y);
+        int X = Math.max(0, x - 1);
+        while (X <= Math.min(this.length - 1, x + 1)){
+            int w = Math.max(0, (y - 1) >> 6);
+            while (w <= Math.min(this.words - 1, (y + 1) >> 6)){
+                countWord(X, w);
+                w += 1;
+            }
+            X += 1;
+        }
+        return true;
+    }
+
+    /**
+     * @param x The x-coordinate of a cell in the board
+     * @param y The y-coordinate of a cell in the board
+     * @return int The number of bombs in the 8 cells around it
+     */
+    int around(int x, int y) {
+        int base = (x * this.words + (y >>> 6)) * PLANES;
+        return (int) ((this.around.getLong(base) >>> y) & 1)
+                | (int) ((this.around.getLong(base + 1) >>> y) & 1) << 1
+                | (int) ((this.around.getLong(base + 2) >>> y) & 1) << 2
+                | (int) ((this.around.getLong(base + 3) >>> y) & 1) << 3;
+    }
+
+    /**
+     * @param x The x-coordinate of a row
+     * @param w The index of a word of the row, < words()
+     * @return long The cells of the word with no bomb on them nor around them:
+     *          bit y % 64 set for cell (x,y), 0 <= y < width
+     */
+    long zeroWord(int x, int w) {
+        int word = x * this.words + w;
+        int base = word * PLANES;
+        return ~(this.bombs.getLong(word) | this.around.getLong(base) | this.around.getLong(base + 1)
+                | this.around.getLong(base + 2) | this.around.getLong(base + 3)) & validBits(w);
+    }
+
+    /**
+     * @return int The number of words per row, each covering 64 cells
+     */
+    int words() {
+        return this.words;
+    }
+
+    /**
+     * Counts the bombs around every cell, after the bombs were placed: O(length * width / 64)
+     */
+    void countAll() {
+        int x = 0;
+        while (x < this.length){
+            int w = 0;
+            while (w < this.words){
+                countWord(x, w);
+                w += 1;
+            }
+            x += 1;
+        }
+    }
+
+    // ---------------------------PRIVATE HELPER METHODS-------------------------------
+
+    /**
+     * Counts the bombs around the 64 cells of a word: the 8 neighbour bits of every cell are the words
+     *  of rows x - 1 and x + 1 shifted by -1, 0 and +1 cell, and the word of row x shifted by -1 and +1,
+     *  added bit-parallel by a tree of carry-save adders into 4 bit-planes
+     *
+     * @param x The x-coordinate of the row
+     * @param w The index of the word in the row
+     */
+    private void countWord(int x, int w) {
+        long above = 0, aboveLow = 0, aboveHigh = 0;
+        if (x > 0){
+            above = this.bombs.getLong((x - 1) * this.words + w);
+            aboveLow = fromLower(x - 1, w);
+            aboveHigh = fromHigher(x - 1, w);
+        }
+        long below = 0, belowLow = 0, belowHigh = 0;
+        if (x < this.length - 1){
+            below = this.bombs.getLong((x + 1) * this.words + w);
+            belowLow = fromLower(x + 1, w);
+            belowHigh = fromHigher(x + 1, w);
+        }
+        long low = fromLower(x, w);
+        long high = fromHigher(x, w);
+
+        // Weight 1: three full adders and a half adder reduce 8 bits to 3 sums and 4 carries
+        long s1 = above ^ aboveLow ^ aboveHigh;
+        long c1 = (above & aboveLow) | (aboveHigh & (above ^ aboveLow));
+        long s2 = below ^ belowLow ^ belowHigh;
+        long c2 = (below & belowLow) | (belowHigh & (below ^ belowLow));
+        long s3 = low ^ high;
+        long c3 = low & high;
+        long bit0 = s1 ^ s2 ^ s3;
+        long c4 = (s1 & s2) | (s3 & (s1 ^ s2));
+        // Weight 2: the 4 carries
+        long s5 = c1 ^ c2 ^ c3;
+        long c5 = (c1 & c2) | (c3 & (c1 ^ c2));
+        long bit1 = s5 ^ c4;
+        long c6 = s5 & c4;
+        // Weight 4 and 8
+        long bit2 = c5 ^ c6;
+        long bit3 = c5 & c6;
+
+        long valid = validBits(w);
+        int base = (x * this.words + w) * PLANES;
+        this.around.putLong(base, bit0 & valid);
+        this.around.putLong(base + 1, bit1 & valid);
+        this.around.putLong(base + 2, bit2 & valid);
+        this.around.putLong(base + 3, bit3 & valid);
+    }
+
+    /**
+     * @param x The x-coordinate of a row
+     * @param w The index of a word in the row
+     * @return long The bombs of cells y - 1, at bit y % 64 for the cells y of the word
+     */
+    private long fromLower(int x, int w) {
+        int word = x * this.words + w;
+        long carry = w > 0 ? this.bombs.getLong(word - 1) >>> 63 : 0;
+        return (this.bombs.getLong(word) << 1) | carry;
+    }
+
+    /**
+     * @param x The x-coordinate of a row
+     * @param w The index of a word in the row
+     * @return long The bombs of cells y + 1, at bit y % 64 for the cells y of the word
+     */
+    private long fromHigher(int x, int w) {
+        int word = x * this.words + w;
+        long carry = w < this.words - 1 ? this.bombs.getLong(word + 1) << 63 : 0;
+        return (this.bombs.getLong(word) >>> 1) | carry;
+    }
+
+    /**
+     * @param w The index of a word in a row
+     * @return long The bits of the word that are cells of the board
+     */
+    private long validBits(int w) {
+        int cells = this.width - w * 64;
+        return cells >= 64 ? -1L : (1L << cells) - 1;
+    }
+}
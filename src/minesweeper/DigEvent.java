@@ -0,0 +1,34 @@
+package minesweeper;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a Board.dig(): the cell dug, how many cells it revealed and whether a bomb exploded
+ *  A giant cascade shows as a long one with many cells revealed
+ * [Confined to the thread digging; when no recording enables it, begin() and shouldCommit() are next to free]
+ */
+@Name("minesweeper.Dig")
+@Label("Dig")
+@Category({"Minesweeper", "Board"})
+@Description("A cell dug, with the number of cells revealed")
+@StackTrace(false)
+final class DigEvent extends Event {
+
+    @Label("X")
+    int x;
+
+    @Label("Y")
+    int y;
+
+    @Label("Cells Revealed")
+    int revealed;
+
+    @Label("Alive")
+    @Description("False if a bomb exploded")
+    boolean alive;
+}
@@ -0,0 +1,36 @@
+package minesweeper;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of the flood-fill revealing the cells around a dug cell with no bomb around: a whole
+ *  dig (from dig() or chord()), or one slice of it (from continueDig())
+ * [Confined to the thread digging; when no recording enables it, begin() and shouldCommit() are next to free]
+ */
+@Name("minesweeper.FloodFill")
+@Label("Flood Fill")
+@Category({"Minesweeper", "Board"})
+@Description("Cells revealed around a dug cell, by the zero region index or by the flood-fill")
+@StackTrace(false)
+final class FloodFillEvent extends Event {
+
+    @Label("Cells Revealed")
+    int revealed;
+
+    @Label("Cells Pending")
+    @Description("Cells left for the next slices, 0 once the dig is complete")
+    int pending;
+
+    @Label("Zero Region")
+    @Description("True if the cells were revealed from the index of zero regions, without a flood-fill")
+    boolean zeroRegion;
+
+    @Label("Sliced")
+    @Description("True for one slice of a dig revealed in slices")
+    boolean sliced;
+}
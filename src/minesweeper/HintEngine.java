@@ -0,0 +1,329 @@
+package minesweeper;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This Class deduces which cells of a Board are provably safe and which are provably mined,
+ *  using only the numbers revealed on it (flags are players' guesses, not proofs)
+ * It is incremental: it listens to the Board and only re-examines the revealed cells around
+ *  the cells that changed since the last hint, instead of solving the whole board again
+ * [Clients may synchronize with each other using the Board object: all methods lock it]
+ */
+public class HintEngine implements BoardListener {
+
+    //Constants:
+    private static final byte UNKNOWN = 0;
+    private static final byte SAFE = 1;
+    private static final byte MINE = 2;
+
+    //Fields of this ADT:
+    private final Board board;
+    private final int length;
+    private final int width;
+    private final byte[] deduced; // Indexed by x * width + y
+    private final Deque<Integer> pending = new ArrayDeque<>();
+    private final BitSet isPending = new BitSet();
+    private final Set<Integer> safeCells = new LinkedHashSet<>();
+    private final Set<Integer> minedCells = new LinkedHashSet<>();
+
+    // Abstraction function:
+    // - The knowledge a perfect player reading board would have: deduced[x * width + y] is SAFE if the
+    //   cell (x,y) provably has no bomb, MINE if it provably has one, UNKNOWN otherwise
+    // - safeCells and minedCells are the cells deduced SAFE and MINE that are not dug yet (the hint)
+    // - pending are the revealed cells whose neighbourhood changed since they were last examined
+
+    // Representation invariant:
+    // - deduced.length == length * width
+    // - isPending has exactly the bits of the cells in pending set
+    // - every cell of safeCells is deduced SAFE, every cell of minedCells is deduced MINE
+
+    // Soundness argument:
+    // - A bomb is only ever removed from the board (when dug) so a cell deduced SAFE stays safe,
+    //   and a cell deduced MINE stays mined until it is dug, at which point it leaves minedCells
+    // - Numbers only change when a bomb is destroyed, the cell changes are then re-examined
+    // - A reset forgets every deduction, nothing being revealed in the new round
+
+    // Thread Safety:
+    // - Every method locks board (cellChanged is called by board with its lock held), so the engine
+    //   is only ever accessed by one thread at a time and sees a consistent board
+
+    /**
+     * Constructs the engine for a board and registers it as a listener of the board
+     *  Already revealed cells are examined on the first hint
+     *
+     * @param board The board to give hints about
+     */
+    public HintEngine(Board board) {
+        this.board = board;
+        this.length = board.sizeList().get(0);
+        this.width = board.sizeList().get(1);
+        this.deduced = new byte[this.length * this.width];
+        synchronized (board) {
+            int x = 0;
+            while (x < this.length){
+                int y = 0;
+                while (y < this.width){
+                    if (isRevealed(x, y)){
+                        schedule(x, y);
+                    }
+                    y += 1;
+                }
+                x += 1;
+            }
+            board.addListener(this);
+        }
+    }
+
+    @Override
+    public void cellChanged(int x, int y, String state) {
+        // Flags are ignored: only revealed numbers are evidence
+        if (!isNumber(state)){
+            return;
+        }
+        int index = x * this.width + y;
+        safeCells.remove(index);
+        minedCells.remove(index);
+        // The cell has a new number and its neighbours lost an unknown cell
+        scheduleAround(x, y);
+    }
+
+    @Override
+    public void boardReset() {
+        // Nothing is revealed in a new round: nothing is known
+        Arrays.fill(deduced, UNKNOWN);
+        pending.clear();
+        isPending.clear();
+        safeCells.clear();
+        minedCells.clear();
+    }
+
+    /**
+     * Returns the cells not dug yet that provably have no bomb
+     *
+     * @return List<List<Integer>> The cells as [x, y] lists
+     */
+    public List<List<Integer>> safeCells() {
+        synchronized (this.board) {
+            propagate();
+            return toCoordinates(safeCells);
+        }
+    }
+
+    /**
+     * Returns the cells not dug yet that provably have a bomb
+     *
+     * @return List<List<Integer>> The cells as [x, y] lists
+     */
+    public List<List<Integer>> minedCells() {
+        synchronized (this.board) {
+            propagate();
+            return toCoordinates(minedCells);
+        }
+    }
+
+    /**
+     * Stops listening to the board
+     */
+    public void close() {
+        this.board.removeListener(this);
+    }
+
+    // ---------------------------PRIVATE HELPER METHODS-------------------------------
+
+    /**
+     * Examines pending cells until no more deduction can be made
+     *  Each deduction schedules the revealed cells around the deduced cell
+     */
+    private void propagate() {
+        while (!pending.isEmpty()){
+            int index = pending.poll();
+            isPending.clear(index);
+            examine(index / this.width, index % this.width);
+        }
+    }
+
+    /**
+     * Applies the deduction rules to one revealed cell:
+     *  - all unknown cells around are safe if the number is already reached by known mines
+     *  - all unknown cells around are mines if there are just as many as the mines left
+     *  - against each revealed cell nearby whose unknown cells include ours, the difference
+     *    of the two sets holds the difference of the two mine counts
+     *
+     * @param x The x-coordinate of the revealed cell
+     * @param y The y-coordinate of the revealed cell
+     */
+    private void examine(int x, int y) {
+        if (!isRevealed(x, y)){
+            return;
+        }
+        List<Integer> unknown = new ArrayList<>(8);
+        int minesLeft = unknownAround(x, y, unknown);
+        if (unknown.isEmpty()){
+            return;
+        }
+        if (minesLeft == 0){
+            deduceAll(unknown, SAFE);
+            return;
+        }
+        if (minesLeft == unknown.size()){
+            deduceAll(unknown, MINE);
+            return;
+        }
+        // Subset rule against the revealed cells sharing unknown cells with this one (5 x 5 around)
+        List<Integer> otherUnknown = new ArrayList<>(8);
+        int X = Math.max(0, x - 2);
+        while (X <= Math.min(this.length - 1, x + 2)){
+            int Y = Math.max(0, y - 2);
+            while (Y <= Math.min(this.width - 1, y + 2)){
+                if ((X != x || Y != y) && isRevealed(X, Y)){
+                    otherUnknown.clear();
+                    int otherMinesLeft = unknownAround(X, Y, otherUnknown);
+                    if (otherUnknown.size() > unknown.size() && otherUnknown.containsAll(unknown)){
+                        subtract(otherUnknown, unknown, otherMinesLeft - minesLeft);
+                    }
+                    else if (unknown.size() > otherUnknown.size() && !otherUnknown.isEmpty()
+                            && unknown.containsAll(otherUnknown)){
+                        subtract(unknown, otherUnknown, minesLeft - otherMinesLeft);
+                    }
+                }
+                Y += 1;
+            }
+            X += 1;
+        }
+    }
+
+    /**
+     * Deduces what can be deduced from the cells of a set that are not in one of its subsets
+     *
+     * @param set The bigger set of unknown cells
+     * @param subset The unknown cells of set holding a known number of mines
+     * @param minesInDifference The number of mines in set but not in subset
+     */
+    private void subtract(List<Integer> set, List<Integer> subset, int minesInDifference) {
+        List<Integer> difference = new ArrayList<>(set);
+        difference.removeAll(subset);
+        if (minesInDifference == 0){
+            deduceAll(difference, SAFE);
+        }
+        else if (minesInDifference == difference.size()){
+            deduceAll(difference, MINE);
+        }
+    }
+
+    /**
+     * Collects the undeduced cells around a revealed cell that are not dug
+     *
+     * @param x The x-coordinate of the revealed cell
+     * @param y The y-coordinate of the revealed cell
+     * @param unknown Where the indices of the unknown cells are added
+     * @return int The number of bombs around the cell that are not known yet
+     */
+    private int unknownAround(int x, int y, List<Integer> unknown) {
+        int minesLeft = this.board.state(x, y).charAt(0) - '0';
+        int X = Math.max(0, x - 1);
+        while (X <= Math.min(this.length - 1, x + 1)){
+            int Y = Math.max(0, y - 1);
+            while (Y <= Math.min(this.width - 1, y + 1)){
+                int index = X * this.width + Y;
+                if ((X != x || Y != y) && !isRevealed(X, Y)){
+                    if (deduced[index] == MINE){
+                        minesLeft -= 1;
+                    }
+                    else if (deduced[index] == UNKNOWN){
+                        unknown.add(index);
+                    }
+                }
+                Y += 1;
+            }
+            X += 1;
+        }
+        return minesLeft;
+    }
+
+    /**
+     * Records deductions and schedules the revealed cells around the newly deduced cells
+     *
+     * @param cells The indices of the cells
+     * @param what SAFE or MINE
+     */
+    private void deduceAll(List<Integer> cells, byte what) {
+        for (int index : cells){
+            if (deduced[index] == UNKNOWN){
+                deduced[index] = what;
+                (what == SAFE ? safeCells : minedCells).add(index);
+                scheduleAround(index / this.width, index % this.width);
+            }
+        }
+    }
+
+    /**
+     * Schedules a cell and the cells around it for examination
+     *
+     * @param x The x-coordinate of the center cell
+     * @param y The y-coordinate of the center cell
+     */
+    private void scheduleAround(int x, int y) {
+        int X = Math.max(0, x - 1);
+        while (X <= Math.min(this.length - 1, x + 1)){
+            int Y = Math.max(0, y - 1);
+            while (Y <= Math.min(this.width - 1, y + 1)){
+                schedule(X, Y);
+                Y += 1;
+            }
+            X += 1;
+        }
+    }
+
+    /**
+     * Schedules one cell for examination if it is not already scheduled
+     *
+     * @param x The x-coordinate of the cell
+     * @param y The y-coordinate of the cell
+     */
+    private void schedule(int x, int y) {
+        int index = x * this.width + y;
+        if (!isPending.get(index)){
+            isPending.set(index);
+            pending.add(index);
+        }
+    }
+
+    /**
+     * @param x The x-coordinate of the cell
+     * @param y The y-coordinate of the cell
+     * @return boolean True if the cell is dug and shows a number
+     */
+    private boolean isRevealed(int x, int y) {
+        return isNumber(this.board.state(x, y));
+    }
+
+    /**
+     * @param state The state of a cell
+     * @return boolean True if it is a dug state "[0-8]"
+     */
+    private static boolean isNumber(String state) {
+        char first = state.charAt(0);
+        return first >= '0' && first <= '8';
+    }
+
+    /**
+     * Converts cell indices to coordinates
+     *
+     * @param cells The indices x * width + y
+     * @return List<List<Integer>> The [x, y] coordinates in the same order
+     */
+    private List<List<Integer>> toCoordinates(Set<Integer> cells) {
+        List<List<Integer>> coordinates = new ArrayList<>(cells.size());
+        for (int index : cells){
+            coordinates.add(List.of(index / this.width, index % this.width));
+        }
+        return coordinates;
+    }
+}
@@ -0,0 +1,346 @@
+package minesweeper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * This Class is an array of bytes, ints or longs of a Board, indexed from 0 like a Java array, kept on
+ *  the Java heap or off it as the Storage of the Board says
+ *  Off the heap, the array is cut in chunks of at most 1 GiB (a ByteBuffer is indexed by an int)
+ * [Not thread-safe: confined to its Board, which accesses it with its lock held]
+ */
+abstract class Memory {
+
+    //Constants:
+    static final int BYTES = 0; // Element sizes, as shifts of an index to a byte offset
+    static final int INTS = 2;
+    static final int LONGS = 3;
+
+    /**
+     * @param index The index of an element of a byte array
+     * @return byte The element
+     */
+    abstract byte getByte(int index);
+
+    /**
+     * @param index The index of an element of a byte array
+     * @param value The new value of the element
+     */
+    abstract void putByte(int index, byte value);
+
+    /**
+     * @param index The index of an element of an int array
+     * @return int The element
+     */
+    abstract int getInt(int index);
+
+    /**
+     * @param index The index of an element of an int array
+     * @param value The new value of the element
+     */
+    abstract void putInt(int index, int value);
+
+    /**
+     * @param index The index of an element of a long array
+     * @return long The element
+     */
+    abstract long getLong(int index);
+
+    /**
+     * @param index The index of an element of a long array
+     * @param value The new value of the element
+     */
+    abstract void putLong(int index, long value);
+
+    /**
+     * Sets every element of the array
+     *
+     * @param value The value, cast to the type of the elements
+     */
+    abstract void fill(long value);
+
+    /**
+     * Gives the memory of the array back at once (off the heap), rather than when it is garbage collected
+     *  The array must not be used afterwards: doing so throws a RuntimeException
+     */
+    abstract void release();
+
+    /**
+     * An array on the Java heap
+     */
+    static final class Heap extends Memory {
+
+        //Fields of this ADT:
+        private byte[] bytes;
+        private int[] ints;
+        private long[] longs;
+
+        // Abstraction function:
+        // - The array of the type of the only field not null, or a released array if all are null
+
+        /**
+         * Allocates an array of zeros
+         *
+         * @param count The number of elements, >= 0
+         * @param shift The size of the elements: BYTES, INTS or LONGS
+         */
+        Heap(int count, int shift) {
+            if (shift == BYTES){
+                this.bytes = new byte[count];
+            }
+            else if (shift == INTS){
+                this.ints = new int[count];
+            }
+            else{
+                this.longs = new long[count];
+            }
+        }
+
+        @Override
+        byte getByte(int index) {
+            return this.bytes[index];
+        }
+
+        @Override
+        void putByte(int index, byte value) {
+            this.bytes[index] = value;
+        }
+
+        @Override
+        int getInt(int index) {
+            return this.ints[index];
+        }
+
+        @Override
+        void putInt(int index, int value) {
+            this.ints[index] = value;
+        }
+
+        @Override
+        long getLong(int index) {
+            return this.longs[index];
+        }
+
+        @Override
+        void putLong(int index, long value) {
+            this.longs[index] = value;
+        }
+
+        @Override
+        void fill(long value) {
+            if (this.bytes != null){
+                Arrays.fill(this.bytes, (byte) value);
+            }
+            else if (this.ints != null){
+                Arrays.fill(this.ints, (int) value);
+            }
+            else{
+                Arrays.fill(this.longs, value);
+            }
+        }
+
+        @Override
+        void release() {
+            // Left to the garbage collector, even if the Board is still referenced
+            this.bytes = null;
+            this.ints = null;
+            this.longs = null;
+        }
+    }
+
+    /**
+     * An array off the Java heap: in direct buffers, or in buffers mapped from a file
+     *  Its memory is counted in neither the heap nor (when mapped) the direct memory limit of the JVM
+     */
+    static final class OffHeap extends Memory {
+
+        //Constants:
+        private static final int CHUNK_BITS = 30; // Chunks of 1 GiB
+        private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+        //Fields of this ADT:
+        private final int shift;
+        private final long size; // In bytes
+        private ByteBuffer[] chunks;
+        private final File mapped; // The file mapped, or null for direct buffers
+
+        // Abstraction function:
+        // - The array of elements of 1 << shift bytes whose element i is at byte offset i << shift of the
+        //   concatenation of chunks, in native byte order, or a released array if chunks is null
+        // - mapped is the file holding the array, deleted when it is released, if not null
+
+        // Representation invariant:
+        // - Every chunk but the last holds 1 << CHUNK_BITS bytes, they hold size bytes in all
+
+        /**
+         * Allocates an array of zeros
+         *
+         * @param count The number of elements, >= 0
+         * @param shift The size of the elements: BYTES, INTS or LONGS
+         * @param directory Where to create the file to map the array from, or null for direct buffers
+         * @throws UncheckedIOException if the file cannot be created or mapped
+         */
+        OffHeap(int count, int shift, File directory) {
+            this.shift = shift;
+            this.size = (long) count << shift;
+            this.chunks = new ByteBuffer[(int) ((this.size + CHUNK_MASK) >>> CHUNK_BITS)];
+            if (directory == null){
+                this.mapped = null;
+                int chunk = 0;
+                while (chunk < this.chunks.length){
+                    this.chunks[chunk] = ByteBuffer.allocateDirect(chunkSize(chunk)).order(ByteOrder.nativeOrder());
+                    chunk += 1;
+                }
+                return;
+            }
+            try {
+                this.mapped = File.createTempFile("board", ".mem", directory);
+                try (RandomAccessFile file = new RandomAccessFile(this.mapped, "rw")) {
+                    // Sparse: only the pages written take disk space
+                    file.setLength(this.size);
+                    FileChannel channel = file.getChannel();
+                    int chunk = 0;
+                    while (chunk < this.chunks.length){
+                        // The mapping stays valid once the channel is closed
+                        this.chunks[chunk] = channel.map(FileChannel.MapMode.READ_WRITE,
+                                (long) chunk << CHUNK_BITS, chunkSize(chunk)).order(ByteOrder.nativeOrder());
+                        chunk += 1;
+                    }
+                }
+            } catch (IOException ioe) {
+                throw new UncheckedIOException("cannot map board memory in " + directory, ioe);
+            }
+        }
+
+        @Override
+        byte getByte(int index) {
+            long offset = index;
+            return this.chunks[(int) (offset >>> CHUNK_BITS)].get((int) (offset & CHUNK_MASK));
+        }
+
+        @Override
+        void putByte(int index, byte value) {
+            long offset = index;
+            this.chunks[(int) (offset >>> CHUNK_BITS)].put((int) (offset & CHUNK_MASK), value);
+        }
+
+        @Override
+        int getInt(int index) {
+            long offset = (long) index << 2;
+            return this.chunks[(int) (offset >>> CHUNK_BITS)].getInt((int) (offset & CHUNK_MASK));
+        }
+
+        @Override
+        void putInt(int index, int value) {
+            long offset = (long) index << 2;
+            this.chunks[(int) (offset >>> CHUNK_BITS)].putInt((int) (offset & CHUNK_MASK), value);
+        }
+
+        @Override
+        long getLong(int index) {
+            long offset = (long) index << 3;
+            return this.chunks[(int) (offset >>> CHUNK_BITS)].getLong((int) (offset & CHUNK_MASK));
+        }
+
+        @Override
+        void putLong(int index, long value) {
+            long offset = (long) index << 3;
+            this.chunks[(int) (offset >>> CHUNK_BITS)].putLong((int) (offset & CHUNK_MASK), value);
+        }
+
+        @Override
+        void fill(long value) {
+            for (ByteBuffer chunk : this.chunks){
+                int offset = 0;
+                int end = chunk.capacity();
+                while (offset < end){
+                    if (this.shift == BYTES){
+                        chunk.put(offset, (byte) value);
+                    }
+                    else if (this.shift == INTS){
+                        chunk.putInt(offset, (int) value);
+                    }
+                    else{
+                        chunk.putLong(offset, value);
+                    }
+                    offset += 1 << this.shift;
+                }
+            }
+        }
+
+        @Override
+        void release() {
+            if (this.chunks == null){
+                return;
+            }
+            ByteBuffer[] released = this.chunks;
+            // Any later access fails on null instead of reading memory given back
+            this.chunks = null;
+            for (ByteBuffer chunk : released){
+                Cleaner.free(chunk);
+            }
+            if (this.mapped != null && !this.mapped.delete()){
+                this.mapped.deleteOnExit();
+            }
+        }
+
+        /**
+         * @param chunk The index of a chunk
+         * @return int Its size in bytes
+         */
+        private int chunkSize(int chunk) {
+            return (int) Math.min(1L << CHUNK_BITS, this.size - ((long) chunk << CHUNK_BITS));
+        }
+    }
+
+    /**
+     * Frees direct and mapped buffers at once, through the only way the JDK offers before the Foreign
+     *  Memory API: sun.misc.Unsafe.invokeCleaner(), found by reflection (module jdk.unsupported)
+     *  Where it is unavailable, buffers are left to the garbage collector
+     */
+    private static final class Cleaner {
+
+        //Constants:
+        private static final Object UNSAFE;
+        private static final Method INVOKE_CLEANER;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                unsafe = theUnsafe.get(null);
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                unsafe = null;
+                invokeCleaner = null;
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+        }
+
+        /**
+         * @param buffer A direct or mapped buffer, not a slice of one, never used again
+         */
+        private static void free(ByteBuffer buffer) {
+            if (INVOKE_CLEANER == null){
+                return;
+            }
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } catch (ReflectiveOperationException e) {
+                // Left to the garbage collector
+            }
+        }
+    }
+}
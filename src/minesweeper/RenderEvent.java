@@ -0,0 +1,38 @@
+package minesweeper;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a rendering of the Board (toString(), toBytes()): the rectangle rendered and the
+ *  bytes produced
+ * [Confined to the thread rendering; when no recording enables it, begin() and shouldCommit() are next to free]
+ */
+@Name("minesweeper.Render")
+@Label("Render")
+@Category({"Minesweeper", "Board"})
+@Description("A rectangle of the board rendered as text")
+@StackTrace(false)
+final class RenderEvent extends Event {
+
+    @Label("X")
+    int x;
+
+    @Label("Y")
+    int y;
+
+    @Label("Length")
+    int length;
+
+    @Label("Width")
+    int width;
+
+    @Label("Bytes")
+    @DataAmount
+    int bytes;
+}
@@ -0,0 +1,102 @@
+package minesweeper;
+
+import java.io.File;
+import java.util.Optional;
+
+/**
+ * This Class says where a Board keeps the state of its cells and bombs: on the Java heap (the default),
+ *  off the heap in direct memory, or off the heap in memory mapped from a file
+ *  Whatever the storage, a Board behaves the same: off the heap, a board larger than the heap can be
+ *  played, its memory is not scanned by the garbage collector, and Board.close() gives it back at once
+ * [Immutable: a Storage may be shared by any number of Boards]
+ */
+public final class Storage {
+
+    //Constants:
+    private static final Storage HEAP = new Storage(false, Optional.empty());
+    private static final Storage OFF_HEAP = new Storage(true, Optional.empty());
+
+    //Fields of this ADT:
+    private final boolean offHeap;
+    private final Optional<File> directory;
+
+    // Abstraction function:
+    // - Arrays on the Java heap if !offHeap, else off the heap: mapped from files created in directory
+    //   if present, else in direct memory
+
+    // Representation invariant:
+    // - directory is empty if !offHeap
+
+    /**
+     * @param offHeap True to keep arrays off the Java heap
+     * @param directory Where to create the files mapped, if any
+     */
+    private Storage(boolean offHeap, Optional<File> directory) {
+        this.offHeap = offHeap;
+        this.directory = directory;
+    }
+
+    /**
+     * @return Storage Arrays on the Java heap, the default
+     */
+    public static Storage heap() {
+        return HEAP;
+    }
+
+    /**
+     * Direct memory is limited by the JVM option -XX:MaxDirectMemorySize (by default, the maximum heap size)
+     *
+     * @return Storage Arrays off the Java heap, in direct memory
+     */
+    public static Storage offHeap() {
+        return OFF_HEAP;
+    }
+
+    /**
+     * Files are created in the directory when a Board is constructed, and deleted when it is closed
+     *  (or at exit): the operating system pages them in and out, so a Board may exceed the physical memory
+     *
+     * @param directory Where to create the files, an existing directory
+     * @return Storage Arrays off the Java heap, in memory mapped from files
+     */
+    public static Storage mapped(File directory) {
+        return new Storage(true, Optional.of(directory));
+    }
+
+    /**
+     * @return boolean True if arrays are kept off the Java heap
+     */
+    public boolean isOffHeap() {
+        return this.offHeap;
+    }
+
+    /**
+     * @return Optional<File> The directory of the files arrays are mapped from, if they are
+     */
+    public Optional<File> directory() {
+        return this.directory;
+    }
+
+    /**
+     * Allocates an array of zeros as this Storage says
+     *
+     * @param count The number of elements, >= 0
+     * @param shift The size of the elements: Memory.BYTES, Memory.INTS or Memory.LONGS
+     * @return Memory The array
+     * @throws java.io.UncheckedIOException if a mapped file cannot be created
+     */
+    Memory allocate(int count, int shift) {
+        if (!this.offHeap){
+            return new Memory.Heap(count, shift);
+        }
+        return new Memory.OffHeap(count, shift, this.directory.orElse(null));
+    }
+
+    @Override
+    public String toString() {
+        if (!this.offHeap){
+            return "heap";
+        }
+        return this.directory.isPresent() ? "mapped:" + this.directory.get() : "off-heap";
+    }
+}
@@ -0,0 +1,151 @@
+package minesweeper.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This Class is a client's model of the board of a MinesweeperServer: the cells as the server last showed
+ *  them, updated by the MinesweeperClient as replies and pushes are read
+ * [Thread-safe: every method locks this ClientBoard, so a frame is always seen whole]
+ */
+public final class ClientBoard {
+
+    //Constants:
+    private static final byte UNTOUCHED = '-';
+
+    //Fields of this ADT:
+    private final int length;
+    private final int width;
+    private final byte[] glyphs; // Indexed by y * length + x
+    private long frames = 0;
+    private int rounds = 0;
+    private boolean cleared = false;
+
+    // Abstraction function:
+    // - The board of length x width cells whose cell (x,y) was last shown as glyphs[y * length + x],
+    //   as in Board.toString(), after frames whole boards were received, rounds resets were told about
+    //   and the board told cleared if cleared
+
+    // Representation invariant:
+    // - glyphs.length == length * width, every glyph is one of "- F12345678" (space for 0)
+
+    /**
+     * Constructs the model of a board whose cells are all untouched
+     *
+     * @param length The number of columns of the board, > 0
+     * @param width The number of rows of the board, > 0
+     */
+    ClientBoard(int length, int width) {
+        this.length = length;
+        this.width = width;
+        this.glyphs = new byte[length * width];
+        Arrays.fill(this.glyphs, UNTOUCHED);
+    }
+
+    /**
+     * @return int The number of columns of the board (its x-coordinates)
+     */
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * @return int The number of rows of the board (its y-coordinates)
+     */
+    public int width() {
+        return this.width;
+    }
+
+    /**
+     * @param x The x-coordinate of a cell of the board
+     * @param y The y-coordinate of a cell of the board
+     * @return String The state the server last showed it in, as Board.state() gives it: "-", "F" or "0" to "8"
+     * @throws IllegalArgumentException if the cell is not in the board
+     */
+    public synchronized String state(int x, int y) {
+        if (x < 0 || x >= this.length || y < 0 || y >= this.width){
+            throw new IllegalArgumentException("cell " + x + "," + y + " not in the board");
+        }
+        byte glyph = this.glyphs[y * this.length + x];
+        return glyph == ' ' ? "0" : String.valueOf((char) glyph);
+    }
+
+    /**
+     * @return long The number of whole boards received so far
+     */
+    public synchronized long frames() {
+        return this.frames;
+    }
+
+    /**
+     * @return int The number of new rounds the server told about so far
+     */
+    public synchronized int rounds() {
+        return this.rounds;
+    }
+
+    /**
+     * @return boolean True if the server told every safe cell of this round is revealed
+     */
+    public synchronized boolean cleared() {
+        return this.cleared;
+    }
+
+    @Override
+    public synchronized String toString() {
+        byte[] rendered = new byte[this.width * (2 * this.length + 1)];
+        int position = 0;
+        int y = 0;
+        while (y < this.width){
+            int x = 0;
+            while (x < this.length){
+                rendered[position] = this.glyphs[y * this.length + x];
+                rendered[position + 1] = (byte) ' ';
+                position += 2;
+                x += 1;
+            }
+            rendered[position - 1] = (byte) '\r';
+            rendered[position] = (byte) '\n';
+            position += 1;
+            y += 1;
+        }
+        return new String(rendered, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Replaces every cell with those of a whole board received
+     *
+     * @param frame The glyphs of the board, indexed by y * length + x
+     */
+    synchronized void frame(byte[] frame) {
+        System.arraycopy(frame, 0, this.glyphs, 0, this.glyphs.length);
+        this.frames += 1;
+    }
+
+    /**
+     * Changes a cell, as the server pushed it
+     *
+     * @param x The x-coordinate of the cell, in the board
+     * @param y The y-coordinate of the cell, in the board
+     * @param glyph Its glyph
+     */
+    synchronized void cell(int x, int y, byte glyph) {
+        this.glyphs[y * this.length + x] = glyph;
+    }
+
+    /**
+     * Starts a new round: every cell untouched, the board not cleared
+     */
+    synchronized void reset() {
+        Arrays.fill(this.glyphs, UNTOUCHED);
+        this.rounds += 1;
+        this.cleared = false;
+    }
+
+    /**
+     * Records that every safe cell of this round is revealed
+     */
+    synchronized void clear() {
+        this.cleared = true;
+    }
+}
@@ -0,0 +1,646 @@
+package minesweeper.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * This Class is a client of MinesweeperServer whose commands are asynchronous: each returns a future at once,
+ *  and many commands may be in flight on the one connection (pipelined), the server replying in order
+ * Replies are parsed as they arrive, straight from the bytes read, into a ClientBoard: the client's model of
+ *  the board, also kept up to date by what the server pushes (new rounds, cleared board, viewport changes)
+ * Commands are written by a writer thread, which sends all the commands queued since its last write at once;
+ *  replies are read by a reader thread; both reuse their buffers
+ * The client may ask the server to compress what it sends ('compress'), replies are then inflated as read
+ * [Thread-safe: commands may be sent by any number of threads. Futures are completed by the reader thread,
+ *  so what depends on them should be quick, or run asynchronously]
+ */
+public class MinesweeperClient implements Closeable {
+
+    //Constants:
+    private static final int DEFAULT_MAX_IN_FLIGHT = 256;
+    private static final int INITIAL_BUFFER_BYTES = 8192;
+    private static final Pattern WELCOME = Pattern.compile(
+            "Welcome to Minesweeper\\. Board: (\\d+) columns by (\\d+) rows\\..*");
+    private static final byte[] BOOM = ascii("BOOM!");
+    private static final byte[] CLEARED = ascii("All safe cells revealed! The board is cleared.");
+    private static final byte[] NEW_ROUND = ascii("New round: the board was reset.");
+    private static final byte[] CHANGED = ascii("Changed:");
+    private static final byte[] HELP = ascii("Available Actions:"); // The first of two lines
+    private static final byte[] COMPRESS = ascii("compress\n");
+    private static final byte[] COMPRESSING = ascii("Compressing: deflate");
+
+    /**
+     * The commands sent, and what their reply completes
+     */
+    private enum Kind {
+        LOOK("look"), DIG("dig"), CHORD("chord"), FLAG("flag"), DEFLAG("deflag");
+
+        private final byte[] command;
+
+        /**
+         * @param command The command, as sent
+         */
+        Kind(String command) {
+            this.command = ascii(command);
+        }
+    }
+
+    /**
+     * A command sent and not replied yet
+     */
+    private static final class Pending {
+        private final Kind kind;
+        private final CompletableFuture<Boolean> dug; // For DIG and CHORD, else null
+        private final CompletableFuture<ClientBoard> shown; // For LOOK, FLAG and DEFLAG, else null
+
+        /**
+         * @param kind The command
+         */
+        private Pending(Kind kind) {
+            this.kind = kind;
+            boolean digging = kind == Kind.DIG || kind == Kind.CHORD;
+            this.dug = digging ? new CompletableFuture<>() : null;
+            this.shown = digging ? null : new CompletableFuture<>();
+        }
+
+        /**
+         * @param cause Why the command has no reply
+         */
+        private void fail(Throwable cause) {
+            if (this.dug != null){
+                this.dug.completeExceptionally(cause);
+            }
+            else{
+                this.shown.completeExceptionally(cause);
+            }
+        }
+    }
+
+    //Fields of this ADT:
+    private final Socket socket;
+    private InputStream in; // Inflating the socket's stream once compressing, used by the reader thread only
+    private Inflater inflater = null; // Of in if compressing, used by the reader thread only
+    private final OutputStream out;
+    private final ClientBoard board;
+    private final Semaphore inFlight; // Permits for the commands not replied yet
+    private final Object sendLock = new Object(); // Guards pending, outgoing, outgoingLength and failure
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>(); // Commands sent, in order, not replied yet
+    private byte[] outgoing = new byte[INITIAL_BUFFER_BYTES]; // Commands not written yet
+    private int outgoingLength = 0;
+    private IOException failure = null; // Why the connection is over, if it is
+    private byte[] input = new byte[INITIAL_BUFFER_BYTES]; // Bytes read, used by the reader thread only
+    private int position = 0; // Start of the bytes of input not parsed yet
+    private int limit = 0; // End of the bytes of input read
+    private int lineStart = 0; // The last line read is input[lineStart, lineEnd), without its "\r\n"
+    private int lineEnd = 0;
+    private final byte[] frame; // A board being received, by y * length + x, used by the reader thread only
+
+    // Abstraction function:
+    // - A connection on socket to a MinesweeperServer whose board was last shown as board, with the commands
+    //   of pending sent (or in outgoing, to be written) and waiting for their reply, in order;
+    //   over if failure is not null
+
+    // Representation invariant:
+    // - pending.size() + inFlight.availablePermits() == maxInFlight, except while a command is being sent
+    //   or completed
+    // - pending is empty if failure is not null
+
+    // Thread Safety:
+    // - pending, outgoing and failure are guarded by sendLock: a command is queued in pending and in outgoing
+    //   atomically, so pending is in the order the server receives the commands, hence in reply order
+    // - input, its positions and frame are confined to the reader thread, board is thread-safe
+
+    /**
+     * Connects to a MinesweeperServer, with up to 256 commands in flight
+     *
+     * @param host The host of the server
+     * @param port The port of the server
+     * @return MinesweeperClient A client connected, its model of the board untouched
+     * @throws IOException if the connection fails, or the server does not welcome the client
+     */
+    public static MinesweeperClient connect(String host, int port) throws IOException {
+        return connect(host, port, DEFAULT_MAX_IN_FLIGHT, false);
+    }
+
+    /**
+     * Connects to a MinesweeperServer
+     *
+     * @param host The host of the server
+     * @param port The port of the server
+     * @param maxInFlight How many commands may wait for their reply at once, > 0: sending one more waits
+     *                    for a reply (the server disconnects clients that fall too far behind reading)
+     * @param compress True to ask the server to compress what it sends: fewer bytes for large boards,
+     *                 for some CPU on both ends
+     * @return MinesweeperClient A client connected, its model of the board untouched
+     * @throws IOException if the connection fails, the server does not welcome the client, or does not
+     *                     offer compression when asked
+     */
+    public static MinesweeperClient connect(String host, int port, int maxInFlight, boolean compress)
+            throws IOException {
+        if (maxInFlight <= 0){
+            throw new IllegalArgumentException("max in flight " + maxInFlight + " must be positive");
+        }
+        Socket socket = new Socket(host, port);
+        try {
+            socket.setTcpNoDelay(true);
+            return new MinesweeperClient(socket, maxInFlight, compress);
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the welcome of the server, asks for compression if wanted, then starts the reader and writer threads
+     *
+     * @param socket A socket connected to the server
+     * @param maxInFlight How many commands may wait for their reply at once, > 0
+     * @param compress True to ask the server to compress what it sends
+     * @throws IOException if the server does not welcome the client, or does not offer compression when asked
+     */
+    private MinesweeperClient(Socket socket, int maxInFlight, boolean compress) throws IOException {
+        this.socket = socket;
+        this.in = socket.getInputStream();
+        this.out = socket.getOutputStream();
+        this.inFlight = new Semaphore(maxInFlight);
+        if (!readLine()){
+            throw new IOException("connection closed before the welcome");
+        }
+        Matcher welcome = WELCOME.matcher(lineString());
+        if (!welcome.matches()){
+            throw new IOException("not a Minesweeper server: " + lineString());
+        }
+        this.board = new ClientBoard(Integer.parseInt(welcome.group(1)), Integer.parseInt(welcome.group(2)));
+        this.frame = new byte[this.board.length() * this.board.width()];
+        if (compress){
+            startInflating();
+        }
+        Thread reader = new Thread(this::read, "client-reader");
+        reader.setDaemon(true);
+        reader.start();
+        Thread writer = new Thread(this::write, "client-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * @return ClientBoard The client's model of the board, as the server last showed it
+     */
+    public ClientBoard board() {
+        return this.board;
+    }
+
+    /**
+     * @return CompletableFuture<ClientBoard> The model of the board, once updated with the board as the server
+     *          shows it; fails with RefusedException if the server refused, IOException if disconnected
+     */
+    public CompletableFuture<ClientBoard> look() {
+        return send(Kind.LOOK, 0, 0).shown;
+    }
+
+    /**
+     * @param x The x-coordinate of the cell to dig
+     * @param y The y-coordinate of the cell to dig
+     * @return CompletableFuture<Boolean> False if a bomb was dug (BOOM!, the model is then not updated,
+     *          and a server not in debug mode disconnects), else true once the model is updated
+     */
+    public CompletableFuture<Boolean> dig(int x, int y) {
+        return send(Kind.DIG, x, y).dug;
+    }
+
+    /**
+     * @param x The x-coordinate of a revealed cell whose unflagged neighbours to dig
+     * @param y The y-coordinate of the cell
+     * @return CompletableFuture<Boolean> As dig()
+     */
+    public CompletableFuture<Boolean> chord(int x, int y) {
+        return send(Kind.CHORD, x, y).dug;
+    }
+
+    /**
+     * @param x The x-coordinate of the cell to flag
+     * @param y The y-coordinate of the cell to flag
+     * @return CompletableFuture<ClientBoard> As look()
+     */
+    public CompletableFuture<ClientBoard> flag(int x, int y) {
+        return send(Kind.FLAG, x, y).shown;
+    }
+
+    /**
+     * @param x The x-coordinate of the cell to deflag
+     * @param y The y-coordinate of the cell to deflag
+     * @return CompletableFuture<ClientBoard> As look()
+     */
+    public CompletableFuture<ClientBoard> deflag(int x, int y) {
+        return send(Kind.DEFLAG, x, y).shown;
+    }
+
+    /**
+     * Disconnects; the commands still waiting for their reply fail
+     */
+    @Override
+    public void close() {
+        fail(new IOException("client closed"));
+    }
+
+    // ---------------------------PRIVATE HELPER METHODS-------------------------------
+
+    /**
+     * Queues a command for the writer thread, waiting first if maxInFlight commands wait for their reply
+     *
+     * @param kind The command
+     * @param x Its x-coordinate, if it has one
+     * @param y Its y-coordinate, if it has one
+     * @return Pending The command, failed already if the connection is over
+     */
+    private Pending send(Kind kind, int x, int y) {
+        Pending command = new Pending(kind);
+        try {
+            this.inFlight.acquire();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            command.fail(new InterruptedIOException("interrupted before sending"));
+            return command;
+        }
+        synchronized (this.sendLock) {
+            if (this.failure != null){
+                this.inFlight.release();
+                command.fail(this.failure);
+                return command;
+            }
+            this.pending.add(command);
+            append(kind.command);
+            if (kind != Kind.LOOK){
+                appendByte((byte) ' ');
+                appendInt(x);
+                appendByte((byte) ' ');
+                appendInt(y);
+            }
+            appendByte((byte) '\n');
+            this.sendLock.notifyAll();
+        }
+        return command;
+    }
+
+    /**
+     * Body of the writer thread: writes the commands queued, all of those queued at once in one write
+     */
+    private void write() {
+        byte[] writing = new byte[INITIAL_BUFFER_BYTES];
+        try {
+            while (true){
+                int length;
+                synchronized (this.sendLock) {
+                    while (this.outgoingLength == 0 && this.failure == null){
+                        this.sendLock.wait();
+                    }
+                    if (this.failure != null){
+                        return;
+                    }
+                    // The buffers are swapped, never reallocated unless a burst outgrows them
+                    byte[] queued = this.outgoing;
+                    this.outgoing = writing;
+                    writing = queued;
+                    length = this.outgoingLength;
+                    this.outgoingLength = 0;
+                }
+                this.out.write(writing, 0, length);
+                this.out.flush();
+            }
+        } catch (IOException ioe) {
+            fail(ioe);
+        } catch (InterruptedException ie) {
+            fail(new InterruptedIOException("writer interrupted"));
+        }
+    }
+
+    /**
+     * Body of the reader thread: parses the replies and pushes of the server until the connection is over
+     */
+    private void read() {
+        try {
+            while (readLine()){
+                parseLine();
+            }
+            fail(new IOException("connection closed by the server"));
+        } catch (IOException ioe) {
+            fail(ioe);
+        } finally {
+            if (this.inflater != null){
+                this.inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Sends 'compress', then reads through an Inflater from the first byte after the reply
+     *  Called before the reader and writer threads start
+     *
+     * @throws IOException if the connection fails, or the server does not offer compression
+     */
+    private void startInflating() throws IOException {
+        this.out.write(COMPRESS);
+        this.out.flush();
+        while (true){
+            if (!readLine()){
+                throw new IOException("connection closed before compression started");
+            }
+            if (lineEquals(COMPRESSING)){
+                break;
+            }
+            if (lineStartsWith(HELP)){
+                throw new IOException("the server does not offer compression");
+            }
+            // Pushed before the reply
+            parseLine();
+        }
+        // The bytes read past the reply are the start of the deflate stream
+        InputStream readAhead = new ByteArrayInputStream(Arrays.copyOfRange(this.input, this.position, this.limit));
+        this.inflater = new Inflater(true);
+        this.in = new InflaterInputStream(new SequenceInputStream(readAhead, this.in), this.inflater,
+                INITIAL_BUFFER_BYTES);
+        this.position = 0;
+        this.limit = 0;
+    }
+
+    /**
+     * Handles the line just read: a push, or the start of the reply to the oldest command pending
+     *
+     * @throws IOException if the connection fails in the middle of a reply
+     */
+    private void parseLine() throws IOException {
+        if (lineStartsWith(CHANGED)){
+            parseChanges();
+            return;
+        }
+        if (lineEquals(CLEARED)){
+            this.board.clear();
+            return;
+        }
+        if (lineEquals(NEW_ROUND)){
+            this.board.reset();
+            return;
+        }
+        Pending command;
+        synchronized (this.sendLock) {
+            command = this.pending.poll();
+        }
+        if (command == null){
+            // Nothing asked: a frame pushed to a spectator, or a closed client's reply
+            return;
+        }
+        this.inFlight.release();
+        if (isRow()){
+            parseFrame();
+            if (command.dug != null){
+                command.dug.complete(true);
+            }
+            else{
+                command.shown.complete(this.board);
+            }
+        }
+        else if (lineEquals(BOOM) && command.dug != null){
+            command.dug.complete(false);
+        }
+        else if (lineStartsWith(HELP)){
+            String help = lineString();
+            if (readLine()){
+                help += " " + lineString();
+            }
+            command.fail(new RefusedException(help));
+        }
+        else{
+            command.fail(new RefusedException(lineString()));
+        }
+    }
+
+    /**
+     * Parses a whole board, the line just read being its first row, into the model
+     *
+     * @throws IOException if the connection fails before the last row
+     */
+    private void parseFrame() throws IOException {
+        int length = this.board.length();
+        int y = 0;
+        while (true){
+            int x = 0;
+            while (x < length){
+                this.frame[y * length + x] = this.input[this.lineStart + 2 * x];
+                x += 1;
+            }
+            y += 1;
+            if (y == this.board.width()){
+                break;
+            }
+            if (!readLine() || !isRow()){
+                throw new IOException("board cut at row " + y);
+            }
+        }
+        this.board.frame(this.frame);
+    }
+
+    /**
+     * Applies the line just read, "Changed: x,y=S x,y=S ...", to the model
+     */
+    private void parseChanges() {
+        int i = this.lineStart + CHANGED.length;
+        while (i < this.lineEnd){
+            // " x,y=S"
+            i += 1;
+            int x = 0;
+            while (this.input[i] != ','){
+                x = 10 * x + this.input[i] - '0';
+                i += 1;
+            }
+            i += 1;
+            int y = 0;
+            while (this.input[i] != '='){
+                y = 10 * y + this.input[i] - '0';
+                i += 1;
+            }
+            byte state = this.input[i + 1];
+            i += 2;
+            if (x < this.board.length() && y < this.board.width()){
+                this.board.cell(x, y, state == '0' ? (byte) ' ' : state);
+            }
+        }
+    }
+
+    /**
+     * Reads the next line, growing input only for a line longer than it
+     *
+     * @return boolean False if the connection ended
+     * @throws IOException if the connection fails
+     */
+    private boolean readLine() throws IOException {
+        int scan = this.position;
+        while (true){
+            while (scan < this.limit){
+                if (this.input[scan] == '\n'){
+                    this.lineStart = this.position;
+                    this.lineEnd = scan > this.position && this.input[scan - 1] == '\r' ? scan - 1 : scan;
+                    this.position = scan + 1;
+                    return true;
+                }
+                scan += 1;
+            }
+            if (this.position > 0){
+                // The start of the line to the front: the buffer is reused
+                System.arraycopy(this.input, this.position, this.input, 0, this.limit - this.position);
+                scan -= this.position;
+                this.limit -= this.position;
+                this.position = 0;
+            }
+            if (this.limit == this.input.length){
+                this.input = Arrays.copyOf(this.input, 2 * this.input.length);
+            }
+            int read = this.in.read(this.input, this.limit, this.input.length - this.limit);
+            if (read < 0){
+                return false;
+            }
+            this.limit += read;
+        }
+    }
+
+    /**
+     * @return boolean True if the line just read is a row of the board: a glyph per cell, separated by spaces
+     */
+    private boolean isRow() {
+        if (this.lineEnd - this.lineStart != 2 * this.board.length() - 1){
+            return false;
+        }
+        byte first = this.input[this.lineStart];
+        boolean glyph = first == '-' || first == 'F' || first == ' ' || (first >= '1' && first <= '8');
+        return glyph && (this.board.length() == 1 || this.input[this.lineStart + 1] == ' ');
+    }
+
+    /**
+     * @param text Some ASCII text
+     * @return boolean True if the line just read is the text
+     */
+    private boolean lineEquals(byte[] text) {
+        return this.lineEnd - this.lineStart == text.length && lineStartsWith(text);
+    }
+
+    /**
+     * @param text Some ASCII text
+     * @return boolean True if the line just read starts with the text
+     */
+    private boolean lineStartsWith(byte[] text) {
+        return this.lineEnd - this.lineStart >= text.length
+                && Arrays.equals(this.input, this.lineStart, this.lineStart + text.length, text, 0, text.length);
+    }
+
+    /**
+     * @return String The line just read
+     */
+    private String lineString() {
+        return new String(this.input, this.lineStart, this.lineEnd - this.lineStart, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Ends the connection, failing the commands waiting for their reply; only the first cause is kept
+     *
+     * @param cause Why
+     */
+    private void fail(IOException cause) {
+        List<Pending> failed;
+        synchronized (this.sendLock) {
+            if (this.failure == null){
+                this.failure = cause;
+            }
+            failed = new ArrayList<>(this.pending);
+            this.pending.clear();
+            this.sendLock.notifyAll();
+        }
+        this.inFlight.release(failed.size());
+        for (Pending command : failed){
+            command.fail(this.failure);
+        }
+        try {
+            this.socket.close();
+        } catch (IOException ioe) {
+            // Closed anyway
+        }
+    }
+
+    /**
+     * Appends bytes to outgoing, growing it if needed; sendLock must be held
+     *
+     * @param bytes The bytes
+     */
+    private void append(byte[] bytes) {
+        ensureOutgoing(bytes.length);
+        System.arraycopy(bytes, 0, this.outgoing, this.outgoingLength, bytes.length);
+        this.outgoingLength += bytes.length;
+    }
+
+    /**
+     * Appends a byte to outgoing, growing it if needed; sendLock must be held
+     *
+     * @param b The byte
+     */
+    private void appendByte(byte b) {
+        ensureOutgoing(1);
+        this.outgoing[this.outgoingLength] = b;
+        this.outgoingLength += 1;
+    }
+
+    /**
+     * Appends the decimal digits of an int to outgoing, without creating a String; sendLock must be held
+     *
+     * @param value The int
+     */
+    private void appendInt(int value) {
+        long remaining = value;
+        if (remaining < 0){
+            appendByte((byte) '-');
+            remaining = -remaining;
+        }
+        long divisor = 1;
+        while (divisor * 10 <= remaining){
+            divisor *= 10;
+        }
+        while (divisor > 0){
+            appendByte((byte) ('0' + remaining / divisor));
+            remaining %= divisor;
+            divisor /= 10;
+        }
+    }
+
+    /**
+     * Makes room in outgoing; sendLock must be held
+     *
+     * @param bytes The number of bytes to be appended
+     */
+    private void ensureOutgoing(int bytes) {
+        if (this.outgoingLength + bytes > this.outgoing.length){
+            this.outgoing = Arrays.copyOf(this.outgoing, Math.max(2 * this.outgoing.length, this.outgoingLength + bytes));
+        }
+    }
+
+    /**
+     * @param text Some ASCII text
+     * @return byte[] Its bytes
+     */
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,17 @@
+package minesweeper.client;
+
+/**
+ * Thrown (as the cause of a failed future) when a MinesweeperServer replies to a command with a refusal
+ *  instead of a board: rate limited, spectating, or a command it did not understand
+ */
+public class RefusedException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param reply The reply of the server
+     */
+    public RefusedException(String reply) {
+        super(reply);
+    }
+}
@@ -0,0 +1,76 @@
+package minesweeper.replay;
+
+/**
+ * The commands of a Minesweeper session that use the Board, as recorded in a command log
+ *  Each has a one byte opcode in the log, the opcode 0 being reserved for checkpoints
+ */
+public enum Command {
+    /** 'look' */
+    LOOK(1, false),
+    /** 'status' */
+    STATUS(2, false),
+    /** 'hint' */
+    HINT(3, false),
+    /** 'dig x y' */
+    DIG(4, true),
+    /** 'chord x y' */
+    CHORD(5, true),
+    /** 'flag x y' */
+    FLAG(6, true),
+    /** 'deflag x y' */
+    DEFLAG(7, true),
+    /** 'reset' or 'reset SEED': a new round, followed by how its bombs were placed in a log */
+    RESET(8, false),
+    /** 'dig x y' revealing its cells in slices: the dig starts, nothing is revealed yet */
+    DIG_START(9, true),
+    /** The next slice of a sliced dig, followed by the dig it continues and its size in a log */
+    DIG_SLICE(10, false);
+
+    //Constants:
+    private static final Command[] BY_OPCODE = new Command[11];
+    static {
+        for (Command command : values()){
+            BY_OPCODE[command.opcode] = command;
+        }
+    }
+
+    //Fields of this ADT:
+    private final int opcode;
+    private final boolean hasCoordinates;
+
+    /**
+     * @param opcode The byte identifying the command in a log, > 0
+     * @param hasCoordinates True if the command is about a cell
+     */
+    Command(int opcode, boolean hasCoordinates) {
+        this.opcode = opcode;
+        this.hasCoordinates = hasCoordinates;
+    }
+
+    /**
+     * @return int The byte identifying the command in a log
+     */
+    public int opcode() {
+        return this.opcode;
+    }
+
+    /**
+     * @return boolean True if the command is about a cell, followed by its x and y in a log
+     */
+    public boolean hasCoordinates() {
+        return this.hasCoordinates;
+    }
+
+    /**
+     * Returns the command with an opcode
+     *
+     * @param opcode The byte read from a log
+     * @return Command The command, or null if no command has this opcode
+     */
+    public static Command fromOpcode(int opcode) {
+        if (opcode <= 0 || opcode >= BY_OPCODE.length){
+            return null;
+        }
+        return BY_OPCODE[opcode];
+    }
+}
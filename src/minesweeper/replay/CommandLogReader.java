@@ -0,0 +1,287 @@
+package minesweeper.replay;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Optional;
+
+import minesweeper.Board;
+
+/**
+ * This Class reads back, one record at a time, a command log written by CommandRecorder
+ *  A log cut in the middle of a record (the server was killed) ends at the last complete record
+ * [Not thread-safe: a reader must be confined to one thread]
+ */
+public class CommandLogReader implements Closeable {
+
+    //Fields of this ADT:
+    private final DataInputStream in;
+    private final int kind;
+    private final int length;
+    private final int width;
+    private final long seed; // Meaningful if kind == SEEDED
+    private final String boardPath; // Meaningful if kind == FROM_FILE
+    // The current record:
+    private boolean checkpoint = false;
+    private Command command = null;
+    private int session = 0;
+    private long micros = 0; // Since the log was opened
+    private int x = 0;
+    private int y = 0;
+    private long version = 0;
+    private int crc = 0;
+    private int resetKind = 0;
+    private long resetSeed = 0; // Meaningful if resetKind == SEEDED
+    private long dig = 0; // Meaningful for DIG_SLICE
+    private int sliceCells = 0; // Meaningful for DIG_SLICE
+
+    // Abstraction function:
+    // - A log of commands applied to a board of size length x width, built from seed or loaded
+    //   from boardPath depending on kind, read up to the current record
+    // - The current record is a checkpoint (version, crc) if checkpoint is true, else command
+    //   sent by session, about (x,y) if command.hasCoordinates()
+    // - micros is the time of the current record since the log was opened
+    // - A RESET command placed the bombs of the new round from resetSeed or loaded them from the board
+    //   file again, depending on resetKind
+    // - A DIG_SLICE command revealed at most sliceCells more cells of the sliced dig numbered dig
+
+    // Representation invariant:
+    // - kind is SEEDED or FROM_FILE
+    // - length > 0, width > 0
+
+    /**
+     * Opens a log and reads its header
+     *
+     * @param log The log written by a CommandRecorder
+     * @throws IOException if the log cannot be read or is not a command log
+     */
+    public CommandLogReader(File log) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(log), 1 << 16));
+        try {
+            if (this.in.readInt() != CommandRecorder.MAGIC){
+                throw new IOException(log + " is not a command log");
+            }
+            int format = this.in.readUnsignedByte();
+            if (format < 1 || format > CommandRecorder.FORMAT){
+                throw new IOException("unknown command log format " + format);
+            }
+            this.kind = this.in.readUnsignedByte();
+            this.length = (int) readVarLong();
+            this.width = (int) readVarLong();
+            if (this.kind == CommandRecorder.SEEDED){
+                this.seed = this.in.readLong();
+                this.boardPath = null;
+            }
+            else if (this.kind == CommandRecorder.FROM_FILE){
+                this.seed = 0;
+                this.boardPath = this.in.readUTF();
+            }
+            else{
+                throw new IOException("unknown board kind " + this.kind);
+            }
+        } catch (IOException ioe) {
+            this.in.close();
+            throw ioe;
+        }
+    }
+
+    /**
+     * Constructs the board the recorded commands were first applied to, untouched
+     *
+     * @param boardFile If present, the file to load the board from instead of the recorded path
+     *                  (ignored when the board was built from a seed)
+     * @return Board A new board, identical to the recorded one before the first command
+     * @throws IOException if the board file has a different size than recorded
+     */
+    public Board newBoard(Optional<File> boardFile) throws IOException {
+        if (this.kind == CommandRecorder.SEEDED){
+            return new Board(this.length, this.width, this.seed);
+        }
+        Board board = new Board(boardFile.orElse(new File(this.boardPath)));
+        if (board.sizeList().get(0) != this.length || board.sizeList().get(1) != this.width){
+            throw new IOException("board file is " + board.sizeList() + ", recorded ["
+                    + this.length + ", " + this.width + "]");
+        }
+        return board;
+    }
+
+    /**
+     * Applies the current record, a RESET command, to a board: starts the same new round as recorded
+     *
+     * @param board The board replayed on, from newBoard()
+     * @param boardFile If present, the file to load the board from instead of the recorded path
+     *                  (ignored when the new round was placed from a seed)
+     * @throws IOException if the board file cannot be read
+     */
+    public void reset(Board board, Optional<File> boardFile) throws IOException {
+        if (this.resetKind == CommandRecorder.SEEDED){
+            board.reset(this.resetSeed);
+        }
+        else{
+            board.reset(boardFile.orElse(new File(this.boardPath)));
+        }
+    }
+
+    /**
+     * Moves to the next record
+     *
+     * @return boolean False if there is no complete record left
+     * @throws IOException if the log cannot be read or is corrupt
+     */
+    public boolean next() throws IOException {
+        try {
+            int opcode = this.in.read();
+            if (opcode < 0){
+                return false;
+            }
+            if (opcode == CommandRecorder.CHECKPOINT){
+                this.checkpoint = true;
+                this.command = null;
+                this.micros += readVarLong();
+                this.version = readVarLong();
+                this.crc = this.in.readInt();
+                return true;
+            }
+            Command read = Command.fromOpcode(opcode);
+            if (read == null){
+                throw new IOException("unknown opcode " + opcode);
+            }
+            this.checkpoint = false;
+            this.command = read;
+            this.session = (int) readVarLong();
+            this.micros += readVarLong();
+            if (read.hasCoordinates()){
+                this.x = unzigzag(readVarLong());
+                this.y = unzigzag(readVarLong());
+            }
+            if (read == Command.DIG_SLICE){
+                this.dig = readVarLong();
+                this.sliceCells = (int) readVarLong();
+            }
+            if (read == Command.RESET){
+                this.resetKind = this.in.readUnsignedByte();
+                if (this.resetKind == CommandRecorder.SEEDED){
+                    this.resetSeed = this.in.readLong();
+                }
+                else if (this.resetKind != CommandRecorder.FROM_FILE){
+                    throw new IOException("unknown board kind " + this.resetKind);
+                }
+            }
+            return true;
+        } catch (EOFException eofe) {
+            // Cut in the middle of a record
+            return false;
+        }
+    }
+
+    /**
+     * @return boolean True if the current record is a checkpoint, false if it is a command
+     */
+    public boolean isCheckpoint() {
+        return this.checkpoint;
+    }
+
+    /**
+     * @return Command The command of the current record, null for a checkpoint
+     */
+    public Command command() {
+        return this.command;
+    }
+
+    /**
+     * @return int The session that sent the command of the current record
+     */
+    public int session() {
+        return this.session;
+    }
+
+    /**
+     * @return long The time of the current record, in microseconds since the log was opened
+     */
+    public long micros() {
+        return this.micros;
+    }
+
+    /**
+     * @return int The x-coordinate given with the command of the current record
+     */
+    public int x() {
+        return this.x;
+    }
+
+    /**
+     * @return int The y-coordinate given with the command of the current record
+     */
+    public int y() {
+        return this.y;
+    }
+
+    /**
+     * @return long The number of the sliced dig continued by the current DIG_SLICE record,
+     *          DIG_START records being numbered from 0 in the order of the log
+     */
+    public long dig() {
+        return this.dig;
+    }
+
+    /**
+     * @return int The number of cells the current DIG_SLICE record revealed at most
+     */
+    public int sliceCells() {
+        return this.sliceCells;
+    }
+
+    /**
+     * @return long The version of the board at the current checkpoint
+     */
+    public long checkpointVersion() {
+        return this.version;
+    }
+
+    /**
+     * @return int The CRC-32 of what the board showed at the current checkpoint
+     */
+    public int checkpointCrc() {
+        return this.crc;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+    // ---------------------------PRIVATE HELPER METHODS-------------------------------
+
+    /**
+     * Reads an unsigned variable-length integer written by CommandRecorder
+     *
+     * @return long The integer
+     * @throws IOException if the log cannot be read or the integer is too long
+     */
+    private long readVarLong() throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (shift < 64){
+            int b = this.in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0){
+                return value;
+            }
+            shift += 7;
+        }
+        throw new IOException("variable-length integer too long");
+    }
+
+    /**
+     * @param value A zigzag encoded integer
+     * @return int The signed integer it encodes
+     */
+    private static int unzigzag(long value) {
+        int zigzag = (int) value;
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
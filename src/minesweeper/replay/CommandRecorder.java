@@ -0,0 +1,380 @@
+package minesweeper.replay;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+import minesweeper.Board;
+
+/**
+ * This Class appends the commands applied to a Board to a compact binary command log,
+ *  read back by CommandLogReader to replay them on a fresh Board (see Replay)
+ * <pre>
+ *   LOG ::= HEADER RECORD*
+ *   HEADER ::= MAGIC FORMAT KIND LENGTH WIDTH (SEED | PATH)
+ *   RECORD ::= OPCODE SESSION MICROS (X Y)? | RESET SESSION MICROS (SEEDED SEED | FROM_FILE)
+ *            | DIG_SLICE SESSION MICROS DIG CELLS | CHECKPOINT MICROS VERSION CRC
+ * </pre>
+ * MAGIC is "MSWL", FORMAT and KIND are one byte, SEED is 8 bytes, CRC is 4 bytes and PATH is written by
+ *  DataOutput.writeUTF. OPCODE is the one byte opcode of a Command, CHECKPOINT is the byte 0.
+ *  RESET is the opcode of Command.RESET, then SEEDED or FROM_FILE is one byte (the same as KIND): the new round
+ *  has its bombs placed from SEED, or loaded again from the board file of the header.
+ *  DIG_SLICE is the opcode of Command.DIG_SLICE: the next slice of the sliced dig started by the DIG_START
+ *  record numbered DIG (counting from 0 in the log), revealing at most CELLS cells.
+ *  LENGTH, WIDTH, SESSION, VERSION, DIG, CELLS and MICROS (microseconds since the previous record) are unsigned
+ *  variable-length integers, X and Y are zigzag encoded variable-length integers (they may be out of the board)
+ * [Thread-safe: every method locks the Board, so records are in the order the Board applied the commands]
+ */
+public class CommandRecorder implements Closeable {
+
+    //Constants:
+    static final int MAGIC = 0x4D53574C; // "MSWL"
+    static final int FORMAT = 2; // Format 1 has no sliced digs
+    static final int SEEDED = 0; // Board of a size and a seed
+    static final int FROM_FILE = 1; // Board loaded from a file
+    static final int CHECKPOINT = 0;
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 4096; // Records between checkpoints
+
+    //Fields of this ADT:
+    private final Board board;
+    private final DataOutputStream out;
+    private final int checkpointInterval;
+    private final long start = System.nanoTime();
+    private long lastMicros = 0;
+    private int sinceCheckpoint = 0;
+    private long digsStarted = 0; // DIG_START records written
+    private boolean closed = false;
+
+    // Abstraction function:
+    // - The log of the commands applied to board since this recorder was opened: what out has
+    //   written so far, then a checkpoint of board every checkpointInterval commands
+    // - lastMicros is the time of the last record, in microseconds since start
+    // - digsStarted is the number of sliced digs started so far, the next one being numbered digsStarted
+
+    // Representation invariant:
+    // - 0 <= sinceCheckpoint < checkpointInterval
+    // - checkpointInterval > 0
+
+    // Thread Safety:
+    // - All fields are accessed with the lock of board held, which callers applying commands
+    //   to board already hold (the lock is reentrant)
+
+    /**
+     * Opens a new log for a board of a size whose bombs were placed from a seed
+     *
+     * @param log Where the log is written, replaced if it exists
+     * @param board The board the commands are applied to, untouched so far
+     * @param seed The seed board was constructed with
+     * @param checkpointInterval The number of commands between two checkpoints, > 0
+     * @return CommandRecorder The recorder
+     * @throws IOException if the log cannot be written
+     */
+    public static CommandRecorder seeded(File log, Board board, long seed, int checkpointInterval)
+            throws IOException {
+        CommandRecorder recorder = new CommandRecorder(log, board, checkpointInterval);
+        recorder.writeHeader(SEEDED);
+        recorder.out.writeLong(seed);
+        return recorder;
+    }
+
+    /**
+     * Opens a new log for a board of a size whose bombs were placed from a seed,
+     *  with the default checkpoint interval
+     *
+     * @param log Where the log is written, replaced if it exists
+     * @param board The board the commands are applied to, untouched so far
+     * @param seed The seed board was constructed with
+     * @return CommandRecorder The recorder
+     * @throws IOException if the log cannot be written
+     */
+    public static CommandRecorder seeded(File log, Board board, long seed) throws IOException {
+        return seeded(log, board, seed, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * Opens a new log for a board loaded from a file
+     *
+     * @param log Where the log is written, replaced if it exists
+     * @param board The board the commands are applied to, untouched so far
+     * @param boardFile The file board was loaded from
+     * @param checkpointInterval The number of commands between two checkpoints, > 0
+     * @return CommandRecorder The recorder
+     * @throws IOException if the log cannot be written
+     */
+    public static CommandRecorder fromFile(File log, Board board, File boardFile, int checkpointInterval)
+            throws IOException {
+        CommandRecorder recorder = new CommandRecorder(log, board, checkpointInterval);
+        recorder.writeHeader(FROM_FILE);
+        recorder.out.writeUTF(boardFile.getPath());
+        return recorder;
+    }
+
+    /**
+     * Opens a new log for a board loaded from a file, with the default checkpoint interval
+     *
+     * @param log Where the log is written, replaced if it exists
+     * @param board The board the commands are applied to, untouched so far
+     * @param boardFile The file board was loaded from
+     * @return CommandRecorder The recorder
+     * @throws IOException if the log cannot be written
+     */
+    public static CommandRecorder fromFile(File log, Board board, File boardFile) throws IOException {
+        return fromFile(log, board, boardFile, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * @param log Where the log is written
+     * @param board The board the commands are applied to
+     * @param checkpointInterval The number of commands between two checkpoints
+     * @throws IOException if the log cannot be opened
+     */
+    private CommandRecorder(File log, Board board, int checkpointInterval) throws IOException {
+        if (checkpointInterval <= 0){
+            throw new IllegalArgumentException("checkpoint interval " + checkpointInterval + " must be positive");
+        }
+        this.board = board;
+        this.checkpointInterval = checkpointInterval;
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(log), 1 << 16));
+    }
+
+    /**
+     * Appends a command just applied to the board, and a checkpoint if one is due
+     *  Records are buffered, they reach the file at each checkpoint
+     *
+     * @param session The id of the session that sent the command, >= 0
+     * @param command The command
+     * @param x The x-coordinate given with the command, ignored if it has none
+     * @param y The y-coordinate given with the command, ignored if it has none
+     * @throws IOException if the log cannot be written
+     */
+    public void record(int session, Command command, int x, int y) throws IOException {
+        synchronized (this.board) {
+            if (this.closed){
+                return;
+            }
+            this.out.writeByte(command.opcode());
+            writeVarLong(this.out, session);
+            writeVarLong(this.out, elapsedMicros());
+            if (command.hasCoordinates()){
+                writeVarLong(this.out, zigzag(x));
+                writeVarLong(this.out, zigzag(y));
+            }
+            recorded();
+        }
+    }
+
+    /**
+     * Appends the start of a sliced dig, just applied with Board.startDig(), and a checkpoint if one is due
+     *  Each slice of the dig must then be appended by digSlice(), right after it is applied
+     *
+     * @param session The id of the session that sent the dig, >= 0
+     * @param x The x-coordinate of the cell dug
+     * @param y The y-coordinate of the cell dug
+     * @return long The number identifying the dig in its slices, -1 if the log is closed
+     * @throws IOException if the log cannot be written
+     */
+    public long startDig(int session, int x, int y) throws IOException {
+        synchronized (this.board) {
+            if (this.closed){
+                return -1;
+            }
+            record(session, Command.DIG_START, x, y);
+            this.digsStarted += 1;
+            return this.digsStarted - 1;
+        }
+    }
+
+    /**
+     * Appends a slice of a sliced dig, just applied with Board.continueDig(), and a checkpoint if one is due
+     *  Every slice is recorded, the last one included, so a replay reveals the same cells at the same point
+     *
+     * @param session The id of the session that sent the dig, >= 0
+     * @param dig The number of the dig, returned by startDig()
+     * @param cells The number of cells the slice could reveal at most
+     * @throws IOException if the log cannot be written
+     */
+    public void digSlice(int session, long dig, int cells) throws IOException {
+        synchronized (this.board) {
+            if (this.closed || dig < 0){
+                return;
+            }
+            this.out.writeByte(Command.DIG_SLICE.opcode());
+            writeVarLong(this.out, session);
+            writeVarLong(this.out, elapsedMicros());
+            writeVarLong(this.out, dig);
+            writeVarLong(this.out, cells);
+            recorded();
+        }
+    }
+
+    /**
+     * Appends the reset of the board to a new round, just applied, and a checkpoint if one is due
+     *
+     * @param session The id of the session that reset the board, >= 0
+     * @param seed The seed the bombs of the new round were placed from
+     * @throws IOException if the log cannot be written
+     */
+    public void reset(int session, long seed) throws IOException {
+        synchronized (this.board) {
+            if (this.closed){
+                return;
+            }
+            writeReset(session, SEEDED);
+            this.out.writeLong(seed);
+            recorded();
+        }
+    }
+
+    /**
+     * Appends the reset of the board to a new round, just applied, the bombs being loaded again from
+     *  the board file the log was opened with, and a checkpoint if one is due
+     *
+     * @param session The id of the session that reset the board, >= 0
+     * @throws IOException if the log cannot be written
+     */
+    public void resetFromFile(int session) throws IOException {
+        synchronized (this.board) {
+            if (this.closed){
+                return;
+            }
+            writeReset(session, FROM_FILE);
+            recorded();
+        }
+    }
+
+    /**
+     * Appends a checkpoint of the board, that a replay must reach too, and writes the log to the file
+     *
+     * @throws IOException if the log cannot be written
+     */
+    public void checkpoint() throws IOException {
+        synchronized (this.board) {
+            if (this.closed){
+                return;
+            }
+            this.out.writeByte(CHECKPOINT);
+            writeVarLong(this.out, elapsedMicros());
+            writeVarLong(this.out, this.board.version());
+            this.out.writeInt(crc(this.board));
+            this.out.flush();
+            this.sinceCheckpoint = 0;
+        }
+    }
+
+    /**
+     * Appends a last checkpoint and closes the log, later records are ignored
+     *
+     * @throws IOException if the log cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this.board) {
+            if (this.closed){
+                return;
+            }
+            try {
+                checkpoint();
+            } finally {
+                this.closed = true;
+                this.out.close();
+            }
+        }
+    }
+
+    /**
+     * Returns the checksum of what a board shows, as written in checkpoints
+     *
+     * @param board The board
+     * @return int The CRC-32 of board.toBytes()
+     */
+    static int crc(Board board) {
+        CRC32 crc = new CRC32();
+        crc.update(board.toBytes());
+        return (int) crc.getValue();
+    }
+
+    // ---------------------------PRIVATE HELPER METHODS-------------------------------
+
+    /**
+     * Writes the part of the header common to every kind of board
+     *
+     * @param kind SEEDED or FROM_FILE
+     * @throws IOException if the log cannot be written
+     */
+    private void writeHeader(int kind) throws IOException {
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(FORMAT);
+        this.out.writeByte(kind);
+        writeVarLong(this.out, this.board.sizeList().get(0));
+        writeVarLong(this.out, this.board.sizeList().get(1));
+    }
+
+    /**
+     * Writes the beginning of a reset record
+     *
+     * @param session The id of the session that reset the board
+     * @param kind SEEDED or FROM_FILE
+     * @throws IOException if the log cannot be written
+     */
+    private void writeReset(int session, int kind) throws IOException {
+        this.out.writeByte(Command.RESET.opcode());
+        writeVarLong(this.out, session);
+        writeVarLong(this.out, elapsedMicros());
+        this.out.writeByte(kind);
+    }
+
+    /**
+     * Counts a record just written, and appends a checkpoint if one is due
+     *
+     * @throws IOException if the log cannot be written
+     */
+    private void recorded() throws IOException {
+        this.sinceCheckpoint += 1;
+        if (this.sinceCheckpoint == this.checkpointInterval){
+            checkpoint();
+        }
+    }
+
+    /**
+     * Returns the time since the previous record and makes now the time of the last record
+     *
+     * @return long Microseconds since the previous record, >= 0
+     */
+    private long elapsedMicros() {
+        long now = (System.nanoTime() - this.start) / 1000;
+        long elapsed = Math.max(0, now - this.lastMicros);
+        this.lastMicros = Math.max(now, this.lastMicros);
+        return elapsed;
+    }
+
+    /**
+     * Writes an unsigned variable-length integer: 7 bits per byte, low bits first,
+     *  the high bit of a byte set when more bytes follow
+     *
+     * @param out Where to write
+     * @param value The integer, >= 0
+     * @throws IOException if out cannot be written
+     */
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0){
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Maps signed integers to unsigned ones so that small negative numbers stay small:
+     *  0, -1, 1, -2, 2... become 0, 1, 2, 3, 4...
+     *
+     * @param value The signed integer
+     * @return long The unsigned integer
+     */
+    private static long zigzag(int value) {
+        return Integer.toUnsignedLong((value << 1) ^ (value >> 31));
+    }
+}
@@ -0,0 +1,269 @@
+package minesweeper.replay;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import minesweeper.Board;
+import minesweeper.HintEngine;
+
+/**
+ * This Class replays a command log on a fresh Board, on one thread and in the recorded order,
+ *  either at the recorded pace or as fast as possible, checking the board against every checkpoint
+ *  It runs what the server runs for each command (rendering for 'look', hints for 'hint'...)
+ *  so the throughput it reports is the Board's under recorded traffic, without the network
+ */
+public class Replay {
+
+    //Fields of this ADT:
+    private final File log;
+    private final Optional<File> boardFile;
+    private final boolean originalPace;
+    private Board board = null;
+    private long commands = 0;
+    private final BitSet sessions = new BitSet();
+    private int checkpoints = 0;
+    private long nanos = 0;
+    private Optional<String> mismatch = Optional.empty();
+    private long rendered = 0; // Bytes rendered, used so rendering is not optimized away
+    private final Map<Long, Board.Reveal> slicedDigs = new HashMap<>(); // Sliced digs not done, by number
+    private long digsStarted = 0;
+
+
+    // Abstraction function:
+    // - The replay of log on board (loaded from boardFile if present), at the recorded pace if originalPace
+    // - After run(): commands were applied in nanos, sent by the sessions set, checkpoints were
+    //   verified, and mismatch describes the first checkpoint the board did not reach if any
+    // - slicedDigs are the sliced digs started and not done yet, numbered as in the log,
+    //   digsStarted being the number of the next one
+
+    /**
+     * Constructs a replay, run() replays it
+     *
+     * @param log The command log
+     * @param boardFile If present, the file to load the board from instead of the recorded path
+     * @param originalPace True to wait between commands as long as when they were recorded,
+     *                     false to replay as fast as possible
+     */
+    public Replay(File log, Optional<File> boardFile, boolean originalPace) {
+        this.log = log;
+        this.boardFile = boardFile;
+        this.originalPace = originalPace;
+    }
+
+    /**
+     * Replays the whole log, stopping at the first checkpoint the board does not match
+     *
+     * @return boolean True if the board matched every checkpoint
+     * @throws IOException if the log or the board file cannot be read, or slices a dig it did not start
+     */
+    public boolean run() throws IOException {
+        try (CommandLogReader reader = new CommandLogReader(this.log)) {
+            this.board = reader.newBoard(this.boardFile);
+            HintEngine hints = null;
+            long start = System.nanoTime();
+            while (reader.next()){
+                if (this.originalPace){
+                    long wait = start + TimeUnit.MICROSECONDS.toNanos(reader.micros()) - System.nanoTime();
+                    while (wait > 0){
+                        LockSupport.parkNanos(wait);
+                        wait = start + TimeUnit.MICROSECONDS.toNanos(reader.micros()) - System.nanoTime();
+                    }
+                }
+                if (reader.isCheckpoint()){
+                    if (!verify(reader)){
+                        break;
+                    }
+                    continue;
+                }
+                if (reader.command() != Command.DIG_SLICE){
+                    // A slice is part of the dig that started it
+                    this.commands += 1;
+                }
+                this.sessions.set(reader.session());
+                switch (reader.command()){
+                    case LOOK:
+                        this.rendered += this.board.toBytes().length;
+                        break;
+                    case STATUS:
+                        this.rendered += this.board.numUntouched() + this.board.numFlagged()
+                                + this.board.numRevealed() + this.board.numSafeLeft();
+                        break;
+                    case HINT:
+                        // Created on the first hint, as the server does
+                        if (hints == null){
+                            hints = new HintEngine(this.board);
+                        }
+                        this.rendered += hints.safeCells().size() + hints.minedCells().size();
+                        break;
+                    case DIG:
+                        this.board.dig(reader.x(), reader.y());
+                        break;
+                    case CHORD:
+                        this.board.chord(reader.x(), reader.y());
+                        break;
+                    case FLAG:
+                        this.board.flag(reader.x(), reader.y());
+                        break;
+                    case DEFLAG:
+                        this.board.deflag(reader.x(), reader.y());
+                        break;
+                    case RESET:
+                        reader.reset(this.board, this.boardFile);
+                        break;
+                    case DIG_START:
+                        this.slicedDigs.put(this.digsStarted, this.board.startDig(reader.x(), reader.y()));
+                        this.digsStarted += 1;
+                        break;
+                    case DIG_SLICE:
+                        Board.Reveal reveal = this.slicedDigs.get(reader.dig());
+                        if (reveal == null){
+                            throw new IOException("slice of dig " + reader.dig() + ", not started or done");
+                        }
+                        if (this.board.continueDig(reveal, reader.sliceCells())){
+                            this.slicedDigs.remove(reader.dig());
+                        }
+                        break;
+                }
+            }
+            this.nanos = System.nanoTime() - start;
+        }
+        return !this.mismatch.isPresent();
+    }
+
+    /**
+     * @return Board The board the log was replayed on, null before run()
+     */
+    public Board board() {
+        return this.board;
+    }
+
+    /**
+     * @return long The number of commands replayed
+     */
+    public long commands() {
+        return this.commands;
+    }
+
+    /**
+     * @return int The number of sessions that sent the commands replayed
+     */
+    public int sessions() {
+        return this.sessions.cardinality();
+    }
+
+    /**
+     * @return int The number of checkpoints the board matched
+     */
+    public int checkpoints() {
+        return this.checkpoints;
+    }
+
+    /**
+     * @return Optional<String> Why the board did not match a checkpoint, empty if it matched them all
+     */
+    public Optional<String> mismatch() {
+        return this.mismatch;
+    }
+
+    /**
+     * @return String A one line summary of the replay
+     */
+    public String report() {
+        double seconds = this.nanos / 1e9;
+        String report = "Replayed " + this.commands + " commands from " + sessions() + " sessions in "
+                + TimeUnit.NANOSECONDS.toMillis(this.nanos) + " ms ("
+                + (seconds > 0 ? Math.round(this.commands / seconds) : 0) + " commands/s), "
+                + this.checkpoints + " checkpoints matched";
+        if (this.mismatch.isPresent()){
+            report += ", " + this.mismatch.get();
+        }
+        return report;
+    }
+
+    /**
+     * Checks the board against the current checkpoint of the log
+     *
+     * @param reader The log, at a checkpoint
+     * @return boolean True if the board matches it
+     */
+    private boolean verify(CommandLogReader reader) {
+        long version = this.board.version();
+        int crc = CommandRecorder.crc(this.board);
+        if (version != reader.checkpointVersion() || crc != reader.checkpointCrc()){
+            this.mismatch = Optional.of("checkpoint " + (this.checkpoints + 1) + " after " + this.commands
+                    + " commands not matched: expected version " + reader.checkpointVersion()
+                    + " crc " + Integer.toHexString(reader.checkpointCrc())
+                    + ", got version " + version + " crc " + Integer.toHexString(crc));
+            return false;
+        }
+        this.checkpoints += 1;
+        return true;
+    }
+
+    /**
+     * Replay a command log recorded by MinesweeperServer --record and print a summary.
+     *
+     * <br> Usage:
+     *      Replay LOG [--original-pace] [--file FILE]
+     *
+     * <br> LOG is the command log. With --original-pace commands are replayed with the delays they were
+     *      recorded with, otherwise as fast as possible. FILE replaces the path of the board file
+     *      recorded in LOG, if the server was started with --file.
+     * <br> Exits with status 1 if the replayed board does not match a checkpoint of the log.
+     *
+     * @param args arguments as described
+     */
+    public static void main(String[] args) {
+        Optional<File> log = Optional.empty();
+        Optional<File> boardFile = Optional.empty();
+        boolean originalPace = false;
+        Queue<String> arguments = new LinkedList<String>(Arrays.asList(args));
+        try {
+            while ( ! arguments.isEmpty()) {
+                String flag = arguments.remove();
+                try {
+                    if (flag.equals("--original-pace")) {
+                        originalPace = true;
+                    } else if (flag.equals("--file")) {
+                        boardFile = Optional.of(new File(arguments.remove()));
+                    } else if (!flag.startsWith("--") && !log.isPresent()) {
+                        log = Optional.of(new File(flag));
+                    } else {
+                        throw new IllegalArgumentException("unknown option: \"" + flag + "\"");
+                    }
+                } catch (NoSuchElementException nsee) {
+                    throw new IllegalArgumentException("missing argument for " + flag);
+                }
+            }
+            if (!log.isPresent()) {
+                throw new IllegalArgumentException("missing command log");
+            }
+        } catch (IllegalArgumentException iae) {
+            System.err.println(iae.getMessage());
+            System.err.println("usage: Replay LOG [--original-pace] [--file FILE]");
+            return;
+        }
+
+        Replay replay = new Replay(log.get(), boardFile, originalPace);
+        boolean matched;
+        try {
+            matched = replay.run();
+        } catch (IOException ioe) {
+            throw new RuntimeException(ioe);
+        }
+        System.out.println(replay.report());
+        if (!matched) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package minesweeper.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import minesweeper.Board;
+
+/**
+ * This Class is the single writer of a Board: operations submitted by any number of threads go through
+ *  a lock-free queue to one board thread, which applies them in batches (group commit) and renders
+ *  at most one frame per batch for all the operations of the batch that reply with the board
+ * [Thread-safe: submit() may be called from any thread]
+ */
+class BoardActor {
+
+    //Constants:
+    static final byte[] FRAME = new byte[0]; // Replied by an operation wanting the frame, compared by reference
+    private static final int MAX_BATCH = 256; // Operations applied per lock acquisition, at most
+
+    /**
+     * An operation waiting to be applied, with the future of its reply
+     */
+    private static final class Task {
+        private final Supplier<byte[]> operation;
+        private final CompletableFuture<byte[]> reply = new CompletableFuture<>();
+
+        /**
+         * @param operation The operation to apply on the board thread
+         */
+        private Task(Supplier<byte[]> operation) {
+            this.operation = operation;
+        }
+    }
+
+    //Fields of this ADT:
+    private final Board board;
+    private final FrameCache frames;
+    private final ServerMetrics metrics;
+    private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean sleeping = false; // True while the board thread may be parked
+
+    // Abstraction function:
+    // - The board thread owning board, with queue the operations submitted and not applied yet, in order
+
+    // Representation invariant:
+    // - Only thread polls queue
+
+    // Thread Safety:
+    // - queue is a lock-free multi-producer queue, only thread consumes it
+    // - The board thread applies a whole batch holding the lock of board once, so anything else locking
+    //   board (spectator frames) sees the state between two batches and the lock is never contended
+    //   by clients
+    // - Lost wake-ups are impossible: the board thread sets sleeping then checks queue before parking,
+    //   producers offer to queue then check sleeping, and both fields are volatile (queue is concurrent)
+
+    /**
+     * Constructs the actor and starts its board thread
+     *
+     * @param board The board to own, other threads must only use it through this actor
+     * @param frames The frame cache of board
+     * @param metrics Where batch sizes are recorded
+     */
+    BoardActor(Board board, FrameCache frames, ServerMetrics metrics) {
+        this.board = board;
+        this.frames = frames;
+        this.metrics = metrics;
+        this.thread = new Thread(this::run, "board-actor");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Submits an operation to be applied on the board thread, after those already submitted
+     *
+     * @param operation The operation, returning its reply or FRAME for the frame of the board after its batch
+     * @return CompletableFuture<byte[]> The reply, completed on the board thread
+     *          (exceptionally if the operation or the rendering of its frame threw)
+     */
+    CompletableFuture<byte[]> submit(Supplier<byte[]> operation) {
+        Task task = new Task(operation);
+        this.queue.offer(task);
+        if (this.sleeping){
+            LockSupport.unpark(this.thread);
+        }
+        return task.reply;
+    }
+
+    /**
+     * Body of the board thread: applies batches of queued operations, parking while there is none
+     */
+    private void run() {
+        List<Task> batch = new ArrayList<>(MAX_BATCH);
+        List<byte[]> replies = new ArrayList<>(MAX_BATCH);
+        while (true){
+            Task task = this.queue.poll();
+            if (task == null){
+                this.sleeping = true;
+                if (this.queue.isEmpty()){
+                    LockSupport.park(this);
+                }
+                this.sleeping = false;
+                continue;
+            }
+            batch.clear();
+            replies.clear();
+            try {
+                apply(task, batch, replies);
+            } catch (Throwable t) {
+                // Whatever failed, no future of the batch is left waiting: the handlers join() them
+                for (Task failed : batch){
+                    failed.reply.completeExceptionally(t);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies a batch of operations holding the lock of the board once and completes their futures
+     *
+     * @param task The first operation of the batch, the others are polled from queue
+     * @param batch Empty, filled with the operations of the batch
+     * @param replies Empty, filled with their replies, null for those that threw
+     */
+    private void apply(Task task, List<Task> batch, List<byte[]> replies) {
+        byte[] frame = null;
+        Throwable renderFailure = null;
+        synchronized (this.board) {
+            while (task != null){
+                byte[] reply;
+                try {
+                    reply = task.operation.get();
+                } catch (Throwable t) {
+                    // Errors too (failed assertions of the board, out of memory): the board thread must live on
+                    task.reply.completeExceptionally(t);
+                    reply = null;
+                }
+                batch.add(task);
+                replies.add(reply);
+                task = batch.size() < MAX_BATCH ? this.queue.poll() : null;
+            }
+            int i = 0;
+            while (i < replies.size() && frame == null && renderFailure == null){
+                if (replies.get(i) == FRAME){
+                    // One rendering for the whole batch
+                    try {
+                        frame = this.frames.frame();
+                    } catch (Throwable t) {
+                        renderFailure = t;
+                    }
+                }
+                i += 1;
+            }
+        }
+        this.metrics.batch(batch.size());
+        int i = 0;
+        while (i < batch.size()){
+            byte[] reply = replies.get(i);
+            if (reply == FRAME && renderFailure != null){
+                batch.get(i).reply.completeExceptionally(renderFailure);
+            } else if (reply != null){
+                batch.get(i).reply.complete(reply == FRAME ? frame : reply);
+            }
+            i += 1;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package minesweeper.server;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.List;
+
+/**
+ * This Class is the outbound side of one client connection: an OutboundQueue drained
+ *  by a dedicated writer thread, so a client that stops reading only ever blocks its own writer
+ * [Thread-safe: replies come from the connection's handler thread, pushes from any thread]
+ */
+class ClientConnection {
+
+    //Fields of this ADT:
+    private final Socket socket;
+    private final OutboundQueue queue;
+    private final ResponseWriter out;
+    private final ServerMetrics metrics;
+    private final Thread writer;
+    private volatile boolean disconnected = false;
+    private DeflateWriter compressor = null; // Compresses what is written after compressAfter, if not null
+    private byte[] compressAfter = null; // The last reply sent uncompressed
+
+    // Abstraction function:
+    // - The client at the other end of socket, with queue holding what it has yet to receive
+    //   and writer the thread writing it through out
+    // - disconnected is true once the connection was cut without waiting for queue to drain
+    // - What is written after compressAfter is written through compressor, if not null
+
+    // Representation invariant:
+    // - out writes to socket's output stream and is only used by writer
+
+    // Thread Safety:
+    // - queue is thread-safe, out is confined to the writer thread, disconnected is volatile
+    //   and socket.close() may be called from any thread
+    // - compressor and compressAfter are set once by the handler thread before compressAfter is queued:
+    //   the writer thread reads them after taking it from queue, whose lock orders both
+
+    /**
+     * Constructs the connection, start() must be called before anything is written
+     *
+     * @param socket The socket where the client is connected
+     * @param maxQueuedBytes The number of bytes that may be waiting for the client before it is slow
+     * @param metrics Where bytes written are recorded
+     * @throws IOException if the socket is already broken
+     */
+    ClientConnection(Socket socket, int maxQueuedBytes, ServerMetrics metrics) throws IOException {
+        this.socket = socket;
+        this.queue = new OutboundQueue(maxQueuedBytes);
+        this.out = new ResponseWriter(socket.getOutputStream());
+        this.metrics = metrics;
+        this.writer = new Thread(this::drain, "writer-" + socket.getRemoteSocketAddress());
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Starts the writer thread
+     */
+    void start() {
+        this.writer.start();
+    }
+
+    /**
+     * Queues a reply to a command of the client, waiting while the client is over its limit
+     *
+     * @param reply The reply, must not be mutated afterwards
+     * @return boolean True if queued, false if the connection is closing and the client should be dropped
+     */
+    boolean reply(byte[] reply) {
+        try {
+            return this.queue.offer(reply);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Queues the reply accepting compression, then compresses everything written after it as one deflate
+     *  stream (see DeflateWriter); once compressing, only queues the reply
+     *  Must be called from the handler thread
+     *
+     * @param reply The reply, sent uncompressed, must not be mutated afterwards
+     * @param deflaters Where Deflaters are borrowed from
+     * @param minBytes The size of the smallest batch of bytes compressed
+     * @return boolean True if queued, false if the connection is closing and the client should be dropped
+     */
+    boolean replyThenCompress(byte[] reply, DeflaterPool deflaters, int minBytes) {
+        if (this.compressor == null){
+            this.compressor = new DeflateWriter(this.out, deflaters, minBytes);
+            this.compressAfter = reply;
+        }
+        return reply(reply);
+    }
+
+    /**
+     * Queues bytes the client did not ask for, never waiting
+     *  A client whose queue overflows is disconnected at once, without waiting for the slow client timeout
+     *
+     * @param push The bytes, must not be mutated afterwards
+     * @param replaceable True if this is a full frame that replaces any frame still queued
+     * @return boolean True if queued, false if the connection is closing
+     */
+    boolean push(byte[] push, boolean replaceable) {
+        if (this.queue.push(push, replaceable)){
+            return true;
+        }
+        if (this.queue.overflowed()){
+            overflow();
+        }
+        return false;
+    }
+
+    /**
+     * Tells whether the client has stayed over its limit for too long
+     *
+     * @param now The current System.nanoTime()
+     * @param timeoutNanos How long a client may stay over its limit
+     * @return boolean True if the client should be disconnected
+     */
+    boolean stalled(long now, long timeoutNanos) {
+        return this.queue.stalled(now, timeoutNanos);
+    }
+
+    /**
+     * Lets the writer send what is queued then stops it, cutting the connection
+     *  if that takes longer than the timeout
+     *
+     * @param timeoutMillis How long to wait for the queue to drain
+     */
+    void finish(long timeoutMillis) {
+        this.queue.close();
+        try {
+            this.writer.join(timeoutMillis);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        if (this.writer.isAlive()){
+            disconnect();
+        }
+    }
+
+    /**
+     * Cuts the connection right away, dropping anything still queued
+     *  The handler blocked reading from the socket gets an IOException
+     */
+    void disconnect() {
+        this.disconnected = true;
+        this.queue.close();
+        try {
+            this.socket.close();
+        } catch (IOException ioe) {
+            // Closing anyway, nothing else to do
+        }
+    }
+
+    /**
+     * Cuts the connection of a client whose queue overflowed, counting it once as a slow client
+     */
+    private synchronized void overflow() {
+        if (!this.disconnected){
+            disconnect();
+            this.metrics.slowClientDisconnected();
+        }
+    }
+
+    /**
+     * @return boolean True if the connection was cut by disconnect()
+     */
+    boolean disconnected() {
+        return this.disconnected;
+    }
+
+    /**
+     * @return long The number of bytes written to the client, final once finish() returned
+     */
+    long bytesWritten() {
+        return this.out.bytesWritten();
+    }
+
+    /**
+     * Body of the writer thread: writes batches of queued bytes, one flush per batch
+     */
+    private void drain() {
+        DeflateWriter deflating = null;
+        try {
+            List<byte[]> batch = this.queue.take();
+            while (!batch.isEmpty()){
+                long wireBefore = this.out.bytesWritten();
+                long bytes = 0;
+                int i = 0;
+                while (deflating == null && i < batch.size()){
+                    byte[] bytesQueued = batch.get(i);
+                    this.out.write(bytesQueued);
+                    bytes += bytesQueued.length;
+                    if (bytesQueued == this.compressAfter){
+                        deflating = this.compressor;
+                    }
+                    i += 1;
+                }
+                long plain = bytes;
+                if (deflating != null){
+                    bytes += deflating.write(batch, i);
+                }
+                this.out.flush();
+                long wire = this.out.bytesWritten() - wireBefore;
+                this.queue.written(bytes);
+                this.metrics.bytesWritten(wire);
+                if (bytes > plain){
+                    this.metrics.compressed(bytes - plain, wire - plain);
+                }
+                if (deflating != null && deflating.holdsDeflater()
+                        && !this.queue.await(DeflateWriter.IDLE_MILLIS)){
+                    // Idle: the zlib state goes back to the pool until the client gets something again
+                    deflating.release();
+                }
+                batch = this.queue.take();
+            }
+        } catch (IOException | InterruptedException e) {
+            // The client is gone or the server is stopping: nothing more can be sent
+            disconnect();
+        } finally {
+            if (deflating != null){
+                deflating.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package minesweeper.server;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a command handled by MinesweeperServer, from parsing to its reply (not written yet),
+ *  waiting for the lock of the board included
+ * [Confined to the thread of the client; when no recording enables it, begin() and shouldCommit() are next to free]
+ */
+@Name("minesweeper.Command")
+@Label("Command")
+@Category({"Minesweeper", "Server"})
+@Description("A command handled, from parsing to its reply")
+@StackTrace(false)
+final class CommandEvent extends Event {
+
+    @Label("Command")
+    @Description("The first word of the command, 'invalid' or 'limited' if refused")
+    String command;
+
+    @Label("Session")
+    int session;
+
+    @Label("HTTP")
+    @Description("True if received over HTTP")
+    boolean http;
+}
@@ -0,0 +1,30 @@
+package minesweeper.server;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a client connecting to MinesweeperServer
+ * [Confined to the thread of the client]
+ */
+@Name("minesweeper.Connect")
+@Label("Client Connected")
+@Category({"Minesweeper", "Server"})
+@Description("A client connected")
+@StackTrace(false)
+final class ConnectEvent extends Event {
+
+    @Label("Session")
+    int session;
+
+    @Label("Remote Address")
+    String remote;
+
+    @Label("Players")
+    @Description("Players connected, including this one")
+    int players;
+}
@@ -0,0 +1,144 @@
+package minesweeper.server;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * This Class writes batches of replies to a ResponseWriter as one raw deflate stream (RFC 1951), which the
+ *  client reads with an Inflater(nowrap) for as long as the connection lasts
+ * Each batch ends on a sync flush, so the client can inflate all of it as soon as it arrives
+ * The first batch of at least minBytes borrows a Deflater from a DeflaterPool, kept for the following batches
+ *  so that each is compressed against the previous ones (a frame close to the last one takes a few bytes)
+ *  until release() gives it back, once the session ends or stays idle for IDLE_MILLIS
+ * While no Deflater is held, a batch smaller than minBytes (a short reply such as "BOOM!") is sent in a
+ *  stored block, 5 bytes of header; the stream stays valid since a fresh Deflater never refers to the data
+ *  before it. Once one is held every batch goes through it, as its back-references must match the stream
+ * [Not thread-safe: a DeflateWriter is confined to the writer thread of its connection]
+ */
+class DeflateWriter {
+
+    //Constants:
+    private static final int BUFFER_BYTES = 8192;
+    private static final int MAX_STORED_BYTES = 65535; // Largest stored block
+    static final long IDLE_MILLIS = 10_000; // A session sending nothing for this long gives its Deflater back
+
+    //Fields of this ADT:
+    private final ResponseWriter out;
+    private final DeflaterPool deflaters;
+    private final int minBytes;
+    private final byte[] buffer = new byte[BUFFER_BYTES]; // Deflated bytes, reused for every batch
+    private final byte[] storedHeader = new byte[5];
+    private Deflater deflater = null; // Borrowed from deflaters until release(), null if none is held
+
+    // Abstraction function:
+    // - The raw deflate stream written to out so far, every batch written ending on a byte boundary,
+    //   batches under minBytes stored while no Deflater is held
+    // - deflater, if held, has been given every byte of the stream since it was borrowed
+
+    // Representation invariant:
+    // - 0 <= minBytes <= MAX_STORED_BYTES
+
+    /**
+     * Constructs the writer of a stream that starts at the next byte written to out
+     *
+     * @param out Where the stream is written
+     * @param deflaters Where Deflaters are borrowed from
+     * @param minBytes The size of the smallest batch compressed, 0 <= minBytes <= 65535
+     * @throws IllegalArgumentException if minBytes is out of range
+     */
+    DeflateWriter(ResponseWriter out, DeflaterPool deflaters, int minBytes) {
+        if (minBytes < 0 || minBytes > MAX_STORED_BYTES){
+            throw new IllegalArgumentException("min bytes " + minBytes + " out of range");
+        }
+        this.out = out;
+        this.deflaters = deflaters;
+        this.minBytes = minBytes;
+    }
+
+    /**
+     * Writes replies to the stream, ending on a sync flush; out must still be flushed
+     *
+     * @param batch The replies
+     * @param from The index of the first reply of batch to write
+     * @return long The number of bytes of the replies written
+     * @throws IOException if out is broken
+     */
+    long write(List<byte[]> batch, int from) throws IOException {
+        long bytes = 0;
+        int i = from;
+        while (i < batch.size()){
+            bytes += batch.get(i).length;
+            i += 1;
+        }
+        if (bytes == 0){
+            return 0;
+        }
+        if (this.deflater == null && bytes < this.minBytes){
+            writeStored(batch, from, (int) bytes);
+            return bytes;
+        }
+        if (this.deflater == null){
+            this.deflater = this.deflaters.borrow();
+        }
+        i = from;
+        while (i < batch.size()){
+            this.deflater.setInput(batch.get(i));
+            while (!this.deflater.needsInput()){
+                this.out.write(this.buffer, 0,
+                        this.deflater.deflate(this.buffer, 0, this.buffer.length, Deflater.NO_FLUSH));
+            }
+            i += 1;
+        }
+        // A sync flush ends on a byte boundary: a full buffer means more may be pending
+        int deflated = this.buffer.length;
+        while (deflated == this.buffer.length){
+            deflated = this.deflater.deflate(this.buffer, 0, this.buffer.length, Deflater.SYNC_FLUSH);
+            this.out.write(this.buffer, 0, deflated);
+        }
+        return bytes;
+    }
+
+    /**
+     * Gives the Deflater held back to the pool, if any: the next batches start from a fresh one,
+     *  without the history of the stream so far
+     */
+    void release() {
+        if (this.deflater != null){
+            this.deflaters.release(this.deflater);
+            this.deflater = null;
+        }
+    }
+
+    /**
+     * @return boolean True if a Deflater is held, to be released when the session ends or goes idle
+     */
+    boolean holdsDeflater() {
+        return this.deflater != null;
+    }
+
+    // ---------------------------PRIVATE HELPER METHODS-------------------------------
+
+    /**
+     * Writes replies in one stored block, the stream being on a byte boundary
+     *
+     * @param batch The replies
+     * @param from The index of the first reply of batch to write
+     * @param bytes The number of bytes of the replies, <= MAX_STORED_BYTES
+     * @throws IOException if out is broken
+     */
+    private void writeStored(List<byte[]> batch, int from, int bytes) throws IOException {
+        // Not the final block, type 00 (stored), then LEN and its complement NLEN, little-endian
+        this.storedHeader[0] = 0;
+        this.storedHeader[1] = (byte) bytes;
+        this.storedHeader[2] = (byte) (bytes >>> 8);
+        this.storedHeader[3] = (byte) ~bytes;
+        this.storedHeader[4] = (byte) (~bytes >>> 8);
+        this.out.write(this.storedHeader, 0, this.storedHeader.length);
+        int i = from;
+        while (i < batch.size()){
+            this.out.write(batch.get(i));
+            i += 1;
+        }
+    }
+}
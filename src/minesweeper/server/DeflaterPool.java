@@ -0,0 +1,91 @@
+package minesweeper.server;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+/**
+ * This Class lends Deflaters producing raw deflate data (RFC 1951, no zlib header), so that a compressing
+ *  session borrows one while it is active instead of allocating one, with its native zlib state
+ *  (a few hundred KiB), per client
+ * At most maxIdle Deflaters are kept between borrows, the others are ended when released
+ * [Thread-safe: borrowed and released by any number of writer threads]
+ */
+class DeflaterPool {
+
+    //Fields of this ADT:
+    private final int level;
+    private final BlockingQueue<Deflater> idle;
+    private final AtomicLong created = new AtomicLong();
+
+    // Abstraction function:
+    // - Deflaters of the compression level, those in idle ready to be lent; created of them were ever made
+
+    // Representation invariant:
+    // - Every Deflater in idle is reset, of level, nowrap, and neither borrowed nor ended
+
+    // Thread Safety:
+    // - idle is a bounded concurrent queue and created is atomic; a Deflater borrowed is confined to the
+    //   thread that borrowed it until released
+
+    /**
+     * Constructs an empty pool
+     *
+     * @param level The compression level of the Deflaters, from Deflater.BEST_SPEED to Deflater.BEST_COMPRESSION
+     * @param maxIdle The number of Deflaters kept between borrows, > 0
+     * @throws IllegalArgumentException if level or maxIdle is out of range
+     */
+    DeflaterPool(int level, int maxIdle) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION){
+            throw new IllegalArgumentException("compression level " + level + " out of range");
+        }
+        if (maxIdle <= 0){
+            throw new IllegalArgumentException("max idle " + maxIdle + " must be positive");
+        }
+        this.level = level;
+        this.idle = new ArrayBlockingQueue<>(maxIdle);
+    }
+
+    /**
+     * @return Deflater A Deflater at the start of a raw deflate stream, to be given back with release()
+     */
+    Deflater borrow() {
+        Deflater deflater = this.idle.poll();
+        if (deflater == null){
+            this.created.incrementAndGet();
+            deflater = new Deflater(this.level, true);
+        }
+        return deflater;
+    }
+
+    /**
+     * Gives back a Deflater, which the caller must not use anymore
+     *
+     * @param deflater A Deflater borrowed from this pool
+     */
+    void release(Deflater deflater) {
+        deflater.reset();
+        if (!this.idle.offer(deflater)){
+            deflater.end();
+        }
+    }
+
+    /**
+     * @return long The number of Deflaters created so far
+     */
+    long created() {
+        return this.created.get();
+    }
+
+    /**
+     * Ends the Deflaters kept; those borrowed are ended when released once the pool is full
+     */
+    void close() {
+        Deflater deflater = this.idle.poll();
+        while (deflater != null){
+            deflater.end();
+            deflater = this.idle.poll();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package minesweeper.server;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of a client disconnecting from MinesweeperServer, lasting from its connection
+ * [Confined to the thread of the client]
+ */
+@Name("minesweeper.Disconnect")
+@Label("Client Disconnected")
+@Category({"Minesweeper", "Server"})
+@Description("A client disconnected, the event lasting as long as the connection")
+@StackTrace(false)
+final class DisconnectEvent extends Event {
+
+    @Label("Session")
+    int session;
+
+    @Label("Bytes Written")
+    @DataAmount
+    long bytesWritten;
+
+    @Label("Slow")
+    @Description("True if disconnected for not reading its replies")
+    boolean slow;
+}
@@ -0,0 +1,67 @@
+package minesweeper.server;
+
+import minesweeper.Board;
+
+/**
+ * This Class renders a Board into an encoded frame at most once per version of the board,
+ *  so every player looking and every spectator watching share the same immutable bytes
+ * [Thread-safe: guarded by the lock of the Board]
+ */
+class FrameCache {
+
+    //Fields of this ADT:
+    private final Board board;
+    private final ServerMetrics metrics;
+    private long version = -1; // Version of board that frame shows, -1 before the first rendering
+    private byte[] frame = null;
+
+    // Abstraction function:
+    // - The last rendering of board, made when board.version() was version
+
+    // Representation invariant:
+    // - frame == null iff version == -1
+    // - frame equals board.toBytes() whenever version == board.version()
+
+    // Safety from representation exposure:
+    // - frame is shared with the callers, they must not mutate it (replies are only ever read)
+
+    // Thread Safety:
+    // - version and frame are only accessed with the lock of board held
+
+    /**
+     * Constructs an empty cache for a board
+     *
+     * @param board The board to render
+     * @param metrics Where renderings are counted
+     */
+    FrameCache(Board board, ServerMetrics metrics) {
+        this.board = board;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the frame of the current version of the board, rendering it only if the board changed
+     *
+     * @return byte[] The board as replied to 'look', must not be mutated
+     */
+    byte[] frame() {
+        synchronized (this.board) {
+            long current = this.board.version();
+            if (current != this.version){
+                this.frame = this.board.toBytes();
+                this.version = current;
+                this.metrics.frameRendered();
+            }
+            return this.frame;
+        }
+    }
+
+    /**
+     * @return long The version of the board shown by the last frame returned, -1 if none yet
+     */
+    long version() {
+        synchronized (this.board) {
+            return this.version;
+        }
+    }
+}
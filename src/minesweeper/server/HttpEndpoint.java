@@ -0,0 +1,456 @@
+package minesweeper.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import minesweeper.Board;
+
+/**
+ * This Class serves a Board over HTTP, with JSON replies, next to the telnet-style clients of
+ *  MinesweeperServer:
+ * <pre>
+ *   GET  /board                          {"version":V,"x":0,"y":0,"length":L,"width":W,"rows":["- 1 F",...]}
+ *   GET  /board?x=X&amp;y=Y&amp;length=L&amp;width=W  the same for a rectangle of the board (a viewport)
+ *   GET  /status                         {"version":V,"untouched":U,"flagged":F,"revealed":R,"safeLeft":S}
+ *   POST /dig?x=X&amp;y=Y, /flag?x=X&amp;y=Y, /deflag?x=X&amp;y=Y   {"version":V,"boom":B}
+ * </pre>
+ * GET replies carry the version of the board as their ETag: a poller sending it back in If-None-Match is
+ *  replied 304 Not Modified while the board did not change, without the board being locked or rendered
+ *  The whole board is rendered to JSON once per version, whatever the number of pollers
+ * Requests are handled by a fixed pool of threads, with a bounded queue: once it is full, the thread
+ *  accepting connections handles the request itself, so no more are accepted meanwhile
+ * [Thread-safe: the board is only read with its lock held, and changed through the commands of its server]
+ */
+class HttpEndpoint {
+
+    //Constants:
+    private static final int QUEUED_PER_THREAD = 64; // Requests waiting for a thread, per thread
+    private static final String JSON = "application/json";
+    private static final String TEXT = "text/plain; charset=utf-8";
+
+    /**
+     * Applies the commands changing the board, the way the server applies its clients' commands
+     */
+    interface Commands {
+        /**
+         * Applies a command line, as a telnet client would send it, and tells the clients connected
+         *
+         * @param command 'dig x y', 'flag x y' or 'deflag x y', with x and y in the board
+         * @return Change What the command did, with the version it made
+         */
+        Change apply(String command);
+    }
+
+    /**
+     * What a command changing the board did: the version of the board right after it, read with the lock
+     *  of the board still held, and whether it dug a bomb
+     */
+    static final class Change {
+        private final long version;
+        private final boolean alive;
+
+        /**
+         * @param version The version of the board right after the command
+         * @param alive False if the command dug a bomb
+         */
+        Change(long version, boolean alive) {
+            this.version = version;
+            this.alive = alive;
+        }
+    }
+
+    /**
+     * Replies to a request, of the path's method only
+     */
+    private interface Handler {
+        /**
+         * @param exchange The request, replied by the time this returns
+         * @param query The parameters of the request's query
+         * @return String The name of the request, as counted in the metrics
+         * @throws IOException if the reply cannot be sent
+         */
+        String reply(HttpExchange exchange, Map<String, String> query) throws IOException;
+    }
+
+    /**
+     * The whole board rendered to JSON at a version
+     */
+    private static final class Frame {
+        private final long version;
+        private final byte[] json;
+
+        /**
+         * @param version The version of the board rendered
+         * @param json The reply to GET /board at that version
+         */
+        private Frame(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+
+    //Fields of this ADT:
+    private final Board board;
+    private final Commands commands;
+    private final ServerMetrics metrics;
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+    private final String epoch; // Tells ETags of this endpoint from those of an earlier one, whose board was another
+    private volatile Frame frame = null; // The latest GET /board reply rendered, if any
+
+    // Abstraction function:
+    // - An HTTP server on server's port, serving board and changing it through commands, with the requests
+    //   handled by executor, counted in metrics; frame is the latest version of the whole board in JSON
+
+    // Representation invariant:
+    // - frame.json is the JSON of board at frame.version, if frame is not null
+
+    // Thread Safety:
+    // - board is read with its lock held, version() being volatile is read without it for 304 replies
+    // - frame is an immutable object published through a volatile field: a stale frame being installed
+    //   by a slow thread is only a lost cache hit, as its version tells it apart
+
+    /**
+     * Constructs an endpoint, bound to its port but not started
+     *
+     * @param port The port to listen on, 0 for any free port
+     * @param threads The number of threads handling requests, > 0
+     * @param board The board served
+     * @param commands How to change board
+     * @param metrics Where the requests are counted
+     * @throws IOException if the port cannot be bound
+     */
+    HttpEndpoint(int port, int threads, Board board, Commands commands, ServerMetrics metrics) throws IOException {
+        this.board = board;
+        this.commands = commands;
+        this.metrics = metrics;
+        this.epoch = Long.toHexString(new Random().nextLong());
+        AtomicInteger created = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUED_PER_THREAD), runnable -> {
+                    Thread thread = new Thread(runnable, "http-" + created.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/board", exchange -> handle(exchange, "GET", this::board));
+        this.server.createContext("/status", exchange -> handle(exchange, "GET", this::status));
+        this.server.createContext("/dig", exchange -> handle(exchange, "POST", this::change));
+        this.server.createContext("/flag", exchange -> handle(exchange, "POST", this::change));
+        this.server.createContext("/deflag", exchange -> handle(exchange, "POST", this::change));
+    }
+
+    /**
+     * Starts handling requests, in the background
+     */
+    void start() {
+        this.server.start();
+    }
+
+    /**
+     * Stops handling requests, closing the connections at once
+     */
+    void stop() {
+        this.server.stop(0);
+        this.executor.shutdown();
+    }
+
+    /**
+     * @return int The port this endpoint listens on
+     */
+    int port() {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * Replies to a request: with the handler if it is of the right method and path, else with an error
+     *
+     * @param exchange The request
+     * @param method The method of the handler
+     * @param handler How to reply
+     */
+    private void handle(HttpExchange exchange, String method, Handler handler) {
+        long start = System.nanoTime();
+        String command = "http-invalid";
+        try {
+            if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())){
+                send(exchange, 404, TEXT, "Not found\r\n");
+            }
+            else if (!exchange.getRequestMethod().equals(method)){
+                exchange.getResponseHeaders().set("Allow", method);
+                send(exchange, 405, TEXT, "Method not allowed\r\n");
+            }
+            else{
+                command = handler.reply(exchange, parseQuery(exchange.getRequestURI().getRawQuery()));
+            }
+        } catch (IllegalArgumentException iae) {
+            try {
+                send(exchange, 400, TEXT, iae.getMessage() + "\r\n");
+            } catch (IOException ioe) {
+                // The client is gone
+            }
+        } catch (IOException ioe) {
+            // The client is gone
+        } finally {
+            exchange.close();
+            this.metrics.command(command, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Replies to GET /board, the whole board or a rectangle of it
+     *
+     * @param exchange The request
+     * @param query x, y, length and width of the rectangle, or none of them for the whole board
+     * @return String The name of the request
+     * @throws IOException if the reply cannot be sent
+     */
+    private String board(HttpExchange exchange, Map<String, String> query) throws IOException {
+        if (notModified(exchange)){
+            return "http-not-modified";
+        }
+        if (query.isEmpty()){
+            Frame cached = this.frame;
+            if (cached == null || cached.version != this.board.version()){
+                cached = render(0, 0, this.board.sizeList().get(0), this.board.sizeList().get(1));
+                Frame latest = this.frame;
+                if (latest == null || latest.version < cached.version){
+                    this.frame = cached;
+                }
+            }
+            sendJson(exchange, cached.version, cached.json);
+            return "http-board";
+        }
+        int x = parameter(query, "x");
+        int y = parameter(query, "y");
+        int length = parameter(query, "length");
+        int width = parameter(query, "width");
+        Frame viewport = render(x, y, length, width);
+        sendJson(exchange, viewport.version, viewport.json);
+        return "http-viewport";
+    }
+
+    /**
+     * Replies to GET /status
+     *
+     * @param exchange The request
+     * @param query Unused
+     * @return String The name of the request
+     * @throws IOException if the reply cannot be sent
+     */
+    private String status(HttpExchange exchange, Map<String, String> query) throws IOException {
+        if (notModified(exchange)){
+            return "http-not-modified";
+        }
+        long version;
+        String json;
+        synchronized (this.board) {
+            version = this.board.version();
+            json = "{\"version\":" + version
+                    + ",\"untouched\":" + this.board.numUntouched()
+                    + ",\"flagged\":" + this.board.numFlagged()
+                    + ",\"revealed\":" + this.board.numRevealed()
+                    + ",\"safeLeft\":" + this.board.numSafeLeft() + "}";
+        }
+        sendJson(exchange, version, json.getBytes(StandardCharsets.US_ASCII));
+        return "http-status";
+    }
+
+    /**
+     * Replies to POST /dig, /flag and /deflag: the command of the path, applied to cell x y
+     *
+     * @param exchange The request
+     * @param query x and y of the cell
+     * @return String The name of the request
+     * @throws IOException if the reply cannot be sent
+     */
+    private String change(HttpExchange exchange, Map<String, String> query) throws IOException {
+        int x = parameter(query, "x");
+        int y = parameter(query, "y");
+        if (x >= this.board.sizeList().get(0) || y >= this.board.sizeList().get(1)){
+            throw new IllegalArgumentException("cell " + x + "," + y + " is not in the board");
+        }
+        String command = exchange.getHttpContext().getPath().substring(1);
+        Change change = this.commands.apply(command + " " + x + " " + y);
+        String json = "{\"version\":" + change.version + ",\"boom\":" + !change.alive + "}";
+        send(exchange, 200, JSON, json);
+        return "http-" + command;
+    }
+
+    /**
+     * Renders a rectangle of the board to JSON, with the lock of the board held
+     *
+     * @param x The x-coordinate of its upper-left cell
+     * @param y The y-coordinate of its upper-left cell
+     * @param length Its number of cells along x
+     * @param width Its number of cells along y
+     * @return Frame The JSON and the version it shows
+     * @throws IllegalArgumentException if the rectangle is empty or not inside the board
+     */
+    private Frame render(int x, int y, int length, int width) {
+        long version;
+        byte[] rows;
+        synchronized (this.board) {
+            version = this.board.version();
+            rows = this.board.toBytes(x, y, length, width);
+        }
+        // Glyphs need no escaping: each row but its "\r\n" becomes a JSON string
+        byte[] header = ("{\"version\":" + version + ",\"x\":" + x + ",\"y\":" + y + ",\"length\":" + length
+                + ",\"width\":" + width + ",\"rows\":[").getBytes(StandardCharsets.US_ASCII);
+        int rowBytes = 2 * length - 1;
+        byte[] json = Arrays.copyOf(header, header.length + width * (rowBytes + 3) + 1);
+        int position = header.length;
+        int row = 0;
+        while (row < width){
+            json[position] = '"';
+            System.arraycopy(rows, row * (rowBytes + 2), json, position + 1, rowBytes);
+            json[position + rowBytes + 1] = '"';
+            json[position + rowBytes + 2] = (byte) (row < width - 1 ? ',' : ']');
+            position += rowBytes + 3;
+            row += 1;
+        }
+        json[position] = '}';
+        return new Frame(version, json);
+    }
+
+    /**
+     * Replies 304 Not Modified if the client has the current version of the board
+     *
+     * @param exchange The request, with or without If-None-Match
+     * @return boolean True if it was replied
+     * @throws IOException if the reply cannot be sent
+     */
+    private boolean notModified(HttpExchange exchange) throws IOException {
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (ifNoneMatch == null){
+            return false;
+        }
+        String current = etag(this.board.version());
+        for (String tag : ifNoneMatch.split(",")){
+            String trimmed = tag.trim();
+            if (trimmed.startsWith("W/")){
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals(current) || trimmed.equals("*")){
+                exchange.getResponseHeaders().set("ETag", current);
+                // The JDK's server closes the connection after a reply without body: said so, clients
+                //  open a new one rather than failing on this one
+                exchange.getResponseHeaders().set("Connection", "close");
+                exchange.sendResponseHeaders(304, -1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param version A version of the board
+     * @return String The entity tag of the board at that version
+     */
+    private String etag(long version) {
+        return "\"" + this.epoch + "-" + version + "\"";
+    }
+
+    /**
+     * Sends a JSON reply to a GET, tagged with the version of the board it shows
+     *
+     * @param exchange The request
+     * @param version The version of the board
+     * @param json The body
+     * @throws IOException if the reply cannot be sent
+     */
+    private void sendJson(HttpExchange exchange, long version, byte[] json) throws IOException {
+        exchange.getResponseHeaders().set("ETag", etag(version));
+        // Caches may keep it, as long as they check it is still the current version
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        send(exchange, 200, JSON, json);
+    }
+
+    /**
+     * Sends a reply
+     *
+     * @param exchange The request
+     * @param status The status code
+     * @param type The type of the body
+     * @param body The body, US-ASCII
+     * @throws IOException if the reply cannot be sent
+     */
+    private static void send(HttpExchange exchange, int status, String type, String body) throws IOException {
+        send(exchange, status, type, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends a reply
+     *
+     * @param exchange The request
+     * @param status The status code
+     * @param type The type of the body
+     * @param body The body
+     * @throws IOException if the reply cannot be sent
+     */
+    private static void send(HttpExchange exchange, int status, String type, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", type);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Parses the query of a request
+     *
+     * @param query The raw query, name=value pairs separated by '&amp;', or null if none
+     * @return Map<String, String> The value of each name
+     * @throws IllegalArgumentException if a pair has no '='
+     */
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()){
+            return parameters;
+        }
+        for (String pair : query.split("&")){
+            int equals = pair.indexOf('=');
+            if (equals < 0){
+                throw new IllegalArgumentException("parameter " + pair + " has no value");
+            }
+            parameters.put(pair.substring(0, equals), pair.substring(equals + 1));
+        }
+        return parameters;
+    }
+
+    /**
+     * @param query The parameters of a request
+     * @param name The name of a parameter
+     * @return int Its value, >= 0
+     * @throws IllegalArgumentException if it is missing, not a number or negative
+     */
+    private static int parameter(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null){
+            throw new IllegalArgumentException("missing parameter " + name);
+        }
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0){
+                throw new IllegalArgumentException("parameter " + name + " is negative");
+            }
+            return parsed;
+        } catch (NumberFormatException nfe) {
+            throw new IllegalArgumentException("parameter " + name + " is not a number");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package minesweeper.server;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This Class represents a lock-free histogram of non-negative long samples
+ * (latencies in nanoseconds, sizes in cells or bytes...)
+ * [Any number of threads may record into the same histogram concurrently]
+ */
+public class LatencyHistogram {
+
+    //Constants:
+    private static final int NUM_BUCKETS = 64; // One bucket per power of 2 a long can hold
+
+    //Fields of this ADT:
+    private final LongAdder[] buckets = new LongAdder[NUM_BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    // Abstraction function:
+    // - A multiset of recorded samples where buckets[i] counts the samples s such that
+    //   2^(i-1) < s <= 2^i (bucket 0 also counts the samples 0 and 1)
+    // - count is the number of samples, sum their total and max the largest one
+
+    // Representation invariant:
+    // - buckets.length == NUM_BUCKETS and no entry is null
+    // - count is the sum of all buckets (once all concurrent record() calls returned)
+
+    // Thread Safety:
+    // - All fields are final and only refer to striped atomic counters (LongAdder, LongAccumulator)
+    // - record() never blocks and never allocates, so recording does not become a point of contention
+    // - Readers may observe a sample in count before it shows up in its bucket, which only makes
+    //   reported percentiles very slightly stale
+
+    /**
+     * Constructs a new empty histogram
+     */
+    public LatencyHistogram() {
+        int i = 0;
+        while (i < NUM_BUCKETS){
+            buckets[i] = new LongAdder();
+            i += 1;
+        }
+    }
+
+    /**
+     * Records one sample
+     *
+     * @param value The sample to record, negative values are recorded as 0
+     */
+    public void record(long value) {
+        long sample = Math.max(value, 0);
+        buckets[bucketOf(sample)].increment();
+        count.increment();
+        sum.add(sample);
+        max.accumulate(sample);
+    }
+
+    /**
+     * @return long The number of samples recorded so far
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * @return long The sum of all samples recorded so far
+     */
+    public long sum() {
+        return sum.sum();
+    }
+
+    /**
+     * @return long The largest sample recorded so far, 0 if none
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Returns an upper bound of the given percentile (precise within a factor of 2)
+     *
+     * @param percentile The percentile wanted, 0 < percentile <= 100
+     * @return long The upper bound of the bucket holding that percentile, 0 if no sample was recorded
+     */
+    public long percentile(double percentile) {
+        long total = count();
+        if (total == 0){
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        int i = 0;
+        while (i < NUM_BUCKETS){
+            seen += buckets[i].sum();
+            if (seen >= rank){
+                return Math.min(1L << i, max());
+            }
+            i += 1;
+        }
+        return max();
+    }
+
+    /**
+     * Returns the bucket a sample falls in
+     *
+     * @param sample The non-negative sample
+     * @return int The smallest i such that sample <= 2^i
+     */
+    private static int bucketOf(long sample) {
+        if (sample <= 1){
+            return 0;
+        }
+        return Math.min(NUM_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(sample - 1));
+    }
+}
@@ -0,0 +1,168 @@
+package minesweeper.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This Class frames the lines a client sends, ended by "\n" or "\r\n", straight from the bytes read into
+ *  a reused buffer: the line read last is this CharSequence itself, a view of the buffer (one char per byte,
+ *  as ISO-8859-1), so a command can be matched and parsed without decoding it into a String
+ * A line longer than maxLineBytes is not kept: its bytes are dropped as they are read, up to its end, and it
+ *  is read as an empty line for which tooLong() is true; the buffer never grows beyond maxLineBytes + 2
+ * [Not thread-safe: a LineDecoder is confined to the thread handling its connection, and the line read
+ *  last is only valid until the next readLine()]
+ */
+class LineDecoder implements CharSequence {
+
+    //Constants:
+    private static final int DEFAULT_CAPACITY = 8192; // Same as BufferedReader
+
+    //Fields of this ADT:
+    private final InputStream in;
+    private final int maxLineBytes;
+    private byte[] buffer;
+    private int position = 0; // Start of the bytes not framed yet
+    private int limit = 0; // End of the bytes read
+    private int lineStart = 0;
+    private int lineEnd = 0;
+    private boolean tooLong = false;
+
+    // Abstraction function:
+    // - The lines read from in so far, the last one being buffer[lineStart, lineEnd) (empty if tooLong),
+    //   and buffer[position, limit) being bytes read of the lines after it
+
+    // Representation invariant:
+    // - 0 <= lineStart <= lineEnd <= position <= limit <= buffer.length
+    // - lineEnd - lineStart <= maxLineBytes
+    // - buffer.length <= max(DEFAULT_CAPACITY, maxLineBytes + 2)
+
+    /**
+     * Constructs a decoder of the lines of a stream
+     *
+     * @param in The stream, of ASCII lines
+     * @param maxLineBytes The length of the longest line kept, without its end, > 0
+     * @throws IllegalArgumentException if maxLineBytes <= 0
+     */
+    LineDecoder(InputStream in, int maxLineBytes) {
+        if (maxLineBytes <= 0){
+            throw new IllegalArgumentException("max line bytes " + maxLineBytes + " must be positive");
+        }
+        this.in = in;
+        this.maxLineBytes = maxLineBytes;
+        this.buffer = new byte[Math.min(DEFAULT_CAPACITY, maxLineBytes + 2)];
+    }
+
+    /**
+     * Reads the next line, waiting for its end (or the end of the stream, a last line without end being
+     *  read as a line)
+     *
+     * @return boolean False at the end of the stream
+     * @throws IOException if the stream is broken
+     */
+    boolean readLine() throws IOException {
+        this.tooLong = false;
+        int scan = this.position;
+        while (true){
+            while (scan < this.limit){
+                if (this.buffer[scan] == '\n'){
+                    int end = scan > this.position && this.buffer[scan - 1] == '\r' ? scan - 1 : scan;
+                    frame(this.position, end);
+                    this.position = scan + 1;
+                    return true;
+                }
+                scan += 1;
+            }
+            if (this.tooLong || this.limit - this.position > this.maxLineBytes + 1){
+                // Longer than allowed, '\r' aside: dropped until its end
+                this.tooLong = true;
+                this.position = 0;
+                this.limit = 0;
+            }
+            else if (this.position > 0){
+                // The start of the line to the front: the buffer is reused
+                System.arraycopy(this.buffer, this.position, this.buffer, 0, this.limit - this.position);
+                this.limit -= this.position;
+                this.position = 0;
+            }
+            if (this.limit == this.buffer.length){
+                byte[] larger = new byte[Math.min(2 * this.buffer.length, this.maxLineBytes + 2)];
+                System.arraycopy(this.buffer, 0, larger, 0, this.limit);
+                this.buffer = larger;
+            }
+            scan = this.limit;
+            int read = this.in.read(this.buffer, this.limit, this.buffer.length - this.limit);
+            if (read < 0){
+                if (!this.tooLong && this.limit == this.position){
+                    return false;
+                }
+                frame(this.position, this.limit);
+                this.position = this.limit;
+                return true;
+            }
+            this.limit += read;
+        }
+    }
+
+    /**
+     * @return boolean True if the line read last was longer than maxLineBytes, and dropped
+     */
+    boolean tooLong() {
+        return this.tooLong;
+    }
+
+    /**
+     * Closes the stream
+     *
+     * @throws IOException if closing it fails
+     */
+    void close() throws IOException {
+        this.in.close();
+    }
+
+    @Override
+    public int length() {
+        return this.lineEnd - this.lineStart;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length()){
+            throw new IndexOutOfBoundsException("index " + index + " of a line of " + length());
+        }
+        return (char) (this.buffer[this.lineStart + index] & 0xff);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || start > end || end > length()){
+            throw new IndexOutOfBoundsException("range " + start + " " + end + " of a line of " + length());
+        }
+        return new String(this.buffer, this.lineStart + start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public String toString() {
+        return new String(this.buffer, this.lineStart, length(), StandardCharsets.ISO_8859_1);
+    }
+
+    // ---------------------------PRIVATE HELPER METHODS-------------------------------
+
+    /**
+     * Makes a line the line read last, empty if too long
+     *
+     * @param start The index of its first byte in buffer
+     * @param end The index after its last byte in buffer
+     */
+    private void frame(int start, int end) {
+        if (this.tooLong || end - start > this.maxLineBytes){
+            this.tooLong = true;
+            this.lineStart = start;
+            this.lineEnd = start;
+        }
+        else{
+            this.lineStart = start;
+            this.lineEnd = end;
+        }
+    }
+}
@@ -1,10 +1,31 @@
 package minesweeper.server;
 
 import java.io.*;
+import java.lang.management.ManagementFactory;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 import minesweeper.Board;
+import minesweeper.BoardHistory;
+import minesweeper.HintEngine;
+import minesweeper.Storage;
+import minesweeper.replay.Command;
+import minesweeper.replay.CommandRecorder;
 
 /**
  * Multiplayer Minesweeper server.
@@ -15,31 +36,119 @@ public class MinesweeperServer {
     private static final int DEFAULT_PORT = 4444; 
     private static final int MAXIMUM_PORT = 65535; 
     private static final int DEFAULT_SIZE = 5;
+    private static final long MIN_SWEEP_PERIOD_MILLIS = 10; // Slow clients are looked for at most this often
+    // Numbers have at most 9 digits for an int, 18 for a long, so that every valid request parses
+    private static final Pattern REQUEST_REGEX = Pattern.compile("(look( at \\d{1,18})?)|(help)|(bye)|(stats)|(status)|(hint)|(watch)|(compress)|"
+            + "(subscribe \\d{1,9} \\d{1,9} \\d{1,9} \\d{1,9})|(unsubscribe)|(reset( -?\\d{1,18})?)|"
+            + "(dig -?\\d{1,9} -?\\d{1,9})|(chord -?\\d{1,9} -?\\d{1,9})|(flag -?\\d{1,9} -?\\d{1,9})|(deflag -?\\d{1,9} -?\\d{1,9})");
+    // Constant replies are encoded once, not on every request
+    private static final byte[] HELP_REPLY = ResponseWriter.encode(
+            "Available Actions: 'dig x y' or 'flag x y' or 'deflag x y' "
+            + "where x and y are coordinates of the cell"
+            + "\r\n" 
+            + "Other Commands: 'look' : Shows the board, 'bye' : Ends game"
+            + "\r\n");
+    private static final byte[] BOOM_REPLY = ResponseWriter.encode("BOOM!\r\n");
+    private static final byte[] CLEARED_PUSH = ResponseWriter.encode("All safe cells revealed! The board is cleared.\r\n");
+    private static final byte[] WATCH_REPLY = ResponseWriter.encode(
+            "Watching: the board is sent each time it changes, 'bye' to stop\r\n");
+    private static final byte[] SPECTATOR_REPLY = ResponseWriter.encode("Spectators cannot change the board\r\n");
+    private static final byte[] RESET_DISABLED_REPLY = ResponseWriter.encode("Reset is not allowed on this server\r\n");
+    private static final byte[] RESET_PUSH = ResponseWriter.encode("New round: the board was reset.\r\n");
+    private static final byte[] RATE_LIMITED_REPLY = ResponseWriter.encode("Too many commands, slow down\r\n");
+    private static final byte[] LINE_TOO_LONG_REPLY = ResponseWriter.encode("Line too long\r\n");
+    // The first word of every valid request, so the command of a request is found without creating a String
+    private static final String[] COMMAND_NAMES = {"look", "help", "bye", "stats", "status", "hint", "watch",
+            "compress", "subscribe", "unsubscribe", "reset", "dig", "chord", "flag", "deflag"};
+    // Commands counted against a client's read and write budgets, the others do not use the board
+    private static final Set<String> READ_COMMANDS = Set.of("look", "status", "hint", "subscribe");
+    private static final Set<String> WRITE_COMMANDS = Set.of("reset", "dig", "chord", "flag", "deflag");
+    private static final byte[] NO_HISTORY_REPLY = ResponseWriter.encode("History is not kept on this server\r\n");
+    private static final byte[] UNSUBSCRIBED_REPLY = ResponseWriter.encode("Unsubscribed\r\n");
+    // The last bytes sent uncompressed to a client asking for compression, the rest being one deflate stream
+    private static final byte[] COMPRESS_REPLY = ResponseWriter.encode("Compressing: deflate\r\n");
+    private static final byte[] BYE = new byte[0]; // Ends the session, compared by reference and never written
+    private static final byte[] APPLIED = new byte[0]; // Reply to HTTP, compared by reference and never written
+    private static final byte[] QUEUED = new byte[0]; // Reply queued already, compared by reference and never written
+    // HTTP requests are not rate limited: the threads of the endpoint bound them
+    private static final TokenBucket UNLIMITED = new TokenBucket(0, 0);
 
     //Fields of this Class:
     private final ServerSocket serverSocket; // Socket for receiving incoming connections
     private final boolean debug; //True if server must NOT disconnect client after BOOM!
     private final Board board; // Board played on
-    private int numPlayers = 0; // Number of clients connected
+    private final ServerMetrics metrics = new ServerMetrics(); // Counters, gauges and latencies of this server
+    private final ServerConfig config; // Tuning options
+    private final Set<ClientConnection> connections = ConcurrentHashMap.newKeySet(); // Clients connected
+    private final ScheduledExecutorService sweeper; // Disconnects clients that stay over their queue limit
+    private volatile boolean boardCleared = false; // True once a dig revealed the last safe cell
+    private final AtomicBoolean clearedAnnounced = new AtomicBoolean(false); // True once the win was announced
+    private HintEngine hints = null; // Created on the first 'hint', guarded by the lock of board
+    private final FrameCache frames; // Renders board once per version for every reply and push
+    private final Set<ClientConnection> spectators = ConcurrentHashMap.newKeySet(); // Clients watching
+    private final Object publishLock = new Object(); // Orders the frames pushed to spectators
+    private volatile long lastPublished = -1; // Version of the last frame pushed, written with publishLock held
+    private final AtomicInteger nextSession = new AtomicInteger(); // Id of the next client, as recorded
+    private Optional<CommandRecorder> recorder; // Records commands if present, guarded by the lock of board
+    private final Optional<BoardActor> actor; // Single writer of board if present
+    // Routes cell changes to the clients whose viewport contains them, created on the first 'subscribe'
+    //  and guarded by the lock of board
+    private volatile ViewportIndex<ClientConnection> viewports = null;
+    private volatile long lastRouted = -1; // Version of board whose changes were last routed, written with publishLock held
+    private final Optional<HttpEndpoint> http; // Serves board over HTTP too if present
+    private final Optional<BoardHistory> history; // Earlier versions of board if present, one per command
+    private final DeflaterPool deflaters; // Lent to the writers of clients that asked for compression
 
     // System thread safety argument:
-    // - The Object board and the Integer numPlayers are the only mutable parts of the rep.
-    //   A. numPlayers is never changed concurrently but rather sequentially in the default thread
+    // - The Objects board, metrics and connections are the only mutable parts of the rep.
+    //   A. metrics is a thread-safe data type made of atomic and striped counters only
+    //       (the number of players connected is one of its gauges)
     //   B. board is final and private, and it is a synchronized thread-safe data type
     //       Clients have to acquire the lock on the board Object to view or mutate it
+    //   C. connections is a concurrent set and each ClientConnection is thread-safe
+    //   D. hints is only read, created and used with the lock of board held
+    //       Replies are queued outside the board lock so a slow client never holds it
+    //   E. frames is guarded by the lock of board. Frames are pushed to spectators with publishLock
+    //       held (never while holding the board lock) so they reach every spectator in version order.
+    //       The news of a new round is the exception: it is pushed with both locks held, so that it
+    //       reaches every client after what was published of the old round and before anything of the new
+    //   F. recorder is guarded by the lock of board, so commands are recorded in the order they were applied
+    //   G. If actor is present, only its board thread applies commands (still holding the lock of board,
+    //       uncontended by clients), client threads wait for the future of their reply
+    //   H. Each client's rate limits are TokenBuckets, lock-free, checked before the board is locked
+    //   I. viewports is guarded by the lock of board (board tells it about changes with its lock held).
+    //       Changes are taken from it and pushed with publishLock held, as frames, so a subscriber gets
+    //       them in order, after the reply to its 'subscribe' (queued with publishLock held too)
+    //   J. http applies its commands through applyHttp(), on the board as a client's would be, on its own
+    //       bounded threads; the version it replies is read in the same hold of the lock of board
+    //   K. history is committed with the lock of board held, after each operation; its versions are
+    //       immutable and read by 'look at' without any lock
+    //   L. Flight Recorder events are confined to the thread handling the command or the connection
+    //   M. deflaters is thread-safe, each Deflater it lends is confined to the writer thread borrowing it
     // - Hence, this ensures that the MinesweeperServer class is on overall thread-safe.
 
     // Abstraction function:
-    // - A Minesweeper game session with numPlayers being the number of players playing
+    // - A Minesweeper game session with metrics.getActiveConnections() being the number of players playing
     // - this.board is the Minesweeper field being played on
+    // - this.metrics is what happened in this session so far, as reported by the 'stats' command
+    // - this.connections are the players connected right now, 
+    //   this.spectators are the ones among them watching the board instead of playing
+    // - this.lastPublished is the version of board the spectators were last sent
+    // - this.viewports are the rectangles of board that clients subscribed to, with the changes of their cells
+    //   not pushed yet, this.lastRouted is the version of board up to which changes were pushed
+    // - this.history is what board was at its last versions, if kept
+    // - this.http serves board over HTTP, if present, its changes applied as those of one more client
+    // - this.boardCleared is true once every safe cell of board is revealed, 
+    //   this.clearedAnnounced is true once players were told
 
     // Representation invariant:
-    // - numPlayers >= 0
+    // - metrics.getActiveConnections() >= 0
+    // - spectators is a subset of connections
 
     // Safety from representation exposure:
     // - Only returned type is String which is immutable
-    // - Fields are private and final (int is not final as it needs to be changed
-    //      but it cannot be changed from outside this Class)
+    // - Fields are private and final and cannot be changed from outside this Class
+    //      (metrics is shared with JMX but only through its read-only ServerMetricsMBean interface)
 
     /**
      * Make a MinesweeperServer that listens for connections on port
@@ -52,9 +161,71 @@ public class MinesweeperServer {
      */
     public MinesweeperServer(int port, boolean debug, Board board) 
             throws IOException {
+        this(port, debug, board, new ServerConfig());
+    }
+
+    /**
+     * Make a MinesweeperServer that listens for connections on port
+     *  and updates a Board object
+     * 
+     * @param port The port number, requires 0 <= port <= 65535
+     * @param debug The debug mode flag
+     * @param board The Minesweeper Board to be updated by this server
+     * @param config The tuning options of this server, not changed afterwards
+     * @throws IOException if an error occurs opening the server socket
+     */
+    public MinesweeperServer(int port, boolean debug, Board board, ServerConfig config) 
+            throws IOException {
+        this(port, debug, board, config, Optional.empty());
+    }
+
+    /**
+     * Make a MinesweeperServer that listens for connections on port
+     *  and updates a Board object, recording the commands applied to it
+     * 
+     * @param port The port number, requires 0 <= port <= 65535
+     * @param debug The debug mode flag
+     * @param board The Minesweeper Board to be updated by this server
+     * @param config The tuning options of this server, not changed afterwards
+     * @param recorder If present, where every command using board is recorded, opened on board untouched
+     * @throws IOException if an error occurs opening the server socket
+     */
+    public MinesweeperServer(int port, boolean debug, Board board, ServerConfig config, 
+            Optional<CommandRecorder> recorder) throws IOException {
+        this.recorder = recorder;
         this.serverSocket = new ServerSocket(port);
         this.debug = debug;
         this.board = board;
+        this.config = config;
+        this.frames = new FrameCache(board, this.metrics);
+        this.actor = config.actor() ? Optional.of(new BoardActor(board, this.frames, this.metrics)) : Optional.empty();
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "slow-client-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Deflaters of compressing sessions that ended or went idle, kept for the next ones
+        this.deflaters = new DeflaterPool(config.compressLevel(), 2 * Runtime.getRuntime().availableProcessors());
+        this.history = config.historyVersions() > 0
+                ? Optional.of(new BoardHistory(board, config.historyVersions())) : Optional.empty();
+        if (config.httpPort().isPresent()){
+            // One session for all HTTP requests, as recorded
+            int session = this.nextSession.getAndIncrement();
+            this.http = Optional.of(new HttpEndpoint(config.httpPort().get(), config.httpThreads(), board,
+                    command -> applyHttp(session, command), this.metrics));
+        }
+        else{
+            this.http = Optional.empty();
+        }
+        long sweepPeriod = Math.max(MIN_SWEEP_PERIOD_MILLIS, config.slowClientTimeoutMillis() / 4);
+        this.sweeper.scheduleAtFixedRate(this::disconnectSlowClients, sweepPeriod, sweepPeriod, TimeUnit.MILLISECONDS);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this.metrics, new ObjectName(
+                    "minesweeper.server:type=ServerMetrics,port=" + this.serverSocket.getLocalPort()));
+        } catch (JMException jme) {
+            // Metrics stay available through the 'stats' command
+            System.err.println("metrics not registered with JMX: " + jme.getMessage());
+        }
     }
 
     /**
@@ -65,18 +236,34 @@ public class MinesweeperServer {
      *                     (IOExceptions from individual clients do *not* terminate serve())
      */
     public void serve() throws IOException {
+        this.http.ifPresent(HttpEndpoint::start);
+        try {
+            accept();
+        } finally {
+            this.http.ifPresent(HttpEndpoint::stop);
+            this.deflaters.close();
+        }
+    }
+
+    /**
+     * Accepts client connections, each handled on a thread of its own
+     *  Never returns unless an exception is thrown.
+     * 
+     * @throws IOException if the main server socket is broken
+     */
+    private void accept() throws IOException {
         while (true) {
             // block until a client connects
             Socket socket = serverSocket.accept();
-            // When a new client connects to socket, increment numPlayers
-            numPlayers += 1;
+            // When a new client connects to socket, increment the number of players
+            int numPlayers = metrics.connectionOpened();
 
             // handle the client
             // Give each client a thread and handle each in its own thread
             Thread clientHandler = new Thread(new Runnable(){
                 public void run() {
                     try {
-                        handleConnection(socket);
+                        handleConnection(socket, numPlayers);
                     } catch (IOException ioe) {
                         ioe.printStackTrace(); // but don't terminate serve()
                     } finally {
@@ -95,88 +282,831 @@ public class MinesweeperServer {
      * Handle a single client connection. Returns when client disconnects.
      * 
      * @param socket socket where the client is connected
+     * @param numPlayers The number of players connected, including this one
      * @throws IOException if the connection encounters an error or terminates unexpectedly
      */
-    private void handleConnection(Socket socket) throws IOException {
-        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
-        out.print("Welcome to Minesweeper. Board: " 
+    private void handleConnection(Socket socket, int numPlayers) throws IOException {
+        LineDecoder in;
+        // Reset to each line read, no Matcher per line
+        Matcher request = REQUEST_REGEX.matcher("");
+        ClientConnection connection;
+        try {
+            // Commands are matched and parsed straight from the bytes read, no String per line
+            in = new LineDecoder(socket.getInputStream(), this.config.maxLineBytes());
+            // Replies are queued for the connection's writer thread, which coalesces pipelined replies
+            connection = new ClientConnection(socket, this.config.maxQueuedBytes(), this.metrics);
+        } catch (IOException | RuntimeException e) {
+            // The finally below is never reached: the player counted by accept() leaves here
+            this.metrics.connectionClosed(0);
+            throw e;
+        }
+        int session = this.nextSession.getAndIncrement();
+        DisconnectEvent disconnected = new DisconnectEvent();
+        disconnected.begin();
+        ConnectEvent connected = new ConnectEvent();
+        if (connected.shouldCommit()){
+            connected.session = session;
+            connected.remote = String.valueOf(socket.getRemoteSocketAddress());
+            connected.players = numPlayers;
+            connected.commit();
+        }
+        String welcome = "Welcome to Minesweeper. Board: " 
                 + this.board.sizeList().get(0) + " columns by " 
                 + this.board.sizeList().get(1) + " rows. Players: " 
-                + this.numPlayers + " including you. "
-                + "Type 'help' for help.\r\n");
-        out.flush();
+                + numPlayers + " including you. "
+                + "Type 'help' for help.\r\n";
+        boolean watching = false;
+        // This client's budgets of commands using the board
+        TokenBucket reads = new TokenBucket(this.config.readRate(), System.nanoTime());
+        TokenBucket writes = new TokenBucket(this.config.writeRate(), System.nanoTime());
         try {
-            for (String line = in.readLine(); line != null; line = in.readLine()) {
-                String output = handleRequest(line);
-                if (!output.equals("bye")){
-                    out.print(output);
-                    out.flush();
+            this.connections.add(connection);
+            connection.start();
+            connection.reply(ResponseWriter.encode(welcome));
+            while (in.readLine()) {
+                byte[] output = in.tooLong() ? LINE_TOO_LONG_REPLY
+                        : handleRequest(in, request, session, connection, watching, reads, writes);
+                if (output == BYE
+                        || (output != QUEUED && !connection.reply(output))){
+                    break;
+                }
+                if (output == WATCH_REPLY){
+                    watching = true;
+                    startWatching(connection);
                 }
-                if (output.equals("bye")
-                        || (output.equals("BOOM!\r\n")
-                                && this.debug == false)){
+                // After the reply, so the player sees its own command first
+                publish(output != WATCH_REPLY);
+                if (output == BOOM_REPLY
+                        && this.debug == false){
                     break;
                 }
             }
+        } catch (IOException ioe) {
+            // A slow client cut by the sweeper is not an error
+            if (!connection.disconnected()){
+                throw ioe;
+            }
         } finally {
-            out.close();
+            ViewportIndex<ClientConnection> index = this.viewports;
+            if (index != null){
+                synchronized (this.board) {
+                    index.unsubscribe(connection);
+                }
+            }
+            if (this.spectators.remove(connection)){
+                this.metrics.spectators(-1);
+            }
+            this.connections.remove(connection);
+            connection.finish(this.config.slowClientTimeoutMillis());
             in.close();
-            // Reach here when the client disconnects so decrement numPlayers
-            numPlayers -= 1;
+            // Reach here when the client disconnects so decrement the number of players
+            this.metrics.connectionClosed(connection.bytesWritten());
+            if (disconnected.shouldCommit()){
+                disconnected.session = session;
+                disconnected.bytesWritten = connection.bytesWritten();
+                disconnected.slow = connection.disconnected();
+                disconnected.commit();
+            }
+        }
+    }
+
+    /**
+     * Tells the clients connected what the last command changed: spectators get the new frame,
+     *  subscribers the changes in their viewport, and everyone the news once the board is cleared
+     * 
+     * @param frame False if spectators need no frame (the command started a client watching)
+     */
+    private void publish(boolean frame) {
+        if (frame && !this.spectators.isEmpty()){
+            publishFrame();
+        }
+        if (this.viewports != null){
+            publishChanges();
+        }
+        if (this.boardCleared){
+            announceIfCleared();
+        }
+    }
+
+    /**
+     * Applies a command received over HTTP, as a client's but rendering no board, and tells the clients
+     *  connected
+     * 
+     * @param session The id of the HTTP endpoint, as recorded
+     * @param command 'dig x y', 'flag x y' or 'deflag x y', with x and y in the board
+     * @return HttpEndpoint.Change What the command did, with the version read in the same hold of the board lock
+     */
+    private HttpEndpoint.Change applyHttp(int session, String command) {
+        long start = System.nanoTime();
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        String name = commandName(command);
+        try {
+            int x = intArgument(command, 1);
+            int y = intArgument(command, 2);
+            AtomicLong version = new AtomicLong();
+            // Run with the lock of board still held after the command: no frame, the version it made
+            Function<Boolean, byte[]> applied = alive -> {
+                version.set(this.board.version());
+                return alive ? APPLIED : BOOM_REPLY;
+            };
+            byte[] reply = name.equals("dig") && digsSliced() ? digSliced(session, x, y, applied)
+                    : onBoard(() -> applied.apply(change(session, name, x, y)));
+            publish(true);
+            return new HttpEndpoint.Change(version.get(), reply != BOOM_REPLY);
+        } finally {
+            commandDone(name, session, true, start, event);
+        }
+    }
+
+    /**
+     * Disconnects the clients that stayed over their queue limit for longer than the timeout
+     *  Runs periodically on the sweeper thread
+     */
+    private void disconnectSlowClients() {
+        long now = System.nanoTime();
+        long timeout = TimeUnit.MILLISECONDS.toNanos(this.config.slowClientTimeoutMillis());
+        for (ClientConnection connection : this.connections){
+            if (!connection.disconnected() && connection.stalled(now, timeout)){
+                connection.disconnect();
+                this.metrics.slowClientDisconnected();
+            }
         }
     }
 
     /**
      * Handler for client input, performing requested operations and returning an output message.
      * 
-     * @param input message from client
+     * @param input message from client, only read during the call
+     * @param request A Matcher of REQUEST_REGEX, reset to the input
+     * @param session The id of the client, as recorded
+     * @param connection The client
+     * @param spectator True if the client is watching, it may then not change the board
+     * @param reads The client's budget of commands reading the board
+     * @param writes The client's budget of commands changing the board
      * @return message to client
      */
-    private String handleRequest(String input) {
-        String regex = "(look)|(help)|(bye)|"
-                + "(dig -?\\d+ -?\\d+)|(flag -?\\d+ -?\\d+)|(deflag -?\\d+ -?\\d+)";
-        String helpMessage = "Available Actions: 'dig x y' or 'flag x y' or 'deflag x y' "
-                + "where x and y are coordinates of the cell"
-                + "\r\n" 
-                + "Other Commands: 'look' : Shows the board, 'bye' : Ends game"
-                + "\r\n";
-        if (!input.matches(regex)) {
-            // invalid input
-            return helpMessage;
-        }
-        String[] tokens = input.split(" ");
-        if (tokens[0].equals("look")) {
-            // 'look' request
-            return this.board.toString();
-        } 
-        else if (tokens[0].equals("help")) {
-            // 'help' request
-            return helpMessage;
-        } 
-        else if (tokens[0].equals("bye")) {
-            // 'bye' request
-            return "bye";
-        } 
-        else {
-            String message = "";
-            int x = Integer.parseInt(tokens[1]);
-            int y = Integer.parseInt(tokens[2]);
-            if (tokens[0].equals("dig")) {
-                // 'dig x y' request
-                message = this.board.dig(x, y) ? this.board.toString() : "BOOM!\r\n";
-            }
-            if (tokens[0].equals("flag")) {
-                // 'flag x y' request
-                this.board.flag(x, y);
-                message = this.board.toString();
+    private byte[] handleRequest(CharSequence input, Matcher request, int session, ClientConnection connection,
+            boolean spectator, TokenBucket reads, TokenBucket writes) {
+        long start = System.nanoTime();
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        String command = "invalid";
+        try {
+            if (!request.reset(input).matches()) {
+                // invalid input
+                return HELP_REPLY;
+            }
+            command = commandName(input);
+            TokenBucket budget = READ_COMMANDS.contains(command) ? reads
+                    : WRITE_COMMANDS.contains(command) ? writes : null;
+            if (budget != null && !budget.tryAcquire(start)) {
+                // Over the limit: refused before the board is locked or rendered
+                command = "limited";
+                this.metrics.rateLimited();
+                return RATE_LIMITED_REPLY;
+            }
+            if (command.equals("look") && input.length() > command.length()) {
+                // 'look at VERSION' request: the board as it was, read without locking it
+                return lookAt(longArgument(input, 2));
+            } 
+            else if (command.equals("look")) {
+                // 'look' request
+                return onBoard(() -> {
+                    record(session, Command.LOOK, 0, 0);
+                    return BoardActor.FRAME;
+                });
+            } 
+            else if (command.equals("help")) {
+                // 'help' request
+                return HELP_REPLY;
+            } 
+            else if (command.equals("bye")) {
+                // 'bye' request
+                return BYE;
             } 
-            else if (tokens[0].equals("deflag")) {
-                // 'deflag x y' request
-                this.board.deflag(x, y);
-                message = this.board.toString();
+            else if (command.equals("status")) {
+                // 'status' request, O(1) whatever the size of the board
+                return onBoard(() -> {
+                    record(session, Command.STATUS, 0, 0);
+                    return ResponseWriter.encode("Untouched: " + this.board.numUntouched()
+                            + ", Flagged: " + this.board.numFlagged()
+                            + ", Revealed: " + this.board.numRevealed()
+                            + ", Safe cells left: " + this.board.numSafeLeft()
+                            + ", Version: " + this.board.version() + "\r\n");
+                });
+            } 
+            else if (command.equals("hint")) {
+                // 'hint' request: cells provably safe and provably mined given the numbers revealed
+                return onBoard(() -> {
+                    if (this.hints == null){
+                        this.hints = new HintEngine(this.board);
+                    }
+                    record(session, Command.HINT, 0, 0);
+                    return ResponseWriter.encode("Safe:" + formatCells(this.hints.safeCells()) + "\r\n"
+                            + "Mines:" + formatCells(this.hints.minedCells()) + "\r\n");
+                });
+            } 
+            else if (command.equals("stats")) {
+                // 'stats' admin request
+                return ResponseWriter.encode(this.metrics.getReport());
+            } 
+            else if (command.equals("subscribe")) {
+                // 'subscribe x y length width' request: the cells of the rectangle, then their changes
+                return subscribe(connection, intArgument(input, 1), intArgument(input, 2),
+                        intArgument(input, 3), intArgument(input, 4));
+            } 
+            else if (command.equals("unsubscribe")) {
+                // 'unsubscribe' request
+                ViewportIndex<ClientConnection> index = this.viewports;
+                if (index != null){
+                    onBoard(() -> {
+                        index.unsubscribe(connection);
+                        return UNSUBSCRIBED_REPLY;
+                    });
+                }
+                return UNSUBSCRIBED_REPLY;
+            } 
+            else if (command.equals("compress")) {
+                // 'compress' request: everything after this reply is sent as one deflate stream
+                boolean queued = connection.replyThenCompress(COMPRESS_REPLY, this.deflaters,
+                        this.config.compressMinBytes());
+                return queued ? QUEUED : BYE;
+            } 
+            else if (command.equals("watch")) {
+                // 'watch' request: the client becomes a spectator once this reply is queued
+                return WATCH_REPLY;
+            } 
+            else if (spectator) {
+                // 'reset', 'dig', 'chord', 'flag' or 'deflag' request from a spectator
+                return SPECTATOR_REPLY;
+            } 
+            else if (command.equals("reset")) {
+                // 'reset' admin request, with an optional seed
+                if (!this.config.allowReset()){
+                    return RESET_DISABLED_REPLY;
+                }
+                Optional<Long> seed = input.length() > command.length()
+                        ? Optional.of(longArgument(input, 1)) : Optional.empty();
+                return reset(session, seed);
+            } 
+            else {
+                byte[] message;
+                int x = intArgument(input, 1);
+                int y = intArgument(input, 2);
+                if (command.equals("dig") && digsSliced()) {
+                    // 'dig x y' request revealing at most revealSliceCells cells per hold of the board lock
+                    message = digSliced(session, x, y, alive -> alive ? this.frames.frame() : BOOM_REPLY);
+                }
+                else {
+                    // 'dig x y', 'chord x y' (digging all unflagged cells around x y at once), 'flag x y'
+                    //  or 'deflag x y' request
+                    String name = command;
+                    message = onBoard(() -> change(session, name, x, y) ? BoardActor.FRAME : BOOM_REPLY);
+                }
+                return message;
+            }
+        } finally {
+            commandDone(command, session, connection == null, start, event);
+        }
+    }
+
+    /**
+     * Applies 'dig x y', 'chord x y', 'flag x y' or 'deflag x y' to the board and records it;
+     *  the lock of board must be held
+     * 
+     * @param session The id of the client, as recorded
+     * @param command 'dig', 'chord', 'flag' or 'deflag'
+     * @param x The x-coordinate of the cell
+     * @param y The y-coordinate of the cell
+     * @return boolean False if the command dug a bomb
+     */
+    private boolean change(int session, String command, int x, int y) {
+        if (command.equals("flag")) {
+            this.board.flag(x, y);
+            record(session, Command.FLAG, x, y);
+            return true;
+        }
+        if (command.equals("deflag")) {
+            this.board.deflag(x, y);
+            record(session, Command.DEFLAG, x, y);
+            return true;
+        }
+        boolean chord = command.equals("chord");
+        boolean alive = chord ? this.board.chord(x, y) : this.board.dig(x, y);
+        record(session, chord ? Command.CHORD : Command.DIG, x, y);
+        this.metrics.revealed(this.board.revealedByLastDig());
+        if (this.board.allSafeRevealed()){
+            this.boardCleared = true;
+        }
+        return alive;
+    }
+
+    /**
+     * Counts a command handled in the metrics and commits its event, if enabled
+     * 
+     * @param command The name of the command, 'invalid' or 'limited' if refused
+     * @param session The id of the client, as recorded
+     * @param http True if the command was received over HTTP
+     * @param start When handling the command started, in System.nanoTime()
+     * @param event The event of the command, begun when handling started
+     */
+    private void commandDone(String command, int session, boolean http, long start, CommandEvent event) {
+        this.metrics.command(command, System.nanoTime() - start);
+        if (event.shouldCommit()){
+            event.command = command;
+            event.session = session;
+            event.http = http;
+            event.commit();
+        }
+    }
+
+    /**
+     * Starts a new round on the board, in place, atomically with respect to other commands, and tells
+     *  every player (spectators are sent the new board as after any command)
+     * 
+     * @param session The id of the client, as recorded
+     * @param seed The seed to place bombs from; if empty, the board file is loaded again if the server
+     *             has one, else a new random seed is used
+     * @return byte[] The reply: the board of the new round, or why it was not reset
+     */
+    private byte[] reset(int session, Optional<Long> seed) {
+        Optional<File> boardFile = seed.isPresent() ? Optional.empty() : this.config.resetFile();
+        long newSeed = seed.orElseGet(() -> new Random().nextLong());
+        // Held so that changes of the old round still being published go out before the news of the new one
+        synchronized (this.publishLock) {
+            return onBoard(() -> {
+                try {
+                    if (boardFile.isPresent()){
+                        this.board.reset(boardFile.get());
+                        recordReset(session, Optional.empty());
+                    }
+                    else{
+                        this.board.reset(newSeed);
+                        recordReset(session, Optional.of(newSeed));
+                    }
+                } catch (IOException | IllegalArgumentException e) {
+                    // The board is unchanged
+                    return ResponseWriter.encode("Reset failed: " + e.getMessage() + "\r\n");
+                }
+                this.boardCleared = false;
+                this.clearedAnnounced.set(false);
+                // Queued before the lock of board is released, so every reply and push of the new round
+                //  comes after it (pushes never wait)
+                for (ClientConnection connection : this.connections){
+                    connection.push(RESET_PUSH, false);
+                }
+                return BoardActor.FRAME;
+            });
+        }
+    }
+
+    /**
+     * @return boolean True if digs are revealed in slices, the lock of the board released between them
+     */
+    private boolean digsSliced() {
+        return this.config.revealSliceCells() > 0 && !this.actor.isPresent();
+    }
+
+    /**
+     * Digs a cell in slices, releasing the lock of the board between slices so that other clients'
+     *  commands are not stuck behind a large reveal
+     * 
+     * @param session The id of the client, as recorded
+     * @param x The x-coordinate of the cell to dig
+     * @param y The y-coordinate of the cell to dig
+     * @param finish Makes the reply, given whether no bomb was dug, in the last hold of the lock
+     * @return byte[] The reply, once the whole reveal is done
+     */
+    private byte[] digSliced(int session, int x, int y, Function<Boolean, byte[]> finish) {
+        int slice = this.config.revealSliceCells();
+        // The start and every slice are recorded as applied, so a replay interleaves them with other commands alike
+        AtomicLong dig = new AtomicLong(-1);
+        Board.Reveal reveal = withBoardLock(() -> {
+            Board.Reveal started = this.board.startDig(x, y);
+            dig.set(recordDigStart(session, x, y));
+            return started;
+        });
+        byte[] reply = null;
+        while (reply == null){
+            reply = withBoardLock(() -> {
+                boolean done = this.board.continueDig(reveal, slice);
+                recordDigSlice(session, dig.get(), slice);
+                if (!done){
+                    return null;
+                }
+                this.metrics.revealed(reveal.revealed());
+                if (this.board.allSafeRevealed()){
+                    this.boardCleared = true;
+                }
+                return finish.apply(reveal.alive());
+            });
+            if (reply == null){
+                // The lock is not fair: give the threads waiting for it a chance before the next slice
+                Thread.yield();
+            }
+        }
+        return reply;
+    }
+
+    /**
+     * Records a command just applied to the board, if recording; the lock of board must be held
+     *  A recording that fails is stopped, the game goes on
+     * 
+     * @param session The id of the client that sent the command
+     * @param command The command
+     * @param x The x-coordinate given with the command, 0 if none
+     * @param y The y-coordinate given with the command, 0 if none
+     */
+    private void record(int session, Command command, int x, int y) {
+        if (this.recorder.isPresent()){
+            try {
+                this.recorder.get().record(session, command, x, y);
+            } catch (IOException ioe) {
+                System.err.println("recording stopped: " + ioe.getMessage());
+                this.recorder = Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Records the start of a sliced dig just applied to the board, if recording; the lock of board must be held
+     *  A recording that fails is stopped, the game goes on
+     * 
+     * @param session The id of the client that sent the dig
+     * @param x The x-coordinate of the cell dug
+     * @param y The y-coordinate of the cell dug
+     * @return long The number of the dig in the recording, -1 if not recording
+     */
+    private long recordDigStart(int session, int x, int y) {
+        if (this.recorder.isPresent()){
+            try {
+                return this.recorder.get().startDig(session, x, y);
+            } catch (IOException ioe) {
+                System.err.println("recording stopped: " + ioe.getMessage());
+                this.recorder = Optional.empty();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Records a slice of a sliced dig just applied to the board, if recording; the lock of board must be held
+     *  A recording that fails is stopped, the game goes on
+     * 
+     * @param session The id of the client that sent the dig
+     * @param dig The number of the dig in the recording, -1 if it was not recorded
+     * @param cells The number of cells the slice could reveal at most
+     */
+    private void recordDigSlice(int session, long dig, int cells) {
+        if (this.recorder.isPresent()){
+            try {
+                this.recorder.get().digSlice(session, dig, cells);
+            } catch (IOException ioe) {
+                System.err.println("recording stopped: " + ioe.getMessage());
+                this.recorder = Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Records a reset just applied to the board, if recording; the lock of board must be held
+     *  A recording that fails is stopped, the game goes on
+     * 
+     * @param session The id of the client that reset the board
+     * @param seed The seed the bombs were placed from, empty if they were loaded from the board file
+     */
+    private void recordReset(int session, Optional<Long> seed) {
+        if (this.recorder.isPresent()){
+            try {
+                if (seed.isPresent()){
+                    this.recorder.get().reset(session, seed.get());
+                }
+                else{
+                    this.recorder.get().resetFromFile(session);
+                }
+            } catch (IOException ioe) {
+                System.err.println("recording stopped: " + ioe.getMessage());
+                this.recorder = Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Formats cells for a reply
+     * 
+     * @param cells The [x, y] coordinates of the cells
+     * @return String " x,y" for each cell, in order
+     */
+    private static String formatCells(List<List<Integer>> cells) {
+        StringBuilder formatted = new StringBuilder();
+        for (List<Integer> cell : cells){
+            formatted.append(' ').append(cell.get(0)).append(',').append(cell.get(1));
+        }
+        return formatted.toString();
+    }
+
+    /**
+     * Finds the command of a valid request without creating a String
+     *
+     * @param input A request matching REQUEST_REGEX
+     * @return String Its first word, one of COMMAND_NAMES
+     */
+    private static String commandName(CharSequence input) {
+        int end = wordEnd(input, 0);
+        for (String name : COMMAND_NAMES){
+            if (name.length() == end){
+                int i = 0;
+                while (i < end && name.charAt(i) == input.charAt(i)){
+                    i += 1;
+                }
+                if (i == end){
+                    return name;
+                }
+            }
+        }
+        throw new IllegalArgumentException("no command in a valid request");
+    }
+
+    /**
+     * Parses an argument of a valid request without creating a String
+     *
+     * @param input A request matching REQUEST_REGEX, its words separated by single spaces
+     * @param word The index of the argument among the words of input, > 0
+     * @return int The argument
+     * @throws NumberFormatException if it is out of the range of int
+     */
+    private static int intArgument(CharSequence input, int word) {
+        int start = wordStart(input, word);
+        return Integer.parseInt(input, start, wordEnd(input, start), 10);
+    }
+
+    /**
+     * Parses an argument of a valid request without creating a String
+     *
+     * @param input A request matching REQUEST_REGEX, its words separated by single spaces
+     * @param word The index of the argument among the words of input, > 0
+     * @return long The argument
+     * @throws NumberFormatException if it is out of the range of long
+     */
+    private static long longArgument(CharSequence input, int word) {
+        int start = wordStart(input, word);
+        return Long.parseLong(input, start, wordEnd(input, start), 10);
+    }
+
+    /**
+     * @param input Words separated by single spaces
+     * @param word The index of a word of input
+     * @return int The index of its first char
+     */
+    private static int wordStart(CharSequence input, int word) {
+        int start = 0;
+        int words = 0;
+        while (words < word){
+            start = wordEnd(input, start) + 1;
+            words += 1;
+        }
+        return start;
+    }
+
+    /**
+     * @param input Words separated by single spaces
+     * @param start The index of the first char of a word
+     * @return int The index after its last char
+     */
+    private static int wordEnd(CharSequence input, int start) {
+        int end = start;
+        while (end < input.length() && input.charAt(end) != ' '){
+            end += 1;
+        }
+        return end;
+    }
+
+    /**
+     * Makes a client a spectator and sends it the board as it is now
+     *  Later frames replace this one if the client has not received it yet
+     * 
+     * @param connection The client, its WATCH_REPLY already queued
+     */
+    private void startWatching(ClientConnection connection) {
+        synchronized (this.publishLock) {
+            if (this.spectators.add(connection)){
+                this.metrics.spectators(1);
+            }
+            byte[] frame;
+            long version;
+            synchronized (this.board) {
+                frame = this.frames.frame();
+                version = this.frames.version();
+            }
+            if (version > this.lastPublished){
+                // The others were not sent this version either
+                pushToSpectators(frame, version);
+            }
+            else{
+                connection.push(frame, true);
+                this.metrics.framePushed(1);
+            }
+        }
+    }
+
+    /**
+     * Subscribes a client to the changes of a rectangle of the board, instead of its previous one if any,
+     *  and queues its reply: the rectangle and its cells as they are now, so that the changes pushed later
+     *  apply to exactly this state
+     * 
+     * @param connection The client
+     * @param x The x-coordinate of the upper-left cell of the rectangle
+     * @param y The y-coordinate of the upper-left cell of the rectangle
+     * @param length The number of cells of the rectangle along x, cut at the edge of the board
+     * @param width The number of cells of the rectangle along y, cut at the edge of the board
+     * @return byte[] QUEUED, or the reply to queue if the rectangle is empty or outside the board
+     */
+    private byte[] subscribe(ClientConnection connection, int x, int y, int length, int width) {
+        int boardLength = this.board.sizeList().get(0);
+        int boardWidth = this.board.sizeList().get(1);
+        if (x >= boardLength || y >= boardWidth || length == 0 || width == 0){
+            return ResponseWriter.encode("No cell in " + x + " " + y + " " + length + " " + width + "\r\n");
+        }
+        int cutLength = Math.min(length, boardLength - x);
+        int cutWidth = Math.min(width, boardWidth - y);
+        synchronized (this.publishLock) {
+            // Changes so far are pushed first: they are older than the cells replied
+            publishChanges();
+            byte[] reply = onBoard(() -> {
+                if (this.viewports == null){
+                    this.viewports = new ViewportIndex<>(boardLength, boardWidth);
+                    this.board.addListener(this.viewports);
+                }
+                this.viewports.subscribe(connection, x, y, cutLength, cutWidth);
+                byte[] cells = this.board.toBytes(x, y, cutLength, cutWidth);
+                byte[] header = ResponseWriter.encode("Subscribed: " + x + " " + y + " " + cutLength + " "
+                        + cutWidth + "\r\n");
+                byte[] subscribed = Arrays.copyOf(header, header.length + cells.length);
+                System.arraycopy(cells, 0, subscribed, header.length, cells.length);
+                return subscribed;
+            });
+            connection.push(reply, false);
+        }
+        return QUEUED;
+    }
+
+    /**
+     * Pushes the changes of the board since they were last pushed to the clients whose viewport
+     *  contains them, if the board changed since: one "Changed:" line per client
+     */
+    private void publishChanges() {
+        if (this.board.version() <= this.lastRouted){
+            return;
+        }
+        synchronized (this.publishLock) {
+            List<Map.Entry<ClientConnection, String>> changes;
+            synchronized (this.board) {
+                this.lastRouted = this.board.version();
+                changes = this.viewports == null ? List.of() : this.viewports.drain();
+            }
+            for (Map.Entry<ClientConnection, String> change : changes){
+                change.getKey().push(ResponseWriter.encode(change.getValue()), false);
+            }
+        }
+    }
+
+    /**
+     * Pushes the current frame of the board to every spectator, if they were not sent this version yet
+     *  The frame is rendered once and the same bytes are queued for all spectators, so the cost per
+     *  spectator is one queue entry, a stale frame still queued being replaced rather than piling up
+     */
+    private void publishFrame() {
+        if (this.board.version() <= this.lastPublished){
+            return;
+        }
+        synchronized (this.publishLock) {
+            byte[] frame;
+            long version;
+            synchronized (this.board) {
+                frame = this.frames.frame();
+                version = this.frames.version();
+            }
+            // Another thread may have published this version, or a newer one, in the meantime
+            if (version <= this.lastPublished){
+                return;
+            }
+            pushToSpectators(frame, version);
+        }
+    }
+
+    /**
+     * Queues the same frame for every spectator, publishLock must be held
+     * 
+     * @param frame The frame of the board, must not be mutated
+     * @param version The version of the board it shows, newer than lastPublished
+     */
+    private void pushToSpectators(byte[] frame, long version) {
+        this.lastPublished = version;
+        int reached = 0;
+        for (ClientConnection spectator : this.spectators){
+            if (spectator.push(frame, true)){
+                reached += 1;
+            }
+        }
+        this.metrics.framePushed(reached);
+    }
+
+    /**
+     * Tells every player, once, that all safe cells of the board are revealed
+     */
+    private void announceIfCleared() {
+        if (this.clearedAnnounced.compareAndSet(false, true)){
+            for (ClientConnection connection : this.connections){
+                connection.push(CLEARED_PUSH, false);
+            }
+        }
+    }
+
+    /**
+     * Keeps the board as it is now in the history, if kept and if it changed; the lock of board must be held
+     */
+    private void commitHistory() {
+        if (this.history.isPresent()){
+            this.history.get().commit();
+        }
+    }
+
+    /**
+     * Replies to 'look at VERSION' from the history, without locking the board
+     * 
+     * @param version A version of the board
+     * @return byte[] The board at the last version kept that is not after version, headed by that version,
+     *          or why there is none
+     */
+    private byte[] lookAt(long version) {
+        if (!this.history.isPresent()){
+            return NO_HISTORY_REPLY;
+        }
+        Optional<BoardHistory.Snapshot> snapshot = this.history.get().at(version);
+        if (!snapshot.isPresent()){
+            return ResponseWriter.encode("Version " + version + " is not kept, the oldest kept is "
+                    + this.history.get().oldest() + "\r\n");
+        }
+        byte[] header = ResponseWriter.encode("Version " + snapshot.get().version() + ":\r\n");
+        byte[] cells = snapshot.get().toBytes();
+        byte[] reply = Arrays.copyOf(header, header.length + cells.length);
+        System.arraycopy(cells, 0, reply, header.length, cells.length);
+        return reply;
+    }
+
+    /**
+     * Applies an operation to the board and returns its reply: on the board thread if the actor is used,
+     *  else on this thread holding the lock of the board
+     * 
+     * @param operation The operation, returning its reply or BoardActor.FRAME to reply with the board
+     * @return byte[] The reply, the frame of the board if the operation returned BoardActor.FRAME
+     * @throws RuntimeException what the operation threw, unwrapped in both modes (an Error is thrown as is too)
+     */
+    private byte[] onBoard(Supplier<byte[]> operation) {
+        if (this.actor.isPresent()){
+            // Pipelined replies stay in order: the handler waits for each reply before reading the next line
+            try {
+                return this.actor.get().submit(() -> {
+                    byte[] reply = operation.get();
+                    commitHistory();
+                    return reply;
+                }).join();
+            } catch (CompletionException ce) {
+                // Thrown as is, as when the operation runs on this thread
+                if (ce.getCause() instanceof RuntimeException){
+                    throw (RuntimeException) ce.getCause();
+                }
+                if (ce.getCause() instanceof Error){
+                    throw (Error) ce.getCause();
+                }
+                throw ce;
+            }
+        }
+        return withBoardLock(() -> {
+            byte[] reply = operation.get();
+            return reply == BoardActor.FRAME ? this.frames.frame() : reply;
+        });
+    }
+
+    /**
+     * Performs an operation on the board while holding its lock, 
+     *  recording how long it waited for the lock and how long it held it
+     * 
+     * @param operation The operation to perform
+     * @return T The result of the operation
+     */
+    private <T> T withBoardLock(Supplier<T> operation) {
+        long requested = System.nanoTime();
+        synchronized (this.board) {
+            long acquired = System.nanoTime();
+            try {
+                T result = operation.get();
+                commitHistory();
+                return result;
+            } finally {
+                this.metrics.boardLock(acquired - requested, System.nanoTime() - acquired);
             }
-            return message;
         }
     }
 
@@ -185,6 +1115,11 @@ public class MinesweeperServer {
      * 
      * <br> Usage:
      *      MinesweeperServer [--debug | --no-debug] [--port PORT] [--size SIZE_X,SIZE_Y | --file FILE]
+     *                        [--max-queue BYTES] [--slow-timeout MILLIS] [--record LOG] [--actor]
+     *                        [--reveal-slice CELLS] [--allow-reset] [--storage STORAGE]
+     *                        [--read-rate PER_SECOND] [--write-rate PER_SECOND]
+     *                        [--http-port HTTP_PORT] [--http-threads THREADS] [--history VERSIONS]
+     *                        [--compress-level LEVEL] [--compress-min BYTES] [--max-line LINE_BYTES]
      * 
      * <br> The --debug argument means the server should run in debug mode. The server should disconnect a
      *      client after a BOOM message if and only if the --debug flag was NOT given.
@@ -220,17 +1155,78 @@ public class MinesweeperServer {
      * 
      * <br> If neither --file nor --size is given, generate a random board of size 10x10.
      * 
-     * <br> Note that --file and --size may not be specified simultaneously.
+     * <br> BYTES is an optional positive integer: the number of bytes that may wait to be written to a client
+     *      before it is considered slow. MILLIS is an optional positive integer: how long a client may stay
+     *      slow before it is disconnected. A client sent pushes it does not read (changes, subscribed cells)
+     *      is disconnected at once when 8 times BYTES wait for it.
+     * <br> E.g. "MinesweeperServer --max-queue 65536 --slow-timeout 2000"
+     * 
+     * <br> LOG is an optional file where every command using the board is recorded with its session and time,
+     *      for minesweeper.replay.Replay. The log gets a checkpoint of the board every few thousand commands
+     *      and when the server is stopped.
+     * <br> E.g. "MinesweeperServer --record game.log"
+     * 
+     * <br> The --actor argument means commands are applied by a single board thread, in batches, instead of
+     *      by each client's thread holding the lock of the board.
      * 
+     * <br> CELLS is an optional positive integer: the number of cells a dig reveals before letting other
+     *      players' commands through, the digging player being replied when the whole reveal is done.
+     * <br> E.g. "MinesweeperServer --size 2000,2000 --reveal-slice 4096"
+     * 
+     * <br> The --allow-reset argument lets clients start a new round with the 'reset [SEED]' admin command:
+     *      the board is reset in place, players staying connected. With FILE the board is loaded from it
+     *      again, else (or given a SEED) its bombs are placed from a new seed.
+     * 
+     * <br> STORAGE is where the board keeps its cells and bombs: "heap" (the default), "off-heap" (direct
+     *      memory, see -XX:MaxDirectMemorySize) or "mapped:DIR" (files created in the directory DIR, so the
+     *      board may be larger than the memory). The board's memory is given back when the server is stopped.
+     * <br> E.g. "MinesweeperServer --size 40000,40000 --storage mapped:/var/tmp"
+     * 
+     * <br> PER_SECOND is an optional positive integer: how many commands reading the board ('look', 'status',
+     *      'hint') or changing it ('dig', 'chord', 'flag', 'deflag', 'reset') each client may send per second,
+     *      after a burst of up to one second's worth. Commands over the limit are refused. By default there
+     *      is no limit.
+     * <br> E.g. "MinesweeperServer --read-rate 20 --write-rate 10"
+     * 
+     * <br> HTTP_PORT is an optional integer in the range 0 to 65535 inclusive: the board is then served over
+     *      HTTP on that port too, with JSON replies ('GET /board', 'GET /status', 'POST /dig?x=X&amp;y=Y',
+     *      see HttpEndpoint), GET replies being tagged with the version of the board for If-None-Match.
+     *      THREADS is an optional positive integer: the number of threads handling HTTP requests, 4 by default.
+     * <br> E.g. "MinesweeperServer --http-port 8080 --http-threads 8"
+     * 
+     * <br> VERSIONS is an optional positive integer: how many earlier versions of the board are kept, one per
+     *      command changing it, for the 'look at VERSION' command showing the board as it was at a version
+     *      (as 'status' shows it); versions share the tiles they did not change, the oldest ones are dropped.
+     * <br> E.g. "MinesweeperServer --history 100000"
+     * 
+     * <br> A client may send 'compress': the reply "Compressing: deflate" is the last thing sent to it as is,
+     *      everything after it is one raw deflate stream (RFC 1951), flushed after each batch of replies.
+     *      LEVEL is an optional integer from 1 (fastest) to 9, 6 by default: the deflate level. BYTES is an
+     *      optional integer from 0 to 65535, 256 by default: until a client gets a batch of at least BYTES,
+     *      its batches are sent uncompressed (in stored blocks of the stream). From then on its session keeps
+     *      a deflater, compressing each batch against the previous ones, until it stays idle for 10 seconds.
+     * <br> E.g. "MinesweeperServer --size 2000,2000 --compress-level 1 --compress-min 1024"
+     * 
+     * <br> LINE_BYTES is an optional positive integer, 1024 by default: the length of the longest line a client
+     *      may send. A longer line is dropped as it is read, without being buffered, and refused.
+     * <br> E.g. "MinesweeperServer --max-line 128"
+     * 
+     * <br> Note that --file and --size may not be specified simultaneously.
+     *
+     * <br> The server emits Flight Recorder events (category "Minesweeper": digs, flood-fills, renders, commands,
+     *      connections), recorded with the JVM's own options; minesweeper/minesweeper.jfc enables them along
+     *      with lock contention, GC and socket events.
+     * <br> E.g. "java -XX:StartFlightRecording:settings=minesweeper.jfc,filename=game.jfr MinesweeperServer"
+     *
      * @param args arguments as described
      */
     public static void main(String[] args) {
-        // Command-line argument parsing is provided. Do not change this method.
         boolean debug = false;
         int port = DEFAULT_PORT;
         int sizeX = DEFAULT_SIZE;
         int sizeY = DEFAULT_SIZE;
         Optional<File> file = Optional.empty();
+        ServerConfig config = new ServerConfig();
 
         Queue<String> arguments = new LinkedList<String>(Arrays.asList(args));
         try {
@@ -258,6 +1254,36 @@ public class MinesweeperServer {
                         if ( ! file.get().isFile()) {
                             throw new IllegalArgumentException("file not found: \"" + file + "\"");
                         }
+                    } else if (flag.equals("--max-queue")) {
+                        config.maxQueuedBytes(Integer.parseInt(arguments.remove()));
+                    } else if (flag.equals("--slow-timeout")) {
+                        config.slowClientTimeoutMillis(Long.parseLong(arguments.remove()));
+                    } else if (flag.equals("--reveal-slice")) {
+                        config.revealSliceCells(Integer.parseInt(arguments.remove()));
+                    } else if (flag.equals("--allow-reset")) {
+                        config.allowReset(true);
+                    } else if (flag.equals("--read-rate")) {
+                        config.readRate(Integer.parseInt(arguments.remove()));
+                    } else if (flag.equals("--write-rate")) {
+                        config.writeRate(Integer.parseInt(arguments.remove()));
+                    } else if (flag.equals("--http-port")) {
+                        config.httpPort(Integer.parseInt(arguments.remove()));
+                    } else if (flag.equals("--http-threads")) {
+                        config.httpThreads(Integer.parseInt(arguments.remove()));
+                    } else if (flag.equals("--history")) {
+                        config.historyVersions(Integer.parseInt(arguments.remove()));
+                    } else if (flag.equals("--compress-level")) {
+                        config.compressLevel(Integer.parseInt(arguments.remove()));
+                    } else if (flag.equals("--compress-min")) {
+                        config.compressMinBytes(Integer.parseInt(arguments.remove()));
+                    } else if (flag.equals("--max-line")) {
+                        config.maxLineBytes(Integer.parseInt(arguments.remove()));
+                    } else if (flag.equals("--storage")) {
+                        config.storage(parseStorage(arguments.remove()));
+                    } else if (flag.equals("--actor")) {
+                        config.actor(true);
+                    } else if (flag.equals("--record")) {
+                        config.recordTo(new File(arguments.remove()));
                     } else {
                         throw new IllegalArgumentException("unknown option: \"" + flag + "\"");
                     }
@@ -269,12 +1295,17 @@ public class MinesweeperServer {
             }
         } catch (IllegalArgumentException iae) {
             System.err.println(iae.getMessage());
-            System.err.println("usage: MinesweeperServer [--debug | --no-debug] [--port PORT] [--size SIZE_X,SIZE_Y | --file FILE]");
+            System.err.println("usage: MinesweeperServer [--debug | --no-debug] [--port PORT] [--size SIZE_X,SIZE_Y | --file FILE]"
+                    + " [--max-queue BYTES] [--slow-timeout MILLIS] [--record LOG] [--actor]"
+                    + " [--reveal-slice CELLS] [--allow-reset] [--storage STORAGE]"
+                    + " [--read-rate PER_SECOND] [--write-rate PER_SECOND]"
+                    + " [--http-port HTTP_PORT] [--http-threads THREADS] [--history VERSIONS]"
+                    + " [--compress-level LEVEL] [--compress-min BYTES] [--max-line LINE_BYTES]");
             return;
         }
 
         try {
-            runMinesweeperServer(debug, file, sizeX, sizeY, port);
+            runMinesweeperServer(debug, file, sizeX, sizeY, port, config);
         } catch (IOException ioe) {
             throw new RuntimeException(ioe);
         }
@@ -293,14 +1324,85 @@ public class MinesweeperServer {
      * @throws IOException if a network error occurs
      */
     public static void runMinesweeperServer(boolean debug, Optional<File> file, int sizeX, int sizeY, int port) throws IOException {
+        runMinesweeperServer(debug, file, sizeX, sizeY, port, new ServerConfig());
+    }
+
+    /**
+     * Start a MinesweeperServer running on the specified port, with either a random new board or a
+     * board loaded from a file.
+     * 
+     * @param debug The server will disconnect a client after a BOOM message if and only if debug is false.
+     * @param file If file.isPresent(), start with a board loaded from the specified file,
+     *             according to the input file format defined in the documentation for main(..).
+     * @param sizeX If (!file.isPresent()), start with a random board with width sizeX.
+     * @param sizeY If (!file.isPresent()), start with a random board with height sizeY.
+     * @param port The network port on which the server should listen.
+     * @param config The tuning options of the server.
+     * @throws IOException if a network error occurs
+     */
+    public static void runMinesweeperServer(boolean debug, Optional<File> file, int sizeX, int sizeY, int port,
+            ServerConfig config) throws IOException {
         Board boardCreated;
+        Optional<CommandRecorder> recorder = Optional.empty();
         if (file.isPresent()){
-            boardCreated = new Board(file.get());
+            boardCreated = new Board(file.get(), config.storage());
+            config.resetFile(file.get());
+            if (config.recordFile().isPresent()){
+                recorder = Optional.of(CommandRecorder.fromFile(config.recordFile().get(), boardCreated, file.get()));
+            }
         } 
         else{
-            boardCreated = new Board(sizeX, sizeY);
+            // Seeded so that a recording can rebuild the same board
+            long seed = new Random().nextLong();
+            boardCreated = new Board(sizeX, sizeY, seed, config.storage());
+            if (config.recordFile().isPresent()){
+                recorder = Optional.of(CommandRecorder.seeded(config.recordFile().get(), boardCreated, seed));
+            }
+        }
+        // When the server is stopped: last checkpoint of the recording, then the board is released
+        //  (one hook, so the checkpoint is taken before)
+        Optional<CommandRecorder> closing = recorder;
+        Thread shutdown = new Thread(() -> {
+            if (closing.isPresent()){
+                try {
+                    closing.get().close();
+                } catch (IOException ioe) {
+                    System.err.println("recording not closed: " + ioe.getMessage());
+                }
+            }
+            boardCreated.close();
+        });
+        Runtime.getRuntime().addShutdownHook(shutdown);
+        MinesweeperServer server = new MinesweeperServer(port, debug, boardCreated, config, recorder);
+        try {
+            server.serve();
+        } finally {
+            // serve() only returns by throwing: the game is over
+            if (Runtime.getRuntime().removeShutdownHook(shutdown)){
+                shutdown.run();
+            }
+        }
+    }
+
+    /**
+     * Parses the argument of --storage
+     * 
+     * @param storage "heap", "off-heap" or "mapped:DIR"
+     * @return Storage The storage it names
+     * @throws IllegalArgumentException if it names none or DIR is not a directory
+     */
+    private static Storage parseStorage(String storage) {
+        if (storage.equals("heap")) {
+            return Storage.heap();
+        } else if (storage.equals("off-heap")) {
+            return Storage.offHeap();
+        } else if (storage.startsWith("mapped:")) {
+            File directory = new File(storage.substring("mapped:".length()));
+            if ( ! directory.isDirectory()) {
+                throw new IllegalArgumentException("directory not found: \"" + directory + "\"");
+            }
+            return Storage.mapped(directory);
         }
-        MinesweeperServer server = new MinesweeperServer(port, debug, boardCreated);
-        server.serve();
+        throw new IllegalArgumentException("unknown storage: \"" + storage + "\"");
     }
 }
@@ -0,0 +1,238 @@
+package minesweeper.server;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This Class is the bounded queue of bytes waiting to be written to one client
+ * Replies to the client's own commands wait for room (so a client that stops reading stops being read),
+ *  pushes never wait and a queued replaceable frame is replaced by a newer one instead of stacking up
+ * Pushes cannot pile up past a hard ceiling either: the one going past it closes the queue (overflow)
+ * [Thread-safe: any thread may push, the connection's handler replies and its writer thread takes]
+ */
+public class OutboundQueue {
+
+    //Constants:
+    private static final long NOT_OVER_LIMIT = -1;
+    static final int CEILING_FACTOR = 8; // Pending bytes past this many times maxBytes overflow the queue
+
+    /**
+     * One reply or push waiting to be written
+     */
+    private static class Entry {
+        private final byte[] bytes;
+        private final boolean replaceable;
+
+        private Entry(byte[] bytes, boolean replaceable) {
+            this.bytes = bytes;
+            this.replaceable = replaceable;
+        }
+    }
+
+    //Fields of this ADT:
+    private final int maxBytes;
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private long pendingBytes = 0;
+    private long overLimitSince = NOT_OVER_LIMIT;
+    private long framesReplaced = 0;
+    private boolean closed = false;
+    private boolean overflowed = false;
+
+    // Abstraction function:
+    // - The bytes a client has yet to receive: entries in order, followed by a batch already taken by the
+    //   writer but not yet written, pendingBytes counting both
+    // - overLimitSince is the System.nanoTime() since which pendingBytes > maxBytes, NOT_OVER_LIMIT if it is not
+    // - framesReplaced counts the replaceable frames dropped because a newer one was pushed
+    // - closed means nothing more can be queued; the writer still gets what was queued before
+    // - overflowed means a push took pendingBytes past CEILING_FACTOR * maxBytes, which closed the queue
+
+    // Representation invariant:
+    // - maxBytes > 0, pendingBytes >= sum of the lengths of entries
+    // - (overLimitSince == NOT_OVER_LIMIT) == (pendingBytes <= maxBytes)
+    // - at most one entry is replaceable
+    // - overflowed implies closed
+
+    // Thread Safety:
+    // - Monitor pattern: every method is synchronized on this queue and waiting threads are woken
+    //   up with notifyAll() whenever room is made, an entry is added or the queue is closed
+    // - This lock is only held to move references around, never while writing to a socket
+    //   and never together with the Board lock
+
+    // Safety from representation exposure:
+    // - Byte arrays are shared, not copied: callers treat replies as immutable once queued
+
+    /**
+     * Constructs an empty queue
+     *
+     * @param maxBytes The number of pending bytes above which the client is considered slow, > 0
+     */
+    public OutboundQueue(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Queues a reply to a command of the client, waiting while the client is over the limit
+     *
+     * @param reply The reply, must not be mutated afterwards
+     * @return boolean True if queued, false if the queue was closed (possibly while waiting)
+     * @throws InterruptedException if interrupted while waiting for room
+     */
+    public synchronized boolean offer(byte[] reply) throws InterruptedException {
+        while (!closed && pendingBytes > maxBytes){
+            wait();
+        }
+        if (closed){
+            return false;
+        }
+        add(new Entry(reply, false));
+        return true;
+    }
+
+    /**
+     * Queues bytes the client did not ask for, never waiting
+     *  If that takes the pending bytes past CEILING_FACTOR times the limit, the queue overflows and is closed
+     *
+     * @param push The bytes to send, must not be mutated afterwards
+     * @param replaceable True if this is a full frame that makes any frame queued before it stale
+     * @return boolean True if queued, false if the queue was closed or overflowed now
+     */
+    public synchronized boolean push(byte[] push, boolean replaceable) {
+        if (closed){
+            return false;
+        }
+        if (replaceable){
+            Iterator<Entry> iterator = entries.iterator();
+            while (iterator.hasNext()){
+                Entry entry = iterator.next();
+                if (entry.replaceable){
+                    iterator.remove();
+                    pendingBytes -= entry.bytes.length;
+                    framesReplaced += 1;
+                }
+            }
+        }
+        add(new Entry(push, replaceable));
+        if (pendingBytes > CEILING_FACTOR * (long) maxBytes){
+            // Nobody waits for a push: only cutting the client bounds its queue
+            overflowed = true;
+            closed = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Takes everything queued, waiting until there is something or the queue is closed
+     *  The bytes taken stay pending until written(long) is called
+     *
+     * @return List<byte[]> What to write in order, empty only once the queue is closed and drained
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized List<byte[]> take() throws InterruptedException {
+        while (!closed && entries.isEmpty()){
+            wait();
+        }
+        List<byte[]> batch = new ArrayList<>(entries.size());
+        for (Entry entry : entries){
+            batch.add(entry.bytes);
+        }
+        entries.clear();
+        return batch;
+    }
+
+    /**
+     * Waits until something is queued or the queue is closed, for at most a time
+     *
+     * @param timeoutMillis How long to wait at most, > 0
+     * @return boolean True if take() would return without waiting, false if the time ran out
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized boolean await(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long left = timeoutMillis;
+        while (!closed && entries.isEmpty() && left > 0){
+            wait(left);
+            left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        }
+        return closed || !entries.isEmpty();
+    }
+
+    /**
+     * Records that bytes taken were written to the client
+     *
+     * @param bytes The number of bytes written
+     */
+    public synchronized void written(long bytes) {
+        pendingBytes -= bytes;
+        updateOverLimit();
+        notifyAll();
+    }
+
+    /**
+     * Closes the queue: nothing more is queued and waiting threads return
+     */
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    /**
+     * Tells whether the client has been over the limit for too long
+     *
+     * @param now The current System.nanoTime()
+     * @param timeoutNanos How long a client may stay over the limit
+     * @return boolean True if over the limit for longer than timeoutNanos
+     */
+    public synchronized boolean stalled(long now, long timeoutNanos) {
+        return overLimitSince != NOT_OVER_LIMIT && now - overLimitSince > timeoutNanos;
+    }
+
+    /**
+     * @return boolean True if a push took the pending bytes past the ceiling, which closed the queue
+     */
+    public synchronized boolean overflowed() {
+        return overflowed;
+    }
+
+    /**
+     * @return long The number of bytes queued or taken but not yet written
+     */
+    public synchronized long pendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * @return long The number of stale frames replaced by newer ones so far
+     */
+    public synchronized long framesReplaced() {
+        return framesReplaced;
+    }
+
+    /**
+     * Appends an entry and wakes up the writer
+     *
+     * @param entry The entry to append
+     */
+    private void add(Entry entry) {
+        entries.addLast(entry);
+        pendingBytes += entry.bytes.length;
+        updateOverLimit();
+        notifyAll();
+    }
+
+    /**
+     * Starts or stops the over limit clock according to pendingBytes
+     */
+    private void updateOverLimit() {
+        if (pendingBytes <= maxBytes){
+            overLimitSince = NOT_OVER_LIMIT;
+        }
+        else if (overLimitSince == NOT_OVER_LIMIT){
+            overLimitSince = System.nanoTime();
+        }
+    }
+}
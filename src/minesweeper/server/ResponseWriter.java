@@ -0,0 +1,154 @@
+package minesweeper.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This Class writes byte replies to a client, coalescing consecutive replies into one write
+ *  to the underlying stream (one syscall for a socket) until flush() is called
+ * [Not thread-safe: a ResponseWriter is confined to the writer thread of its connection, which alone
+ *  writes and flushes replies that handler threads queue for it]
+ */
+public class ResponseWriter {
+
+    //Constants:
+    private static final int DEFAULT_CAPACITY = 8192; // Same as the JDK's buffered streams
+
+    //Fields of this ADT:
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int count = 0;
+    private long bytesWritten = 0;
+    private long writeCalls = 0;
+
+    // Abstraction function:
+    // - A stream of replies to a client where buffer[0..count) are the bytes accepted but not yet
+    //   handed to out, and everything accepted before them was already handed to out
+    // - bytesWritten is the number of bytes handed to out and writeCalls the number of write calls on out
+
+    // Representation invariant:
+    // - 0 <= count <= buffer.length
+    // - bytesWritten >= 0, writeCalls >= 0
+
+    // Safety from representation exposure:
+    // - buffer is never returned and byte arrays given to write() are copied or handed to out
+    //   right away, never kept
+
+    /**
+     * Constructs a ResponseWriter with the default buffer capacity
+     *
+     * @param out The stream replies are written to
+     */
+    public ResponseWriter(OutputStream out) {
+        this(out, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a ResponseWriter
+     *
+     * @param out The stream replies are written to
+     * @param capacity The number of bytes coalesced before they are written to out, capacity > 0
+     */
+    public ResponseWriter(OutputStream out, int capacity) {
+        this.out = out;
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * Encodes a constant reply once so it can be written many times with write(byte[])
+     *
+     * @param reply The reply, only made of ASCII characters
+     * @return byte[] The encoded reply, must not be mutated
+     */
+    public static byte[] encode(String reply) {
+        return reply.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Writes a reply, it reaches the client at the latest on the next flush()
+     *  Replies too big to be coalesced are written straight to the stream without being copied
+     *
+     * @param reply The encoded reply
+     * @throws IOException if the stream is broken
+     */
+    public void write(byte[] reply) throws IOException {
+        write(reply, 0, reply.length);
+    }
+
+    /**
+     * Writes part of a byte array, as write(byte[]) writes a whole one
+     *  The bytes are copied or handed to the stream before this returns, so the array may be reused
+     *
+     * @param bytes The array
+     * @param offset The index of the first byte to write
+     * @param length The number of bytes to write
+     * @throws IOException if the stream is broken
+     */
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (length > buffer.length - count){
+            flushBuffer();
+        }
+        if (length > buffer.length){
+            out.write(bytes, offset, length);
+            writeCalls += 1;
+            bytesWritten += length;
+        }
+        else {
+            System.arraycopy(bytes, offset, buffer, count, length);
+            count += length;
+        }
+    }
+
+    /**
+     * Hands every reply written so far to the stream (in one write call when they fit the buffer)
+     *  and flushes the stream
+     *
+     * @throws IOException if the stream is broken
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * Flushes then closes the underlying stream
+     *
+     * @throws IOException if the stream is broken
+     */
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * @return long The number of bytes handed to the stream so far
+     */
+    public long bytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * @return long The number of write calls made on the stream so far (syscalls for a socket)
+     */
+    public long writeCalls() {
+        return writeCalls;
+    }
+
+    /**
+     * Hands the buffered bytes to the stream, if any
+     *
+     * @throws IOException if the stream is broken
+     */
+    private void flushBuffer() throws IOException {
+        if (count > 0){
+            out.write(buffer, 0, count);
+            writeCalls += 1;
+            bytesWritten += count;
+            count = 0;
+        }
+    }
+}
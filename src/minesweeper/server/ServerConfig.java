@@ -0,0 +1,411 @@
+package minesweeper.server;
+
+import java.io.File;
+import java.util.Optional;
+import java.util.zip.Deflater;
+
+import minesweeper.Storage;
+
+/**
+ * This Class holds the tuning options of a MinesweeperServer, each with a default
+ *  Options are set with chained calls e.g. new ServerConfig().maxQueuedBytes(4096).slowClientTimeoutMillis(500)
+ * [A ServerConfig must not be changed once given to a MinesweeperServer]
+ */
+public class ServerConfig {
+
+    //Constants:
+    private static final int DEFAULT_MAX_QUEUED_BYTES = 1 << 20; // 1 MiB per client
+    private static final long DEFAULT_SLOW_CLIENT_TIMEOUT_MILLIS = 10_000;
+    private static final int DEFAULT_HTTP_THREADS = 4;
+    private static final int MAXIMUM_PORT = 65535;
+    // zlib's default: against the previous frames, 5 times fewer bytes than level 1, see CompressionBenchmark
+    private static final int DEFAULT_COMPRESS_LEVEL = 6;
+    private static final int DEFAULT_COMPRESS_MIN_BYTES = 256;
+    private static final int MAXIMUM_COMPRESS_MIN_BYTES = 65535; // Largest deflate stored block
+    private static final int DEFAULT_MAX_LINE_BYTES = 1024; // The longest command is under 64 bytes
+
+    //Fields of this ADT:
+    private int maxQueuedBytes = DEFAULT_MAX_QUEUED_BYTES;
+    private long slowClientTimeoutMillis = DEFAULT_SLOW_CLIENT_TIMEOUT_MILLIS;
+    private Optional<File> recordFile = Optional.empty();
+    private boolean actor = false;
+    private int revealSliceCells = 0;
+    private boolean allowReset = false;
+    private Optional<File> resetFile = Optional.empty();
+    private Storage storage = Storage.heap();
+    private int readRate = 0;
+    private int writeRate = 0;
+    private Optional<Integer> httpPort = Optional.empty();
+    private int httpThreads = DEFAULT_HTTP_THREADS;
+    private int historyVersions = 0;
+    private int compressLevel = DEFAULT_COMPRESS_LEVEL;
+    private int compressMinBytes = DEFAULT_COMPRESS_MIN_BYTES;
+    private int maxLineBytes = DEFAULT_MAX_LINE_BYTES;
+
+    // Abstraction function:
+    // - maxQueuedBytes is the number of bytes a client may have waiting to be written to it before it is slow
+    // - slowClientTimeoutMillis is how long a client may stay slow before it is disconnected
+    // - recordFile is where the commands applied to the board are recorded, if present
+    // - actor is true if commands are applied by a single board thread instead of client threads
+    // - revealSliceCells is the number of cells a dig reveals per hold of the board lock, 0 for no limit
+    // - allowReset is true if clients may start a new round with the 'reset' admin command, which loads
+    //   the board from resetFile again if present, else places bombs from a new seed
+    // - storage is where the board created by the server keeps its cells and bombs
+    // - readRate and writeRate are the numbers of commands per second each client may send that read
+    //   the board and that change it, 0 for no limit
+    // - httpPort is the port of the HTTP endpoint on the board, if present, served by httpThreads threads
+    // - historyVersions is the number of earlier versions of the board kept for 'look at', 0 for none
+    // - compressLevel is the deflate level of the clients that asked for compression, whose batches of
+    //   fewer than compressMinBytes bytes are sent uncompressed
+    // - maxLineBytes is the length of the longest line a client may send, longer ones being dropped
+
+    // Representation invariant:
+    // - maxQueuedBytes > 0, slowClientTimeoutMillis > 0, revealSliceCells >= 0
+    // - readRate >= 0, writeRate >= 0
+    // - 0 <= httpPort <= 65535 if present, httpThreads > 0, historyVersions >= 0
+    // - 1 <= compressLevel <= 9, 0 <= compressMinBytes <= 65535, maxLineBytes > 0
+
+    /**
+     * Sets the number of bytes a client may have waiting to be written to it
+     *
+     * @param bytes The limit, > 0
+     * @return ServerConfig this
+     * @throws IllegalArgumentException if bytes <= 0
+     */
+    public ServerConfig maxQueuedBytes(int bytes) {
+        if (bytes <= 0){
+            throw new IllegalArgumentException("max queued bytes " + bytes + " must be positive");
+        }
+        this.maxQueuedBytes = bytes;
+        return this;
+    }
+
+    /**
+     * @return int The number of bytes a client may have waiting to be written to it
+     */
+    public int maxQueuedBytes() {
+        return this.maxQueuedBytes;
+    }
+
+    /**
+     * Sets how long a client may stay over its queue limit before it is disconnected
+     *
+     * @param millis The timeout in milliseconds, > 0
+     * @return ServerConfig this
+     * @throws IllegalArgumentException if millis <= 0
+     */
+    public ServerConfig slowClientTimeoutMillis(long millis) {
+        if (millis <= 0){
+            throw new IllegalArgumentException("slow client timeout " + millis + " must be positive");
+        }
+        this.slowClientTimeoutMillis = millis;
+        return this;
+    }
+
+    /**
+     * @return long How long a client may stay over its queue limit, in milliseconds
+     */
+    public long slowClientTimeoutMillis() {
+        return this.slowClientTimeoutMillis;
+    }
+
+    /**
+     * Sets the file where the commands applied to the board are recorded, for minesweeper.replay.Replay
+     *
+     * @param log The command log, replaced if it exists
+     * @return ServerConfig this
+     */
+    public ServerConfig recordTo(File log) {
+        this.recordFile = Optional.of(log);
+        return this;
+    }
+
+    /**
+     * @return Optional<File> The file where the commands applied to the board are recorded, if any
+     */
+    public Optional<File> recordFile() {
+        return this.recordFile;
+    }
+
+    /**
+     * Chooses how commands are applied to the board: by a single board thread that client threads
+     *  hand them to (see BoardActor), or by each client thread holding the lock of the board (the default)
+     *
+     * @param actor True for the board thread
+     * @return ServerConfig this
+     */
+    public ServerConfig actor(boolean actor) {
+        this.actor = actor;
+        return this;
+    }
+
+    /**
+     * @return boolean True if commands are applied by a single board thread
+     */
+    public boolean actor() {
+        return this.actor;
+    }
+
+    /**
+     * Sets how many cells a dig reveals per hold of the board lock: a large reveal then lets the other
+     *  players' commands through between slices, the digging player being replied once it is complete
+     *  (ignored with the board actor, which applies commands one after the other anyway)
+     *
+     * @param cells The number of cells per slice, > 0, or 0 to reveal everything in one hold (the default)
+     * @return ServerConfig this
+     * @throws IllegalArgumentException if cells < 0
+     */
+    public ServerConfig revealSliceCells(int cells) {
+        if (cells < 0){
+            throw new IllegalArgumentException("reveal slice " + cells + " must not be negative");
+        }
+        this.revealSliceCells = cells;
+        return this;
+    }
+
+    /**
+     * @return int The number of cells a dig reveals per hold of the board lock, 0 for no limit
+     */
+    public int revealSliceCells() {
+        return this.revealSliceCells;
+    }
+
+    /**
+     * Lets clients start a new round on the board with the 'reset' admin command, players staying connected
+     *
+     * @param allow True to accept 'reset', false to refuse it (the default)
+     * @return ServerConfig this
+     */
+    public ServerConfig allowReset(boolean allow) {
+        this.allowReset = allow;
+        return this;
+    }
+
+    /**
+     * @return boolean True if clients may reset the board
+     */
+    public boolean allowReset() {
+        return this.allowReset;
+    }
+
+    /**
+     * Sets the board file a 'reset' without seed loads again, the file the board was loaded from
+     *
+     * @param boardFile The board file, of the size of the board
+     * @return ServerConfig this
+     */
+    public ServerConfig resetFile(File boardFile) {
+        this.resetFile = Optional.of(boardFile);
+        return this;
+    }
+
+    /**
+     * @return Optional<File> The board file a 'reset' without seed loads again, if empty bombs are placed
+     *          from a new random seed instead
+     */
+    public Optional<File> resetFile() {
+        return this.resetFile;
+    }
+
+    /**
+     * Sets where the board created by the server keeps its cells and bombs
+     *
+     * @param storage The storage, Storage.heap() by default
+     * @return ServerConfig this
+     */
+    public ServerConfig storage(Storage storage) {
+        this.storage = storage;
+        return this;
+    }
+
+    /**
+     * @return Storage Where the board created by the server keeps its cells and bombs
+     */
+    public Storage storage() {
+        return this.storage;
+    }
+
+    /**
+     * Limits how often each client may read the board ('look', 'status' and 'hint'): commands over
+     *  the limit are refused with a fixed reply, without touching the board
+     *  A client may send up to one second's worth of commands at once after a quiet period
+     *
+     * @param perSecond The number of commands per second, > 0, or 0 for no limit (the default)
+     * @return ServerConfig this
+     * @throws IllegalArgumentException if perSecond < 0
+     */
+    public ServerConfig readRate(int perSecond) {
+        if (perSecond < 0){
+            throw new IllegalArgumentException("read rate " + perSecond + " must not be negative");
+        }
+        this.readRate = perSecond;
+        return this;
+    }
+
+    /**
+     * @return int The number of commands reading the board each client may send per second, 0 for no limit
+     */
+    public int readRate() {
+        return this.readRate;
+    }
+
+    /**
+     * Limits how often each client may change the board ('dig', 'chord', 'flag', 'deflag' and 'reset'),
+     *  as readRate() does for reads, with a budget of its own
+     *
+     * @param perSecond The number of commands per second, > 0, or 0 for no limit (the default)
+     * @return ServerConfig this
+     * @throws IllegalArgumentException if perSecond < 0
+     */
+    public ServerConfig writeRate(int perSecond) {
+        if (perSecond < 0){
+            throw new IllegalArgumentException("write rate " + perSecond + " must not be negative");
+        }
+        this.writeRate = perSecond;
+        return this;
+    }
+
+    /**
+     * @return int The number of commands changing the board each client may send per second, 0 for no limit
+     */
+    public int writeRate() {
+        return this.writeRate;
+    }
+
+    /**
+     * Serves the board over HTTP too, with JSON replies (see HttpEndpoint), on a port of its own
+     *
+     * @param port The port number, 0 <= port <= 65535 (0 for any free port)
+     * @return ServerConfig this
+     * @throws IllegalArgumentException if port is out of range
+     */
+    public ServerConfig httpPort(int port) {
+        if (port < 0 || port > MAXIMUM_PORT){
+            throw new IllegalArgumentException("HTTP port " + port + " out of range");
+        }
+        this.httpPort = Optional.of(port);
+        return this;
+    }
+
+    /**
+     * @return Optional<Integer> The port of the HTTP endpoint, if the board is served over HTTP
+     */
+    public Optional<Integer> httpPort() {
+        return this.httpPort;
+    }
+
+    /**
+     * Sets how many threads handle HTTP requests: requests beyond them wait in a bounded queue, and
+     *  once it is full are handled by the thread accepting connections, which then accepts no more
+     *
+     * @param threads The number of threads, > 0 (4 by default)
+     * @return ServerConfig this
+     * @throws IllegalArgumentException if threads <= 0
+     */
+    public ServerConfig httpThreads(int threads) {
+        if (threads <= 0){
+            throw new IllegalArgumentException("HTTP threads " + threads + " must be positive");
+        }
+        this.httpThreads = threads;
+        return this;
+    }
+
+    /**
+     * @return int The number of threads handling HTTP requests
+     */
+    public int httpThreads() {
+        return this.httpThreads;
+    }
+
+    /**
+     * Keeps earlier versions of the board, one per command changing it, for 'look at VERSION'
+     *  Versions share the tiles of the board they did not change (see minesweeper.BoardHistory)
+     *
+     * @param versions How many versions to keep, the oldest being dropped, > 0, or 0 to keep none (the default)
+     * @return ServerConfig this
+     * @throws IllegalArgumentException if versions < 0
+     */
+    public ServerConfig historyVersions(int versions) {
+        if (versions < 0){
+            throw new IllegalArgumentException("history versions " + versions + " must not be negative");
+        }
+        this.historyVersions = versions;
+        return this;
+    }
+
+    /**
+     * @return int How many earlier versions of the board are kept, 0 for none
+     */
+    public int historyVersions() {
+        return this.historyVersions;
+    }
+
+    /**
+     * Sets the deflate level of the clients that ask for compression with 'compress'
+     *
+     * @param level From Deflater.BEST_SPEED (1) to Deflater.BEST_COMPRESSION (9), 6 by default
+     * @return ServerConfig this
+     * @throws IllegalArgumentException if level is out of range
+     */
+    public ServerConfig compressLevel(int level) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION){
+            throw new IllegalArgumentException("compression level " + level + " out of range");
+        }
+        this.compressLevel = level;
+        return this;
+    }
+
+    /**
+     * @return int The deflate level of the clients that asked for compression
+     */
+    public int compressLevel() {
+        return this.compressLevel;
+    }
+
+    /**
+     * Sets the size under which what is written at once to a client that asked for compression is sent
+     *  uncompressed while its session holds no Deflater: compressing a short reply costs more CPU than the
+     *  few bytes it saves, and would tie up a Deflater
+     *
+     * @param bytes The size of the smallest batch compressed, 0 <= bytes <= 65535 (256 by default)
+     * @return ServerConfig this
+     * @throws IllegalArgumentException if bytes is out of range
+     */
+    public ServerConfig compressMinBytes(int bytes) {
+        if (bytes < 0 || bytes > MAXIMUM_COMPRESS_MIN_BYTES){
+            throw new IllegalArgumentException("compression min bytes " + bytes + " out of range");
+        }
+        this.compressMinBytes = bytes;
+        return this;
+    }
+
+    /**
+     * @return int The size of the smallest batch of bytes compressed
+     */
+    public int compressMinBytes() {
+        return this.compressMinBytes;
+    }
+
+    /**
+     * Sets the length of the longest line a client may send: the bytes of a longer line are dropped as they
+     *  are read, so a client cannot make the server buffer more, and the line is refused
+     *
+     * @param bytes The length, without the line end, > 0 (1024 by default)
+     * @return ServerConfig this
+     * @throws IllegalArgumentException if bytes <= 0
+     */
+    public ServerConfig maxLineBytes(int bytes) {
+        if (bytes <= 0){
+            throw new IllegalArgumentException("max line bytes " + bytes + " must be positive");
+        }
+        this.maxLineBytes = bytes;
+        return this;
+    }
+
+    /**
+     * @return int The length of the longest line a client may send
+     */
+    public int maxLineBytes() {
+        return this.maxLineBytes;
+    }
+}
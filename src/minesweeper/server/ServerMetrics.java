@@ -0,0 +1,331 @@
+package minesweeper.server;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This Class is the metrics registry of a MinesweeperServer
+ * It is read through the 'stats' command and through JMX (see ServerMetricsMBean)
+ * [Any number of threads may record and read metrics concurrently]
+ */
+public class ServerMetrics implements ServerMetricsMBean {
+
+    //Fields of this ADT:
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final LongAdder totalConnections = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder compressedWireBytes = new LongAdder();
+    private final LongAdder slowClientsDisconnected = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final AtomicInteger spectators = new AtomicInteger();
+    private final LongAdder framesRendered = new LongAdder();
+    private final LongAdder framesPushed = new LongAdder();
+    private final LatencyHistogram bytesPerConnection = new LatencyHistogram();
+    private final LatencyHistogram lockWait = new LatencyHistogram();
+    private final LatencyHistogram lockHold = new LatencyHistogram();
+    private final LatencyHistogram reveals = new LatencyHistogram();
+    private final LatencyHistogram batches = new LatencyHistogram();
+    private final ConcurrentMap<String, LatencyHistogram> commands = new ConcurrentHashMap<>();
+
+    // Abstraction function:
+    // - The operational history of one server: connections opened and closed, bytes written,
+    //   bytes of compressed sessions before and after compression,
+    //   commands refused for going over a client's rate limit,
+    //   time spent waiting for and holding the Board lock, cells revealed per dig, operations applied
+    //   per batch by the board actor if used, board frames
+    //   rendered and pushed to spectators, and the latency of every command handled, grouped by
+    //   command name in commands
+
+    // Representation invariant:
+    // - activeConnections >= 0
+    // - spectators >= 0
+
+    // Thread Safety:
+    // - Counters are striped (LongAdder) or atomic so recording never takes a lock
+    // - commands is a ConcurrentHashMap, a lookup of an already known command name is lock-free and
+    //   the set of command names is small and fixed so computeIfAbsent only locks on first use
+
+    /**
+     * Records a newly connected client
+     *
+     * @return int The number of clients connected, including the new one
+     */
+    public int connectionOpened() {
+        totalConnections.increment();
+        return activeConnections.incrementAndGet();
+    }
+
+    /**
+     * Records a client disconnecting
+     *
+     * @param bytes The number of bytes written to this client over its connection
+     */
+    public void connectionClosed(long bytes) {
+        activeConnections.decrementAndGet();
+        bytesPerConnection.record(bytes);
+    }
+
+    /**
+     * Records bytes written to a client
+     *
+     * @param bytes The number of bytes written
+     */
+    public void bytesWritten(long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    /**
+     * Records bytes written to a client that asked for compression, as counted by bytesWritten() too
+     *
+     * @param bytes The number of bytes before compression
+     * @param wireBytes The number of bytes written
+     */
+    public void compressed(long bytes, long wireBytes) {
+        compressedBytes.add(bytes);
+        compressedWireBytes.add(wireBytes);
+    }
+
+    /**
+     * Records a client disconnected for staying over its outbound queue limit
+     */
+    public void slowClientDisconnected() {
+        slowClientsDisconnected.increment();
+    }
+
+    /**
+     * Records a command refused because its client went over its rate limit
+     */
+    public void rateLimited() {
+        rateLimited.increment();
+    }
+
+    /**
+     * Records one batch of operations applied by the board actor
+     *
+     * @param operations The number of operations in the batch
+     */
+    public void batch(int operations) {
+        batches.record(operations);
+    }
+
+    /**
+     * Records a client starting or stopping to watch the board
+     *
+     * @param delta +1 when a spectator starts watching, -1 when it leaves
+     */
+    public void spectators(int delta) {
+        spectators.addAndGet(delta);
+    }
+
+    /**
+     * Records one rendering of the board into a frame
+     */
+    public void frameRendered() {
+        framesRendered.increment();
+    }
+
+    /**
+     * Records one frame queued for each of a number of spectators
+     *
+     * @param spectatorsReached The number of spectators the frame was queued for
+     */
+    public void framePushed(int spectatorsReached) {
+        framesPushed.add(spectatorsReached);
+    }
+
+    /**
+     * Records one handled command
+     *
+     * @param command The name of the command e.g. "dig"
+     * @param nanos The time taken to handle it
+     */
+    public void command(String command, long nanos) {
+        LatencyHistogram histogram = commands.get(command);
+        if (histogram == null){
+            histogram = commands.computeIfAbsent(command, name -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * Records one acquisition of the Board lock
+     *
+     * @param waitNanos The time spent waiting for the lock
+     * @param holdNanos The time the lock was then held
+     */
+    public void boardLock(long waitNanos, long holdNanos) {
+        lockWait.record(waitNanos);
+        lockHold.record(holdNanos);
+    }
+
+    /**
+     * Records the number of cells a dig revealed (flood-fill size)
+     *
+     * @param cells The number of cells revealed
+     */
+    public void revealed(int cells) {
+        reveals.record(cells);
+    }
+
+    @Override
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    @Override
+    public long getTotalConnections() {
+        return totalConnections.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    @Override
+    public long getCompressedWireBytes() {
+        return compressedWireBytes.sum();
+    }
+
+    @Override
+    public long getSlowClientsDisconnected() {
+        return slowClientsDisconnected.sum();
+    }
+
+    @Override
+    public long getRateLimited() {
+        return rateLimited.sum();
+    }
+
+    @Override
+    public long getActorBatches() {
+        return batches.count();
+    }
+
+    @Override
+    public int getSpectators() {
+        return spectators.get();
+    }
+
+    @Override
+    public long getFramesRendered() {
+        return framesRendered.sum();
+    }
+
+    @Override
+    public long getFramesPushed() {
+        return framesPushed.sum();
+    }
+
+    @Override
+    public long getCommandCount() {
+        long total = 0;
+        for (LatencyHistogram histogram : commands.values()){
+            total += histogram.count();
+        }
+        return total;
+    }
+
+    @Override
+    public long getLockWaitNanos() {
+        return lockWait.sum();
+    }
+
+    @Override
+    public long getLockHoldNanos() {
+        return lockHold.sum();
+    }
+
+    @Override
+    public long getCellsRevealed() {
+        return reveals.sum();
+    }
+
+    @Override
+    public long getLargestReveal() {
+        return reveals.max();
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        report.append("Connections: active ").append(getActiveConnections())
+                .append(", total ").append(getTotalConnections())
+                .append(", bytes written ").append(getBytesWritten())
+                .append(", bytes per connection p50 ").append(bytesPerConnection.percentile(50))
+                .append(" max ").append(bytesPerConnection.max())
+                .append(", slow clients disconnected ").append(getSlowClientsDisconnected())
+                .append(", commands rate limited ").append(getRateLimited())
+                .append("\r\n");
+        report.append("Board lock: ");
+        appendLatencies(report, "wait", lockWait);
+        report.append(", ");
+        appendLatencies(report, "hold", lockHold);
+        report.append("\r\n");
+        report.append("Reveals: digs ").append(reveals.count())
+                .append(", cells ").append(reveals.sum())
+                .append(", p99 ").append(reveals.percentile(99))
+                .append(", largest ").append(reveals.max())
+                .append("\r\n");
+        if (getCompressedBytes() > 0){
+            report.append("Compression: bytes ").append(getCompressedBytes())
+                    .append(", on the wire ").append(getCompressedWireBytes())
+                    .append("\r\n");
+        }
+        if (batches.count() > 0){
+            report.append("Board actor: batches ").append(batches.count())
+                    .append(", operations ").append(batches.sum())
+                    .append(", per batch p50 ").append(batches.percentile(50))
+                    .append(" max ").append(batches.max())
+                    .append("\r\n");
+        }
+        report.append("Frames: rendered ").append(getFramesRendered())
+                .append(", spectators ").append(getSpectators())
+                .append(", pushed ").append(getFramesPushed())
+                .append("\r\n");
+        // Sorted so the report is stable from one call to the next
+        Map<String, LatencyHistogram> sorted = new TreeMap<>(commands);
+        for (Map.Entry<String, LatencyHistogram> entry : sorted.entrySet()){
+            report.append("Command ").append(entry.getKey())
+                    .append(": count ").append(entry.getValue().count())
+                    .append(", ");
+            appendLatencies(report, "latency", entry.getValue());
+            report.append("\r\n");
+        }
+        return report.toString();
+    }
+
+    /**
+     * Appends the total and main percentiles of a histogram of nanoseconds, in microseconds
+     *
+     * @param report Where to append
+     * @param name The name of what was measured
+     * @param histogram The histogram to summarize
+     */
+    private static void appendLatencies(StringBuilder report, String name, LatencyHistogram histogram) {
+        report.append(name)
+                .append(" total ").append(micros(histogram.sum())).append("us")
+                .append(" p50 ").append(micros(histogram.percentile(50))).append("us")
+                .append(" p99 ").append(micros(histogram.percentile(99))).append("us")
+                .append(" max ").append(micros(histogram.max())).append("us");
+    }
+
+    /**
+     * @param nanos A duration in nanoseconds
+     * @return long The same duration in microseconds
+     */
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,93 @@
+package minesweeper.server;
+
+/**
+ * JMX management interface of ServerMetrics
+ * (registered under minesweeper.server:type=ServerMetrics,port=PORT)
+ */
+public interface ServerMetricsMBean {
+
+    /**
+     * @return int The number of clients connected right now
+     */
+    int getActiveConnections();
+
+    /**
+     * @return long The number of clients that ever connected
+     */
+    long getTotalConnections();
+
+    /**
+     * @return long The number of bytes written to all clients
+     */
+    long getBytesWritten();
+
+    /**
+     * @return long The number of bytes sent compressed, before compression
+     */
+    long getCompressedBytes();
+
+    /**
+     * @return long The number of bytes written for them, after compression
+     */
+    long getCompressedWireBytes();
+
+    /**
+     * @return long The number of clients disconnected for not reading what was sent to them
+     */
+    long getSlowClientsDisconnected();
+
+    /**
+     * @return long The number of commands refused because their client went over its rate limit
+     */
+    long getRateLimited();
+
+    /**
+     * @return long The number of batches of operations applied by the board actor, 0 if it is not used
+     */
+    long getActorBatches();
+
+    /**
+     * @return int The number of clients watching the board right now
+     */
+    int getSpectators();
+
+    /**
+     * @return long The number of times the board was rendered into a frame (at most once per version)
+     */
+    long getFramesRendered();
+
+    /**
+     * @return long The number of frames queued for spectators, one per spectator reached
+     */
+    long getFramesPushed();
+
+    /**
+     * @return long The number of commands handled
+     */
+    long getCommandCount();
+
+    /**
+     * @return long The total time spent waiting for the Board lock, in nanoseconds
+     */
+    long getLockWaitNanos();
+
+    /**
+     * @return long The total time the Board lock was held by the server, in nanoseconds
+     */
+    long getLockHoldNanos();
+
+    /**
+     * @return long The total number of cells revealed by digs
+     */
+    long getCellsRevealed();
+
+    /**
+     * @return long The largest number of cells revealed by a single dig
+     */
+    long getLargestReveal();
+
+    /**
+     * @return String The same human readable report the 'stats' command returns
+     */
+    String getReport();
+}
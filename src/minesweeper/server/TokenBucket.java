@@ -0,0 +1,72 @@
+package minesweeper.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This Class is a token bucket: commands are allowed at a sustained rate, with bursts of up to one
+ *  second's worth of them after a quiet period
+ * It is kept as a single time, the "theoretical arrival time" of the generic cell rate algorithm:
+ *  the time at which the bucket would be full again, each command allowed pushing it one interval later
+ * [Thread-safe and lock-free: tryAcquire() is one compare-and-set in the common case, and allocates nothing]
+ */
+class TokenBucket {
+
+    //Constants:
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    //Fields of this ADT:
+    private final long interval; // Nanoseconds per token, 0 if unlimited
+    private final long burst; // How far ahead of now the full time may be: capacity minus one token, in nanoseconds
+    private final AtomicLong fullAt; // Time at which the bucket is full again, in System.nanoTime() nanoseconds
+
+    // Abstraction function:
+    // - A bucket of capacity max(1, ratePerSecond) tokens, refilled with one token every interval
+    //   nanoseconds, which holds (capacity * interval - max(0, fullAt - now)) / interval tokens at time now;
+    //   an unlimited bucket if interval == 0
+
+    // Representation invariant:
+    // - interval >= 0, burst >= 0
+
+    // Thread Safety:
+    // - The whole state is fullAt, only changed by compare-and-set from the value a thread read
+
+    /**
+     * Constructs a full bucket
+     *
+     * @param ratePerSecond The number of tokens per second, > 0, or 0 for an unlimited bucket
+     * @param now The current time, from System.nanoTime()
+     */
+    TokenBucket(int ratePerSecond, long now) {
+        if (ratePerSecond == 0){
+            this.interval = 0;
+            this.burst = 0;
+        }
+        else{
+            this.interval = Math.max(1, NANOS_PER_SECOND / ratePerSecond);
+            this.burst = (Math.max(1, ratePerSecond) - 1) * this.interval;
+        }
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Takes a token if there is one
+     *
+     * @param now The current time, from System.nanoTime()
+     * @return boolean True if a token was taken (the command is allowed), false if the bucket is empty
+     */
+    boolean tryAcquire(long now) {
+        if (this.interval == 0){
+            return true;
+        }
+        while (true){
+            long full = this.fullAt.get();
+            long start = full - now > 0 ? full : now;
+            if (start - now > this.burst){
+                return false;
+            }
+            if (this.fullAt.compareAndSet(full, start + this.interval)){
+                return true;
+            }
+        }
+    }
+}
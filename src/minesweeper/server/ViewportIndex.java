@@ -0,0 +1,206 @@
+package minesweeper.server;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import minesweeper.BoardListener;
+
+/**
+ * This Class routes the changes of a Board's cells to the subscribers whose viewport (a rectangle of cells)
+ *  contains them, and only to them
+ * Viewports are indexed by a grid of buckets of 64 x 64 cells: a changed cell is only tested against the
+ *  viewports overlapping its bucket, so the cost of a change does not grow with the number of subscribers
+ * Changes are collected as they happen and taken by drain(), one "Changed:" line per subscriber
+ * [Not thread-safe: guarded by the lock of its Board, which calls cellChanged() with it held,
+ *  every other method must be called with it held too]
+ *
+ * @param <S> The type of the subscribers
+ */
+class ViewportIndex<S> implements BoardListener {
+
+    //Constants:
+    private static final int BUCKET_BITS = 6; // Buckets of 64 x 64 cells
+
+    /**
+     * The rectangle of cells a subscriber looks at, and the changes in it not drained yet
+     */
+    private static final class Viewport<S> {
+        private final S subscriber;
+        private final int x;
+        private final int y;
+        private final int length;
+        private final int width;
+        private StringBuilder changes = null; // The "Changed:" line being built, if any change
+
+        /**
+         * @param subscriber Who looks at the rectangle
+         * @param x The x-coordinate of its upper-left cell
+         * @param y The y-coordinate of its upper-left cell
+         * @param length Its number of cells along x
+         * @param width Its number of cells along y
+         */
+        private Viewport(S subscriber, int x, int y, int length, int width) {
+            this.subscriber = subscriber;
+            this.x = x;
+            this.y = y;
+            this.length = length;
+            this.width = width;
+        }
+
+        /**
+         * @param cellX The x-coordinate of a cell
+         * @param cellY The y-coordinate of a cell
+         * @return boolean True if the cell is in the rectangle
+         */
+        private boolean contains(int cellX, int cellY) {
+            return cellX >= this.x && cellX < this.x + this.length && cellY >= this.y && cellY < this.y + this.width;
+        }
+    }
+
+    //Fields of this ADT:
+    private final int bucketsAlongWidth;
+    private final List<List<Viewport<S>>> buckets; // By (x >> BUCKET_BITS) * bucketsAlongWidth + (y >> BUCKET_BITS)
+    private final Map<S, Viewport<S>> viewports = new HashMap<>();
+    private final List<Viewport<S>> dirty = new ArrayList<>(); // Viewports with changes
+
+    // Abstraction function:
+    // - Every subscriber s of viewports looks at the rectangle viewports.get(s), and was not sent yet
+    //   the changes of its cells listed in its changes
+
+    // Representation invariant:
+    // - A viewport is in exactly the buckets its rectangle overlaps, iff it is in viewports
+    // - dirty holds exactly the viewports whose changes is not null, each once
+
+    /**
+     * Constructs an index without subscribers
+     *
+     * @param length The length of the board, > 0
+     * @param width The width of the board, > 0
+     */
+    ViewportIndex(int length, int width) {
+        this.bucketsAlongWidth = ((width - 1) >> BUCKET_BITS) + 1;
+        int bucketCount = (((length - 1) >> BUCKET_BITS) + 1) * this.bucketsAlongWidth;
+        this.buckets = new ArrayList<>(bucketCount);
+        int i = 0;
+        while (i < bucketCount){
+            // Allocated when a viewport overlaps it
+            this.buckets.add(null);
+            i += 1;
+        }
+    }
+
+    /**
+     * Subscribes to the changes of a rectangle of cells, instead of the rectangle subscribed to before if any
+     *  (whose changes not drained yet are dropped)
+     *
+     * @param subscriber Who looks at the rectangle
+     * @param x The x-coordinate of its upper-left cell, in the board
+     * @param y The y-coordinate of its upper-left cell, in the board
+     * @param length Its number of cells along x, > 0, inside the board
+     * @param width Its number of cells along y, > 0, inside the board
+     */
+    void subscribe(S subscriber, int x, int y, int length, int width) {
+        unsubscribe(subscriber);
+        Viewport<S> viewport = new Viewport<>(subscriber, x, y, length, width);
+        this.viewports.put(subscriber, viewport);
+        int bx = x >> BUCKET_BITS;
+        while (bx <= (x + length - 1) >> BUCKET_BITS){
+            int by = y >> BUCKET_BITS;
+            while (by <= (y + width - 1) >> BUCKET_BITS){
+                int bucket = bx * this.bucketsAlongWidth + by;
+                if (this.buckets.get(bucket) == null){
+                    this.buckets.set(bucket, new ArrayList<>(2));
+                }
+                this.buckets.get(bucket).add(viewport);
+                by += 1;
+            }
+            bx += 1;
+        }
+    }
+
+    /**
+     * Stops sending changes to a subscriber, dropping the changes not drained yet
+     *
+     * @param subscriber A subscriber, or anything else
+     * @return boolean True if it was subscribed
+     */
+    boolean unsubscribe(S subscriber) {
+        Viewport<S> viewport = this.viewports.remove(subscriber);
+        if (viewport == null){
+            return false;
+        }
+        int bx = viewport.x >> BUCKET_BITS;
+        while (bx <= (viewport.x + viewport.length - 1) >> BUCKET_BITS){
+            int by = viewport.y >> BUCKET_BITS;
+            while (by <= (viewport.y + viewport.width - 1) >> BUCKET_BITS){
+                List<Viewport<S>> bucket = this.buckets.get(bx * this.bucketsAlongWidth + by);
+                bucket.remove(viewport);
+                if (bucket.isEmpty()){
+                    this.buckets.set(bx * this.bucketsAlongWidth + by, null);
+                }
+                by += 1;
+            }
+            bx += 1;
+        }
+        if (viewport.changes != null){
+            this.dirty.remove(viewport);
+        }
+        return true;
+    }
+
+    /**
+     * @return int The number of subscribers
+     */
+    int size() {
+        return this.viewports.size();
+    }
+
+    /**
+     * Takes the changes collected since the last call
+     *
+     * @return List<Map.Entry<S, String>> For every subscriber with changes, its "Changed:" line
+     *          (ending with "\r\n"), in the order of their first change
+     */
+    List<Map.Entry<S, String>> drain() {
+        List<Map.Entry<S, String>> drained = new ArrayList<>(this.dirty.size());
+        for (Viewport<S> viewport : this.dirty){
+            drained.add(new AbstractMap.SimpleImmutableEntry<>(viewport.subscriber,
+                    viewport.changes.append("\r\n").toString()));
+            viewport.changes = null;
+        }
+        this.dirty.clear();
+        return drained;
+    }
+
+    @Override
+    public void cellChanged(int x, int y, String state) {
+        List<Viewport<S>> bucket = this.buckets.get((x >> BUCKET_BITS) * this.bucketsAlongWidth + (y >> BUCKET_BITS));
+        if (bucket == null){
+            return;
+        }
+        int i = 0;
+        while (i < bucket.size()){
+            Viewport<S> viewport = bucket.get(i);
+            if (viewport.contains(x, y)){
+                if (viewport.changes == null){
+                    viewport.changes = new StringBuilder("Changed:");
+                    this.dirty.add(viewport);
+                }
+                viewport.changes.append(' ').append(x).append(',').append(y).append('=').append(state);
+            }
+            i += 1;
+        }
+    }
+
+    @Override
+    public void boardReset() {
+        // Every cell is untouched again: what changed before no longer matters
+        for (Viewport<S> viewport : this.dirty){
+            viewport.changes = null;
+        }
+        this.dirty.clear();
+    }
+}
@@ -0,0 +1,199 @@
+package minesweeper;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Test;
+
+/**
+ * This Class provides a test suite for BoardHistory.java
+ */
+public class BoardHistoryTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - at(): every version kept is the board as it was, versions in between give the last one kept before,
+     *    versions before the oldest kept give nothing
+     *  - Random play with resets on boards of 1 tile, several tiles and partial tiles, one commit per command
+     *  - commit() without change keeps nothing new
+     *  - History started on a board already played: its first version is the board as it is
+     *  - maxVersions: the oldest versions dropped
+     *  - Readers of versions kept without locking while the board is played
+     *  - close(): versions kept still readable, no more changes seen
+     */
+
+    @Test
+    // Random play with resets, one commit per command: every version kept is the board as it was
+    public void testRandomPlay() {
+        int[][] sizes = {{3, 2}, {8, 8}, {21, 13}, {70, 9}};
+        for (int[] size : sizes){
+            Board board = new Board(size[0], size[1], 5L);
+            BoardHistory history = new BoardHistory(board, Integer.MAX_VALUE);
+            Map<Long, String> expected = new ConcurrentHashMap<>();
+            expected.put(board.version(), board.toString());
+            Random random = new Random(5L);
+            int i = 0;
+            while (i < 400){
+                int x = random.nextInt(size[0]);
+                int y = random.nextInt(size[1]);
+                int command = random.nextInt(30);
+                if (command == 0){
+                    board.reset(i);
+                }
+                else if (command < 15){
+                    board.dig(x, y);
+                }
+                else if (command < 22){
+                    board.flag(x, y);
+                }
+                else{
+                    board.deflag(x, y);
+                }
+                expected.put(board.version(), board.toString());
+                assertEquals(board.version(), history.commit());
+                i += 1;
+            }
+            assertEquals(expected.size(), history.size());
+            for (Map.Entry<Long, String> version : expected.entrySet()){
+                BoardHistory.Snapshot snapshot = history.at(version.getKey()).get();
+                assertEquals(version.getKey().longValue(), snapshot.version());
+                assertEquals(version.getValue(), snapshot.toString());
+            }
+            // States as Board.state() gives them, on the last version
+            BoardHistory.Snapshot last = history.at(Long.MAX_VALUE).get();
+            int x = 0;
+            while (x < size[0]){
+                int y = 0;
+                while (y < size[1]){
+                    assertEquals(board.state(x, y), last.state(x, y));
+                    y += 1;
+                }
+                x += 1;
+            }
+        }
+    }
+
+    @Test
+    // Versions in between, before the oldest, dropped ones, and commits without change
+    public void testVersionsKept() {
+        Board board = new Board(10, 10, 2L);
+        BoardHistory history = new BoardHistory(board, 3);
+        String untouched = board.toString();
+        assertEquals(0, history.oldest());
+        assertEquals(0, history.commit());
+        assertEquals(1, history.size());
+
+        board.flag(0, 0);
+        board.flag(1, 0);
+        assertEquals(2, history.commit());
+        // Version 1 was never kept: the one before it is given
+        assertEquals(0, history.at(1).get().version());
+        assertEquals(untouched, history.at(1).get().toString());
+        assertEquals("F", history.at(2).get().state(1, 0));
+        assertEquals("F", history.at(100).get().state(0, 0));
+
+        board.deflag(0, 0);
+        history.commit();
+        board.deflag(1, 0);
+        history.commit();
+        assertEquals(3, history.size());
+        assertEquals(2, history.oldest());
+        assertFalse(history.at(1).isPresent());
+        assertEquals("-", history.at(4).get().state(1, 0));
+        assertEquals("F", history.at(3).get().state(1, 0));
+        try {
+            history.at(4).get().state(10, 0);
+            fail("state of a cell outside the board");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+
+        history.close();
+        board.flag(5, 5);
+        assertEquals(4, history.commit());
+        assertEquals("-", history.at(5).get().state(5, 5));
+    }
+
+    @Test
+    // History started on a board already played
+    public void testStartedLate() {
+        Board board = new Board(19, 17, 9L);
+        board.dig(9, 9);
+        board.flag(18, 16);
+        board.flag(0, 0);
+        BoardHistory history = new BoardHistory(board, 10);
+        assertEquals(board.toString(), history.at(board.version()).get().toString());
+        board.deflag(0, 0);
+        history.commit();
+        assertEquals(board.toString(), history.at(board.version()).get().toString());
+        assertEquals("F", history.at(board.version() - 1).get().state(0, 0));
+    }
+
+    @Test(timeout = 30000)
+    // Readers of versions kept, without locking, while the board is played
+    public void testConcurrentReaders() throws InterruptedException {
+        Board board = new Board(64, 64, 3L);
+        BoardHistory history = new BoardHistory(board, Integer.MAX_VALUE);
+        Map<Long, String> expected = new ConcurrentHashMap<>();
+        expected.put(board.version(), board.toString());
+        List<Throwable> failures = new ArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+        Thread player = new Thread(() -> {
+            Random random = new Random(3L);
+            int i = 0;
+            while (i < 3000){
+                synchronized (board) {
+                    if (random.nextBoolean()){
+                        board.dig(random.nextInt(64), random.nextInt(64));
+                    }
+                    else{
+                        board.flag(random.nextInt(64), random.nextInt(64));
+                    }
+                    expected.put(board.version(), board.toString());
+                    history.commit();
+                }
+                i += 1;
+            }
+        });
+        int r = 0;
+        while (r < 4){
+            Thread reader = new Thread(() -> {
+                try {
+                    Random random = new Random();
+                    while (player.isAlive()){
+                        BoardHistory.Snapshot snapshot = history.at(random.nextInt(10000)).get();
+                        String rendered = snapshot.toString();
+                        String wanted = expected.get(snapshot.version());
+                        assertNotNull(wanted);
+                        assertEquals(wanted, rendered);
+                    }
+                } catch (Throwable t) {
+                    synchronized (failures) {
+                        failures.add(t);
+                    }
+                }
+            });
+            readers.add(reader);
+            r += 1;
+        }
+        player.start();
+        for (Thread reader : readers){
+            reader.start();
+        }
+        player.join();
+        for (Thread reader : readers){
+            reader.join();
+        }
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoVersionsKept() {
+        new BoardHistory(new Board(2, 2, 1L), 0);
+    }
+}
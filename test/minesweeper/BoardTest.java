@@ -2,6 +2,12 @@ package minesweeper;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
 import org.junit.Test;
 
 /**
@@ -54,6 +60,43 @@ public class BoardTest {
         assertEquals(testBoard.size(), 8);
     }
 
+    // TESTING CHECK LEVELS
+    /*
+     * Testing Strategy:
+     *  - Default level when assertions are enabled (tests run with -ea) : FULL
+     *  - Board digged at every level gives the same result
+     */
+
+    @Test
+    // Default level when assertions are enabled
+    public void testCheckLevelDefault() {
+        Board testBoard = new Board(1, 1);
+        boolean assertionsEnabled = false;
+        assert assertionsEnabled = true;
+        assertEquals(assertionsEnabled ? Board.CheckLevel.FULL : Board.CheckLevel.OFF, testBoard.checkLevel());
+    }
+
+    @Test
+    // Board digged at every level gives the same result
+    public void testCheckLevelsSameResult() {
+        for (Board.CheckLevel level : Board.CheckLevel.values()) {
+            Board testBoard = new Board(3, 3, level);
+            int x = 0;
+            while (x < 3) {
+                int y = 0;
+                while (y < 3) {
+                    testBoard.unbombIt(x, y);
+                    y += 1;
+                }
+                x += 1;
+            }
+            testBoard.bombIt(2, 2);
+            testBoard.dig(0, 0);
+            assertEquals(level.toString(), "     \r\n  1 1\r\n  1 -\r\n", testBoard.toString());
+            assertEquals(level, testBoard.checkLevel());
+        }
+    }
+
     // TESTING FLAG()
     /*
      * Testing Strategy:
@@ -511,4 +554,591 @@ public class BoardTest {
         assertTrue(testBoard.state(1, 2).equals("1"));
         assertTrue(testBoard.state(2, 2).equals("-"));
     }
+
+    // TESTING STATUS COUNTERS
+    /*
+     * Testing Strategy:
+     *  - Fresh board: everything untouched
+     *  - Flag then deflag
+     *  - Flood-fill over a flagged cell
+     *  - Win: last safe cell dug, including by digging a bomb
+     */
+
+    @Test
+    // Fresh board: everything untouched
+    public void testCountersFresh() {
+        Board testBoard = new Board(4, 2);
+        assertEquals(8, testBoard.numUntouched());
+        assertEquals(0, testBoard.numFlagged());
+        assertEquals(0, testBoard.numRevealed());
+    }
+
+    @Test
+    // Flag then deflag
+    public void testCountersFlagDeflag() {
+        Board testBoard = new Board(2, 2);
+        testBoard.flag(0, 0);
+        testBoard.flag(0, 0);
+        assertEquals(3, testBoard.numUntouched());
+        assertEquals(1, testBoard.numFlagged());
+        testBoard.deflag(0, 0);
+        assertEquals(4, testBoard.numUntouched());
+        assertEquals(0, testBoard.numFlagged());
+    }
+
+    @Test
+    // Flood-fill over a flagged cell
+    public void testCountersFloodFill() {
+        /*
+         * - - -   dig (0,0)     0 0 0
+         * - F -  ----------->   0 1 1
+         * - - B                 0 1 B
+         */
+        Board testBoard = new Board(3, 3);
+        int x = 0;
+        while (x < 3) {
+            int y = 0;
+            while (y < 3) {
+                testBoard.unbombIt(x, y);
+                y += 1;
+            }
+            x += 1;
+        }
+        testBoard.bombIt(2, 2);
+        testBoard.flag(1, 1);
+        assertEquals(1, testBoard.numFlagged());
+        assertEquals(8, testBoard.numSafeLeft());
+        testBoard.dig(0, 0);
+        assertEquals(8, testBoard.revealedByLastDig());
+        assertEquals(8, testBoard.numRevealed());
+        assertEquals(0, testBoard.numFlagged());
+        assertEquals(1, testBoard.numUntouched());
+        assertEquals(0, testBoard.numSafeLeft());
+        assertTrue(testBoard.allSafeRevealed());
+    }
+
+    @Test
+    // Win: last safe cell dug by digging a bomb
+    public void testCountersWinByBomb() {
+        Board testBoard = new Board(2, 1);
+        testBoard.bombIt(0, 0);
+        testBoard.bombIt(1, 0);
+        assertEquals(0, testBoard.numSafeLeft());
+        assertTrue(testBoard.allSafeRevealed());
+        testBoard.unbombIt(1, 0);
+        assertFalse(testBoard.allSafeRevealed());
+        testBoard.dig(0, 0);
+        assertEquals(2, testBoard.numRevealed());
+        assertTrue(testBoard.allSafeRevealed());
+    }
+
+    // TESTING CHORD()
+    /*
+     * Testing Strategy:
+     *  - Flags around match the number: all other cells around are dug
+     *  - Flags around do not match the number: nothing changes
+     *  - Wrong flag: a bomb explodes
+     *  - Cell not dug, cell out of board: nothing changes
+     */
+
+    /**
+     * Builds the board used by the chord tests
+     * <pre>
+     *   B - -
+     *   - - -
+     *   - - -
+     * </pre>
+     * @return Board the 3 x 3 board with a single bomb at (0,0)
+     */
+    private static Board chordBoard() {
+        Board testBoard = new Board(3, 3);
+        int x = 0;
+        while (x < 3) {
+            int y = 0;
+            while (y < 3) {
+                testBoard.unbombIt(x, y);
+                y += 1;
+            }
+            x += 1;
+        }
+        testBoard.bombIt(0, 0);
+        return testBoard;
+    }
+
+    @Test
+    // Flags around match the number: all other cells around are dug
+    public void testChordMatchingFlags() {
+        Board testBoard = chordBoard();
+        testBoard.dig(1, 1);
+        testBoard.flag(0, 0);
+        assertTrue(testBoard.chord(1, 1));
+        assertEquals("F 1 0\r\n1 1 0\r\n0 0 0\r\n".replace('0', ' '), testBoard.toString());
+        assertEquals(7, testBoard.revealedByLastDig());
+        assertTrue(testBoard.allSafeRevealed());
+    }
+
+    @Test
+    // Flags around do not match the number: nothing changes
+    public void testChordMissingFlag() {
+        Board testBoard = chordBoard();
+        testBoard.dig(1, 1);
+        String previous = testBoard.toString();
+        assertTrue(testBoard.chord(1, 1));
+        assertEquals(previous, testBoard.toString());
+        assertEquals(0, testBoard.revealedByLastDig());
+    }
+
+    @Test
+    // Wrong flag: a bomb explodes
+    public void testChordWrongFlag() {
+        Board testBoard = chordBoard();
+        testBoard.dig(1, 1);
+        testBoard.flag(2, 2);
+        assertFalse(testBoard.chord(1, 1));
+        assertTrue(testBoard.state(0, 0).equals("0"));
+        assertTrue(testBoard.state(1, 1).equals("0"));
+        // The flood-fill from the destroyed bomb reveals flagged cells too
+        assertTrue(testBoard.state(2, 2).equals("0"));
+    }
+
+    @Test
+    // Cell not dug, cell out of board: nothing changes
+    public void testChordNotDug() {
+        Board testBoard = chordBoard();
+        testBoard.flag(1, 1);
+        assertTrue(testBoard.chord(1, 1));
+        assertTrue(testBoard.chord(2, 2));
+        assertTrue(testBoard.chord(-1, 5));
+        assertEquals(8, testBoard.numUntouched());
+    }
+
+    // TESTING VERSION
+    /*
+     * Testing Strategy:
+     *  - Grows with each cell change, unchanged when nothing changes
+     */
+
+    @Test
+    // Grows with each cell change, unchanged when nothing changes
+    public void testVersion() {
+        Board testBoard = new Board(2, 1);
+        testBoard.unbombIt(0, 0);
+        testBoard.unbombIt(1, 0);
+        assertEquals(0, testBoard.version());
+        testBoard.flag(0, 0);
+        assertEquals(1, testBoard.version());
+        testBoard.flag(0, 0);
+        assertEquals(1, testBoard.version());
+        testBoard.deflag(0, 0);
+        testBoard.dig(1, 0);
+        // The flood-fill changes both cells
+        assertEquals(4, testBoard.version());
+        String previous = testBoard.toString();
+        testBoard.dig(1, 0);
+        assertEquals(4, testBoard.version());
+        assertEquals(previous, testBoard.toString());
+    }
+
+    // TESTING SEEDED CONSTRUCTOR
+    /*
+     * Testing Strategy:
+     *  - Same size and seed: bombs at the same cells
+     */
+
+    @Test
+    // Same size and seed: bombs at the same cells
+    public void testSeeded() {
+        Board first = new Board(6, 5, 99L);
+        Board second = new Board(6, 5, 99L);
+        int x = 0;
+        while (x < 6){
+            int y = 0;
+            while (y < 5){
+                assertEquals(first.dig(x, y), second.dig(x, y));
+                y += 1;
+            }
+            x += 1;
+        }
+        assertEquals(first.toString(), second.toString());
+    }
+
+    // TESTING SLICED DIG
+    /*
+     * Testing Strategy:
+     *  - Slices of 1 cell and of many cells: same board as dig()
+     *  - Cell not untouched: nothing pending
+     *  - Cell flagged between two slices: revealed by the flood-fill, as with dig()
+     *  - Bomb: not alive
+     */
+
+    /**
+     * Builds a 6 x 4 board with a single bomb in its bottom right corner
+     * @return Board the board
+     */
+    private static Board slicedBoard() {
+        Board testBoard = new Board(6, 4);
+        int x = 0;
+        while (x < 6){
+            int y = 0;
+            while (y < 4){
+                testBoard.unbombIt(x, y);
+                y += 1;
+            }
+            x += 1;
+        }
+        testBoard.bombIt(5, 3);
+        return testBoard;
+    }
+
+    @Test
+    // Slices of 1 cell and of many cells: same board as dig()
+    public void testSlicedSameAsDig() {
+        Board expected = slicedBoard();
+        assertTrue(expected.dig(0, 0));
+        for (int slice : new int[] {1, 5, 1000}){
+            Board testBoard = slicedBoard();
+            Board.Reveal reveal = testBoard.startDig(0, 0);
+            int slices = 1;
+            while (!testBoard.continueDig(reveal, slice)){
+                slices += 1;
+            }
+            assertTrue(reveal.alive());
+            assertEquals(23, reveal.revealed());
+            assertEquals((23 + slice - 1) / slice, slices);
+            assertEquals(expected.toString(), testBoard.toString());
+            assertEquals(expected.version(), testBoard.version());
+        }
+    }
+
+    @Test
+    // Cell not untouched: nothing pending
+    public void testSlicedNotUntouched() {
+        Board testBoard = slicedBoard();
+        testBoard.flag(2, 2);
+        Board.Reveal reveal = testBoard.startDig(2, 2);
+        assertTrue(reveal.done());
+        assertTrue(testBoard.continueDig(reveal, 1));
+        assertEquals(0, reveal.revealed());
+        assertTrue(testBoard.startDig(-1, 7).done());
+    }
+
+    @Test
+    // Cell flagged between two slices: revealed by the flood-fill, as with dig()
+    public void testSlicedInterleaved() {
+        Board testBoard = slicedBoard();
+        Board.Reveal reveal = testBoard.startDig(0, 0);
+        testBoard.continueDig(reveal, 1);
+        assertTrue(testBoard.flag(3, 3));
+        while (!testBoard.continueDig(reveal, 2)){
+            assertTrue(testBoard.numRevealed() < 23);
+        }
+        assertEquals(23, testBoard.numRevealed());
+        assertEquals(0, testBoard.numFlagged());
+    }
+
+    @Test
+    // Bomb: not alive
+    public void testSlicedBomb() {
+        Board testBoard = slicedBoard();
+        Board.Reveal reveal = testBoard.startDig(5, 3);
+        assertFalse(reveal.alive());
+        while (!testBoard.continueDig(reveal, 3)){
+            // next slice
+        }
+        assertEquals(24, reveal.revealed());
+        assertTrue(testBoard.allSafeRevealed());
+    }
+
+    // TESTING ZERO REGIONS
+    /*
+     * Testing Strategy:
+     *  - dig() of a zero cell reveals what the flood-fill of startDig()/continueDig() reveals, on random
+     *    boards (sparse and dense) with digs, explosions, flags, bombs placed and removed in between
+     *  - A bomb placed across a region splits it, removing it merges the two parts again
+     */
+
+    @Test
+    // dig() reveals what the flood-fill reveals, on random boards with the layout changing in between
+    public void testZeroRegionsSameAsFloodFill() {
+        for (long seed : new long[] {1L, 2L, 3L, 4L}){
+            Random random = new Random(seed);
+            Board indexed = new Board(15, 11, seed);
+            Board flooded = new Board(15, 11, seed);
+            // Seeds 3 and 4: sparse boards
+            int x = 0;
+            while (x < 15 && seed >= 3){
+                int y = 0;
+                while (y < 11){
+                    if (random.nextInt(3) > 0){
+                        indexed.unbombIt(x, y);
+                        flooded.unbombIt(x, y);
+                    }
+                    y += 1;
+                }
+                x += 1;
+            }
+            int i = 0;
+            while (i < 300){
+                x = random.nextInt(15);
+                int y = random.nextInt(11);
+                int command = random.nextInt(10);
+                if (command < 6){
+                    Board.Reveal reveal = flooded.startDig(x, y);
+                    flooded.continueDig(reveal, Integer.MAX_VALUE);
+                    assertEquals(reveal.alive(), indexed.dig(x, y));
+                    assertEquals(reveal.revealed(), indexed.revealedByLastDig());
+                }
+                else if (command < 7){
+                    assertEquals(flooded.flag(x, y), indexed.flag(x, y));
+                }
+                else if (command < 8){
+                    assertEquals(flooded.bombIt(x, y), indexed.bombIt(x, y));
+                }
+                else{
+                    assertEquals(flooded.unbombIt(x, y), indexed.unbombIt(x, y));
+                }
+                assertEquals(flooded.toString(), indexed.toString());
+                assertEquals(flooded.version(), indexed.version());
+                i += 1;
+            }
+            assertEquals(flooded.numRevealed(), indexed.numRevealed());
+            assertEquals(flooded.numFlagged(), indexed.numFlagged());
+        }
+    }
+
+    @Test
+    // A bomb placed across a region splits it, removing it merges the two parts again
+    public void testZeroRegionSplitAndMerge() {
+        Board split = slicedBoard();
+        split.unbombIt(5, 3);
+        int y = 0;
+        while (y < 4){
+            split.bombIt(3, y);
+            y += 1;
+        }
+        assertTrue(split.dig(0, 0));
+        // Columns 0 and 1 are zeros, column 2 borders the bombs
+        assertEquals(12, split.revealedByLastDig());
+        assertEquals("-", split.state(4, 0));
+
+        Board merged = slicedBoard();
+        merged.unbombIt(5, 3);
+        y = 0;
+        while (y < 4){
+            merged.bombIt(3, y);
+            y += 1;
+        }
+        y = 0;
+        while (y < 4){
+            merged.unbombIt(3, y);
+            y += 1;
+        }
+        assertTrue(merged.dig(0, 0));
+        assertEquals(24, merged.revealedByLastDig());
+    }
+
+    // TESTING BOMBIT() AND UNBOMBIT() NEXT TO DUG CELLS
+    /*
+     * Testing Strategy:
+     *  - bombIt() next to dug cells raises their numbers, unbombIt() lowers them, each change tells listeners
+     *  - A bomb placed next to a dug cell, then exploding: the number goes back, never below 0
+     *  - The cell changed itself does not count its own bomb
+     */
+
+    @Test
+    // bombIt() and unbombIt() keep the numbers of dug neighbours up to date
+    public void testBombItUpdatesDugNumbers() {
+        //Board Initialization 
+        /*
+         * . . .
+         * . . .
+         * . . .
+         */
+        Board testBoard = new Board(3, 3);
+        int x = 0;
+        while (x < 3){
+            int y = 0;
+            while (y < 3){
+                testBoard.unbombIt(x, y);
+                y += 1;
+            }
+            x += 1;
+        }
+        assertTrue(testBoard.dig(0, 0));
+        assertEquals("0", testBoard.state(1, 1));
+        long version = testBoard.version();
+        //Tests
+        assertTrue(testBoard.bombIt(2, 2));
+        assertEquals("1", testBoard.state(1, 1));
+        assertEquals("1", testBoard.state(2, 1));
+        assertEquals("1", testBoard.state(1, 2));
+        assertEquals("0", testBoard.state(0, 0));
+        // A dug cell does not count a bomb placed on itself
+        assertTrue(testBoard.bombIt(1, 1));
+        assertEquals("1", testBoard.state(1, 1));
+        assertEquals("2", testBoard.state(2, 1));
+        assertEquals("1", testBoard.state(0, 0));
+        assertTrue(testBoard.unbombIt(1, 1));
+        assertEquals("1", testBoard.state(2, 1));
+        assertEquals("0", testBoard.state(0, 0));
+        assertTrue(testBoard.version() > version);
+    }
+
+    @Test
+    // A bomb placed next to a dug cell then exploding: its number goes back to what it was
+    public void testBombItThenExplode() {
+        //Board Initialization 
+        /*
+         * B . .
+         */
+        Board testBoard = new Board(3, 1);
+        testBoard.bombIt(0, 0);
+        testBoard.unbombIt(1, 0);
+        testBoard.unbombIt(2, 0);
+        assertTrue(testBoard.dig(1, 0));
+        assertEquals("1", testBoard.state(1, 0));
+        //Tests
+        assertTrue(testBoard.bombIt(2, 0));
+        assertEquals("2", testBoard.state(1, 0));
+        assertFalse(testBoard.dig(2, 0));
+        assertEquals("1", testBoard.state(1, 0));
+        assertEquals("0", testBoard.state(2, 0));
+    }
+    // TESTING LAYOUTS
+    /*
+     * Testing Strategy:
+     *  - Same random play on every layout, the board not a whole number of tiles: same states and counts
+     *  - Default layout
+     */
+
+    @Test
+    // Same random play on every layout: same states and counts
+    public void testLayoutsSamePlay() {
+        Board[] boards = new Board[Board.Layout.values().length];
+        for (Board.Layout layout : Board.Layout.values()){
+            boards[layout.ordinal()] = new Board(13, 9, 5L, Board.CheckLevel.FULL, layout);
+            assertEquals(layout, boards[layout.ordinal()].layout());
+        }
+        Random random = new Random(5L);
+        int i = 0;
+        while (i < 200){
+            int x = random.nextInt(13);
+            int y = random.nextInt(9);
+            int command = random.nextInt(4);
+            for (Board testBoard : boards){
+                if (command == 0){
+                    testBoard.dig(x, y);
+                }
+                else if (command == 1){
+                    testBoard.flag(x, y);
+                }
+                else if (command == 2){
+                    testBoard.deflag(x, y);
+                }
+                else{
+                    testBoard.chord(x, y);
+                }
+            }
+            for (Board testBoard : boards){
+                assertEquals(boards[0].toString(), testBoard.toString());
+                assertEquals(boards[0].state(x, y), testBoard.state(x, y));
+                assertEquals(boards[0].numRevealed(), testBoard.numRevealed());
+                assertEquals(boards[0].numFlagged(), testBoard.numFlagged());
+                assertEquals(boards[0].version(), testBoard.version());
+            }
+            i += 1;
+        }
+    }
+
+    @Test
+    // Default layout
+    public void testDefaultLayout() {
+        assertEquals(Board.Layout.ROW_MAJOR, new Board(3, 3).layout());
+    }
+
+    // TESTING RESET
+    /*
+     * Testing Strategy:
+     *  - Reset with a seed after some play: same board and play as a new board of that seed,
+     *    counters reset, one version more, listeners told
+     *  - Dig in progress when the board is reset: it stops
+     *  - Reset from a file: bombs of the file; file of another size: board not changed
+     */
+
+    @Test
+    // Reset with a seed after some play: same board and play as a new board of that seed
+    public void testResetSeeded() {
+        Board testBoard = new Board(7, 5, 3L, Board.CheckLevel.FULL);
+        int[] resets = new int[1];
+        testBoard.addListener(new BoardListener() {
+            @Override
+            public void cellChanged(int x, int y, String state) {
+            }
+
+            @Override
+            public void boardReset() {
+                resets[0] += 1;
+            }
+        });
+        testBoard.flag(0, 0);
+        testBoard.dig(3, 3);
+        testBoard.dig(6, 4);
+        long version = testBoard.version();
+        testBoard.reset(11L);
+        assertEquals(1, resets[0]);
+        assertEquals(version + 1, testBoard.version());
+        assertEquals(35, testBoard.numUntouched());
+        assertEquals(0, testBoard.numFlagged());
+        assertEquals(0, testBoard.numRevealed());
+        Board expected = new Board(7, 5, 11L);
+        assertEquals(expected.toString(), testBoard.toString());
+        assertEquals(expected.numSafeLeft(), testBoard.numSafeLeft());
+        int x = 0;
+        while (x < 7){
+            int y = 0;
+            while (y < 5){
+                assertEquals(expected.dig(x, y), testBoard.dig(x, y));
+                assertEquals(expected.toString(), testBoard.toString());
+                y += 1;
+            }
+            x += 1;
+        }
+    }
+
+    @Test
+    // Dig in progress when the board is reset: it stops
+    public void testResetStopsDig() {
+        Board testBoard = slicedBoard();
+        Board.Reveal reveal = testBoard.startDig(0, 0);
+        testBoard.continueDig(reveal, 1);
+        testBoard.reset(1L);
+        assertTrue(testBoard.continueDig(reveal, 1));
+        assertEquals(0, testBoard.numRevealed());
+    }
+
+    @Test
+    // Reset from a file: bombs of the file; file of another size: board not changed
+    public void testResetFromFile() throws IOException {
+        File file = File.createTempFile("board", ".txt");
+        file.deleteOnExit();
+        Board testBoard = new Board(3, 2, 8L);
+        testBoard.dig(0, 0);
+        Files.write(file.toPath(), Arrays.asList("3 2", "1 0 0", "0 0 0"));
+        testBoard.reset(file);
+        assertEquals(5, testBoard.numSafeLeft());
+        assertTrue(testBoard.dig(2, 1));
+        assertEquals("- 1  \r\n- 1  \r\n", testBoard.toString());
+
+        Files.write(file.toPath(), Arrays.asList("2 2", "1 0", "0 0"));
+        String before = testBoard.toString();
+        long version = testBoard.version();
+        try {
+            testBoard.reset(file);
+            fail("a 2 x 2 file reset a 3 x 2 board");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+        assertEquals(before, testBoard.toString());
+        assertEquals(version, testBoard.version());
+    }
 }
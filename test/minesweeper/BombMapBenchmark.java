@@ -0,0 +1,84 @@
+package minesweeper;
+
+import java.util.Random;
+
+/**
+ * This Class is a micro-benchmark of counting the bombs around every cell of a huge board:
+ *  BombMap.countAll() on packed bitsets against a scan of the 8 cells around each cell of a boolean[][]
+ *  (what Board did cell by cell before)
+ * Run it as a plain Java program (it is not a test): java -Xmx2g minesweeper.BombMapBenchmark [SIDE]
+ */
+public class BombMapBenchmark {
+
+    //Constants:
+    private static final int DEFAULT_SIDE = 10_000; // 10^8 cells
+    private static final int ROUNDS = 5;
+
+    /**
+     * Runs the benchmark and prints the time of each way to count a whole board, the first round warming up
+     *
+     * @param args Optional side of the square board
+     */
+    public static void main(String[] args) {
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIDE;
+        BombMap map = new BombMap(side, side);
+        boolean[][] bombs = new boolean[side][side];
+        Random random = new Random(1);
+        int x = 0;
+        while (x < side){
+            int y = 0;
+            while (y < side){
+                // About 20% of cells bombed, as Board does
+                if (random.nextInt(5) == 0){
+                    map.place(x, y);
+                    bombs[x][y] = true;
+                }
+                y += 1;
+            }
+            x += 1;
+        }
+        int round = 0;
+        while (round < ROUNDS){
+            long start = System.nanoTime();
+            map.countAll();
+            long packed = System.nanoTime() - start;
+            start = System.nanoTime();
+            long total = scanAll(bombs, side);
+            long scanned = System.nanoTime() - start;
+            System.out.printf("%dx%d cells: packed bitsets %.1f ms, per-cell scan %.1f ms (%d bombs counted)%n",
+                    side, side, packed / 1e6, scanned / 1e6, total);
+            round += 1;
+        }
+    }
+
+    /**
+     * Counts the bombs around every cell one by one
+     *
+     * @param bombs The bombs of the board
+     * @param side The side of the square board
+     * @return long The sum of the counts, so the scan is not optimized away
+     */
+    private static long scanAll(boolean[][] bombs, int side) {
+        long total = 0;
+        int x = 0;
+        while (x < side){
+            int y = 0;
+            while (y < side){
+                int X = Math.max(0, x - 1);
+                while (X <= Math.min(side - 1, x + 1)){
+                    int Y = Math.max(0, y - 1);
+                    while (Y <= Math.min(side - 1, y + 1)){
+                        if ((X != x || Y != y) && bombs[X][Y]){
+                            total += 1;
+                        }
+                        Y += 1;
+                    }
+                    X += 1;
+                }
+                y += 1;
+            }
+            x += 1;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,130 @@
+package minesweeper;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * This Class provides a test suite for BombMap.java
+ */
+public class BombMapTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Counts after countAll() against counting the 8 cells around, on random maps whose width is
+     *    1, less than, exactly and more than a word of 64 cells (counts crossing words)
+     *  - Counts kept up to date by set(), placing and removing bombs, on the same maps
+     *  - Corners and edges: a full map, where a cell counts 3, 5 or 8 bombs
+     *  - zeroWord() against the counts
+     */
+
+    /**
+     * Counts the bombs around a cell one by one
+     * @param map the map
+     * @param length length of the board
+     * @param width width of the board
+     * @param x x-coordinate of the cell
+     * @param y y-coordinate of the cell
+     * @return the number of bombs in the 8 cells around (x,y)
+     */
+    private static int naiveAround(BombMap map, int length, int width, int x, int y) {
+        int total = 0;
+        int X = Math.max(0, x - 1);
+        while (X <= Math.min(length - 1, x + 1)){
+            int Y = Math.max(0, y - 1);
+            while (Y <= Math.min(width - 1, y + 1)){
+                if ((X != x || Y != y) && map.has(X, Y)){
+                    total += 1;
+                }
+                Y += 1;
+            }
+            X += 1;
+        }
+        return total;
+    }
+
+    /**
+     * Checks every count and zero word of a map against naiveAround()
+     * @param map the map
+     * @param length length of the board
+     * @param width width of the board
+     */
+    private static void assertCounts(BombMap map, int length, int width) {
+        int x = 0;
+        while (x < length){
+            int y = 0;
+            while (y < width){
+                int around = naiveAround(map, length, width, x, y);
+                assertEquals("(" + x + "," + y + ")", around, map.around(x, y));
+                boolean zero = around == 0 && !map.has(x, y);
+                assertEquals(zero, (map.zeroWord(x, y / 64) & (1L << y)) != 0);
+                y += 1;
+            }
+            // No zero cell beyond the width
+            long beyond = width % 64 == 0 ? 0 : -1L << (width % 64);
+            assertEquals(0, map.zeroWord(x, map.words() - 1) & beyond);
+            x += 1;
+        }
+    }
+
+    @Test
+    // Counts after countAll(), then kept up to date by set(), with widths around a word
+    public void testRandomMaps() {
+        for (int width : new int[] {1, 63, 64, 65, 130}){
+            Random random = new Random(width);
+            int length = 7;
+            BombMap map = new BombMap(length, width);
+            int x = 0;
+            while (x < length){
+                int y = 0;
+                while (y < width){
+                    if (random.nextInt(4) == 0){
+                        map.place(x, y);
+                    }
+                    y += 1;
+                }
+                x += 1;
+            }
+            map.countAll();
+            assertCounts(map, length, width);
+            int i = 0;
+            while (i < 200){
+                x = random.nextInt(length);
+                int y = random.nextInt(width);
+                boolean bomb = random.nextBoolean();
+                assertEquals(map.has(x, y) != bomb, map.set(x, y, bomb));
+                assertEquals(bomb, map.has(x, y));
+                i += 1;
+            }
+            assertCounts(map, length, width);
+        }
+    }
+
+    @Test
+    // A full map: 3 bombs around corners, 5 along edges, 8 inside
+    public void testFullMap() {
+        BombMap map = new BombMap(5, 70);
+        int x = 0;
+        while (x < 5){
+            int y = 0;
+            while (y < 70){
+                map.place(x, y);
+                y += 1;
+            }
+            x += 1;
+        }
+        map.countAll();
+        assertEquals(3, map.around(0, 0));
+        assertEquals(3, map.around(4, 69));
+        assertEquals(5, map.around(0, 64));
+        assertEquals(5, map.around(2, 0));
+        assertEquals(8, map.around(2, 63));
+        assertEquals(8, map.around(2, 64));
+        assertEquals(0, map.zeroWord(2, 1));
+        assertTrue(map.set(2, 64, false));
+        assertEquals(7, map.around(1, 63));
+        assertEquals(8, map.around(2, 64));
+    }
+}
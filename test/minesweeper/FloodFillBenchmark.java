@@ -0,0 +1,63 @@
+package minesweeper;
+
+import minesweeper.Board.CheckLevel;
+
+/**
+ * This Class is a micro-benchmark of the flood-fill of Board.dig() at every CheckLevel
+ * Run it as a plain Java program (it is not a test): java minesweeper.FloodFillBenchmark [SIZE]
+ */
+public class FloodFillBenchmark {
+
+    //Constants:
+    private static final int DEFAULT_SIZE = 300; // Side of the bomb-free square board digged
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int MEASURED_ROUNDS = 20;
+
+    /**
+     * Runs the benchmark and prints the average time of one full-board flood-fill per CheckLevel
+     *
+     * @param args Optional side of the square board
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        for (CheckLevel level : CheckLevel.values()){
+            run(size, level, WARMUP_ROUNDS);
+            long nanos = run(size, level, MEASURED_ROUNDS);
+            System.out.printf("%-5s %dx%d flood-fill: %.3f ms%n",
+                    level, size, size, nanos / 1e6 / MEASURED_ROUNDS);
+        }
+    }
+
+    /**
+     * Digs the corner of fresh bomb-free boards, revealing all of them
+     *
+     * @param size The side of the square boards
+     * @param level The CheckLevel of the boards
+     * @param rounds The number of boards to dig
+     * @return long The total time spent in dig(), in nanoseconds
+     */
+    private static long run(int size, CheckLevel level, int rounds) {
+        long total = 0;
+        int round = 0;
+        while (round < rounds){
+            Board board = new Board(size, size, level);
+            int x = 0;
+            while (x < size){
+                int y = 0;
+                while (y < size){
+                    board.unbombIt(x, y);
+                    y += 1;
+                }
+                x += 1;
+            }
+            long start = System.nanoTime();
+            board.dig(0, 0);
+            total += System.nanoTime() - start;
+            if (!board.state(size - 1, size - 1).equals("0")){
+                throw new IllegalStateException("flood-fill did not reach the far corner");
+            }
+            round += 1;
+        }
+        return total;
+    }
+}
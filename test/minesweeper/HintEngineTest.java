@@ -0,0 +1,128 @@
+package minesweeper;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * This Class provides a test suite for HintEngine.java
+ */
+public class HintEngineTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Nothing revealed: no hint
+     *  - Single constraint: all unknown cells around are mines
+     *  - Subset rule: cells safe and mined deduced from overlapping constraints
+     *  - Incremental: cells dug after a hint leave the hint, flags do not matter
+     *  - Engine created on an already revealed board
+     *  - Board reset: the hints of the previous round are forgotten
+     */
+
+    /**
+     * Builds a 4 x 2 board whose bottom row is dug
+     * <pre>
+     *   B - - B
+     *   1 1 1 1
+     * </pre>
+     * @return Board the board
+     */
+    private static Board overlappingBoard() {
+        Board testBoard = new Board(4, 2);
+        int x = 0;
+        while (x < 4) {
+            testBoard.unbombIt(x, 0);
+            testBoard.unbombIt(x, 1);
+            x += 1;
+        }
+        testBoard.bombIt(0, 0);
+        testBoard.bombIt(3, 0);
+        return testBoard;
+    }
+
+    /**
+     * Digs the bottom row of the board built by overlappingBoard()
+     * @param testBoard the board
+     */
+    private static void digBottomRow(Board testBoard) {
+        int x = 0;
+        while (x < 4) {
+            testBoard.dig(x, 1);
+            x += 1;
+        }
+    }
+
+    @Test
+    // Nothing revealed: no hint
+    public void testNothingRevealed() {
+        HintEngine hints = new HintEngine(new Board(3, 3));
+        assertTrue(hints.safeCells().isEmpty());
+        assertTrue(hints.minedCells().isEmpty());
+    }
+
+    @Test
+    // Single constraint: all unknown cells around are mines
+    public void testSingleConstraint() {
+        Board testBoard = new Board(2, 1);
+        testBoard.bombIt(0, 0);
+        testBoard.unbombIt(1, 0);
+        HintEngine hints = new HintEngine(testBoard);
+        testBoard.dig(1, 0);
+        assertEquals(Arrays.asList(Arrays.asList(0, 0)), hints.minedCells());
+        assertTrue(hints.safeCells().isEmpty());
+    }
+
+    @Test
+    // Subset rule: cells safe and mined deduced from overlapping constraints
+    public void testSubsetRule() {
+        Board testBoard = overlappingBoard();
+        HintEngine hints = new HintEngine(testBoard);
+        digBottomRow(testBoard);
+        assertEquals(2, hints.safeCells().size());
+        assertTrue(hints.safeCells().containsAll(Arrays.asList(Arrays.asList(1, 0), Arrays.asList(2, 0))));
+        assertEquals(2, hints.minedCells().size());
+        assertTrue(hints.minedCells().containsAll(Arrays.asList(Arrays.asList(0, 0), Arrays.asList(3, 0))));
+    }
+
+    @Test
+    // Incremental: cells dug after a hint leave the hint, flags do not matter
+    public void testIncremental() {
+        Board testBoard = overlappingBoard();
+        HintEngine hints = new HintEngine(testBoard);
+        digBottomRow(testBoard);
+        hints.safeCells();
+        testBoard.dig(1, 0);
+        testBoard.flag(2, 0);
+        List<List<Integer>> safe = hints.safeCells();
+        assertEquals(Arrays.asList(Arrays.asList(2, 0)), safe);
+        testBoard.dig(0, 0);
+        assertEquals(Arrays.asList(Arrays.asList(3, 0)), hints.minedCells());
+    }
+
+    @Test
+    // Engine created on an already revealed board
+    public void testCreatedLate() {
+        Board testBoard = overlappingBoard();
+        digBottomRow(testBoard);
+        HintEngine hints = new HintEngine(testBoard);
+        assertEquals(2, hints.safeCells().size());
+        assertEquals(2, hints.minedCells().size());
+        hints.close();
+    }
+
+    @Test
+    // Board reset: the hints of the previous round are forgotten
+    public void testBoardReset() {
+        Board testBoard = overlappingBoard();
+        HintEngine hints = new HintEngine(testBoard);
+        digBottomRow(testBoard);
+        assertEquals(2, hints.safeCells().size());
+        testBoard.reset(7L);
+        assertTrue(hints.safeCells().isEmpty());
+        assertTrue(hints.minedCells().isEmpty());
+        hints.close();
+    }
+}
@@ -0,0 +1,125 @@
+package minesweeper;
+
+import java.util.Random;
+
+import minesweeper.Board.CheckLevel;
+
+/**
+ * This Class is a benchmark of BoardHistory: the memory each version kept costs, against a copy of the
+ *  board per version, the time a commit adds to a command, and the time to read a cell or the whole board
+ *  at a random earlier version
+ * Run it as a plain Java program (it is not a test): java minesweeper.HistoryBenchmark [SIZE] [COMMANDS]
+ */
+public class HistoryBenchmark {
+
+    //Constants:
+    private static final int DEFAULT_SIZE = 2000; // Side of the square board
+    private static final int DEFAULT_COMMANDS = 100_000;
+    private static final int READS = 1_000_000;
+    private static final int RENDERINGS = 5;
+
+    /**
+     * Plays random commands on a board with and without history, then reads earlier versions
+     *
+     * @param args Optional side of the square board, and number of commands
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        int commands = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_COMMANDS;
+
+        Board plain = new Board(size, size, 1L, CheckLevel.OFF);
+        long start = System.nanoTime();
+        play(plain, null, commands);
+        long plainNanos = System.nanoTime() - start;
+
+        Board board = new Board(size, size, 1L, CheckLevel.OFF);
+        long before = usedHeap();
+        BoardHistory history = new BoardHistory(board, Integer.MAX_VALUE);
+        long empty = usedHeap() - before;
+        start = System.nanoTime();
+        play(board, history, commands);
+        long historyNanos = System.nanoTime() - start;
+        long kept = usedHeap() - before - empty;
+        System.out.printf("%dx%d, %d commands, %d versions kept, %d cells revealed%n", size, size, commands,
+                history.size(), board.numRevealed());
+        System.out.printf("memory: first version %.1f MB, then %.0f bytes per version (a copy of the board: %d)%n",
+                empty / 1e6, (double) kept / (history.size() - 1), (long) size * size);
+        System.out.printf("commands: %.2f us each without history, %.2f us with a commit each%n",
+                plainNanos / 1e3 / commands, historyNanos / 1e3 / commands);
+
+        Random random = new Random(2L);
+        long newest = board.version();
+        int checksum = 0;
+        int round = 0;
+        while (round < 2){
+            start = System.nanoTime();
+            int i = 0;
+            while (i < READS){
+                BoardHistory.Snapshot snapshot = history.at((long) (random.nextDouble() * newest)).get();
+                checksum += snapshot.state(random.nextInt(size), random.nextInt(size)).length();
+                i += 1;
+            }
+            long readNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            i = 0;
+            while (i < RENDERINGS){
+                checksum += history.at((long) (random.nextDouble() * newest)).get().toBytes().length;
+                i += 1;
+            }
+            long renderNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            i = 0;
+            while (i < RENDERINGS){
+                checksum += board.toBytes().length;
+                i += 1;
+            }
+            long liveNanos = System.nanoTime() - start;
+            if (round == 1){
+                System.out.printf("reads: cell at a random version %.0f ns, whole board at a random version"
+                        + " %.1f ms (live board %.1f ms) [%d]%n", (double) readNanos / READS,
+                        renderNanos / 1e6 / RENDERINGS, liveNanos / 1e6 / RENDERINGS, checksum);
+            }
+            round += 1;
+        }
+    }
+
+    /**
+     * Digs and flags random cells, committing after each command if there is a history
+     *
+     * @param board The board
+     * @param history Its history, or null
+     * @param commands The number of commands
+     */
+    private static void play(Board board, BoardHistory history, int commands) {
+        int size = board.sizeList().get(0);
+        Random random = new Random(1L);
+        int i = 0;
+        while (i < commands){
+            int x = random.nextInt(size);
+            int y = random.nextInt(size);
+            if (random.nextInt(4) == 0){
+                board.flag(x, y);
+            }
+            else{
+                board.dig(x, y);
+            }
+            if (history != null){
+                history.commit();
+            }
+            i += 1;
+        }
+    }
+
+    /**
+     * @return long The bytes of the heap in use once garbage is collected
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        int i = 0;
+        while (i < 3){
+            System.gc();
+            i += 1;
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
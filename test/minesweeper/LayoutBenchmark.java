@@ -0,0 +1,93 @@
+package minesweeper;
+
+import minesweeper.Board.CheckLevel;
+import minesweeper.Board.Layout;
+
+/**
+ * This Class is a micro-benchmark of the cell layouts of Board: flood-fill of a whole board
+ *  (startDig() then continueDig() in one slice), dig() of the same board through the zero-region index,
+ *  and rendering with toBytes()
+ * Run it as a plain Java program (it is not a test): java minesweeper.LayoutBenchmark [SIZE]
+ */
+public class LayoutBenchmark {
+
+    //Constants:
+    private static final int DEFAULT_SIZE = 2000; // Side of the square boards
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int RENDERINGS = 20; // Per round
+
+    /**
+     * Runs the benchmark and prints the average times per layout
+     *
+     * @param args Optional side of the square boards
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        for (Layout layout : Layout.values()){
+            run(size, layout, WARMUP_ROUNDS);
+        }
+        for (Layout layout : Layout.values()){
+            long[] nanos = run(size, layout, MEASURED_ROUNDS);
+            System.out.printf("%-12s %dx%d: flood-fill %.1f ms, dig %.1f ms, toBytes %.2f ms%n", layout, size, size,
+                    nanos[0] / 1e6 / MEASURED_ROUNDS, nanos[1] / 1e6 / MEASURED_ROUNDS,
+                    nanos[2] / 1e6 / MEASURED_ROUNDS / RENDERINGS);
+        }
+    }
+
+    /**
+     * Floods, digs and renders fresh boards with a bomb in a corner
+     *
+     * @param size The side of the square boards
+     * @param layout The layout of the boards
+     * @param rounds The number of boards of each kind
+     * @return long[] The total time of the flood-fills, digs and renderings, in nanoseconds
+     */
+    private static long[] run(int size, Layout layout, int rounds) {
+        long[] nanos = new long[3];
+        int round = 0;
+        while (round < rounds){
+            Board flooded = emptyBoard(size, layout);
+            long start = System.nanoTime();
+            flooded.continueDig(flooded.startDig(0, 0), Integer.MAX_VALUE);
+            nanos[0] += System.nanoTime() - start;
+            Board dug = emptyBoard(size, layout);
+            start = System.nanoTime();
+            dug.dig(0, 0);
+            nanos[1] += System.nanoTime() - start;
+            start = System.nanoTime();
+            int rendered = 0;
+            int i = 0;
+            while (i < RENDERINGS){
+                rendered += dug.toBytes().length;
+                i += 1;
+            }
+            nanos[2] += System.nanoTime() - start;
+            if (rendered != RENDERINGS * size * (2 * size + 1) || flooded.numRevealed() != size * size - 1){
+                throw new IllegalStateException("board not fully revealed or rendered");
+            }
+            round += 1;
+        }
+        return nanos;
+    }
+
+    /**
+     * @param size The side of the square board
+     * @param layout The layout of the board
+     * @return Board A board with a single bomb, in its last corner
+     */
+    private static Board emptyBoard(int size, Layout layout) {
+        Board board = new Board(size, size, 1L, CheckLevel.OFF, layout);
+        int x = 0;
+        while (x < size){
+            int y = 0;
+            while (y < size){
+                board.unbombIt(x, y);
+                y += 1;
+            }
+            x += 1;
+        }
+        board.bombIt(size - 1, size - 1);
+        return board;
+    }
+}
@@ -0,0 +1,61 @@
+package minesweeper;
+
+import java.lang.management.ManagementFactory;
+
+import minesweeper.Board.CheckLevel;
+
+/**
+ * This Class is a benchmark of back-to-back rounds on a large board: a new Board per round against
+ *  reset() of the same Board, by time and by memory allocated per round
+ * Run it as a plain Java program (it is not a test): java minesweeper.ResetBenchmark [SIZE]
+ */
+public class ResetBenchmark {
+
+    //Constants:
+    private static final int DEFAULT_SIZE = 2000; // Side of the square board
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 20;
+
+    /**
+     * Runs the benchmark and prints the average time and allocation per round, both ways
+     *
+     * @param args Optional side of the square board
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        run(size, false, WARMUP_ROUNDS);
+        run(size, true, WARMUP_ROUNDS);
+        System.out.println(size + "x" + size + ", new Board: " + run(size, false, MEASURED_ROUNDS));
+        System.out.println(size + "x" + size + ", reset(): " + run(size, true, MEASURED_ROUNDS));
+    }
+
+    /**
+     * Starts rounds one after the other, digging a corner of each so it is not untouched
+     *
+     * @param size The side of the square board
+     * @param reset True to reset one board, false to construct a new one per round
+     * @param rounds The number of rounds
+     * @return String The average time and bytes allocated per round
+     */
+    private static String run(int size, boolean reset, int rounds) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        Board board = new Board(size, size, 0L, CheckLevel.OFF);
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        int round = 1;
+        while (round <= rounds){
+            if (reset){
+                board.reset(round);
+            }
+            else{
+                board = new Board(size, size, round, CheckLevel.OFF);
+            }
+            board.dig(0, 0);
+            round += 1;
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        return String.format("%.2f ms, %d KB allocated per round", nanos / 1e6 / rounds, allocated / 1024 / rounds);
+    }
+}
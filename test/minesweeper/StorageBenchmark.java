@@ -0,0 +1,99 @@
+package minesweeper;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.Random;
+
+import minesweeper.Board.CheckLevel;
+import minesweeper.Board.Layout;
+
+/**
+ * This Class is a benchmark of the storages of Board: playing and rendering a large board kept on the heap,
+ *  off the heap and mapped, and the time full garbage collections take while such a board is alive
+ *  (the board is all the heap holds, so a heap board is what the collector scans)
+ * Run it as a plain Java program (it is not a test): java minesweeper.StorageBenchmark [SIZE]
+ */
+public class StorageBenchmark {
+
+    //Constants:
+    private static final int DEFAULT_SIZE = 4000; // Side of the square boards
+    private static final int DIGS = 200_000;
+    private static final int RENDERINGS = 5;
+    private static final int COLLECTIONS = 5;
+
+    /**
+     * Runs the benchmark twice (the first round warms up) and prints the times per storage
+     *
+     * @param args Optional side of the square boards
+     * @throws IOException if the directory of the mapped boards cannot be created
+     */
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        File directory = Files.createTempDirectory("boards").toFile();
+        directory.deleteOnExit();
+        Storage[] storages = {Storage.heap(), Storage.offHeap(), Storage.mapped(directory)};
+        int round = 0;
+        while (round < 2){
+            for (Storage storage : storages){
+                String result = run(size, storage);
+                if (round == 1){
+                    System.out.printf("%-9s %dx%d: %s%n", storage.isOffHeap() ? storage.directory().isPresent()
+                            ? "mapped" : "off-heap" : "heap", size, size, result);
+                }
+            }
+            round += 1;
+        }
+    }
+
+    /**
+     * Constructs a board, digs random cells, renders it, then collects garbage with the board alive
+     *
+     * @param size The side of the square board
+     * @param storage Where the board is kept
+     * @return String The times of each step
+     */
+    private static String run(int size, Storage storage) {
+        long start = System.nanoTime();
+        Board board = new Board(size, size, 1L, CheckLevel.OFF, Layout.ROW_MAJOR, storage);
+        long constructed = System.nanoTime() - start;
+        Random random = new Random(1L);
+        start = System.nanoTime();
+        int i = 0;
+        while (i < DIGS){
+            board.dig(random.nextInt(size), random.nextInt(size));
+            i += 1;
+        }
+        long dug = System.nanoTime() - start;
+        start = System.nanoTime();
+        i = 0;
+        while (i < RENDERINGS){
+            board.toBytes();
+            i += 1;
+        }
+        long rendered = System.nanoTime() - start;
+        long gcBefore = gcMillis();
+        i = 0;
+        while (i < COLLECTIONS){
+            System.gc();
+            i += 1;
+        }
+        long collected = gcMillis() - gcBefore;
+        board.close();
+        return String.format("construct %.0f ms, %d digs %.0f ms, toBytes %.1f ms, full GC %.1f ms",
+                constructed / 1e6, DIGS, dug / 1e6, rendered / 1e6 / RENDERINGS, (double) collected / COLLECTIONS);
+    }
+
+    /**
+     * @return long The time spent in garbage collections so far, in milliseconds
+     */
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()){
+            total += collector.getCollectionTime();
+        }
+        return total;
+    }
+}
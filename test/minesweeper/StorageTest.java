@@ -0,0 +1,184 @@
+package minesweeper;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * This Class provides a test suite for Storage.java, through Boards kept in each storage
+ */
+public class StorageTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Same random play, resets included, on the heap, off the heap and mapped: same states and counts,
+     *    on every layout
+     *  - close(): mapped files deleted, the board unusable afterwards, closing again does nothing
+     *  - Board larger than the heap: played in a JVM whose -Xmx is smaller than the board's mapped memory
+     */
+
+    //Constants:
+    private static final int HUGE_LENGTH = 8000; // 64 M cells, about 9 bytes each off the heap
+    private static final int HUGE_WIDTH = 8000;
+    private static final String SMALL_HEAP = "-Xmx48m";
+    private static final long HUGE_DISK_BYTES = 2L << 30; // Disk space the test needs, with some margin
+
+    @Test
+    // Same random play, resets included, on the heap, off the heap and mapped: same states and counts
+    public void testStoragesSamePlay() throws IOException {
+        File directory = Files.createTempDirectory("storage").toFile();
+        directory.deleteOnExit();
+        Storage[] storages = {Storage.heap(), Storage.offHeap(), Storage.mapped(directory)};
+        for (Board.Layout layout : Board.Layout.values()){
+            Board[] boards = new Board[storages.length];
+            int s = 0;
+            while (s < storages.length){
+                boards[s] = new Board(11, 7, 3L, Board.CheckLevel.FULL, layout, storages[s]);
+                assertEquals(storages[s], boards[s].storage());
+                s += 1;
+            }
+            Random random = new Random(3L);
+            int i = 0;
+            while (i < 300){
+                int x = random.nextInt(11);
+                int y = random.nextInt(7);
+                int command = random.nextInt(20);
+                for (Board testBoard : boards){
+                    if (command == 0){
+                        testBoard.reset(i);
+                    }
+                    else if (command < 8){
+                        testBoard.dig(x, y);
+                    }
+                    else if (command < 12){
+                        testBoard.flag(x, y);
+                    }
+                    else if (command < 15){
+                        testBoard.deflag(x, y);
+                    }
+                    else if (command < 18){
+                        testBoard.chord(x, y);
+                    }
+                    else{
+                        testBoard.bombIt(x, y);
+                    }
+                }
+                for (Board testBoard : boards){
+                    assertEquals(boards[0].toString(), testBoard.toString());
+                    assertEquals(boards[0].numSafeLeft(), testBoard.numSafeLeft());
+                    assertEquals(boards[0].numFlagged(), testBoard.numFlagged());
+                    assertEquals(boards[0].version(), testBoard.version());
+                }
+                i += 1;
+            }
+            for (Board testBoard : boards){
+                testBoard.close();
+            }
+        }
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    // close(): mapped files deleted, the board unusable afterwards, closing again does nothing
+    public void testClose() throws IOException {
+        File directory = Files.createTempDirectory("storage").toFile();
+        directory.deleteOnExit();
+        Board testBoard = new Board(5, 70, 1L, Board.CheckLevel.CHEAP, Board.Layout.ROW_MAJOR,
+                Storage.mapped(directory));
+        // Cells, bombs, counts and the two arrays of the zero-region index
+        assertEquals(5, directory.listFiles().length);
+        testBoard.close();
+        assertEquals(0, directory.listFiles().length);
+        try {
+            testBoard.dig(0, 0);
+            fail("dug a closed board");
+        } catch (RuntimeException re) {
+            // expected
+        }
+        testBoard.close();
+
+        Board heapBoard = new Board(3, 3, 1L);
+        heapBoard.close();
+        try {
+            heapBoard.toString();
+            fail("rendered a closed board");
+        } catch (RuntimeException re) {
+            // expected
+        }
+    }
+
+    @Test(timeout = 120000)
+    // Board larger than the heap: played in a JVM whose -Xmx is smaller than the board's mapped memory
+    public void testLargerThanHeap() throws IOException, InterruptedException {
+        File directory = Files.createTempDirectory("storage").toFile();
+        directory.deleteOnExit();
+        Assume.assumeTrue("not enough disk space", directory.getUsableSpace() > HUGE_DISK_BYTES);
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.add(SMALL_HEAP);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(StorageTest.class.getName());
+        command.add(directory.getPath());
+        Process child = new ProcessBuilder(command).redirectErrorStream(true).start();
+        List<String> output = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(child.getInputStream()))) {
+            String line = in.readLine();
+            while (line != null){
+                output.add(line);
+                line = in.readLine();
+            }
+        }
+        assertEquals(output.toString(), 0, child.waitFor());
+        assertEquals(output.toString(), "OK", output.get(output.size() - 1));
+        assertEquals(0, directory.listFiles().length);
+        directory.delete();
+    }
+
+    /**
+     * Body of the JVM started by testLargerThanHeap(): plays a mapped board larger than its heap,
+     *  printing OK if it behaves as a board on the heap would (checked with its counters)
+     *
+     * @param args The directory of the files to map
+     */
+    public static void main(String[] args) {
+        long boardBytes = (long) HUGE_LENGTH * HUGE_WIDTH * (1 + 4 + 4);
+        if (Runtime.getRuntime().maxMemory() >= boardBytes){
+            throw new IllegalStateException("heap of " + Runtime.getRuntime().maxMemory() + " bytes is not smaller");
+        }
+        Board board = new Board(HUGE_LENGTH, HUGE_WIDTH, 7L, Board.CheckLevel.CHEAP, Board.Layout.ROW_MAJOR,
+                Storage.mapped(new File(args[0])));
+        int safe = board.numSafeLeft();
+        Random random = new Random(7L);
+        int digs = 0;
+        int revealed = 0;
+        int exploded = 0;
+        while (digs < 1000){
+            int x = random.nextInt(HUGE_LENGTH);
+            int y = random.nextInt(HUGE_WIDTH);
+            if (!board.dig(x, y)){
+                exploded += 1;
+            }
+            revealed += board.revealedByLastDig();
+            digs += 1;
+        }
+        // The opposite corner: cells of both ends of the mapped files
+        board.flag(HUGE_LENGTH - 1, HUGE_WIDTH - 1);
+        if (board.numRevealed() != revealed || board.numSafeLeft() != safe + exploded - revealed
+                || board.numUntouched() + board.numFlagged() + revealed != HUGE_LENGTH * HUGE_WIDTH){
+            throw new IllegalStateException("counters do not add up");
+        }
+        board.close();
+        System.out.println("OK");
+    }
+}
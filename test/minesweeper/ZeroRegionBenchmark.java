@@ -0,0 +1,88 @@
+package minesweeper;
+
+import java.util.Random;
+
+import minesweeper.Board.CheckLevel;
+
+/**
+ * This Class is a micro-benchmark of dig() revealing zero regions from the zero-region index,
+ *  against the flood-fill (startDig() then continueDig() in one slice), on dense and sparse boards
+ *  Every cell of each board is dug in a random order, bombs included
+ * Run it as a plain Java program (it is not a test): java minesweeper.ZeroRegionBenchmark [SIZE]
+ */
+public class ZeroRegionBenchmark {
+
+    //Constants:
+    private static final int DEFAULT_SIZE = 400; // Side of the square boards
+    private static final int[] BOMBS_KEPT_PERCENT = {100, 25, 5}; // Of the 20% of cells bombed
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    /**
+     * Runs the benchmark and prints the average time to dig every cell of a board, both ways
+     *
+     * @param args Optional side of the square boards
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        for (int kept : BOMBS_KEPT_PERCENT){
+            run(size, kept, true, WARMUP_ROUNDS);
+            run(size, kept, false, WARMUP_ROUNDS);
+            long indexed = run(size, kept, true, MEASURED_ROUNDS);
+            long flooded = run(size, kept, false, MEASURED_ROUNDS);
+            System.out.printf("%dx%d, %2d%% of cells bombed: zero-region index %.2f ms, flood-fill %.2f ms%n",
+                    size, size, kept / 5, indexed / 1e6 / MEASURED_ROUNDS, flooded / 1e6 / MEASURED_ROUNDS);
+        }
+    }
+
+    /**
+     * Digs every cell of fresh boards in a random order
+     *
+     * @param size The side of the square boards
+     * @param kept The percentage of bombs kept on the boards
+     * @param indexed True to dig with dig(), false with the flood-fill
+     * @param rounds The number of boards to dig
+     * @return long The total time spent digging, in nanoseconds
+     */
+    private static long run(int size, int kept, boolean indexed, int rounds) {
+        long total = 0;
+        int round = 0;
+        while (round < rounds){
+            Random random = new Random(round);
+            Board board = new Board(size, size, round, CheckLevel.OFF);
+            int[] cells = new int[size * size];
+            int cell = 0;
+            while (cell < cells.length){
+                cells[cell] = cell;
+                if (random.nextInt(100) >= kept){
+                    board.unbombIt(cell / size, cell % size);
+                }
+                cell += 1;
+            }
+            // Fisher-Yates shuffle of the digging order
+            int i = cells.length - 1;
+            while (i > 0){
+                int j = random.nextInt(i + 1);
+                int swapped = cells[i];
+                cells[i] = cells[j];
+                cells[j] = swapped;
+                i -= 1;
+            }
+            long start = System.nanoTime();
+            for (int dug : cells){
+                if (indexed){
+                    board.dig(dug / size, dug % size);
+                }
+                else{
+                    board.continueDig(board.startDig(dug / size, dug % size), Integer.MAX_VALUE);
+                }
+            }
+            total += System.nanoTime() - start;
+            if (board.numRevealed() != size * size){
+                throw new IllegalStateException("a cell was not revealed");
+            }
+            round += 1;
+        }
+        return total;
+    }
+}
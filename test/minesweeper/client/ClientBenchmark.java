@@ -0,0 +1,128 @@
+package minesweeper.client;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import minesweeper.server.MinesweeperServer;
+
+/**
+ * This Class compares, over loopback, a client sending a command and waiting for its reply before the next
+ *  (the blocking pattern, over BufferedReader) with MinesweeperClient pipelining the same commands
+ * Run it as a plain Java program (it is not a test): java minesweeper.client.ClientBenchmark [SIZE]
+ */
+public class ClientBenchmark {
+
+    //Constants:
+    private static final String LOCALHOST = "127.0.0.1";
+    private static final int DEFAULT_SIZE = 20; // Side of the square board
+    private static final int COMMANDS = 20000;
+    private static final int MAX_CONNECTION_ATTEMPTS = 10;
+
+    /**
+     * Starts a server, then runs both clients twice (the first round warms up) and prints their throughput
+     *
+     * @param args Optional side of the square board
+     * @throws Exception if the server cannot be reached, or a command fails
+     */
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        int port = 4000 + new Random().nextInt(1 << 15);
+        Thread server = new Thread(() -> MinesweeperServer.main(new String[] {
+                "--debug", "--port", Integer.toString(port), "--size", size + "," + size}));
+        server.setDaemon(true);
+        server.start();
+        awaitServer(port);
+        int round = 0;
+        while (round < 2){
+            long blocking = blocking(port, size);
+            long pipelined = pipelined(port);
+            if (round == 1){
+                System.out.println(String.format("%dx%d board, %d commands: blocking %.0f commands/s,"
+                        + " pipelined %.0f commands/s", size, size, COMMANDS, COMMANDS * 1e9 / blocking,
+                        COMMANDS * 1e9 / pipelined));
+            }
+            round += 1;
+        }
+    }
+
+    /**
+     * @param port The port of the server
+     * @param size The side of the board
+     * @return long The nanoseconds taken by COMMANDS commands, each sent once the previous one is replied
+     * @throws IOException if the connection fails
+     */
+    private static long blocking(int port, int size) throws IOException {
+        try (Socket socket = new Socket(LOCALHOST, port)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+            in.readLine();
+            long start = System.nanoTime();
+            int i = 0;
+            while (i < COMMANDS){
+                out.println((i % 2 == 0 ? "flag " : "deflag ") + (i / 2 % size) + " 0");
+                int row = 0;
+                while (row < size){
+                    if (in.readLine() == null){
+                        throw new IOException("connection closed");
+                    }
+                    row += 1;
+                }
+                i += 1;
+            }
+            return System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * @param port The port of the server
+     * @return long The nanoseconds taken by COMMANDS commands sent with MinesweeperClient, without waiting
+     * @throws IOException if the connection fails
+     * @throws InterruptedException if interrupted while waiting for the last reply
+     * @throws ExecutionException if a command fails
+     */
+    private static long pipelined(int port) throws IOException, InterruptedException, ExecutionException {
+        try (MinesweeperClient client = MinesweeperClient.connect(LOCALHOST, port)) {
+            int size = client.board().length();
+            long start = System.nanoTime();
+            CompletableFuture<ClientBoard> last = null;
+            int i = 0;
+            while (i < COMMANDS){
+                last = i % 2 == 0 ? client.flag(i / 2 % size, 0) : client.deflag(i / 2 % size, 0);
+                i += 1;
+            }
+            last.get();
+            return System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Waits for the server to listen
+     *
+     * @param port The port of the server
+     * @throws IOException if it does not
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static void awaitServer(int port) throws IOException, InterruptedException {
+        int attempts = 0;
+        while (true){
+            try {
+                new Socket(LOCALHOST, port).close();
+                return;
+            } catch (ConnectException ce) {
+                attempts += 1;
+                if (attempts > MAX_CONNECTION_ATTEMPTS){
+                    throw ce;
+                }
+                Thread.sleep(attempts * 10);
+            }
+        }
+    }
+}
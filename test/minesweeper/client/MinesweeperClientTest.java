@@ -0,0 +1,249 @@
+package minesweeper.client;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Test;
+
+import minesweeper.server.MinesweeperServer;
+
+/**
+ * This Class tests MinesweeperClient and the ClientBoard it keeps, against a MinesweeperServer
+ */
+public class MinesweeperClientTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Welcome parsed: the size of the model; look, flag, deflag, dig on a safe cell and on a bomb
+     *  - Many commands pipelined: completed in order, the model as the server last showed it
+     *  - Replies refused (rate limited): the future fails with RefusedException, the next commands still work
+     *  - Pushes: a new round started by another client
+     *  - Closing: the commands waiting fail, and so do those sent afterwards
+     *  - Compressed: the same replies, pipelined, inflated
+     */
+
+    private static final String LOCALHOST = "127.0.0.1";
+    private static final int MAX_CONNECTION_ATTEMPTS = 10;
+    private static final int PIPELINED = 1000;
+
+    // A 4 x 3 board with a single bomb, at 3,2
+    private static final String BOARD = "4 3\n0 0 0 0\n0 0 0 0\n0 0 0 1\n";
+
+    @Test(timeout = 10000)
+    public void testCommands() throws Exception {
+        int port = startServer();
+        try (MinesweeperClient client = connect(port)) {
+            ClientBoard board = client.board();
+            assertEquals(4, board.length());
+            assertEquals(3, board.width());
+
+            assertSame(board, client.look().get());
+            assertEquals("-", board.state(0, 0));
+            assertEquals(1, board.frames());
+
+            client.flag(1, 1).get();
+            assertEquals("F", board.state(1, 1));
+            client.deflag(1, 1).get();
+            assertEquals("-", board.state(1, 1));
+
+            // A safe cell far from the bomb reveals the region around it
+            assertTrue(client.dig(0, 0).get());
+            assertEquals("0", board.state(0, 0));
+            assertEquals("1", board.state(2, 1));
+            assertEquals("-", board.state(3, 2));
+            assertEquals("- - - -\r\n- - - -\r\n- - - -\r\n".length(), board.toString().length());
+
+            // The bomb: the model is not updated by a BOOM
+            assertFalse(client.dig(3, 2).get());
+            assertEquals("-", board.state(3, 2));
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testPipelined() throws Exception {
+        int port = startServer();
+        try (MinesweeperClient client = connect(port)) {
+            List<CompletableFuture<Void>> replies = new ArrayList<>();
+            List<Integer> completed = new ArrayList<>();
+            int i = 0;
+            while (i < PIPELINED){
+                int sent = i;
+                CompletableFuture<ClientBoard> reply = i % 2 == 0 ? client.flag(i % 4, 0) : client.deflag((i - 1) % 4, 0);
+                replies.add(reply.thenRun(() -> completed.add(sent)));
+                i += 1;
+            }
+            for (CompletableFuture<Void> reply : replies){
+                reply.get();
+            }
+            // Completed by the reader thread, in the order sent
+            int expected = 0;
+            while (expected < PIPELINED){
+                assertEquals(expected, (int) completed.get(expected));
+                expected += 1;
+            }
+            assertEquals(PIPELINED, client.board().frames());
+            assertEquals("- - - -\r\n- - - -\r\n- - - -\r\n", client.board().toString());
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testCompressed() throws Exception {
+        int port = startServer("--compress-min", "0");
+        connect(port).close();
+        try (MinesweeperClient client = MinesweeperClient.connect(LOCALHOST, port, 64, true)) {
+            List<CompletableFuture<ClientBoard>> replies = new ArrayList<>();
+            int i = 0;
+            while (i < PIPELINED){
+                replies.add(i % 2 == 0 ? client.flag(1, 1) : client.deflag(1, 1));
+                i += 1;
+            }
+            for (CompletableFuture<ClientBoard> reply : replies){
+                reply.get();
+            }
+            assertEquals(PIPELINED, client.board().frames());
+            assertTrue(client.dig(0, 0).get());
+            assertEquals("1", client.board().state(2, 1));
+            assertFalse(client.dig(3, 2).get());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testRefused() throws Exception {
+        int port = startServer("--read-rate", "1");
+        try (MinesweeperClient client = connect(port)) {
+            List<CompletableFuture<ClientBoard>> replies = new ArrayList<>();
+            int i = 0;
+            while (i < 10){
+                replies.add(client.look());
+                i += 1;
+            }
+            int refused = 0;
+            for (CompletableFuture<ClientBoard> reply : replies){
+                try {
+                    reply.get();
+                } catch (ExecutionException ee) {
+                    assertTrue(ee.getCause() instanceof RefusedException);
+                    assertEquals("Too many commands, slow down", ee.getCause().getMessage());
+                    refused += 1;
+                }
+            }
+            assertTrue(refused > 0);
+            // Write commands are not limited: the connection is still in step
+            assertEquals("F", client.flag(2, 2).get().state(2, 2));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testNewRound() throws Exception {
+        int port = startServer("--allow-reset");
+        try (MinesweeperClient client = connect(port)) {
+            client.flag(0, 0).get();
+            assertEquals("F", client.board().state(0, 0));
+
+            try (Socket admin = new Socket(LOCALHOST, port)) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(admin.getInputStream()));
+                PrintWriter out = new PrintWriter(admin.getOutputStream(), true);
+                assertTrue(in.readLine().startsWith("Welcome to Minesweeper."));
+                out.println("reset");
+                in.readLine();
+            }
+            // The push is read before the reply to the next command
+            client.look().get();
+            assertEquals(1, client.board().rounds());
+            assertEquals("-", client.board().state(0, 0));
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testClose() throws Exception {
+        int port = startServer();
+        MinesweeperClient client = connect(port);
+        client.look().get();
+        List<CompletableFuture<ClientBoard>> replies = new ArrayList<>();
+        int i = 0;
+        while (i < 100){
+            replies.add(client.look());
+            i += 1;
+        }
+        client.close();
+        for (CompletableFuture<ClientBoard> reply : replies){
+            // Replied before the close, or failed
+            try {
+                reply.get();
+            } catch (ExecutionException ee) {
+                assertTrue(ee.getCause() instanceof IOException);
+            }
+        }
+        try {
+            client.look().get();
+            fail("expected the command to fail once closed");
+        } catch (ExecutionException ee) {
+            assertTrue(ee.getCause() instanceof IOException);
+        }
+    }
+
+    /**
+     * Starts a server in debug mode, on the board BOARD, on a random port
+     *
+     * @param flags More flags for the server
+     * @return int The port of the server
+     * @throws IOException if the board file cannot be written
+     */
+    private static int startServer(String... flags) throws IOException {
+        File boardFile = File.createTempFile("client-test", ".txt");
+        boardFile.deleteOnExit();
+        Files.write(boardFile.toPath(), BOARD.getBytes(StandardCharsets.US_ASCII));
+        int port = 4000 + new Random().nextInt(1 << 15);
+        String[] arguments = new String[5 + flags.length];
+        arguments[0] = "--debug";
+        arguments[1] = "--port";
+        arguments[2] = Integer.toString(port);
+        arguments[3] = "--file";
+        arguments[4] = boardFile.getPath();
+        System.arraycopy(flags, 0, arguments, 5, flags.length);
+        Thread server = new Thread(() -> MinesweeperServer.main(arguments));
+        server.setDaemon(true);
+        server.start();
+        return port;
+    }
+
+    /**
+     * Connects to the server started by the test, once it listens
+     *
+     * @param port The port of the server
+     * @return MinesweeperClient A client connected
+     * @throws IOException if the connection fails
+     */
+    private static MinesweeperClient connect(int port) throws IOException {
+        int attempts = 0;
+        while (true){
+            try {
+                return MinesweeperClient.connect(LOCALHOST, port);
+            } catch (ConnectException ce) {
+                attempts += 1;
+                if (attempts > MAX_CONNECTION_ATTEMPTS){
+                    throw ce;
+                }
+                try {
+                    Thread.sleep(attempts * 10);
+                } catch (InterruptedException ie) {
+                    throw new IOException(ie);
+                }
+            }
+        }
+    }
+}
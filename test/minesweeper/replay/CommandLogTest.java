@@ -0,0 +1,99 @@
+package minesweeper.replay;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import minesweeper.Board;
+
+/**
+ * This Class provides a test suite for CommandRecorder.java and CommandLogReader.java
+ */
+public class CommandLogTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Records read back as written: commands with and without coordinates, negative
+     *    and large coordinates, checkpoints
+     *  - The board is rebuilt from the seed
+     *  - A log cut in the middle of a record ends at the last complete record
+     *  - A file that is not a log is rejected
+     */
+
+    @Test
+    // Records read back as written, board rebuilt from the seed
+    public void testRoundTrip() throws IOException {
+        File log = File.createTempFile("commands", ".log");
+        log.deleteOnExit();
+        Board board = new Board(4, 3, 7L);
+        try (CommandRecorder recorder = CommandRecorder.seeded(log, board, 7L, 2)) {
+            recorder.record(0, Command.LOOK, 0, 0);
+            recorder.record(300, Command.FLAG, -1, 100000);
+            recorder.record(1, Command.DEFLAG, 2, 0);
+        }
+        try (CommandLogReader reader = new CommandLogReader(log)) {
+            assertEquals(new Board(4, 3, 7L).toString(), reader.newBoard(Optional.empty()).toString());
+            assertTrue(reader.next());
+            assertEquals(Command.LOOK, reader.command());
+            assertEquals(0, reader.session());
+            assertTrue(reader.next());
+            assertEquals(Command.FLAG, reader.command());
+            assertEquals(300, reader.session());
+            assertEquals(-1, reader.x());
+            assertEquals(100000, reader.y());
+            // Checkpoint after 2 commands
+            assertTrue(reader.next());
+            assertTrue(reader.isCheckpoint());
+            assertEquals(board.version(), reader.checkpointVersion());
+            assertTrue(reader.next());
+            assertEquals(Command.DEFLAG, reader.command());
+            assertEquals(2, reader.x());
+            assertEquals(0, reader.y());
+            long micros = reader.micros();
+            // Checkpoint on close
+            assertTrue(reader.next());
+            assertTrue(reader.isCheckpoint());
+            assertEquals(CommandRecorder.crc(board), reader.checkpointCrc());
+            assertTrue(reader.micros() >= micros);
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    // A log cut in the middle of a record ends at the last complete record
+    public void testTruncated() throws IOException {
+        File log = File.createTempFile("commands", ".log");
+        log.deleteOnExit();
+        Board board = new Board(4, 3, 7L);
+        try (CommandRecorder recorder = CommandRecorder.seeded(log, board, 7L, 100)) {
+            recorder.record(0, Command.DIG, 1, 1);
+            recorder.record(0, Command.DIG, 2, 2);
+        }
+        try (RandomAccessFile file = new RandomAccessFile(log, "rw")) {
+            // Cuts the last checkpoint in its crc
+            file.setLength(file.length() - 2);
+        }
+        try (CommandLogReader reader = new CommandLogReader(log)) {
+            assertTrue(reader.next());
+            assertTrue(reader.next());
+            assertEquals(Command.DIG, reader.command());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    // A file that is not a log is rejected
+    public void testNotALog() throws IOException {
+        File notALog = File.createTempFile("board", ".txt");
+        notALog.deleteOnExit();
+        try (RandomAccessFile file = new RandomAccessFile(notALog, "rw")) {
+            file.writeBytes("2 2\n0 0\n0 0\n");
+        }
+        new CommandLogReader(notALog).close();
+    }
+}
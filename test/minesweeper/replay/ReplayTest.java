@@ -0,0 +1,185 @@
+package minesweeper.replay;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import minesweeper.Board;
+
+/**
+ * This Class provides a test suite for Replay.java
+ */
+public class ReplayTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Replay as fast as possible: same final board, every checkpoint matched
+     *  - Replay at the original pace: takes at least as long as the recording
+     *  - A board changed without recording: the replay reports the checkpoint not matched
+     *  - Board reset during the recording, from a seed and from the board file: replayed the same
+     *  - A dig revealed in slices, other commands in between and checkpoints on a half-revealed board:
+     *    replayed the same
+     */
+
+    /**
+     * Plays a few commands from two sessions on a seeded 6 x 6 board, recording them
+     * @param log where to record
+     * @param unrecordedFlag true to also flag a cell without recording it
+     * @return Board the board played on
+     * @throws IOException if the log cannot be written
+     */
+    private static Board play(File log, boolean unrecordedFlag) throws IOException {
+        Board board = new Board(6, 6, 1234L);
+        try (CommandRecorder recorder = CommandRecorder.seeded(log, board, 1234L, 3)) {
+            synchronized (board) {
+                board.flag(0, 0);
+                recorder.record(0, Command.FLAG, 0, 0);
+                recorder.record(1, Command.LOOK, 0, 0);
+                board.dig(5, 5);
+                recorder.record(1, Command.DIG, 5, 5);
+                board.dig(3, 2);
+                recorder.record(0, Command.DIG, 3, 2);
+                recorder.record(1, Command.HINT, 0, 0);
+                if (unrecordedFlag){
+                    board.flag(0, 5);
+                }
+                board.chord(3, 2);
+                recorder.record(0, Command.CHORD, 3, 2);
+                board.deflag(0, 0);
+                recorder.record(0, Command.DEFLAG, 0, 0);
+                recorder.record(0, Command.STATUS, 0, 0);
+            }
+        }
+        return board;
+    }
+
+    @Test
+    // Replay as fast as possible: same final board, every checkpoint matched
+    public void testMaxSpeed() throws IOException {
+        File log = File.createTempFile("commands", ".log");
+        log.deleteOnExit();
+        Board board = play(log, false);
+        Replay replay = new Replay(log, Optional.empty(), false);
+        assertTrue(replay.report(), replay.run());
+        assertEquals(board.toString(), replay.board().toString());
+        assertEquals(8, replay.commands());
+        assertEquals(2, replay.sessions());
+        // After commands 3 and 6, and on close
+        assertEquals(3, replay.checkpoints());
+        assertFalse(replay.mismatch().isPresent());
+    }
+
+    @Test
+    // Replay at the original pace: takes at least as long as the recording
+    public void testOriginalPace() throws IOException, InterruptedException {
+        File log = File.createTempFile("commands", ".log");
+        log.deleteOnExit();
+        Board board = new Board(3, 3, 5L);
+        try (CommandRecorder recorder = CommandRecorder.seeded(log, board, 5L)) {
+            recorder.record(0, Command.LOOK, 0, 0);
+            Thread.sleep(50);
+            recorder.record(0, Command.LOOK, 0, 0);
+        }
+        Replay replay = new Replay(log, Optional.empty(), true);
+        long start = System.nanoTime();
+        assertTrue(replay.run());
+        assertTrue((System.nanoTime() - start) / 1_000_000 >= 50);
+    }
+
+    @Test
+    // A board changed without recording: the replay reports the checkpoint not matched
+    public void testMismatch() throws IOException {
+        File log = File.createTempFile("commands", ".log");
+        log.deleteOnExit();
+        play(log, true);
+        Replay replay = new Replay(log, Optional.empty(), false);
+        assertFalse(replay.run());
+        assertEquals(1, replay.checkpoints());
+        assertTrue(replay.report(), replay.mismatch().get().startsWith("checkpoint 2 after 6 commands"));
+    }
+
+    @Test
+    // Board reset during the recording, from a seed and from the board file: replayed the same
+    public void testReset() throws IOException {
+        File boardFile = File.createTempFile("board", ".txt");
+        boardFile.deleteOnExit();
+        Files.write(boardFile.toPath(), Arrays.asList("3 3", "0 0 0", "0 1 0", "0 0 0"));
+        File log = File.createTempFile("commands", ".log");
+        log.deleteOnExit();
+        Board board = new Board(boardFile);
+        try (CommandRecorder recorder = CommandRecorder.fromFile(log, board, boardFile, 2)) {
+            synchronized (board) {
+                board.dig(0, 0);
+                recorder.record(0, Command.DIG, 0, 0);
+                board.reset(99L);
+                recorder.reset(1, 99L);
+                board.dig(2, 2);
+                recorder.record(1, Command.DIG, 2, 2);
+                board.flag(0, 1);
+                recorder.record(0, Command.FLAG, 0, 1);
+                board.reset(boardFile);
+                recorder.resetFromFile(0);
+                board.dig(2, 0);
+                recorder.record(0, Command.DIG, 2, 0);
+            }
+        }
+        Replay replay = new Replay(log, Optional.of(boardFile), false);
+        assertTrue(replay.report(), replay.run());
+        assertEquals(board.toString(), replay.board().toString());
+        assertEquals(6, replay.commands());
+        assertFalse(replay.mismatch().isPresent());
+    }
+
+    @Test
+    // A dig revealed in slices, other commands in between and checkpoints on a half-revealed board
+    public void testSlicedDig() throws IOException {
+        File boardFile = File.createTempFile("board", ".txt");
+        boardFile.deleteOnExit();
+        Files.write(boardFile.toPath(), Arrays.asList("8 8", "0 0 0 0 0 0 0 0", "0 0 0 0 0 0 0 0",
+                "0 0 0 0 0 0 0 0", "0 0 0 0 0 0 0 0", "0 0 0 0 0 0 0 0", "0 0 0 0 0 0 0 0",
+                "0 0 0 0 0 0 0 0", "0 0 0 0 0 0 0 1"));
+        File log = File.createTempFile("commands", ".log");
+        log.deleteOnExit();
+        Board board = new Board(boardFile);
+        int slices = 0;
+        try (CommandRecorder recorder = CommandRecorder.fromFile(log, board, boardFile, 2)) {
+            synchronized (board) {
+                Board.Reveal reveal = board.startDig(0, 0);
+                long dig = recorder.startDig(0, 0, 0);
+                boolean done = false;
+                while (!done){
+                    done = board.continueDig(reveal, 5);
+                    recorder.digSlice(0, dig, 5);
+                    if (slices == 1){
+                        // Flagged ahead of the reveal, which still reveals it
+                        board.flag(3, 3);
+                        recorder.record(1, Command.FLAG, 3, 3);
+                        recorder.record(1, Command.LOOK, 0, 0);
+                    }
+                    if (slices == 3){
+                        // The only bomb explodes: every cell becomes a zero, this dig reveals the rest
+                        board.dig(7, 7);
+                        recorder.record(1, Command.DIG, 7, 7);
+                    }
+                    slices += 1;
+                }
+                board.flag(0, 0);
+                recorder.record(1, Command.FLAG, 0, 0);
+            }
+        }
+        assertEquals(5, slices);
+        Replay replay = new Replay(log, Optional.of(boardFile), false);
+        assertTrue(replay.report(), replay.run());
+        assertEquals(board.toString(), replay.board().toString());
+        // The sliced dig is one command
+        assertEquals(5, replay.commands());
+        // One every 2 records (the start, the slices and 4 other commands), and on close
+        assertEquals((1 + slices + 4) / 2 + 1, replay.checkpoints());
+    }
+}
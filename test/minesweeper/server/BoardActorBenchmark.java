@@ -0,0 +1,120 @@
+package minesweeper.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+import minesweeper.Board;
+
+/**
+ * This Class is a benchmark comparing the two ways the server applies commands to the board:
+ *  each client thread holding the lock of the board, or a single board thread (BoardActor)
+ *  Every client thread flags and deflags its own cells and looks at the board, each reply being a frame
+ *  Lock contention only shows with several cores: on a single CPU the client threads never run at once
+ * Run it as a plain Java program (it is not a test): java minesweeper.server.BoardActorBenchmark
+ */
+public class BoardActorBenchmark {
+
+    //Constants:
+    private static final int BOARD_SIZE = 40;
+    private static final int COMMANDS = 400_000; // Per run, split between the client threads
+    private static final int[] CLIENT_THREADS = {8, 16, 32, 64, 128, 256};
+
+    /**
+     * Applies a command and returns its reply, one way or the other
+     */
+    private interface Model {
+        /**
+         * @param operation The command, returning BoardActor.FRAME
+         * @return byte[] The frame of the board after the command
+         */
+        byte[] apply(Supplier<byte[]> operation);
+    }
+
+    /**
+     * Runs both models at every number of client threads, twice (the first round warms up)
+     *
+     * @param args Unused
+     * @throws InterruptedException if interrupted while waiting for the client threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int round = 0;
+        while (round < 2){
+            for (int threads : CLIENT_THREADS){
+                Board lockedBoard = new Board(BOARD_SIZE, BOARD_SIZE, Board.CheckLevel.OFF);
+                FrameCache lockedFrames = new FrameCache(lockedBoard, new ServerMetrics());
+                String locked = run(threads, lockedBoard, operation -> {
+                    synchronized (lockedBoard) {
+                        operation.get();
+                        return lockedFrames.frame();
+                    }
+                });
+                Board actorBoard = new Board(BOARD_SIZE, BOARD_SIZE, Board.CheckLevel.OFF);
+                ServerMetrics metrics = new ServerMetrics();
+                BoardActor actor = new BoardActor(actorBoard, new FrameCache(actorBoard, metrics), metrics);
+                String single = run(threads, actorBoard, operation -> actor.submit(operation).join());
+                if (round == 1){
+                    System.out.println(threads + " client threads: synchronized " + locked
+                            + " | actor " + single + ", " + metrics.getFramesRendered() + " frames rendered");
+                }
+            }
+            round += 1;
+        }
+    }
+
+    /**
+     * Runs the commands split between client threads and summarizes throughput and latency
+     *
+     * @param threads The number of client threads
+     * @param board The board played on
+     * @param model How commands are applied
+     * @return String The throughput and latency percentiles
+     * @throws InterruptedException if interrupted while waiting for the client threads
+     */
+    private static String run(int threads, Board board, Model model) throws InterruptedException {
+        LatencyHistogram latencies = new LatencyHistogram();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> clients = new ArrayList<>();
+        int t = 0;
+        while (t < threads){
+            int client = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                int x = client % BOARD_SIZE;
+                int y = (client / BOARD_SIZE) % BOARD_SIZE;
+                int i = 0;
+                while (i < COMMANDS / threads){
+                    int kind = i % 3;
+                    long begin = System.nanoTime();
+                    model.apply(() -> {
+                        if (kind == 0){
+                            board.flag(x, y);
+                        }
+                        else if (kind == 1){
+                            board.deflag(x, y);
+                        }
+                        return BoardActor.FRAME;
+                    });
+                    latencies.record(System.nanoTime() - begin);
+                    i += 1;
+                }
+            });
+            thread.start();
+            clients.add(thread);
+            t += 1;
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : clients){
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        return Math.round(latencies.count() / seconds) + " commands/s, p50 "
+                + latencies.percentile(50) / 1000 + "us p99 " + latencies.percentile(99) / 1000 + "us";
+    }
+}
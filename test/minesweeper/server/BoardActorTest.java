@@ -0,0 +1,168 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.Test;
+
+import minesweeper.Board;
+
+/**
+ * This Class provides a test suite for BoardActor.java
+ */
+public class BoardActorTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Operations from many threads are all applied, each exactly once
+     *  - FRAME replies are the frame of the board after the batch, rendered once per batch
+     *  - An operation that throws fails its own future only
+     *  - An operation throwing an Error, or a frame failing to render, fails the futures concerned only
+     *    and later operations still get their replies
+     */
+
+    @Test(timeout = 10000)
+    // Operations from many threads are all applied, each exactly once
+    public void testManyProducers() throws InterruptedException {
+        Board board = new Board(20, 20);
+        ServerMetrics metrics = new ServerMetrics();
+        BoardActor actor = new BoardActor(board, new FrameCache(board, metrics), metrics);
+        List<Thread> producers = new ArrayList<>();
+        int t = 0;
+        while (t < 8){
+            int row = t;
+            Thread producer = new Thread(() -> {
+                int y = 0;
+                while (y < 20){
+                    int column = y;
+                    actor.submit(() -> {
+                        board.flag(row, column);
+                        return BoardActor.FRAME;
+                    }).join();
+                    y += 1;
+                }
+            });
+            producer.start();
+            producers.add(producer);
+            t += 1;
+        }
+        for (Thread producer : producers){
+            producer.join();
+        }
+        assertEquals(160, board.numFlagged());
+        String report = metrics.getReport();
+        assertTrue(report, report.contains("operations 160"));
+    }
+
+    @Test(timeout = 10000)
+    // FRAME replies are the frame of the board after the batch, rendered once per batch
+    public void testOneFramePerBatch() {
+        Board board = new Board(5, 5);
+        ServerMetrics metrics = new ServerMetrics();
+        BoardActor actor = new BoardActor(board, new FrameCache(board, metrics), metrics);
+        // Holding the lock of the board keeps the board thread from starting the batch
+        CompletableFuture<byte[]> first;
+        CompletableFuture<byte[]> second;
+        synchronized (board) {
+            first = actor.submit(() -> {
+                board.flag(0, 0);
+                return BoardActor.FRAME;
+            });
+            second = actor.submit(() -> {
+                board.flag(1, 1);
+                return BoardActor.FRAME;
+            });
+            try {
+                // Lets the board thread take the first operation and wait for the lock
+                Thread.sleep(50);
+            } catch (InterruptedException ie) {
+                fail();
+            }
+        }
+        assertSame(first.join(), second.join());
+        assertArrayEquals(board.toBytes(), second.join());
+        assertEquals(1, metrics.getFramesRendered());
+    }
+
+    @Test(timeout = 10000)
+    // An operation that throws fails its own future only
+    public void testOperationThrows() {
+        Board board = new Board(5, 5);
+        ServerMetrics metrics = new ServerMetrics();
+        BoardActor actor = new BoardActor(board, new FrameCache(board, metrics), metrics);
+        CompletableFuture<byte[]> failed = actor.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+        try {
+            failed.join();
+            fail("expected the operation to fail");
+        } catch (CompletionException ce) {
+            assertTrue(ce.getCause() instanceof IllegalStateException);
+        }
+        byte[] reply = {1};
+        assertSame(reply, actor.submit(() -> reply).join());
+    }
+
+    @Test(timeout = 10000)
+    // An operation throwing an Error fails its own future only, later operations still get their replies
+    public void testOperationThrowsError() {
+        Board board = new Board(5, 5);
+        ServerMetrics metrics = new ServerMetrics();
+        BoardActor actor = new BoardActor(board, new FrameCache(board, metrics), metrics);
+        CompletableFuture<byte[]> failed = actor.submit(() -> {
+            throw new AssertionError("broken rep");
+        });
+        try {
+            failed.join();
+            fail("expected the operation to fail");
+        } catch (CompletionException ce) {
+            assertTrue(ce.getCause() instanceof AssertionError);
+        }
+        assertArrayEquals(board.toBytes(), actor.submit(() -> BoardActor.FRAME).join());
+    }
+
+    @Test(timeout = 10000)
+    // A frame failing to render fails the futures waiting for it, later operations still get their replies
+    public void testFrameThrows() {
+        Board board = new Board(5, 5);
+        ServerMetrics metrics = new ServerMetrics();
+        FrameCache frames = new FrameCache(board, metrics) {
+            private boolean failed = false;
+
+            @Override
+            byte[] frame() {
+                if (!this.failed){
+                    this.failed = true;
+                    throw new OutOfMemoryError("frame");
+                }
+                return super.frame();
+            }
+        };
+        BoardActor actor = new BoardActor(board, frames, metrics);
+        CompletableFuture<byte[]> failed;
+        CompletableFuture<byte[]> other;
+        byte[] reply = {1};
+        // Holding the lock of the board puts both operations in the same batch
+        synchronized (board) {
+            failed = actor.submit(() -> BoardActor.FRAME);
+            other = actor.submit(() -> reply);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ie) {
+                fail();
+            }
+        }
+        try {
+            failed.join();
+            fail("expected the frame to fail");
+        } catch (CompletionException ce) {
+            assertTrue(ce.getCause() instanceof OutOfMemoryError);
+        }
+        assertSame(reply, other.join());
+        assertArrayEquals(board.toBytes(), actor.submit(() -> BoardActor.FRAME).join());
+    }
+}
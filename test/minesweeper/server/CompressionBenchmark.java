@@ -0,0 +1,154 @@
+package minesweeper.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import minesweeper.Board;
+
+/**
+ * This Class measures what compression of board replies costs and saves: bytes on the wire and CPU time per
+ *  reply, to deflate on the server and to inflate on the client, at several board sizes and deflate levels
+ * Boards are partly revealed, as in a game, and each reply is the whole board after one more command
+ *  (a flag or deflag), written through DeflateWriter to one stream: consecutive frames, as a player gets them
+ * Each level is run with the session keeping its Deflater, each frame compressed against the previous ones,
+ *  and with the Deflater released after each frame, each frame compressed on its own
+ * Run it as a plain Java program (it is not a test): java minesweeper.server.CompressionBenchmark
+ */
+public class CompressionBenchmark {
+
+    //Constants:
+    private static final int[] SIZES = {100, 500, 2000}; // Sides of the square boards
+    private static final int[] LEVELS = {Deflater.BEST_SPEED, 6, Deflater.BEST_COMPRESSION}; // 6 is zlib's default
+    private static final int DIGS = 200; // Random digs before measuring, revealing part of the board
+    private static final long MIN_MEASURED_NANOS = 1_000_000_000L;
+
+    /**
+     * Prints, for each size, the bytes and CPU time of a reply uncompressed and at each level,
+     *  with and without the history of the stream
+     *
+     * @param args Unused
+     * @throws IOException never, the replies are written to memory
+     * @throws DataFormatException never, the replies are inflated as deflated
+     */
+    public static void main(String[] args) throws IOException, DataFormatException {
+        for (int size : SIZES){
+            Board board = new Board(size, size, 1L, Board.CheckLevel.OFF);
+            Random random = new Random(2);
+            int dig = 0;
+            while (dig < DIGS){
+                board.dig(random.nextInt(size), random.nextInt(size));
+                dig += 1;
+            }
+            System.out.println(String.format("%dx%d, reply of %d bytes:", size, size, board.toBytes().length));
+            for (int level : LEVELS){
+                for (boolean kept : new boolean[] {true, false}){
+                    measure(board, level, kept);
+                }
+            }
+            board.close();
+        }
+    }
+
+    /**
+     * Prints the bytes and CPU time per reply of consecutive frames of a board
+     *
+     * @param board The board, changed by one flag or deflag before each frame
+     * @param level The deflate level
+     * @param kept True to keep the Deflater between frames, false to release it after each frame
+     * @throws IOException never, the replies are written to memory
+     * @throws DataFormatException never, the replies are inflated as deflated
+     */
+    private static void measure(Board board, int level, boolean kept) throws IOException, DataFormatException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int size = board.sizeList().get(0);
+        Random random = new Random(3);
+        DeflaterPool deflaters = new DeflaterPool(level, 1);
+        Counting wire = new Counting();
+        ResponseWriter out = new ResponseWriter(wire);
+        DeflateWriter writer = new DeflateWriter(out, deflaters, 256);
+        Inflater inflater = new Inflater(true);
+        byte[] inflated = new byte[board.toBytes().length];
+        long replies = 0;
+        long deflateNanos = 0;
+        long inflateNanos = 0;
+        long wireBytes = 0;
+        // Warmed up by the first round
+        int round = 0;
+        while (round < 2){
+            replies = 0;
+            deflateNanos = 0;
+            inflateNanos = 0;
+            wireBytes = 0;
+            while (deflateNanos < MIN_MEASURED_NANOS){
+                int x = random.nextInt(size);
+                int y = random.nextInt(size);
+                if (!board.flag(x, y)){
+                    board.deflag(x, y);
+                }
+                byte[] reply = board.toBytes();
+                wire.reset();
+                long start = threads.getCurrentThreadCpuTime();
+                writer.write(List.of(reply), 0);
+                if (!kept){
+                    writer.release();
+                }
+                out.flush();
+                long deflated = threads.getCurrentThreadCpuTime();
+                inflater.setInput(wire.bytes, 0, wire.count);
+                int length = 0;
+                while (length < reply.length){
+                    length += inflater.inflate(inflated, length, reply.length - length);
+                }
+                inflateNanos += threads.getCurrentThreadCpuTime() - deflated;
+                deflateNanos += deflated - start;
+                wireBytes += wire.count;
+                replies += 1;
+            }
+            round += 1;
+        }
+        writer.release();
+        inflater.end();
+        deflaters.close();
+        System.out.println(String.format("  level %d, %s: %d bytes on the wire (%.2f%%), deflate %.0f us,"
+                + " inflate %.0f us of CPU per reply", level, kept ? "Deflater kept    " : "Deflater per frame",
+                wireBytes / replies, 100.0 * wireBytes / replies / inflated.length, deflateNanos / 1e3 / replies,
+                inflateNanos / 1e3 / replies));
+    }
+
+    /**
+     * Keeps the bytes of the last reply written, counting them
+     */
+    private static class Counting extends OutputStream {
+        private byte[] bytes = new byte[1 << 16];
+        private int count = 0;
+
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (this.count + len > this.bytes.length){
+                this.bytes = Arrays.copyOf(this.bytes, Math.max(2 * this.bytes.length, this.count + len));
+            }
+            System.arraycopy(b, off, this.bytes, this.count, len);
+            this.count += len;
+        }
+
+        /**
+         * Forgets the bytes written
+         */
+        private void reset() {
+            this.count = 0;
+        }
+    }
+}
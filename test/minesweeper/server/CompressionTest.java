@@ -0,0 +1,104 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.Test;
+
+/**
+ * This Class tests the 'compress' command of MinesweeperServer
+ */
+public class CompressionTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Before 'compress' replies are plain; its reply is plain and everything after inflates:
+     *    boards, short replies (stored), pushes; 'compress' again is only replied
+     *  - Another client stays uncompressed
+     *  - 'stats' reports the bytes compressed
+     */
+
+    private static final int PORT = TestServer.randomPort();
+    private static final int BOARD_SIZE = 40;
+
+    @Test(timeout = 10000)
+    public void testCompress() throws IOException {
+        Thread server = TestServer.start(
+                "--debug", "--port", Integer.toString(PORT), "--size", BOARD_SIZE + "," + BOARD_SIZE,
+                "--compress-min", "64");
+
+        Socket socket = TestServer.connect(server, PORT);
+        InputStream raw = socket.getInputStream();
+        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+        assertTrue(readRawLine(raw).startsWith("Welcome to Minesweeper."));
+        out.println("compress");
+        assertEquals("Compressing: deflate", readRawLine(raw));
+        // Not through an InputStreamReader: it reads ahead for as long as available() > 0, which an
+        //  InflaterInputStream says until the end of the stream
+        InputStream in = new InflaterInputStream(raw, new Inflater(true));
+
+        // A board, compressed
+        out.println("look");
+        String untouched = "- ".repeat(BOARD_SIZE - 1) + "-";
+        int row = 0;
+        while (row < BOARD_SIZE){
+            assertEquals(untouched, readRawLine(in));
+            row += 1;
+        }
+        // A short reply, stored, then 'compress' again: only replied
+        out.println("bogus");
+        assertTrue(readRawLine(in).startsWith("Available Actions:"));
+        assertTrue(readRawLine(in).startsWith("Other Commands:"));
+        out.println("compress");
+        assertEquals("Compressing: deflate", readRawLine(in));
+
+        // Another client, uncompressed, and its changes pushed to the first
+        Socket other = TestServer.connect(server, PORT);
+        BufferedReader otherIn = new BufferedReader(new InputStreamReader(other.getInputStream()));
+        PrintWriter otherOut = new PrintWriter(other.getOutputStream(), true);
+        assertTrue(otherIn.readLine().startsWith("Welcome to Minesweeper."));
+        out.println("subscribe 0 0 2 1");
+        assertEquals("Subscribed: 0 0 2 1", readRawLine(in));
+        assertEquals("- -", readRawLine(in));
+        otherOut.println("flag 1 0");
+        assertEquals("- F " + "- ".repeat(BOARD_SIZE - 3) + "-", otherIn.readLine());
+        assertEquals("Changed: 1,0=F", readRawLine(in));
+
+        out.println("stats");
+        String stats = readRawLine(in);
+        while (!stats.startsWith("Compression: ")){
+            stats = readRawLine(in);
+        }
+        assertTrue(stats, stats.matches("Compression: bytes \\d+, on the wire \\d+"));
+        socket.close();
+        other.close();
+    }
+
+    /**
+     * Reads a line byte by byte, so that nothing after it is read (nor waited for)
+     * @param in where to read
+     * @return the line, without its "\r\n"
+     * @throws IOException if the connection fails or ends before
+     */
+    private static String readRawLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b = in.read();
+        while (b != '\n'){
+            assertTrue(b >= 0);
+            line.write(b);
+            b = in.read();
+        }
+        String text = line.toString(StandardCharsets.US_ASCII);
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+}
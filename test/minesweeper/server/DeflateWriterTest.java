@@ -0,0 +1,150 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.junit.Test;
+
+import minesweeper.Board;
+
+/**
+ * This Class provides a test suite for DeflateWriter.java
+ */
+public class DeflateWriterTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Batches of one or several replies, from the first reply or not, under and over minBytes, empty
+     *  - What is written after each batch inflates to every reply so far: the stream is flushed
+     *  - Batches under minBytes are stored while no Deflater is held; the first other batch borrows one,
+     *    kept for every later batch (compressed against the earlier ones) until released
+     *  - A board compresses to a fraction of its size
+     */
+
+    @Test
+    // Every batch inflates as soon as it is written, whatever its size
+    public void testStream() throws IOException, DataFormatException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ResponseWriter out = new ResponseWriter(stream);
+        DeflaterPool deflaters = new DeflaterPool(1, 1);
+        DeflateWriter writer = new DeflateWriter(out, deflaters, 16);
+        Inflater inflater = new Inflater(true);
+        Board played = new Board(50, 40, 1L);
+        byte[] board = played.toBytes();
+
+        // A short reply, stored, no Deflater held yet
+        byte[] boom = ResponseWriter.encode("BOOM!\r\n");
+        assertEquals(boom.length, writer.write(List.of(board, boom), 1));
+        out.flush();
+        assertEquals(5 + boom.length, stream.size());
+        assertEquals("BOOM!\r\n", inflate(inflater, stream));
+        assertFalse(writer.holdsDeflater());
+
+        stream.reset();
+        assertEquals(board.length, writer.write(List.of(board), 0));
+        out.flush();
+        assertEquals(new String(board, StandardCharsets.US_ASCII), inflate(inflater, stream));
+        assertTrue(stream.size() < board.length / 10);
+        assertTrue(writer.holdsDeflater());
+
+        // The next frame differs by one cell: compressed against the previous one, it takes a few matches
+        stream.reset();
+        played.flag(10, 10);
+        byte[] next = played.toBytes();
+        assertEquals(next.length, writer.write(List.of(next), 0));
+        out.flush();
+        assertEquals(new String(next, StandardCharsets.US_ASCII), inflate(inflater, stream));
+        assertTrue(stream.size() + " bytes", stream.size() < board.length / 40);
+
+        // A short reply, through the Deflater held
+        stream.reset();
+        assertEquals(boom.length, writer.write(List.of(boom), 0));
+        out.flush();
+        assertEquals("BOOM!\r\n", inflate(inflater, stream));
+
+        // Several replies in one batch
+        stream.reset();
+        assertEquals(2 * board.length + boom.length, writer.write(List.of(boom, board, board), 0));
+        out.flush();
+        String inflated = inflate(inflater, stream);
+        assertEquals("BOOM!\r\n" + new String(board, StandardCharsets.US_ASCII)
+                + new String(board, StandardCharsets.US_ASCII), inflated);
+
+        // Nothing to write
+        stream.reset();
+        assertEquals(0, writer.write(List.of(board), 1));
+        out.flush();
+        assertEquals(0, stream.size());
+
+        // Released, then stored again: the stream goes on
+        writer.release();
+        assertFalse(writer.holdsDeflater());
+        stream.reset();
+        assertEquals(boom.length, writer.write(List.of(boom), 0));
+        out.flush();
+        assertEquals(5 + boom.length, stream.size());
+        assertEquals("BOOM!\r\n", inflate(inflater, stream));
+
+        // A fresh Deflater from the pool: the one given back
+        stream.reset();
+        assertEquals(board.length, writer.write(List.of(board), 0));
+        out.flush();
+        assertEquals(new String(board, StandardCharsets.US_ASCII), inflate(inflater, stream));
+        writer.release();
+        assertEquals(1, deflaters.created());
+        assertFalse(inflater.finished());
+        inflater.end();
+    }
+
+    @Test
+    // A batch larger than the buffers of the writer
+    public void testLargeBatch() throws IOException, DataFormatException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ResponseWriter out = new ResponseWriter(stream);
+        DeflateWriter writer = new DeflateWriter(out, new DeflaterPool(9, 1), 0);
+        byte[] noise = new byte[100_000];
+        new Random(7).nextBytes(noise);
+        writer.write(List.of(noise), 0);
+        out.flush();
+        Inflater inflater = new Inflater(true);
+        byte[] inflated = new byte[noise.length];
+        inflater.setInput(stream.toByteArray());
+        assertEquals(noise.length, inflater.inflate(inflated));
+        assertTrue(Arrays.equals(noise, inflated));
+        inflater.end();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMinBytesOutOfRange() {
+        new DeflateWriter(new ResponseWriter(new ByteArrayOutputStream()), new DeflaterPool(1, 1), 65536);
+    }
+
+    /**
+     * Inflates bytes written, the stream going on
+     *
+     * @param inflater The inflater of the stream so far
+     * @param stream What was written since the last call
+     * @return String What they inflate to
+     * @throws DataFormatException if they are not deflate data
+     */
+    private static String inflate(Inflater inflater, ByteArrayOutputStream stream) throws DataFormatException {
+        inflater.setInput(stream.toByteArray());
+        StringBuilder inflated = new StringBuilder();
+        byte[] buffer = new byte[4096];
+        int read = inflater.inflate(buffer);
+        while (read > 0){
+            inflated.append(new String(buffer, 0, read, StandardCharsets.US_ASCII));
+            read = inflater.inflate(buffer);
+        }
+        assertTrue(inflater.needsInput());
+        return inflated.toString();
+    }
+}
@@ -0,0 +1,57 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.util.zip.Deflater;
+
+import org.junit.Test;
+
+/**
+ * This Class provides a test suite for DeflaterPool.java
+ */
+public class DeflaterPoolTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Borrowing after a release reuses the Deflater, reset; borrowing more than kept creates more
+     *  - Releasing beyond maxIdle ends the Deflaters in excess
+     *  - Level and maxIdle out of range
+     */
+
+    @Test
+    public void testReuse() {
+        DeflaterPool pool = new DeflaterPool(Deflater.BEST_SPEED, 1);
+        Deflater first = pool.borrow();
+        first.setInput(new byte[100]);
+        first.deflate(new byte[100], 0, 100, Deflater.SYNC_FLUSH);
+        pool.release(first);
+        Deflater again = pool.borrow();
+        assertSame(first, again);
+        assertEquals(0, again.getBytesRead());
+        Deflater second = pool.borrow();
+        assertNotSame(first, second);
+        assertEquals(2, pool.created());
+
+        // One kept, the other ended
+        pool.release(first);
+        pool.release(second);
+        assertSame(first, pool.borrow());
+        try {
+            second.deflate(new byte[10]);
+            fail("expected the Deflater in excess to be ended");
+        } catch (RuntimeException re) {
+            // Ended
+        }
+        pool.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLevelOutOfRange() {
+        new DeflaterPool(0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxIdleOutOfRange() {
+        new DeflaterPool(Deflater.BEST_SPEED, 0);
+    }
+}
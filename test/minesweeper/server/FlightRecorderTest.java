@@ -0,0 +1,154 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Test;
+
+/**
+ * This Class tests the Flight Recorder events of MinesweeperServer and its Board, and the bundled settings
+ */
+public class FlightRecorderTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - The bundled minesweeper.jfc parses and enables every Minesweeper event
+     *  - A recording with it, thresholds lowered to 0, of a client connecting, looking, digging and leaving:
+     *    the recording file has a Connect, Command, Dig, FloodFill, Render and Disconnect event, with the
+     *    fields of what happened
+     */
+
+    private static final int PORT = TestServer.randomPort();
+    private static final String[] EVENTS = {"minesweeper.Dig", "minesweeper.FloodFill", "minesweeper.Render",
+            "minesweeper.Command", "minesweeper.Connect", "minesweeper.Disconnect"};
+
+    // A 4 x 3 board with a single bomb, at 3,2: digging 0,0 reveals the 11 safe cells
+    private static final String BOARD = "4 3\n0 0 0 0\n0 0 0 0\n0 0 0 1\n";
+
+    @Test
+    public void testSettings() throws IOException, ParseException {
+        Map<String, String> settings = bundledSettings().getSettings();
+        for (String event : EVENTS){
+            assertEquals(event, "true", settings.get(event + "#enabled"));
+        }
+        assertEquals("true", settings.get("jdk.JavaMonitorEnter#enabled"));
+    }
+
+    @Test(timeout = 20000)
+    public void testRecording() throws IOException, ParseException, InterruptedException {
+        File boardFile = File.createTempFile("jfr-test", ".txt");
+        boardFile.deleteOnExit();
+        Files.write(boardFile.toPath(), BOARD.getBytes(StandardCharsets.US_ASCII));
+        Path dump = Files.createTempFile("jfr-test", ".jfr");
+        dump.toFile().deleteOnExit();
+
+        try (Recording recording = new Recording(bundledSettings())) {
+            // Every command and render, not only the slow ones
+            recording.enable("minesweeper.Command").withThreshold(Duration.ZERO);
+            recording.enable("minesweeper.Render").withThreshold(Duration.ZERO);
+            recording.start();
+
+            Thread server = TestServer.start(
+                    "--debug", "--port", Integer.toString(PORT), "--file", boardFile.getPath());
+            try (Socket socket = TestServer.connect(server, PORT)) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+                assertTrue(in.readLine().startsWith("Welcome to Minesweeper."));
+                out.println("look");
+                TestServer.skipLines(in, 3);
+                out.println("dig 0 0");
+                TestServer.skipLines(in, 3);
+                out.println("bye");
+                // The cleared board is announced before the server closes the connection
+                while (in.readLine() != null){
+                }
+            }
+
+            // The server thread commits the disconnection after closing the socket
+            List<RecordedEvent> events = new ArrayList<>();
+            while (find(events, "minesweeper.Disconnect") == null){
+                Thread.sleep(10);
+                recording.dump(dump);
+                events = RecordingFile.readAllEvents(dump);
+            }
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        for (String event : EVENTS){
+            assertNotNull(event, find(events, event));
+        }
+
+        RecordedEvent dig = find(events, "minesweeper.Dig");
+        assertEquals(0, dig.getInt("x"));
+        assertEquals(0, dig.getInt("y"));
+        assertEquals(11, dig.getInt("revealed"));
+        assertTrue(dig.getBoolean("alive"));
+        RecordedEvent fill = find(events, "minesweeper.FloodFill");
+        assertEquals(11, fill.getInt("revealed"));
+        assertFalse(fill.getBoolean("sliced"));
+        RecordedEvent render = find(events, "minesweeper.Render");
+        assertEquals(3 * (2 * 4 + 1), render.getInt("bytes"));
+
+        List<String> commands = new ArrayList<>();
+        for (RecordedEvent event : events){
+            if (event.getEventType().getName().equals("minesweeper.Command")){
+                commands.add(event.getString("command"));
+            }
+        }
+        assertTrue(commands.toString(), commands.contains("look"));
+        assertTrue(commands.toString(), commands.contains("dig"));
+        assertTrue(commands.toString(), commands.contains("bye"));
+        RecordedEvent connected = find(events, "minesweeper.Connect");
+        assertEquals(1, connected.getInt("players"));
+        assertNotNull(connected.getString("remote"));
+        RecordedEvent disconnected = find(events, "minesweeper.Disconnect");
+        assertEquals(connected.getInt("session"), disconnected.getInt("session"));
+        assertTrue(disconnected.getLong("bytesWritten") > 0);
+        assertFalse(disconnected.getBoolean("slow"));
+    }
+
+    /**
+     * @return Configuration The settings bundled, minesweeper/minesweeper.jfc
+     * @throws IOException if they cannot be read
+     * @throws ParseException if they are not valid
+     */
+    private static Configuration bundledSettings() throws IOException, ParseException {
+        try (Reader settings = new InputStreamReader(
+                FlightRecorderTest.class.getResourceAsStream("/minesweeper/minesweeper.jfc"), StandardCharsets.UTF_8)) {
+            return Configuration.create(settings);
+        }
+    }
+
+    /**
+     * @param events Events recorded
+     * @param name The name of an event type
+     * @return RecordedEvent The first event of the type, null if none
+     */
+    private static RecordedEvent find(List<RecordedEvent> events, String name) {
+        for (RecordedEvent event : events){
+            if (event.getEventType().getName().equals(name)){
+                return event;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,45 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import minesweeper.Board;
+
+/**
+ * This Class provides a test suite for FrameCache.java
+ */
+public class FrameCacheTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Same version: the same bytes are returned, rendered once
+     *  - New version: rendered again, equal to the board
+     */
+
+    @Test
+    // Same version: the same bytes are returned, rendered once
+    public void testRenderedOncePerVersion() {
+        ServerMetrics metrics = new ServerMetrics();
+        Board board = new Board(3, 3);
+        FrameCache frames = new FrameCache(board, metrics);
+        byte[] first = frames.frame();
+        assertSame(first, frames.frame());
+        assertEquals(1, metrics.getFramesRendered());
+        assertEquals(board.version(), frames.version());
+    }
+
+    @Test
+    // New version: rendered again, equal to the board
+    public void testRenderedAfterChange() {
+        ServerMetrics metrics = new ServerMetrics();
+        Board board = new Board(3, 3);
+        FrameCache frames = new FrameCache(board, metrics);
+        byte[] first = frames.frame();
+        board.flag(1, 1);
+        byte[] second = frames.frame();
+        assertNotSame(first, second);
+        assertArrayEquals(board.toBytes(), second);
+        assertEquals(2, metrics.getFramesRendered());
+    }
+}
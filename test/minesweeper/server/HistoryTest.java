@@ -0,0 +1,90 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * This Class tests the 'look at VERSION' command of MinesweeperServer
+ */
+public class HistoryTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - History kept: 'status' gives the version, 'look at' gives the board as it was at that version or
+     *    the last one kept before, versions dropped are refused
+     *  - History not kept (the default): refused
+     */
+
+    private static final int BOARD_SIZE = 5;
+
+    @Test(timeout = 10000)
+    // History kept: the board as it was
+    public void testLookAt() throws IOException {
+        int port = TestServer.randomPort();
+        Thread server = startServer(port, "--history", "2");
+
+        Socket player = TestServer.connect(server, port);
+        BufferedReader playerIn = new BufferedReader(new InputStreamReader(player.getInputStream()));
+        PrintWriter playerOut = new PrintWriter(player.getOutputStream(), true);
+        assertTrue(playerIn.readLine().startsWith("Welcome to Minesweeper."));
+
+        playerOut.println("flag 1 0");
+        TestServer.skipLines(playerIn, BOARD_SIZE);
+        playerOut.println("flag 2 0");
+        TestServer.skipLines(playerIn, BOARD_SIZE);
+        playerOut.println("status");
+        assertTrue(playerIn.readLine().endsWith(", Version: 2"));
+
+        playerOut.println("look at 1");
+        assertEquals("Version 1:", playerIn.readLine());
+        assertEquals("- F - - -", playerIn.readLine());
+        TestServer.skipLines(playerIn, BOARD_SIZE - 1);
+        playerOut.println("look at 99");
+        assertEquals("Version 2:", playerIn.readLine());
+        assertEquals("- F F - -", playerIn.readLine());
+        TestServer.skipLines(playerIn, BOARD_SIZE - 1);
+        // Two versions kept: the untouched board was dropped
+        playerOut.println("look at 0");
+        assertEquals("Version 0 is not kept, the oldest kept is 1", playerIn.readLine());
+
+        player.close();
+    }
+
+    @Test(timeout = 10000)
+    // History not kept (the default): refused
+    public void testNoHistory() throws IOException {
+        int port = TestServer.randomPort();
+        Thread server = startServer(port);
+
+        Socket player = TestServer.connect(server, port);
+        BufferedReader playerIn = new BufferedReader(new InputStreamReader(player.getInputStream()));
+        PrintWriter playerOut = new PrintWriter(player.getOutputStream(), true);
+        assertTrue(playerIn.readLine().startsWith("Welcome to Minesweeper."));
+        playerOut.println("look at 0");
+        assertEquals("History is not kept on this server", playerIn.readLine());
+
+        player.close();
+    }
+
+    /**
+     * Starts a server in a daemon thread
+     * @param port the port it listens on
+     * @param options more command-line options
+     * @return Thread the thread of the server
+     */
+    private static Thread startServer(int port, String... options) {
+        List<String> args = new ArrayList<>(List.of(
+                "--debug", "--port", Integer.toString(port), "--size", BOARD_SIZE + "," + BOARD_SIZE));
+        args.addAll(List.of(options));
+        return TestServer.start(args.toArray(new String[0]));
+    }
+}
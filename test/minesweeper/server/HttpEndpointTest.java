@@ -0,0 +1,308 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import minesweeper.Board;
+
+/**
+ * This Class provides a test suite for HttpEndpoint.java, alone and as part of MinesweeperServer
+ */
+public class HttpEndpointTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - GET /board: whole board, viewport, viewport outside the board
+     *  - GET /status
+     *  - ETag: 304 while the version is the same (tag alone, in a list, weak, *), 200 with a new tag after a change
+     *  - POST /dig, /flag, /deflag: applied through the commands, boom or not
+     *  - Errors: missing or bad parameter, cell outside the board, wrong method, unknown path
+     *  - Loopback load: many pollers sending their last ETag while the board changes, every reply is 200 with
+     *    the current board or 304, and most are 304
+     *  - In MinesweeperServer: a change made over HTTP is seen by telnet clients, and the other way around
+     *  - In MinesweeperServer: POST replies with the version its change made and renders no board,
+     *    sliced digs or not
+     */
+
+    private static final String LOCALHOST = "127.0.0.1";
+    private static final int POLLERS = 16;
+    private static final int POLLS = 200; // Per poller
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test(timeout = 10000)
+    // GET /board and /status, ETags and 304 replies
+    public void testGet() throws IOException, InterruptedException {
+        Board board = new Board(3, 2, 1L);
+        HttpEndpoint endpoint = start(board);
+        try {
+            HttpResponse<String> whole = get(endpoint, "/board", null);
+            assertEquals(200, whole.statusCode());
+            assertEquals("application/json", whole.headers().firstValue("Content-Type").get());
+            assertEquals("{\"version\":0,\"x\":0,\"y\":0,\"length\":3,\"width\":2,\"rows\":[\"- - -\",\"- - -\"]}",
+                    whole.body());
+            String etag = whole.headers().firstValue("ETag").get();
+
+            HttpResponse<String> viewport = get(endpoint, "/board?x=1&y=1&length=2&width=1", null);
+            assertEquals("{\"version\":0,\"x\":1,\"y\":1,\"length\":2,\"width\":1,\"rows\":[\"- -\"]}",
+                    viewport.body());
+            assertEquals(etag, viewport.headers().firstValue("ETag").get());
+            assertEquals(400, get(endpoint, "/board?x=2&y=1&length=2&width=1", null).statusCode());
+
+            HttpResponse<String> status = get(endpoint, "/status", null);
+            assertEquals("{\"version\":0,\"untouched\":6,\"flagged\":0,\"revealed\":0,\"safeLeft\":"
+                    + board.numSafeLeft() + "}", status.body());
+
+            // Same version: not modified, whatever the form of If-None-Match
+            assertEquals(304, get(endpoint, "/board", etag).statusCode());
+            assertEquals(304, get(endpoint, "/status", "\"other\", " + etag).statusCode());
+            assertEquals(304, get(endpoint, "/board", "W/" + etag).statusCode());
+            assertEquals(304, get(endpoint, "/board", "*").statusCode());
+            assertEquals(200, get(endpoint, "/board", "\"other\"").statusCode());
+
+            // A change: the old tag no longer matches
+            board.flag(0, 0);
+            HttpResponse<String> changed = get(endpoint, "/board", etag);
+            assertEquals(200, changed.statusCode());
+            assertTrue(changed.body(), changed.body().contains("\"rows\":[\"F - -\""));
+            assertFalse(etag.equals(changed.headers().firstValue("ETag").get()));
+            assertEquals(304, get(endpoint, "/board", changed.headers().firstValue("ETag").get()).statusCode());
+        } finally {
+            endpoint.stop();
+        }
+    }
+
+    @Test(timeout = 10000)
+    // POST /dig, /flag, /deflag and the errors
+    public void testPostAndErrors() throws IOException, InterruptedException {
+        Board board = new Board(3, 1, 1L);
+        board.bombIt(2, 0);
+        HttpEndpoint endpoint = start(board);
+        try {
+            assertEquals("{\"version\":1,\"boom\":false}", post(endpoint, "/flag?x=1&y=0").body());
+            assertEquals("F", board.state(1, 0));
+            assertEquals("{\"version\":2,\"boom\":false}", post(endpoint, "/deflag?x=1&y=0").body());
+            assertEquals("{\"version\":5,\"boom\":true}", post(endpoint, "/dig?x=2&y=0").body());
+
+            assertEquals(400, post(endpoint, "/dig?x=3&y=0").statusCode());
+            assertEquals(400, post(endpoint, "/dig?x=1").statusCode());
+            assertEquals(400, post(endpoint, "/dig?x=a&y=0").statusCode());
+            assertEquals(400, post(endpoint, "/dig?x=-1&y=0").statusCode());
+            assertEquals(400, get(endpoint, "/board?x", null).statusCode());
+            HttpResponse<String> wrongMethod = get(endpoint, "/dig?x=0&y=0", null);
+            assertEquals(405, wrongMethod.statusCode());
+            assertEquals("POST", wrongMethod.headers().firstValue("Allow").get());
+            assertEquals(405, post(endpoint, "/board").statusCode());
+            assertEquals(404, get(endpoint, "/board/1", null).statusCode());
+            assertEquals(404, get(endpoint, "/", null).statusCode());
+        } finally {
+            endpoint.stop();
+        }
+    }
+
+    @Test(timeout = 60000)
+    // Loopback load: pollers sending their last ETag while the board changes
+    public void testPollersUnderLoad() throws InterruptedException {
+        Board board = new Board(40, 40, 1L);
+        HttpEndpoint endpoint;
+        try {
+            endpoint = start(board);
+        } catch (IOException ioe) {
+            throw new AssertionError(ioe);
+        }
+        AtomicInteger notModified = new AtomicInteger();
+        AtomicInteger full = new AtomicInteger();
+        List<Throwable> failures = new ArrayList<>();
+        List<Thread> pollers = new ArrayList<>();
+        int p = 0;
+        while (p < POLLERS){
+            Thread poller = new Thread(() -> {
+                try {
+                    String etag = null;
+                    int i = 0;
+                    while (i < POLLS){
+                        HttpResponse<String> response = get(endpoint, "/board", etag);
+                        if (response.statusCode() == 304){
+                            notModified.incrementAndGet();
+                        }
+                        else{
+                            assertEquals(200, response.statusCode());
+                            assertTrue(response.body().startsWith("{\"version\":"));
+                            etag = response.headers().firstValue("ETag").get();
+                            full.incrementAndGet();
+                        }
+                        i += 1;
+                    }
+                } catch (Throwable t) {
+                    synchronized (failures) {
+                        failures.add(t);
+                    }
+                }
+            });
+            poller.start();
+            pollers.add(poller);
+            p += 1;
+        }
+        // A few changes while they poll
+        int change = 0;
+        while (change < 20){
+            board.flag(change, 0);
+            Thread.sleep(5);
+            change += 1;
+        }
+        for (Thread poller : pollers){
+            poller.join();
+        }
+        endpoint.stop();
+        assertTrue(failures.toString(), failures.isEmpty());
+        assertEquals(POLLERS * POLLS, notModified.get() + full.get());
+        // At most one full reply per poller and version
+        assertTrue(full.get() + " full replies", full.get() <= POLLERS * 21);
+        assertTrue(notModified.get() + " not modified", notModified.get() > full.get());
+    }
+
+    @Test(timeout = 10000)
+    // In MinesweeperServer: changes over HTTP and over telnet seen by both
+    public void testWithServer() throws IOException, InterruptedException {
+        int port = TestServer.randomPort();
+        int httpPort = port + 1;
+        Thread server = TestServer.start("--debug", "--port",
+                Integer.toString(port), "--size", "4,4", "--http-port", Integer.toString(httpPort));
+
+        Socket player = TestServer.connect(server, port);
+        BufferedReader playerIn = new BufferedReader(new InputStreamReader(player.getInputStream()));
+        PrintWriter playerOut = new PrintWriter(player.getOutputStream(), true);
+        assertTrue(playerIn.readLine().startsWith("Welcome to Minesweeper."));
+        playerOut.println("watch");
+        assertTrue(playerIn.readLine().startsWith("Watching"));
+        assertEquals("- - - -", playerIn.readLine());
+        TestServer.skipLines(playerIn, 3);
+
+        // Over HTTP, pushed to the spectator
+        HttpResponse<String> flagged = client.send(HttpRequest.newBuilder(
+                URI.create("http://" + LOCALHOST + ":" + httpPort + "/flag?x=3&y=0"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals("{\"version\":1,\"boom\":false}", flagged.body());
+        assertEquals("- - - F", playerIn.readLine());
+        TestServer.skipLines(playerIn, 3);
+
+        HttpResponse<String> status = client.send(HttpRequest.newBuilder(
+                URI.create("http://" + LOCALHOST + ":" + httpPort + "/status")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertTrue(status.body(), status.body().contains("\"flagged\":1"));
+
+        player.close();
+    }
+
+    @Test(timeout = 10000)
+    // In MinesweeperServer: POST replies with the version its change made and renders no board
+    public void testPostWithServer() throws IOException, InterruptedException {
+        for (String slice : new String[] {"0", "2"}){
+            int port = TestServer.randomPort();
+            int httpPort = port + 1;
+            Thread server = TestServer.start("--debug", "--port", Integer.toString(port), "--size", "4,4",
+                    "--http-port", Integer.toString(httpPort), "--reveal-slice", slice);
+            Socket player = TestServer.connect(server, port);
+            BufferedReader playerIn = new BufferedReader(new InputStreamReader(player.getInputStream()));
+            PrintWriter playerOut = new PrintWriter(player.getOutputStream(), true);
+            assertTrue(playerIn.readLine().startsWith("Welcome to Minesweeper."));
+
+            assertEquals("{\"version\":1,\"boom\":false}", client.send(HttpRequest.newBuilder(
+                    URI.create("http://" + LOCALHOST + ":" + httpPort + "/flag?x=3&y=0"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString()).body());
+            String dug = client.send(HttpRequest.newBuilder(
+                    URI.create("http://" + LOCALHOST + ":" + httpPort + "/dig?x=0&y=0"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString()).body();
+            playerOut.println("status");
+            String status = playerIn.readLine();
+            // The dig may have cleared the board, announced before the reply
+            while (!status.startsWith("Untouched:")){
+                status = playerIn.readLine();
+            }
+            assertTrue(dug + " " + status, dug.startsWith("{\"version\":"
+                    + status.substring(status.indexOf("Version: ") + "Version: ".length()) + ","));
+            playerOut.println("stats");
+            String line = playerIn.readLine();
+            while (!line.startsWith("Frames:")){
+                line = playerIn.readLine();
+            }
+            assertTrue(line, line.startsWith("Frames: rendered 0,"));
+            player.close();
+        }
+    }
+
+    /**
+     * Starts an endpoint on any free port, applying commands to the board directly
+     *
+     * @param board The board served
+     * @return HttpEndpoint The endpoint, started
+     * @throws IOException if it cannot be bound
+     */
+    private static HttpEndpoint start(Board board) throws IOException {
+        HttpEndpoint endpoint = new HttpEndpoint(0, 4, board, command -> {
+            String[] tokens = command.split(" ");
+            int x = Integer.parseInt(tokens[1]);
+            int y = Integer.parseInt(tokens[2]);
+            synchronized (board) {
+                boolean alive = true;
+                if (tokens[0].equals("dig")){
+                    alive = board.dig(x, y);
+                }
+                else if (tokens[0].equals("flag")){
+                    board.flag(x, y);
+                }
+                else{
+                    board.deflag(x, y);
+                }
+                return new HttpEndpoint.Change(board.version(), alive);
+            }
+        }, new ServerMetrics());
+        endpoint.start();
+        return endpoint;
+    }
+
+    /**
+     * @param endpoint The endpoint
+     * @param path The path and query
+     * @param etag The If-None-Match header, null for none
+     * @return HttpResponse<String> The reply to GET path
+     * @throws IOException if the request fails
+     * @throws InterruptedException if interrupted
+     */
+    private HttpResponse<String> get(HttpEndpoint endpoint, String path, String etag)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                URI.create("http://" + LOCALHOST + ":" + endpoint.port() + path));
+        if (etag != null){
+            request.header("If-None-Match", etag);
+        }
+        return this.client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * @param endpoint The endpoint
+     * @param path The path and query
+     * @return HttpResponse<String> The reply to POST path, without body
+     * @throws IOException if the request fails
+     * @throws InterruptedException if interrupted
+     */
+    private HttpResponse<String> post(HttpEndpoint endpoint, String path) throws IOException, InterruptedException {
+        return this.client.send(HttpRequest.newBuilder(
+                URI.create("http://" + LOCALHOST + ":" + endpoint.port() + path))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
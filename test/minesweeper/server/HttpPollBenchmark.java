@@ -0,0 +1,110 @@
+package minesweeper.server;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import minesweeper.Board;
+
+/**
+ * This Class is a loopback load test of HttpEndpoint: pollers asking for the whole board over and over,
+ *  with and without sending back their last ETag, while the board changes now and then
+ * Run it as a plain Java program (it is not a test): java minesweeper.server.HttpPollBenchmark [SIZE]
+ */
+public class HttpPollBenchmark {
+
+    //Constants:
+    private static final int DEFAULT_SIZE = 300; // Side of the square board
+    private static final int POLLERS = 32;
+    private static final int THREADS = 4; // Of the endpoint
+    private static final long RUN_MILLIS = 3000;
+    private static final long CHANGE_PERIOD_MILLIS = 100;
+
+    /**
+     * Runs both kinds of polling twice (the first round warms up) and prints their throughput
+     *
+     * @param args Optional side of the square board
+     * @throws IOException if the endpoint cannot be bound
+     * @throws InterruptedException if interrupted while waiting for the pollers
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        int round = 0;
+        while (round < 2){
+            for (boolean conditional : new boolean[] {false, true}){
+                String result = run(size, conditional);
+                if (round == 1){
+                    System.out.println((conditional ? "If-None-Match" : "unconditional") + " " + size + "x" + size
+                            + ": " + result);
+                }
+            }
+            round += 1;
+        }
+    }
+
+    /**
+     * Polls a new endpoint for RUN_MILLIS, the board changing every CHANGE_PERIOD_MILLIS
+     *
+     * @param size The side of the square board
+     * @param conditional True if pollers send back their last ETag
+     * @return String The throughput, and the bytes read per request
+     * @throws IOException if the endpoint cannot be bound
+     * @throws InterruptedException if interrupted while waiting for the pollers
+     */
+    private static String run(int size, boolean conditional) throws IOException, InterruptedException {
+        Board board = new Board(size, size, 1L, Board.CheckLevel.OFF);
+        HttpEndpoint endpoint = new HttpEndpoint(0, THREADS, board, command -> new HttpEndpoint.Change(0, true), new ServerMetrics());
+        endpoint.start();
+        HttpClient client = HttpClient.newHttpClient();
+        URI uri = URI.create("http://127.0.0.1:" + endpoint.port() + "/board");
+        AtomicLong requests = new AtomicLong();
+        AtomicLong bytes = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        long end = System.currentTimeMillis() + RUN_MILLIS;
+        List<Thread> pollers = new ArrayList<>();
+        int p = 0;
+        while (p < POLLERS){
+            Thread poller = new Thread(() -> {
+                String etag = null;
+                while (System.currentTimeMillis() < end){
+                    try {
+                        HttpRequest.Builder request = HttpRequest.newBuilder(uri);
+                        if (etag != null){
+                            request.header("If-None-Match", etag);
+                        }
+                        HttpResponse<byte[]> response = client.send(request.build(),
+                                HttpResponse.BodyHandlers.ofByteArray());
+                        if (conditional && response.statusCode() == 200){
+                            etag = response.headers().firstValue("ETag").orElse(null);
+                        }
+                        bytes.addAndGet(response.body().length);
+                        requests.incrementAndGet();
+                    } catch (IOException | InterruptedException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            poller.start();
+            pollers.add(poller);
+            p += 1;
+        }
+        int x = 0;
+        while (System.currentTimeMillis() < end){
+            board.flag(x % size, x / size % size);
+            x += 1;
+            Thread.sleep(CHANGE_PERIOD_MILLIS);
+        }
+        for (Thread poller : pollers){
+            poller.join();
+        }
+        endpoint.stop();
+        return String.format("%.0f requests/s, %.0f bytes per request, %d failures",
+                requests.get() * 1000.0 / RUN_MILLIS, (double) bytes.get() / Math.max(1, requests.get()),
+                failures.get());
+    }
+}
@@ -0,0 +1,147 @@
+package minesweeper.server;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * This Class is a micro-benchmark comparing the input path of the server before (BufferedReader over an
+ *  InputStreamReader, a String per line, split into a String per word) and after (LineDecoder, the request
+ *  matched and its arguments parsed in the bytes read), on thousands of pipelined commands
+ * Run it as a plain Java program (it is not a test): java minesweeper.server.LineDecoderBenchmark
+ */
+public class LineDecoderBenchmark {
+
+    //Constants:
+    private static final int COMMANDS = 500_000;
+    private static final int MAX_LINE_BYTES = 1024;
+    // The commands of the server taking coordinates, as its request regex matches them
+    private static final Pattern REQUEST_REGEX = Pattern.compile(
+            "(look)|(dig -?\\d+ -?\\d+)|(flag -?\\d+ -?\\d+)|(deflag -?\\d+ -?\\d+)");
+    private static final String[] COMMAND_NAMES = {"look", "dig", "flag", "deflag"};
+
+    /**
+     * Runs both input paths eight times (the first runs warm up, the JIT takes a few) and prints what one command costs
+     *
+     * @param args Unused
+     * @throws IOException never, the streams are in memory
+     */
+    public static void main(String[] args) throws IOException {
+        byte[] input = commands();
+        int round = 0;
+        while (round < 8){
+            // Before: a String per line, then one per word
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(input)));
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            long checksum = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (REQUEST_REGEX.matcher(line).matches()){
+                    String[] tokens = line.split(" ");
+                    checksum += tokens[0].length();
+                    if (tokens.length > 1){
+                        checksum += Integer.parseInt(tokens[1]) + Integer.parseInt(tokens[2]);
+                    }
+                }
+            }
+            report("before", input.length, System.nanoTime() - start, allocatedBytes() - allocatedBefore, checksum);
+
+            // After: the line is read in place
+            LineDecoder decoder = new LineDecoder(new ByteArrayInputStream(input), MAX_LINE_BYTES);
+            allocatedBefore = allocatedBytes();
+            start = System.nanoTime();
+            checksum = 0;
+            while (decoder.readLine()) {
+                if (!decoder.tooLong() && REQUEST_REGEX.matcher(decoder).matches()){
+                    checksum += commandName(decoder).length();
+                    if (decoder.length() > 4){
+                        int x = wordEnd(decoder, 0) + 1;
+                        int y = wordEnd(decoder, x) + 1;
+                        checksum += Integer.parseInt(decoder, x, y - 1, 10)
+                                + Integer.parseInt(decoder, y, wordEnd(decoder, y), 10);
+                    }
+                }
+            }
+            report("after", input.length, System.nanoTime() - start, allocatedBytes() - allocatedBefore, checksum);
+            round += 1;
+        }
+    }
+
+    /**
+     * @return byte[] COMMANDS lines, as a client pipelining them would send them, some ending with "\n"
+     */
+    private static byte[] commands() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int i = 0;
+        while (i < COMMANDS){
+            String line = i % 8 == 0 ? "look" : COMMAND_NAMES[1 + i % 3] + " " + (i % 100) + " " + (i % 37);
+            out.writeBytes((line + (i % 2 == 0 ? "\r\n" : "\n")).getBytes(StandardCharsets.US_ASCII));
+            i += 1;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @param line A line matching REQUEST_REGEX
+     * @return String Its first word, one of COMMAND_NAMES
+     */
+    private static String commandName(CharSequence line) {
+        int end = wordEnd(line, 0);
+        for (String name : COMMAND_NAMES){
+            if (name.length() == end){
+                int i = 0;
+                while (i < end && name.charAt(i) == line.charAt(i)){
+                    i += 1;
+                }
+                if (i == end){
+                    return name;
+                }
+            }
+        }
+        throw new IllegalArgumentException("not a command");
+    }
+
+    /**
+     * @param line Words separated by single spaces
+     * @param start The index of the first char of a word
+     * @return int The index after its last char
+     */
+    private static int wordEnd(CharSequence line, int start) {
+        int end = start;
+        while (end < line.length() && line.charAt(end) != ' '){
+            end += 1;
+        }
+        return end;
+    }
+
+    /**
+     * Prints the cost of one command
+     *
+     * @param name The name of the input path
+     * @param bytes The bytes read
+     * @param nanos The time taken by all commands
+     * @param allocated The bytes allocated by all commands
+     * @param checksum Sum of what was parsed, the same for both paths
+     */
+    private static void report(String name, int bytes, long nanos, long allocated, long checksum) {
+        System.out.printf("%-6s commands/s %.0f, MB/s %.1f, bytes allocated/command %.1f, ns/command %.1f"
+                + " (checksum %d)%n", name, COMMANDS * 1e9 / nanos, bytes * 1e3 / nanos,
+                (double) allocated / COMMANDS, (double) nanos / COMMANDS, checksum);
+    }
+
+    /**
+     * @return long The bytes allocated by this thread so far, -1 if the JVM does not tell
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean){
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
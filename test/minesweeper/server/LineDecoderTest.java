@@ -0,0 +1,129 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * This Class provides a test suite for LineDecoder.java
+ */
+public class LineDecoderTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Line ends: "\n", "\r\n", none at the end of the stream; empty lines
+     *  - Reads of one byte at a time (lines split across reads) and of everything at once
+     *  - Line lengths: maxLineBytes exactly (with "\r\n" too), one more, far more than the buffer;
+     *    lines after a line too long are read whole
+     *  - The line as a CharSequence: matched by a regex, parsed, subSequence, toString
+     */
+
+    @Test
+    public void testLineEnds() throws IOException {
+        for (boolean trickle : new boolean[] {false, true}){
+            LineDecoder lines = new LineDecoder(stream("look\ndig 1 2\r\n\r\n\nbye", trickle), 64);
+            assertTrue(lines.readLine());
+            assertEquals("look", lines.toString());
+            assertTrue(lines.readLine());
+            assertEquals("dig 1 2", lines.toString());
+            assertTrue(lines.readLine());
+            assertEquals(0, lines.length());
+            assertTrue(lines.readLine());
+            assertEquals("", lines.toString());
+            assertTrue(lines.readLine());
+            assertEquals("bye", lines.toString());
+            assertFalse(lines.tooLong());
+            assertFalse(lines.readLine());
+            assertFalse(lines.readLine());
+        }
+    }
+
+    @Test
+    public void testMaxLength() throws IOException {
+        String longest = "x".repeat(16);
+        String tooLong = "y".repeat(17);
+        String huge = "z".repeat(100_000);
+        for (boolean trickle : new boolean[] {false, true}){
+            LineDecoder lines = new LineDecoder(stream(longest + "\r\n" + longest + "\n" + tooLong + "\r\n"
+                    + huge + "\nlook\n" + huge, trickle), 16);
+            assertTrue(lines.readLine());
+            assertEquals(longest, lines.toString());
+            assertTrue(lines.readLine());
+            assertEquals(longest, lines.toString());
+            assertTrue(lines.readLine());
+            assertTrue(lines.tooLong());
+            assertEquals(0, lines.length());
+            assertTrue(lines.readLine());
+            assertTrue(lines.tooLong());
+            assertTrue(lines.readLine());
+            assertFalse(lines.tooLong());
+            assertEquals("look", lines.toString());
+            // Without end
+            assertTrue(lines.readLine());
+            assertTrue(lines.tooLong());
+            assertFalse(lines.readLine());
+        }
+    }
+
+    @Test
+    // Lines longer than the initial buffer are read whole when allowed
+    public void testLargeLines() throws IOException {
+        String large = "w".repeat(20_000);
+        LineDecoder lines = new LineDecoder(stream(large + "\n" + large + "\r\n", true), 20_000);
+        assertTrue(lines.readLine());
+        assertEquals(large, lines.toString());
+        assertTrue(lines.readLine());
+        assertEquals(large, lines.toString());
+        assertFalse(lines.readLine());
+    }
+
+    @Test
+    public void testCharSequence() throws IOException {
+        LineDecoder lines = new LineDecoder(stream("flag -12 345\n", false), 64);
+        assertTrue(lines.readLine());
+        assertTrue(Pattern.compile("flag -?\\d+ -?\\d+").matcher(lines).matches());
+        assertEquals('f', lines.charAt(0));
+        assertEquals(-12, Integer.parseInt(lines, 5, 8, 10));
+        assertEquals("345", lines.subSequence(9, 12).toString());
+        try {
+            lines.charAt(12);
+            fail("expected the index to be out of the line");
+        } catch (IndexOutOfBoundsException ioobe) {
+            // Past the line, though in the buffer
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxLineOutOfRange() {
+        new LineDecoder(stream("", false), 0);
+    }
+
+    /**
+     * @param text ASCII text
+     * @param trickle True to give one byte per read
+     * @return InputStream The bytes of the text
+     */
+    private static InputStream stream(String text, boolean trickle) {
+        ByteArrayInputStream bytes = new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII));
+        if (!trickle){
+            return bytes;
+        }
+        return new InputStream() {
+            @Override
+            public int read() {
+                return bytes.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return len == 0 ? 0 : bytes.read(b, off, 1);
+            }
+        };
+    }
+}
@@ -31,6 +31,7 @@ public class MinesweeperServerTest {
      *  - Check welcome message
      *  - Use help
      *  - Use look
+     *  - Send a line longer than the maximum, then look again
      *  - Dig, flag and deflag cells not found in board
      *  - Dig flag and deflag untouched cells in board
      *  - Dig dug and flagged cells
@@ -71,6 +72,13 @@ public class MinesweeperServerTest {
         assertEquals("- -", in.readLine());
         assertEquals("- -", in.readLine());
 
+        // Send a line longer than the maximum, then look again
+        out.println("look " + "0".repeat(5000));
+        assertEquals("Line too long", in.readLine());
+        out.println("look");
+        assertEquals("- -", in.readLine());
+        assertEquals("- -", in.readLine());
+
         // Dig, flag and deflag cells not found in board
         out.println("dig 9 9");
         assertEquals("- -", in.readLine());
@@ -0,0 +1,125 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * This Class provides a test suite for OutboundQueue.java
+ */
+public class OutboundQueueTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Replies and pushes come out in order
+     *  - A replaceable frame replaces the queued one, other entries stay
+     *  - Over the limit: stalled only after the timeout, back under the limit once written
+     *  - A reply waiting for room returns false when the queue is closed
+     *  - Waiting for entries times out on an empty queue, returns at once otherwise or once closed
+     *  - Pushes nobody takes: replaceable frames never overflow, others overflow past the ceiling and close
+     *    the queue
+     */
+
+    @Test(timeout = 1000)
+    // Replies and pushes come out in order
+    public void testOrder() throws InterruptedException {
+        OutboundQueue queue = new OutboundQueue(100);
+        byte[] a = {1};
+        byte[] b = {2};
+        assertTrue(queue.offer(a));
+        assertTrue(queue.push(b, false));
+        assertEquals(Arrays.asList(a, b), queue.take());
+        assertEquals(2, queue.pendingBytes());
+        queue.written(2);
+        assertEquals(0, queue.pendingBytes());
+    }
+
+    @Test(timeout = 1000)
+    // A replaceable frame replaces the queued one, other entries stay
+    public void testStaleFrameReplaced() throws InterruptedException {
+        OutboundQueue queue = new OutboundQueue(100);
+        byte[] reply = {1};
+        byte[] oldFrame = {2, 2};
+        byte[] newFrame = {3, 3, 3};
+        queue.offer(reply);
+        queue.push(oldFrame, true);
+        queue.push(newFrame, true);
+        List<byte[]> batch = queue.take();
+        assertEquals(Arrays.asList(reply, newFrame), batch);
+        assertEquals(4, queue.pendingBytes());
+        assertEquals(1, queue.framesReplaced());
+    }
+
+    @Test(timeout = 1000)
+    // Over the limit: stalled only after the timeout, back under the limit once written
+    public void testStalled() throws InterruptedException {
+        OutboundQueue queue = new OutboundQueue(2);
+        queue.push(new byte[] {1, 2, 3}, false);
+        long now = System.nanoTime();
+        assertFalse(queue.stalled(now, 1_000_000_000L));
+        assertTrue(queue.stalled(now + 2_000_000_000L, 1_000_000_000L));
+        queue.take();
+        assertTrue(queue.stalled(now + 2_000_000_000L, 1_000_000_000L));
+        queue.written(3);
+        assertFalse(queue.stalled(now + 2_000_000_000L, 1_000_000_000L));
+    }
+
+    @Test(timeout = 1000)
+    // A reply waiting for room returns false when the queue is closed
+    public void testOfferWaitsThenClosed() throws InterruptedException {
+        OutboundQueue queue = new OutboundQueue(1);
+        queue.push(new byte[] {1, 2}, false);
+        Thread closer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ie) {
+                return;
+            }
+            queue.close();
+        });
+        closer.start();
+        assertFalse(queue.offer(new byte[] {3}));
+        closer.join();
+        assertEquals(1, queue.take().size());
+        assertTrue(queue.take().isEmpty());
+    }
+
+    @Test(timeout = 1000)
+    // Waiting for entries times out on an empty queue, returns at once otherwise or once closed
+    public void testAwait() throws InterruptedException {
+        OutboundQueue queue = new OutboundQueue(100);
+        long start = System.nanoTime();
+        assertFalse(queue.await(50));
+        assertTrue((System.nanoTime() - start) / 1_000_000 >= 50);
+        queue.push(new byte[] {1}, false);
+        assertTrue(queue.await(50));
+        assertEquals(1, queue.take().size());
+        queue.close();
+        assertTrue(queue.await(50));
+    }
+
+    @Test(timeout = 1000)
+    // Pushes nobody takes: replaceable frames never overflow, others overflow past the ceiling and close the queue
+    public void testPushesOverflow() throws InterruptedException {
+        OutboundQueue queue = new OutboundQueue(100);
+        byte[] frame = new byte[90];
+        byte[] change = new byte[10];
+        int pushed = 0;
+        while (pushed < 10 * OutboundQueue.CEILING_FACTOR){
+            assertTrue(queue.push(frame, true));
+            pushed += 1;
+        }
+        assertFalse(queue.overflowed());
+        pushed = 0;
+        while (queue.push(change, false)){
+            pushed += 1;
+        }
+        assertEquals((OutboundQueue.CEILING_FACTOR * 100 - 90) / 10, pushed);
+        assertTrue(queue.overflowed());
+        assertFalse(queue.push(change, false));
+        assertFalse(queue.offer(change));
+    }
+}
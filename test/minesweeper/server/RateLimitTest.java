@@ -0,0 +1,137 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * This Class tests the per-client rate limits of MinesweeperServer
+ */
+public class RateLimitTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Abusive clients flood 'look' on a big board, reading every reply: most of their commands are refused
+     *  - Meanwhile a fair client under the limit gets every board, quickly
+     *  - Reads and writes have separate budgets: a client out of writes may still look
+     */
+
+    private static final int PORT = TestServer.randomPort();
+    private static final int BOARD_SIZE = 150; // 45 KB per frame
+    private static final int RATE = 20; // Per second, reads and writes
+    private static final int ABUSIVE_CLIENTS = 3;
+    private static final int FAIR_LOOKS = 30;
+    private static final long FAIR_PAUSE_MILLIS = 80; // 12.5 looks per second, under RATE
+    private static final long MAX_FAIR_LATENCY_MILLIS = 1000;
+    private static final String LIMITED = "Too many commands, slow down";
+
+    @Test(timeout = 30000)
+    public void testAbusiveClientsLimited() throws IOException, InterruptedException {
+        Thread server = TestServer.start(
+                "--debug", "--port", Integer.toString(PORT), "--size", BOARD_SIZE + "," + BOARD_SIZE,
+                "--read-rate", Integer.toString(RATE), "--write-rate", Integer.toString(RATE));
+
+        // Abusive clients: flood 'look' as fast as possible, counting the refusals among the replies
+        AtomicInteger refused = new AtomicInteger();
+        List<Socket> abusive = new ArrayList<>();
+        int i = 0;
+        while (i < ABUSIVE_CLIENTS){
+            Socket socket = TestServer.connect(server, PORT);
+            abusive.add(socket);
+            Thread flooder = new Thread(() -> {
+                try (OutputStream out = socket.getOutputStream()) {
+                    byte[] look = "look\n".getBytes(StandardCharsets.US_ASCII);
+                    while (true) {
+                        out.write(look);
+                    }
+                } catch (IOException ioe) {
+                    // Closed by the test
+                }
+            });
+            Thread reader = new Thread(() -> {
+                try {
+                    BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                    for (String line = in.readLine(); line != null; line = in.readLine()) {
+                        if (line.equals(LIMITED)) {
+                            refused.incrementAndGet();
+                        }
+                    }
+                } catch (IOException ioe) {
+                    // Closed by the test
+                }
+            });
+            flooder.setDaemon(true);
+            reader.setDaemon(true);
+            flooder.start();
+            reader.start();
+            i += 1;
+        }
+
+        // Fair client, under the limit: every look gets the board, quickly
+        Socket socket = TestServer.connect(server, PORT);
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+        assertTrue(in.readLine().startsWith("Welcome to Minesweeper."));
+        long worst = 0;
+        i = 0;
+        while (i < FAIR_LOOKS){
+            long start = System.nanoTime();
+            out.println("look");
+            String first = in.readLine();
+            assertEquals(BOARD_SIZE * 2 - 1, first.length());
+            int line = 1;
+            while (line < BOARD_SIZE){
+                assertNotNull(in.readLine());
+                line += 1;
+            }
+            worst = Math.max(worst, (System.nanoTime() - start) / 1_000_000);
+            Thread.sleep(FAIR_PAUSE_MILLIS);
+            i += 1;
+        }
+        assertTrue("fair client waited " + worst + " ms", worst < MAX_FAIR_LATENCY_MILLIS);
+        assertTrue("only " + refused.get() + " looks refused", refused.get() > FAIR_LOOKS);
+
+        for (Socket flooding : abusive){
+            flooding.close();
+        }
+
+        // Separate budgets: out of writes, still able to look
+        i = 0;
+        while (i < RATE * 3){
+            out.println("flag 0 0");
+            i += 1;
+        }
+        int limited = 0;
+        i = 0;
+        while (i < RATE * 3){
+            String reply = in.readLine();
+            if (reply.equals(LIMITED)) {
+                limited += 1;
+            }
+            else {
+                TestServer.skipLines(in, BOARD_SIZE - 1);
+            }
+            i += 1;
+        }
+        assertTrue("only " + limited + " flags refused", limited >= RATE);
+        out.println("look");
+        assertEquals(BOARD_SIZE * 2 - 1, in.readLine().length());
+        TestServer.skipLines(in, BOARD_SIZE - 1);
+
+        out.println("stats");
+        String connections = in.readLine();
+        assertFalse(connections, connections.contains("commands rate limited 0,"));
+        socket.close();
+    }
+}
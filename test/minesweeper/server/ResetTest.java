@@ -0,0 +1,113 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import minesweeper.Board;
+
+/**
+ * This Class tests the 'reset' command of MinesweeperServer
+ */
+public class ResetTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Reset allowed: the board is the one of the seed given, every player is told of the new round
+     *    before anything of it; a seed out of the range of long is refused
+     *  - Reset not allowed (the default): refused, board not changed
+     */
+
+    private static final int BOARD_SIZE = 5;
+
+    @Test(timeout = 10000)
+    // Reset allowed: the board is the one of the seed given, every player is told of the new round
+    public void testResetAllowed() throws IOException {
+        int port = TestServer.randomPort();
+        Thread server = startServer(port, "--allow-reset");
+
+        Socket first = TestServer.connect(server, port);
+        BufferedReader firstIn = new BufferedReader(new InputStreamReader(first.getInputStream()));
+        PrintWriter firstOut = new PrintWriter(first.getOutputStream(), true);
+        assertTrue(firstIn.readLine().startsWith("Welcome to Minesweeper."));
+        Socket second = TestServer.connect(server, port);
+        BufferedReader secondIn = new BufferedReader(new InputStreamReader(second.getInputStream()));
+        PrintWriter secondOut = new PrintWriter(second.getOutputStream(), true);
+        assertTrue(secondIn.readLine().startsWith("Welcome to Minesweeper."));
+
+        secondOut.println("flag 0 0");
+        assertEquals("F - - - -", secondIn.readLine());
+        TestServer.skipLines(secondIn, BOARD_SIZE - 1);
+
+        // The news of the new round comes before anything of it, the reply included
+        firstOut.println("reset 5");
+        assertEquals("New round: the board was reset.", firstIn.readLine());
+        List<String> lines = new ArrayList<>();
+        int line = 0;
+        while (line < BOARD_SIZE){
+            lines.add(firstIn.readLine());
+            line += 1;
+        }
+        assertEquals(new Board(BOARD_SIZE, BOARD_SIZE, 5L).toString(), String.join("\r\n", lines) + "\r\n");
+        assertEquals("New round: the board was reset.", secondIn.readLine());
+
+        secondOut.println("look");
+        assertEquals("- - - - -", secondIn.readLine());
+        TestServer.skipLines(secondIn, BOARD_SIZE - 1);
+
+        // A seed out of the range of long is not a valid request, the player stays connected
+        firstOut.println("reset 99999999999999999999");
+        assertTrue(firstIn.readLine().startsWith("Available Actions:"));
+        TestServer.skipLines(firstIn, 1);
+        firstOut.println("look");
+        assertEquals("- - - - -", firstIn.readLine());
+        TestServer.skipLines(firstIn, BOARD_SIZE - 1);
+
+        first.close();
+        second.close();
+    }
+
+    @Test(timeout = 10000)
+    // Reset not allowed (the default): refused, board not changed
+    public void testResetNotAllowed() throws IOException {
+        int port = TestServer.randomPort();
+        Thread server = startServer(port);
+
+        Socket player = TestServer.connect(server, port);
+        BufferedReader playerIn = new BufferedReader(new InputStreamReader(player.getInputStream()));
+        PrintWriter playerOut = new PrintWriter(player.getOutputStream(), true);
+        assertTrue(playerIn.readLine().startsWith("Welcome to Minesweeper."));
+
+        playerOut.println("flag 0 0");
+        assertEquals("F - - - -", playerIn.readLine());
+        TestServer.skipLines(playerIn, BOARD_SIZE - 1);
+        playerOut.println("reset");
+        assertEquals("Reset is not allowed on this server", playerIn.readLine());
+        playerOut.println("look");
+        assertEquals("F - - - -", playerIn.readLine());
+        TestServer.skipLines(playerIn, BOARD_SIZE - 1);
+
+        player.close();
+    }
+
+    /**
+     * Starts a server in a daemon thread
+     * @param port the port it listens on
+     * @param options more command-line options
+     * @return Thread the thread of the server
+     */
+    private static Thread startServer(int port, String... options) {
+        List<String> args = new ArrayList<>(List.of(
+                "--debug", "--port", Integer.toString(port), "--size", BOARD_SIZE + "," + BOARD_SIZE));
+        args.addAll(List.of(options));
+        return TestServer.start(args.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,110 @@
+package minesweeper.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+
+import minesweeper.Board;
+
+/**
+ * This Class is a micro-benchmark comparing the reply path of the server before (auto-flush PrintWriter,
+ *  one String per reply) and after (ResponseWriter, pre-encoded bytes, coalesced pipelined replies)
+ * Run it as a plain Java program (it is not a test): java minesweeper.server.ResponseWriterBenchmark
+ */
+public class ResponseWriterBenchmark {
+
+    //Constants:
+    private static final int BOARD_SIZE = 40;
+    private static final int PIPELINE_DEPTH = 8; // Commands received together by the server
+    private static final int COMMANDS = 200_000;
+
+    /**
+     * Counts the calls and bytes reaching the stream, where a socket would make one syscall per write
+     */
+    private static class CountingOutputStream extends OutputStream {
+        private long writes = 0;
+        private long bytes = 0;
+
+        @Override
+        public void write(int b) {
+            writes += 1;
+            bytes += 1;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            writes += 1;
+            bytes += len;
+        }
+    }
+
+    /**
+     * Runs both reply paths twice (the first run warms up) and prints what one command costs
+     *
+     * @param args Unused
+     * @throws IOException never, the streams are in memory
+     */
+    public static void main(String[] args) throws IOException {
+        Board board = new Board(BOARD_SIZE, BOARD_SIZE, Board.CheckLevel.OFF);
+        byte[] boom = ResponseWriter.encode("BOOM!\r\n");
+        int round = 0;
+        while (round < 2){
+            // Before: every reply is a String encoded by the PrintWriter and flushed on its own
+            CountingOutputStream before = new CountingOutputStream();
+            PrintWriter printWriter = new PrintWriter(before, true);
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            int i = 0;
+            while (i < COMMANDS){
+                printWriter.print(i % PIPELINE_DEPTH == 0 ? "BOOM!\r\n" : board.toString());
+                printWriter.flush();
+                i += 1;
+            }
+            report("before", before, System.nanoTime() - start, allocatedBytes() - allocatedBefore);
+
+            // After: replies are bytes, flushed once per batch of pipelined commands
+            CountingOutputStream after = new CountingOutputStream();
+            ResponseWriter responseWriter = new ResponseWriter(after);
+            allocatedBefore = allocatedBytes();
+            start = System.nanoTime();
+            i = 0;
+            while (i < COMMANDS){
+                responseWriter.write(i % PIPELINE_DEPTH == 0 ? boom : board.toBytes());
+                if ((i + 1) % PIPELINE_DEPTH == 0){
+                    responseWriter.flush();
+                }
+                i += 1;
+            }
+            responseWriter.flush();
+            report("after", after, System.nanoTime() - start, allocatedBytes() - allocatedBefore);
+            round += 1;
+        }
+    }
+
+    /**
+     * Prints the cost of one command
+     *
+     * @param name The name of the reply path
+     * @param stream Where the replies were written
+     * @param nanos The time taken by all commands
+     * @param allocated The bytes allocated by all commands (copies made on the way to the stream)
+     */
+    private static void report(String name, CountingOutputStream stream, long nanos, long allocated) {
+        System.out.printf("%-6s writes/command %.3f, bytes written/command %.1f, "
+                + "bytes allocated/command %.1f, ns/command %.1f%n", name,
+                (double) stream.writes / COMMANDS, (double) stream.bytes / COMMANDS,
+                (double) allocated / COMMANDS, (double) nanos / COMMANDS);
+    }
+
+    /**
+     * @return long The bytes allocated by this thread so far, -1 if the JVM does not tell
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean){
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,58 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * This Class provides a test suite for ResponseWriter.java
+ */
+public class ResponseWriterTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Replies smaller than the buffer are coalesced into one write on flush()
+     *  - A reply bigger than the buffer is written without being coalesced
+     *  - Part of an array is written as given, close() flushes it
+     */
+
+    @Test
+    // Replies smaller than the buffer are coalesced into one write on flush()
+    public void testCoalesced() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ResponseWriter writer = new ResponseWriter(stream, 64);
+        writer.write(ResponseWriter.encode("BOOM!\r\n"));
+        writer.write(ResponseWriter.encode("- -\r\n"));
+        assertEquals(0, stream.size());
+        writer.flush();
+        assertEquals("BOOM!\r\n- -\r\n", stream.toString("US-ASCII"));
+        assertEquals(1, writer.writeCalls());
+        assertEquals(12, writer.bytesWritten());
+    }
+
+    @Test
+    // A reply bigger than the buffer is written without being coalesced
+    public void testBigReply() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ResponseWriter writer = new ResponseWriter(stream, 4);
+        writer.write(ResponseWriter.encode("ab"));
+        writer.write(ResponseWriter.encode("cdefgh"));
+        writer.flush();
+        assertEquals("abcdefgh", stream.toString("US-ASCII"));
+        assertEquals(2, writer.writeCalls());
+    }
+
+    @Test
+    // Part of an array is written as given, close() flushes it
+    public void testPartOfArray() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ResponseWriter writer = new ResponseWriter(stream, 4);
+        writer.write(ResponseWriter.encode("abcdefghij"), 2, 3);
+        writer.close();
+        assertEquals("cde", stream.toString("US-ASCII"));
+        assertEquals(3, writer.bytesWritten());
+    }
+}
@@ -0,0 +1,132 @@
+package minesweeper.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import minesweeper.Board;
+
+/**
+ * This Class is a benchmark of the latency of small commands while another player's dig reveals
+ *  a huge area, the dig holding the lock of the board for its whole flood-fill or only for slices of it
+ *  (as the server does with --reveal-slice)
+ * Run it as a plain Java program (it is not a test): java minesweeper.server.RevealLatencyBenchmark
+ */
+public class RevealLatencyBenchmark {
+
+    //Constants:
+    private static final int BOARD_SIZE = 1000;
+    private static final int DIGS = 5; // Huge reveals per run, each on a fresh board
+    private static final int CLIENT_THREADS = 8;
+    private static final int[] SLICES = {0, 100_000, 10_000, 1_000}; // 0 for an unsliced dig
+
+    /**
+     * Runs every slice size twice (the first round warms up)
+     *
+     * @param args Unused
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int round = 0;
+        while (round < 2){
+            for (int slice : SLICES){
+                String result = run(slice);
+                if (round == 1){
+                    System.out.println((slice == 0 ? "unsliced" : "slices of " + slice + " cells") + ": " + result);
+                }
+            }
+            round += 1;
+        }
+    }
+
+    /**
+     * Digs huge areas while client threads flag, deflag and look at small boards sharing its lock
+     *
+     * @param slice The number of cells revealed per slice, 0 to reveal in one go
+     * @return String The duration of the digs and the latency percentiles of the small commands
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    private static String run(int slice) throws InterruptedException {
+        LatencyHistogram latencies = new LatencyHistogram();
+        AtomicBoolean digging = new AtomicBoolean(true);
+        Object lock = new Object(); // The lock of the game, held around each command as by the server
+        Board[] boards = new Board[1];
+        boards[0] = emptyBoard();
+        List<Thread> clients = new ArrayList<>();
+        int t = 0;
+        while (t < CLIENT_THREADS){
+            int client = t;
+            Thread thread = new Thread(() -> {
+                while (digging.get()){
+                    long begin = System.nanoTime();
+                    synchronized (lock) {
+                        Board board = boards[0];
+                        board.flag(BOARD_SIZE - 1, client);
+                        board.deflag(BOARD_SIZE - 1, client);
+                        board.numRevealed();
+                    }
+                    latencies.record(System.nanoTime() - begin);
+                    Thread.yield();
+                }
+            });
+            thread.start();
+            clients.add(thread);
+            t += 1;
+        }
+        long digNanos = 0;
+        int d = 0;
+        while (d < DIGS){
+            Board board = boards[0];
+            long begin = System.nanoTime();
+            if (slice == 0){
+                synchronized (lock) {
+                    board.dig(0, 0);
+                }
+            }
+            else{
+                Board.Reveal reveal;
+                synchronized (lock) {
+                    reveal = board.startDig(0, 0);
+                }
+                boolean done = false;
+                while (!done){
+                    synchronized (lock) {
+                        done = board.continueDig(reveal, slice);
+                    }
+                    Thread.yield();
+                }
+            }
+            digNanos += System.nanoTime() - begin;
+            Board next = emptyBoard();
+            synchronized (lock) {
+                boards[0] = next;
+            }
+            d += 1;
+        }
+        digging.set(false);
+        for (Thread thread : clients){
+            thread.join();
+        }
+        return "dig " + digNanos / DIGS / 1_000_000 + " ms, " + latencies.count() + " small commands, p50 "
+                + latencies.percentile(50) / 1000 + "us p99 " + latencies.percentile(99) / 1000
+                + "us max " + latencies.max() / 1000 + "us";
+    }
+
+    /**
+     * @return Board A board with a single bomb, in its last corner, so digging (0,0) reveals all the rest
+     */
+    private static Board emptyBoard() {
+        Board board = new Board(BOARD_SIZE, BOARD_SIZE, 1L, Board.CheckLevel.OFF);
+        int x = 0;
+        while (x < BOARD_SIZE){
+            int y = 0;
+            while (y < BOARD_SIZE){
+                board.unbombIt(x, y);
+                y += 1;
+            }
+            x += 1;
+        }
+        board.bombIt(BOARD_SIZE - 1, BOARD_SIZE - 1);
+        return board;
+    }
+}
@@ -0,0 +1,71 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * This Class provides a test suite for ServerMetrics.java and LatencyHistogram.java
+ */
+public class ServerMetricsTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - LatencyHistogram: empty, one sample, many samples (percentiles within a factor of 2)
+     *  - ServerMetrics: connection gauge goes up and down, report lists every command recorded
+     */
+
+    @Test
+    // Empty histogram reports zeros
+    public void testHistogramEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(99));
+        assertEquals(0, histogram.max());
+    }
+
+    @Test
+    // One sample is every percentile
+    public void testHistogramOneSample() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000);
+        assertEquals(1, histogram.count());
+        assertEquals(1000, histogram.sum());
+        assertEquals(1000, histogram.percentile(50));
+        assertEquals(1000, histogram.max());
+    }
+
+    @Test
+    // Percentiles of 1..1000 are within a factor of 2
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int i = 1;
+        while (i <= 1000){
+            histogram.record(i);
+            i += 1;
+        }
+        assertTrue(histogram.percentile(50) >= 500 && histogram.percentile(50) <= 1000);
+        assertTrue(histogram.percentile(99) >= 990 && histogram.percentile(99) <= 1000);
+        assertEquals(1000, histogram.max());
+    }
+
+    @Test
+    // Connections go up and down, commands show up in the report
+    public void testReport() {
+        ServerMetrics metrics = new ServerMetrics();
+        assertEquals(1, metrics.connectionOpened());
+        assertEquals(2, metrics.connectionOpened());
+        metrics.connectionClosed(10);
+        metrics.command("dig", 5000);
+        metrics.command("look", 3000);
+        metrics.command("look", 3000);
+        metrics.revealed(7);
+        assertEquals(1, metrics.getActiveConnections());
+        assertEquals(2, metrics.getTotalConnections());
+        assertEquals(3, metrics.getCommandCount());
+        assertEquals(7, metrics.getLargestReveal());
+        String report = metrics.getReport();
+        assertTrue(report.contains("Command dig: count 1"));
+        assertTrue(report.contains("Command look: count 2"));
+    }
+}
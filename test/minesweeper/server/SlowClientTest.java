@@ -0,0 +1,135 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * This Class tests that clients which stop reading do not hurt the others
+ */
+public class SlowClientTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Stalled readers flood 'look' on a big board without reading any reply
+     *  - Meanwhile a fair client keeps getting its replies quickly
+     *  - The stalled readers are disconnected once over their limit for longer than the timeout
+     *  - A stalled subscriber, sent pushes that never wait for room (its subscribed cells, their changes),
+     *    is disconnected as soon as its queue overflows, long before the timeout
+     */
+
+    private static final int PORT = TestServer.randomPort();
+    private static final int BOARD_SIZE = 150; // 45 KB per frame
+    private static final int STALLED_CLIENTS = 3;
+    private static final int FAIR_LOOKS = 30;
+    private static final long MAX_FAIR_LATENCY_MILLIS = 2000;
+
+    @Test(timeout = 30000)
+    public void testStalledReadersDisconnected() throws IOException, InterruptedException {
+        Thread server = TestServer.start(
+                "--debug", "--port", Integer.toString(PORT), "--size", BOARD_SIZE + "," + BOARD_SIZE,
+                "--max-queue", "16384", "--slow-timeout", "300");
+
+        // Stalled readers: send 'look' until the server cuts them, never read
+        List<Thread> stalled = new ArrayList<>();
+        int i = 0;
+        while (i < STALLED_CLIENTS){
+            Socket socket = TestServer.connect(server, PORT, 4096);
+            Thread flooder = new Thread(() -> {
+                try (OutputStream out = socket.getOutputStream()) {
+                    byte[] look = "look\n".getBytes(StandardCharsets.US_ASCII);
+                    while (true) {
+                        out.write(look);
+                    }
+                } catch (IOException ioe) {
+                    // Disconnected by the server, as expected
+                }
+            });
+            flooder.start();
+            stalled.add(flooder);
+            i += 1;
+        }
+
+        // Fair client: its latency must not depend on the stalled ones
+        Socket socket = TestServer.connect(server, PORT);
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+        assertTrue(in.readLine().startsWith("Welcome to Minesweeper."));
+        long worst = 0;
+        i = 0;
+        while (i < FAIR_LOOKS){
+            long start = System.nanoTime();
+            out.println("look");
+            int line = 0;
+            while (line < BOARD_SIZE){
+                assertNotNull(in.readLine());
+                line += 1;
+            }
+            worst = Math.max(worst, (System.nanoTime() - start) / 1_000_000);
+            Thread.sleep(20);
+            i += 1;
+        }
+        assertTrue("fair client waited " + worst + " ms", worst < MAX_FAIR_LATENCY_MILLIS);
+
+        for (Thread flooder : stalled){
+            flooder.join(10000);
+            assertFalse("stalled client still connected", flooder.isAlive());
+        }
+        out.println("stats");
+        String connections = in.readLine();
+        assertTrue(connections, connections.contains("slow clients disconnected " + STALLED_CLIENTS));
+        socket.close();
+    }
+
+    @Test(timeout = 30000)
+    public void testStalledSubscriberOverflows() throws IOException, InterruptedException {
+        int port = TestServer.randomPort();
+        // The timeout is beyond the test's: only the overflow can disconnect the subscriber in time
+        Thread server = TestServer.start(
+                "--debug", "--port", Integer.toString(port), "--size", BOARD_SIZE + "," + BOARD_SIZE,
+                "--max-queue", "16384", "--slow-timeout", "60000");
+
+        // Stalled subscriber: subscribes to the whole board again and again, never reads
+        Socket subscriber = TestServer.connect(server, port, 4096);
+        Thread flooder = new Thread(() -> {
+            try (OutputStream out = subscriber.getOutputStream()) {
+                byte[] subscribe = ("subscribe 0 0 " + BOARD_SIZE + " " + BOARD_SIZE + "\n")
+                        .getBytes(StandardCharsets.US_ASCII);
+                while (true) {
+                    out.write(subscribe);
+                }
+            } catch (IOException ioe) {
+                // Disconnected by the server, as expected
+            }
+        });
+        flooder.start();
+
+        // Another player changes cells of the viewport, each change pushed to the subscriber
+        Socket socket = TestServer.connect(server, port);
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+        assertTrue(in.readLine().startsWith("Welcome to Minesweeper."));
+        int x = 0;
+        while (flooder.isAlive() && x < BOARD_SIZE){
+            out.println("flag " + x + " 0");
+            TestServer.skipLines(in, BOARD_SIZE);
+            x += 1;
+        }
+        flooder.join(10000);
+        assertFalse("stalled subscriber still connected", flooder.isAlive());
+        out.println("stats");
+        String connections = in.readLine();
+        assertTrue(connections, connections.contains("slow clients disconnected 1"));
+        socket.close();
+    }
+}
@@ -0,0 +1,82 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+
+import org.junit.Test;
+
+/**
+ * This Class tests the 'watch' command of MinesweeperServer
+ */
+public class SpectatorTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - A spectator gets the board when it starts watching, then after each change made by a player
+     *  - A spectator cannot change the board
+     *  - Every spectator gets the frame, which is rendered once per change
+     */
+
+    private static final int PORT = TestServer.randomPort();
+    private static final int BOARD_SIZE = 5;
+
+    @Test(timeout = 10000)
+    public void testSpectators() throws IOException {
+        Thread server = TestServer.start(
+                "--debug", "--port", Integer.toString(PORT), "--size", BOARD_SIZE + "," + BOARD_SIZE);
+
+        Socket first = TestServer.connect(server, PORT);
+        BufferedReader firstIn = new BufferedReader(new InputStreamReader(first.getInputStream()));
+        PrintWriter firstOut = new PrintWriter(first.getOutputStream(), true);
+        assertTrue(firstIn.readLine().startsWith("Welcome to Minesweeper."));
+        Socket second = TestServer.connect(server, PORT);
+        BufferedReader secondIn = new BufferedReader(new InputStreamReader(second.getInputStream()));
+        PrintWriter secondOut = new PrintWriter(second.getOutputStream(), true);
+        assertTrue(secondIn.readLine().startsWith("Welcome to Minesweeper."));
+        Socket player = TestServer.connect(server, PORT);
+        BufferedReader playerIn = new BufferedReader(new InputStreamReader(player.getInputStream()));
+        PrintWriter playerOut = new PrintWriter(player.getOutputStream(), true);
+        assertTrue(playerIn.readLine().startsWith("Welcome to Minesweeper."));
+
+        // Spectators get the board when they start watching
+        firstOut.println("watch");
+        assertTrue(firstIn.readLine().startsWith("Watching"));
+        assertEquals("- - - - -", firstIn.readLine());
+        TestServer.skipLines(firstIn, BOARD_SIZE - 1);
+        secondOut.println("watch");
+        assertTrue(secondIn.readLine().startsWith("Watching"));
+        TestServer.skipLines(secondIn, BOARD_SIZE);
+
+        // A spectator cannot change the board
+        firstOut.println("flag 0 0");
+        assertEquals("Spectators cannot change the board", firstIn.readLine());
+
+        // The player's change reaches every spectator
+        playerOut.println("flag 0 0");
+        assertEquals("F - - - -", playerIn.readLine());
+        TestServer.skipLines(playerIn, BOARD_SIZE - 1);
+        assertEquals("F - - - -", firstIn.readLine());
+        TestServer.skipLines(firstIn, BOARD_SIZE - 1);
+        assertEquals("F - - - -", secondIn.readLine());
+        TestServer.skipLines(secondIn, BOARD_SIZE - 1);
+
+        // Two versions so far, each rendered once for all replies and pushes
+        playerOut.println("look");
+        TestServer.skipLines(playerIn, BOARD_SIZE);
+        playerOut.println("stats");
+        String frames = "";
+        while (!frames.startsWith("Frames:")){
+            frames = playerIn.readLine();
+        }
+        assertTrue(frames, frames.startsWith("Frames: rendered 2, spectators 2, pushed 4"));
+
+        first.close();
+        second.close();
+        player.close();
+    }
+}
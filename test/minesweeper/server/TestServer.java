@@ -0,0 +1,98 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Random;
+
+/**
+ * This Class starts servers for the tests of this package and connects their clients
+ */
+final class TestServer {
+
+    private static final String LOCALHOST = "127.0.0.1";
+    private static final int MAX_CONNECTION_ATTEMPTS = 10;
+
+    private TestServer() {
+    }
+
+    /**
+     * @return int a port for a server started by a test, picked at random so tests do not collide,
+     *          below the ephemeral ports of clients' sockets (from 32768 on Linux), and so is the next one
+     */
+    static int randomPort() {
+        return 4000 + new Random().nextInt(28000);
+    }
+
+    /**
+     * Starts a server in a daemon thread
+     * @param args the command-line arguments of the server
+     * @return Thread the thread of the server
+     */
+    static Thread start(String... args) {
+        Thread server = new Thread(() -> MinesweeperServer.main(args));
+        server.setDaemon(true);
+        server.start();
+        return server;
+    }
+
+    /**
+     * Connect to a server started by a test
+     * @param server abort connection attempts if the server thread dies
+     * @param port the port of the server
+     * @return socket connected to the server
+     * @throws IOException if the connection fails
+     */
+    static Socket connect(Thread server, int port) throws IOException {
+        return connect(server, port, 0);
+    }
+
+    /**
+     * Connect to a server started by a test
+     * @param server abort connection attempts if the server thread dies
+     * @param port the port of the server
+     * @param receiveBuffer receive buffer size of the client socket, 0 for the default
+     * @return socket connected to the server
+     * @throws IOException if the connection fails
+     */
+    static Socket connect(Thread server, int port, int receiveBuffer) throws IOException {
+        int attempts = 0;
+        while (true) {
+            try {
+                Socket socket = new Socket();
+                if (receiveBuffer > 0) {
+                    socket.setReceiveBufferSize(receiveBuffer);
+                }
+                socket.connect(new InetSocketAddress(LOCALHOST, port));
+                socket.setSoTimeout(5000);
+                return socket;
+            } catch (ConnectException ce) {
+                if ( ! server.isAlive()) {
+                    throw new IOException("Server thread not running");
+                }
+                if (++attempts > MAX_CONNECTION_ATTEMPTS) {
+                    throw new IOException("Exceeded max connection attempts", ce);
+                }
+                try { Thread.sleep(attempts * 10); } catch (InterruptedException ie) { }
+            }
+        }
+    }
+
+    /**
+     * Reads lines and ignores them
+     * @param in where to read
+     * @param lines how many lines
+     * @throws IOException if the connection fails or ends before
+     */
+    static void skipLines(BufferedReader in, int lines) throws IOException {
+        int line = 0;
+        while (line < lines){
+            assertNotNull(in.readLine());
+            line += 1;
+        }
+    }
+}
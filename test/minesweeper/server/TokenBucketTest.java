@@ -0,0 +1,93 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * This Class provides a test suite for TokenBucket.java
+ */
+public class TokenBucketTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - Full bucket: a burst of rate tokens, then empty
+     *  - Refill: one token per interval, never more than the capacity after a long quiet period
+     *  - Unlimited bucket (rate 0): always a token
+     *  - Threads taking tokens at once: exactly the capacity is taken
+     */
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    // Full bucket: a burst of rate tokens, then empty
+    public void testBurst() {
+        TokenBucket bucket = new TokenBucket(5, 0);
+        int i = 0;
+        while (i < 5){
+            assertTrue(bucket.tryAcquire(0));
+            i += 1;
+        }
+        assertFalse(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(SECOND / 5 - 1));
+    }
+
+    @Test
+    // Refill: one token per interval, never more than the capacity after a long quiet period
+    public void testRefill() {
+        TokenBucket bucket = new TokenBucket(10, 0);
+        int i = 0;
+        while (i < 10){
+            assertTrue(bucket.tryAcquire(0));
+            i += 1;
+        }
+        assertTrue(bucket.tryAcquire(SECOND / 10));
+        assertFalse(bucket.tryAcquire(SECOND / 10));
+        long later = 100 * SECOND;
+        i = 0;
+        while (i < 10){
+            assertTrue(bucket.tryAcquire(later));
+            i += 1;
+        }
+        assertFalse(bucket.tryAcquire(later));
+    }
+
+    @Test
+    // Unlimited bucket (rate 0): always a token
+    public void testUnlimited() {
+        TokenBucket bucket = new TokenBucket(0, 0);
+        int i = 0;
+        while (i < 100_000){
+            assertTrue(bucket.tryAcquire(0));
+            i += 1;
+        }
+    }
+
+    @Test
+    // Threads taking tokens at once: exactly the capacity is taken
+    public void testConcurrent() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1000, 0);
+        AtomicInteger taken = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        int t = 0;
+        while (t < threads.length){
+            threads[t] = new Thread(() -> {
+                int i = 0;
+                while (i < 1000){
+                    if (bucket.tryAcquire(0)){
+                        taken.incrementAndGet();
+                    }
+                    i += 1;
+                }
+            });
+            threads[t].start();
+            t += 1;
+        }
+        for (Thread thread : threads){
+            thread.join();
+        }
+        assertEquals(1000, taken.get());
+    }
+}
@@ -0,0 +1,128 @@
+package minesweeper.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * This Class is a benchmark of routing cell changes to subscribers: ViewportIndex, against testing every
+ *  changed cell against every viewport (what the server would do without an index)
+ *  Subscribers look at scattered square viewports of a large board, changes are random cells
+ * Run it as a plain Java program (it is not a test): java minesweeper.server.ViewportBenchmark
+ */
+public class ViewportBenchmark {
+
+    //Constants:
+    private static final int BOARD_SIZE = 10_000;
+    private static final int VIEWPORT_SIZE = 50;
+    private static final int[] SUBSCRIBERS = {100, 1_000, 10_000};
+    private static final int CHANGES = 200_000;
+    private static final int CHANGES_PER_DRAIN = 100; // About one command's worth of changes
+
+    /**
+     * Runs both routings at every number of subscribers, twice (the first round warms up)
+     *
+     * @param args Unused
+     */
+    public static void main(String[] args) {
+        int round = 0;
+        while (round < 2){
+            for (int subscribers : SUBSCRIBERS){
+                Random random = new Random(subscribers);
+                int[][] rectangles = new int[subscribers][];
+                int s = 0;
+                while (s < subscribers){
+                    rectangles[s] = new int[] {random.nextInt(BOARD_SIZE - VIEWPORT_SIZE),
+                            random.nextInt(BOARD_SIZE - VIEWPORT_SIZE)};
+                    s += 1;
+                }
+                int[] changes = new int[2 * CHANGES];
+                int c = 0;
+                while (c < changes.length){
+                    changes[c] = random.nextInt(BOARD_SIZE);
+                    c += 1;
+                }
+                long[] indexed = indexed(rectangles, changes);
+                long[] scanned = scanned(rectangles, changes);
+                if (indexed[1] != scanned[1]){
+                    throw new IllegalStateException("routed " + indexed[1] + " changes, not " + scanned[1]);
+                }
+                if (round == 1){
+                    System.out.printf("%d subscribers: index %.1f ms, scan %.1f ms, %d changes routed%n",
+                            subscribers, indexed[0] / 1e6, scanned[0] / 1e6, indexed[1]);
+                }
+            }
+            round += 1;
+        }
+    }
+
+    /**
+     * Routes the changes with a ViewportIndex
+     *
+     * @param rectangles The upper-left cell of each subscriber's viewport
+     * @param changes The x and y of each changed cell, one after the other
+     * @return long[] The time taken in nanoseconds, and the number of changes routed
+     */
+    private static long[] indexed(int[][] rectangles, int[] changes) {
+        long start = System.nanoTime();
+        ViewportIndex<Integer> index = new ViewportIndex<>(BOARD_SIZE, BOARD_SIZE);
+        int s = 0;
+        while (s < rectangles.length){
+            index.subscribe(s, rectangles[s][0], rectangles[s][1], VIEWPORT_SIZE, VIEWPORT_SIZE);
+            s += 1;
+        }
+        long routed = 0;
+        int c = 0;
+        while (c < changes.length){
+            index.cellChanged(changes[c], changes[c + 1], "F");
+            c += 2;
+            if (c % (2 * CHANGES_PER_DRAIN) == 0){
+                for (Map.Entry<Integer, String> drained : index.drain()){
+                    routed += drained.getValue().split(" ").length - 1;
+                }
+            }
+        }
+        return new long[] {System.nanoTime() - start, routed};
+    }
+
+    /**
+     * Routes the changes by testing each against every viewport
+     *
+     * @param rectangles The upper-left cell of each subscriber's viewport
+     * @param changes The x and y of each changed cell, one after the other
+     * @return long[] The time taken in nanoseconds, and the number of changes routed
+     */
+    private static long[] scanned(int[][] rectangles, int[] changes) {
+        long start = System.nanoTime();
+        StringBuilder[] lines = new StringBuilder[rectangles.length];
+        List<Integer> dirty = new ArrayList<>();
+        long routed = 0;
+        int c = 0;
+        while (c < changes.length){
+            int x = changes[c];
+            int y = changes[c + 1];
+            int s = 0;
+            while (s < rectangles.length){
+                if (x >= rectangles[s][0] && x < rectangles[s][0] + VIEWPORT_SIZE
+                        && y >= rectangles[s][1] && y < rectangles[s][1] + VIEWPORT_SIZE){
+                    if (lines[s] == null){
+                        lines[s] = new StringBuilder("Changed:");
+                        dirty.add(s);
+                    }
+                    lines[s].append(' ').append(x).append(',').append(y).append("=F");
+                }
+                s += 1;
+            }
+            c += 2;
+            if (c % (2 * CHANGES_PER_DRAIN) == 0){
+                for (int d : dirty){
+                    routed += lines[d].append("\r\n").toString().split(" ").length - 1;
+                    lines[d] = null;
+                }
+                dirty.clear();
+            }
+        }
+        return new long[] {System.nanoTime() - start, routed};
+    }
+}
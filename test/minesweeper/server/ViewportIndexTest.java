@@ -0,0 +1,82 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * This Class provides a test suite for ViewportIndex.java
+ */
+public class ViewportIndexTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - cellChanged(): routed only to the viewports containing the cell, whether they share its bucket or not,
+     *    viewports spanning several buckets, cells on the edges of a viewport, cells of no viewport
+     *  - drain(): one line per subscriber with changes, in order, nothing left afterwards
+     *  - subscribe() again: the new rectangle replaces the old one, its pending changes dropped
+     *  - unsubscribe(): nothing routed anymore, subscribed or not
+     *  - boardReset(): pending changes dropped, viewports kept
+     */
+
+    @Test
+    // cellChanged(): routed only to the viewports containing the cell
+    public void testRouting() {
+        ViewportIndex<String> index = new ViewportIndex<>(300, 200);
+        index.subscribe("corner", 0, 0, 2, 2);
+        index.subscribe("near", 1, 1, 3, 3); // Same bucket as corner, overlapping it
+        index.subscribe("wide", 60, 10, 80, 1); // Three buckets along x
+        index.subscribe("far", 299, 199, 1, 1);
+        assertEquals(4, index.size());
+
+        index.cellChanged(0, 0, "F");
+        index.cellChanged(1, 1, "2");
+        index.cellChanged(3, 3, " ");
+        index.cellChanged(5, 5, "-"); // In no viewport
+        index.cellChanged(139, 10, "1");
+        index.cellChanged(140, 10, "1"); // Just outside wide
+        index.cellChanged(299, 199, "F");
+
+        List<Map.Entry<String, String>> drained = index.drain();
+        assertEquals(4, drained.size());
+        assertEquals(Map.entry("corner", "Changed: 0,0=F 1,1=2\r\n"), drained.get(0));
+        assertEquals(Map.entry("near", "Changed: 1,1=2 3,3= \r\n"), drained.get(1));
+        assertEquals(Map.entry("wide", "Changed: 139,10=1\r\n"), drained.get(2));
+        assertEquals(Map.entry("far", "Changed: 299,199=F\r\n"), drained.get(3));
+        assertTrue(index.drain().isEmpty());
+    }
+
+    @Test
+    // subscribe() again and unsubscribe(): the old rectangle forgotten, its pending changes dropped
+    public void testResubscribeUnsubscribe() {
+        ViewportIndex<String> index = new ViewportIndex<>(100, 100);
+        index.subscribe("moving", 0, 0, 10, 10);
+        index.subscribe("leaving", 0, 0, 10, 10);
+        index.cellChanged(5, 5, "F");
+        index.subscribe("moving", 90, 90, 10, 10);
+        assertTrue(index.unsubscribe("leaving"));
+        assertFalse(index.unsubscribe("leaving"));
+        assertFalse(index.unsubscribe("stranger"));
+        assertEquals(1, index.size());
+        assertTrue(index.drain().isEmpty());
+
+        index.cellChanged(5, 5, "-");
+        index.cellChanged(95, 95, "3");
+        assertEquals(List.of(Map.entry("moving", "Changed: 95,95=3\r\n")), index.drain());
+    }
+
+    @Test
+    // boardReset(): pending changes dropped, viewports kept
+    public void testBoardReset() {
+        ViewportIndex<String> index = new ViewportIndex<>(10, 10);
+        index.subscribe("player", 0, 0, 10, 10);
+        index.cellChanged(1, 2, "F");
+        index.boardReset();
+        assertTrue(index.drain().isEmpty());
+        index.cellChanged(2, 1, "4");
+        assertEquals(List.of(Map.entry("player", "Changed: 2,1=4\r\n")), index.drain());
+    }
+}
@@ -0,0 +1,92 @@
+package minesweeper.server;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+
+import org.junit.Test;
+
+/**
+ * This Class tests the 'subscribe' and 'unsubscribe' commands of MinesweeperServer
+ */
+public class ViewportTest {
+
+    /*
+     * OVERALL TESTING STRATEGY:
+     *  - A subscriber gets the cells of its rectangle, then only the changes of those cells, made by others
+     *    or by itself, after the replies to its own commands
+     *  - Rectangle cut at the edge of the board, rectangle outside the board, numbers out of the range of int
+     *  - Subscribing again moves the viewport, unsubscribing stops the changes
+     */
+
+    private static final int PORT = TestServer.randomPort();
+    private static final int BOARD_SIZE = 5;
+
+    @Test(timeout = 10000)
+    public void testViewports() throws IOException {
+        Thread server = TestServer.start(
+                "--debug", "--port", Integer.toString(PORT), "--size", BOARD_SIZE + "," + BOARD_SIZE);
+
+        Socket subscriber = TestServer.connect(server, PORT);
+        BufferedReader subscriberIn = new BufferedReader(new InputStreamReader(subscriber.getInputStream()));
+        PrintWriter subscriberOut = new PrintWriter(subscriber.getOutputStream(), true);
+        assertTrue(subscriberIn.readLine().startsWith("Welcome to Minesweeper."));
+        Socket player = TestServer.connect(server, PORT);
+        BufferedReader playerIn = new BufferedReader(new InputStreamReader(player.getInputStream()));
+        PrintWriter playerOut = new PrintWriter(player.getOutputStream(), true);
+        assertTrue(playerIn.readLine().startsWith("Welcome to Minesweeper."));
+
+        // The rectangle is cut at the edge of the board
+        subscriberOut.println("subscribe 3 0 9 2");
+        assertEquals("Subscribed: 3 0 2 2", subscriberIn.readLine());
+        assertEquals("- -", subscriberIn.readLine());
+        assertEquals("- -", subscriberIn.readLine());
+        subscriberOut.println("subscribe 5 0 1 1");
+        assertEquals("No cell in 5 0 1 1", subscriberIn.readLine());
+        // A number out of the range of int is not a valid request, the client stays connected
+        subscriberOut.println("subscribe 0 0 9999999999 1");
+        assertTrue(subscriberIn.readLine().startsWith("Available Actions:"));
+        TestServer.skipLines(subscriberIn, 1);
+        playerOut.println("dig 0 99999999999");
+        assertTrue(playerIn.readLine().startsWith("Available Actions:"));
+        TestServer.skipLines(playerIn, 1);
+
+        // Only the changes of the rectangle are pushed, after the reply of the player
+        playerOut.println("flag 0 0");
+        TestServer.skipLines(playerIn, BOARD_SIZE);
+        playerOut.println("flag 4 1");
+        TestServer.skipLines(playerIn, BOARD_SIZE);
+        assertEquals("Changed: 4,1=F", subscriberIn.readLine());
+
+        // A subscriber's own changes come after its reply
+        subscriberOut.println("flag 3 0");
+        assertEquals("F - - F -", subscriberIn.readLine());
+        TestServer.skipLines(subscriberIn, BOARD_SIZE - 1);
+        assertEquals("Changed: 3,0=F", subscriberIn.readLine());
+
+        // Subscribing again moves the viewport
+        subscriberOut.println("subscribe 0 0 1 1");
+        assertEquals("Subscribed: 0 0 1 1", subscriberIn.readLine());
+        assertEquals("F", subscriberIn.readLine());
+        playerOut.println("deflag 4 1");
+        TestServer.skipLines(playerIn, BOARD_SIZE);
+        playerOut.println("deflag 0 0");
+        TestServer.skipLines(playerIn, BOARD_SIZE);
+        assertEquals("Changed: 0,0=-", subscriberIn.readLine());
+
+        // No change after unsubscribing
+        subscriberOut.println("unsubscribe");
+        assertEquals("Unsubscribed", subscriberIn.readLine());
+        playerOut.println("flag 0 0");
+        TestServer.skipLines(playerIn, BOARD_SIZE);
+        subscriberOut.println("status");
+        assertFalse(subscriberIn.readLine().startsWith("Changed:"));
+
+        subscriber.close();
+        player.close();
+    }
+}